@@ -20,6 +20,7 @@
  */
 package org.jdesktop.swingx.autocomplete;
 
+import javax.swing.ListModel;
 import javax.swing.text.JTextComponent;
 
 /**
@@ -80,6 +81,17 @@ public abstract class AbstractAutoCompleteAdaptor {
      * @return the item at the given <code>index</code>
      */
     public abstract Object getItem(int index);
+
+    /**
+     * Returns the ListModel containing the items, if any. An AutoCompleteIndex
+     * listens to the ListModel to keep in synch with the items. This 
+     * implementation returns null.
+     * @return the ListModel containing the items or null if the items are not 
+     * contained in a ListModel
+     */
+    public ListModel<?> getListModel() {
+        return null;
+    }
     
     /**
      * Returns true if the list contains the currently selected item.
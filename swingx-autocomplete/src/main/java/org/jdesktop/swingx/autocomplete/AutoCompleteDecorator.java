@@ -28,6 +28,7 @@ import java.awt.event.ActionListener;
 import java.awt.event.FocusListener;
 import java.awt.event.KeyListener;
 import java.beans.PropertyChangeListener;
+import java.util.Collections;
 import java.util.List;
 
 import javax.swing.Action;
@@ -127,7 +128,7 @@ public class AutoCompleteDecorator {
      * @param comboBox a combo box
      * @see #decorate(JComboBox, ObjectToStringConverter)
      */
-    public static void decorate(JComboBox comboBox) {
+    public static void decorate(JComboBox<?> comboBox) {
         decorate(comboBox, null);
     }
     
@@ -153,7 +154,28 @@ public class AutoCompleteDecorator {
      * @param stringConverter
      *                the converter used to transform items to strings
      */
-    public static void decorate(JComboBox comboBox, ObjectToStringConverter stringConverter) {
+    public static void decorate(JComboBox<?> comboBox, ObjectToStringConverter stringConverter) {
+        decorate(comboBox, stringConverter, null);
+    }
+    
+    /**
+     * Enables automatic completion for the given JComboBox, using the given 
+     * index to find matching items. The automatic completion will be strict
+     * (only items from the combo box can be selected) if the combo box is not
+     * editable.
+     * 
+     * @param comboBox
+     *                a combo box
+     * @param stringConverter
+     *                the converter used to transform items to strings
+     * @param index
+     *                the index used to find matching items, may be null to 
+     *                iterate over all items
+     * @see #decorate(JComboBox, ObjectToStringConverter)
+     * @see SortedAutoCompleteIndex
+     */
+    public static void decorate(JComboBox<?> comboBox, ObjectToStringConverter stringConverter,
+            AutoCompleteIndex index) {
         undecorate(comboBox);
         
         boolean strictMatching = !comboBox.isEditable();
@@ -167,6 +189,7 @@ public class AutoCompleteDecorator {
         final AbstractAutoCompleteAdaptor adaptor = new ComboBoxAdaptor(comboBox);
         final AutoCompleteDocument document = createAutoCompleteDocument(adaptor, strictMatching,
                 stringConverter, editorComponent.getDocument());
+        document.setIndex(index);
         decorate(editorComponent, document, adaptor);
         
         editorComponent.addKeyListener(new AutoComplete.KeyAdapter(comboBox));
@@ -251,7 +274,7 @@ public class AutoCompleteDecorator {
      * @param textComponent the text component that will be enabled for automatic
      * completion
      */
-    public static void decorate(JList list, JTextComponent textComponent) {
+    public static void decorate(JList<?> list, JTextComponent textComponent) {
         decorate(list, textComponent, null);
     }
     
@@ -264,11 +287,30 @@ public class AutoCompleteDecorator {
      * completion
      * @param stringConverter the converter used to transform items to strings
      */
-    public static void decorate(JList list, JTextComponent textComponent, ObjectToStringConverter stringConverter) {
+    public static void decorate(JList<?> list, JTextComponent textComponent, ObjectToStringConverter stringConverter) {
+        decorate(list, textComponent, stringConverter, null);
+    }
+    
+    /**
+     * Enables automatic completion for the given JTextComponent based on the
+     * items contained in the given JList, using the given index to find 
+     * matching items. The two components will be synchronized. The automatic
+     * completion will always be strict.
+     * @param list a <tt>JList</tt> containing the items for automatic completion
+     * @param textComponent the text component that will be used for automatic
+     * completion
+     * @param stringConverter the converter used to transform items to strings
+     * @param index the index used to find matching items, may be null to 
+     * iterate over all items
+     * @see SortedAutoCompleteIndex
+     */
+    public static void decorate(JList<?> list, JTextComponent textComponent, 
+            ObjectToStringConverter stringConverter, AutoCompleteIndex index) {
         undecorate(list);
         
         AbstractAutoCompleteAdaptor adaptor = new ListAdaptor(list, textComponent, stringConverter);
         AutoCompleteDocument document = createAutoCompleteDocument(adaptor, true, stringConverter, textComponent.getDocument());
+        document.setIndex(index);
         decorate(textComponent, document, adaptor);
     }
 
@@ -308,6 +350,24 @@ public class AutoCompleteDecorator {
         decorate(textComponent, document, adaptor);
     }
     
+    /**
+     * Enables automatic completion for the given JTextComponent based on the
+     * completions of the given provider. The provider is queried 
+     * asynchronously with the typed text, the items are not held in memory.
+     * Matching is not strict.
+     * @param textComponent the text component that will be used for automatic
+     * completion.
+     * @param provider the provider queried for the completions
+     * @param stringConverter the converter used to transform items to strings
+     */
+    public static void decorate(JTextComponent textComponent, CompletionProvider provider,
+            ObjectToStringConverter stringConverter) {
+        AbstractAutoCompleteAdaptor adaptor = new TextComponentAdaptor(textComponent, Collections.emptyList());
+        AutoCompleteDocument document = createAutoCompleteDocument(adaptor, false, stringConverter, textComponent.getDocument());
+        document.setCompletionProvider(provider);
+        decorate(textComponent, document, adaptor);
+    }
+    
     /**
      * Decorates a given text component for automatic completion using the
      * given AutoCompleteDocument and AbstractAutoCompleteAdaptor.
@@ -374,6 +434,10 @@ public class AutoCompleteDecorator {
                 }
             }
             
+            //release the index
+            ((AutoCompleteDocument) doc).setIndex(null);
+            ((AutoCompleteDocument) doc).setCompletionProvider(null);
+            
             //reset to original document
             textComponent.setDocument(((AutoCompleteDocument) doc).delegate);
         }
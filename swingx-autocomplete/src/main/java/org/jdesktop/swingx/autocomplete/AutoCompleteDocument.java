@@ -176,6 +176,17 @@ public class AutoCompleteDocument implements Document {
 
     ObjectToStringConverter stringConverter;
 
+    /**
+     * The index used to find matching items, null to iterate over all items.
+     */
+    private AutoCompleteIndex index;
+
+    /**
+     * The queue querying the completion provider, null to use the items of
+     * the adaptor.
+     */
+    private CompletionQueue completionQueue;
+
     private final Handler handler;
 
     // Note: these comparators do not impose any ordering - e.g. they do not ensure that sgn(compare(x, y)) == -sgn(compare(y, x))
@@ -276,6 +287,10 @@ public class AutoCompleteDocument implements Document {
         // return immediately when selecting an item
         if (selecting) return;
         delegate.remove(offs, len);
+        if (completionQueue != null) {
+            // the text changed, a running query is stale
+            completionQueue.cancel();
+        }
         if (!strictMatching) {
             setSelectedItem(getText(0, getLength()), getText(0, getLength()));
             adaptor.getTextComponent().setCaretPosition(offs);
@@ -296,6 +311,9 @@ public class AutoCompleteDocument implements Document {
             lookupResult = new LookupResult(null, "");
             setSelectedItem(lookupResult.matchingItem, lookupResult.matchingString);
         } else {
+            if (completionQueue != null) {
+                completionQueue.update(pattern);
+            }
             lookupResult = lookupItem(pattern);
         }
 
@@ -330,6 +348,28 @@ public class AutoCompleteDocument implements Document {
         adaptor.markText(offs);
     }
 
+    /**
+     * Completes the text with the completions of the given prefix which
+     * arrived from the completion provider. Does nothing if the text has 
+     * been changed since the prefix was typed.
+     * 
+     * @param prefix the prefix of the query
+     */
+    void completionsAvailable(String prefix) {
+        try {
+            if (getLength() != prefix.length() || !prefix.equals(getText(0, getLength()))) return;
+        } catch (BadLocationException e) {
+            throw new RuntimeException(e.toString());
+        }
+        // the selected item is the typed text, don't prefer it
+        LookupResult lookupResult = lookupItem(null, prefix);
+        if (lookupResult.matchingItem == null) return;
+        setSelectedItem(lookupResult.matchingItem, lookupResult.matchingString);
+        setText(lookupResult.matchingString);
+        // select the completed part
+        adaptor.markText(prefix.length());
+    }
+
     /**
      * Sets the text of this AutoCompleteDocument to the given text.
      *
@@ -366,8 +406,18 @@ public class AutoCompleteDocument implements Document {
      * @return the first item that matches the pattern or <code>null</code> if no item matches
      */
     private LookupResult lookupItem(String pattern) {
-        Object selectedItem = adaptor.getSelectedItem();
+        return lookupItem(adaptor.getSelectedItem(), pattern);
+    }
 
+    /**
+     * Searches for an item that matches the given pattern, preferring the 
+     * given item over other items starting with the pattern.
+     *
+     * @param selectedItem the preferred item, may be null
+     * @param pattern the pattern that should be matched
+     * @return the first item that matches the pattern or <code>null</code> if no item matches
+     */
+    private LookupResult lookupItem(Object selectedItem, String pattern) {
         LookupResult lookupResult;
 
         // first try: case sensitive
@@ -409,6 +459,23 @@ public class AutoCompleteDocument implements Document {
     }
 
     private LookupResult lookupItem(String pattern, Comparator<String> comparator) {
+        if (completionQueue != null) {
+            for (Object currentItem : completionQueue.getCompletions()) {
+                LookupResult result = lookupOneItem(currentItem, pattern, comparator);
+                if (result != null) return result;
+            }
+            return null;
+        }
+        if (index != null) {
+            int i = index.indexOf(pattern, 
+                    comparator == STARTS_WITH || comparator == STARTS_WITH_IGNORE_CASE,
+                    comparator == EQUALS_IGNORE_CASE || comparator == STARTS_WITH_IGNORE_CASE);
+            // the index reflects all changes, there is no match
+            if (i < 0) return null;
+            LookupResult result = lookupOneItem(adaptor.getItem(i), pattern, comparator);
+            // an index which is out of synch falls back to iterating
+            if (result != null) return result;
+        }
         // iterate over all items and return first match
         for (int i = 0, n = adaptor.getItemCount(); i < n; i++) {
             Object currentItem = adaptor.getItem(i);
@@ -547,6 +614,65 @@ public class AutoCompleteDocument implements Document {
         delegate.render(r);
     }
 
+    /**
+     * Sets the index used to find matching items. The index is installed for
+     * this document's adaptor and string converter, a previous index is 
+     * uninstalled. A null index restores the default, which iterates over
+     * all items of the adaptor on every lookup.
+     * 
+     * @param index the index used to find matching items, may be null
+     * @throws IllegalArgumentException if the index can't be installed for
+     *   this document's adaptor, the previous index is kept
+     */
+    public void setIndex(AutoCompleteIndex index) {
+        if (index != null) {
+            index.install(adaptor, stringConverter);
+        }
+        if (this.index != null && this.index != index) {
+            this.index.uninstall();
+        }
+        this.index = index;
+    }
+
+    /**
+     * Returns the index used to find matching items.
+     * 
+     * @return the index used to find matching items or null if all items 
+     * are iterated
+     */
+    public AutoCompleteIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the provider queried for completions of the typed text. The
+     * provider replaces the items of the adaptor (and the index) as source
+     * of matching items. It is queried asynchronously, the text is completed
+     * when the completions arrive.<p>
+     * 
+     * A provider should be used with non-strict matching: with strict
+     * matching, typed text is rejected until its completions are available.
+     * 
+     * @param provider the provider queried for completions, may be null
+     *   to use the items of the adaptor
+     */
+    public void setCompletionProvider(CompletionProvider provider) {
+        if (completionQueue != null) {
+            completionQueue.dispose();
+        }
+        completionQueue = provider == null ? null : new CompletionQueue(this, provider);
+    }
+
+    /**
+     * Returns the provider queried for completions of the typed text.
+     * 
+     * @return the completion provider or null if the items of the adaptor
+     *   are used
+     */
+    public CompletionProvider getCompletionProvider() {
+        return completionQueue == null ? null : completionQueue.getProvider();
+    }
+
     /**
      * Returns if only items from the adaptor's list should be allowed to be entered.
      * @return if only items from the adaptor's list should be allowed to be entered
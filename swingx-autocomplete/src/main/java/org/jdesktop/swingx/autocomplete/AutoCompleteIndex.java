@@ -0,0 +1,66 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.autocomplete;
+
+/**
+ * An index of the string representations of the items of an 
+ * AbstractAutoCompleteAdaptor. An AutoCompleteDocument with an index 
+ * asks the index for matching items instead of iterating over all items 
+ * of the adaptor on every keystroke.<p>
+ * 
+ * An index is stateful, it must not be shared between documents.
+ * 
+ * @see AutoCompleteDocument#setIndex(AutoCompleteIndex)
+ * @see SortedAutoCompleteIndex
+ */
+public abstract class AutoCompleteIndex {
+
+    /**
+     * Installs this index for the items of the given adaptor.
+     * 
+     * @param adaptor the adaptor providing the items
+     * @param stringConverter the converter used to transform items to strings
+     * @throws IllegalArgumentException if the index can't keep in synch with
+     *   the adaptor's items
+     */
+    public abstract void install(AbstractAutoCompleteAdaptor adaptor, 
+            ObjectToStringConverter stringConverter);
+
+    /**
+     * Uninstalls this index, releasing all references to the adaptor's items.
+     */
+    public abstract void uninstall();
+
+    /**
+     * Returns the index of the first item which has a string representation
+     * that matches the given pattern. The index must reflect all changes 
+     * of the items: the document trusts a result of -1 without iterating.
+     * 
+     * @param pattern the pattern to match
+     * @param prefix true if the string representation must start with the 
+     *   pattern, false if it must be equal to the pattern
+     * @param ignoreCase true if the case is ignored when matching
+     * @return the lowest index of a matching item in the adaptor or -1 if 
+     *   no item matches
+     */
+    public abstract int indexOf(String pattern, boolean prefix, boolean ignoreCase);
+}
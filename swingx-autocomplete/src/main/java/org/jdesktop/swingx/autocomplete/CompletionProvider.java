@@ -0,0 +1,123 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.autocomplete;
+
+import java.util.List;
+
+/**
+ * A source of completions which is queried with the typed prefix instead of
+ * holding all candidate items in memory. An AutoCompleteDocument with a 
+ * completion provider queries it asynchronously: keystroke bursts are 
+ * debounced, a query which became stale by further typing is cancelled and
+ * the results are cached by prefix.<p>
+ * 
+ * The completions of a prefix must contain the items with a string 
+ * representation starting with the prefix, ignoring case, up to the given 
+ * limit. A result with less items than the limit is considered complete: 
+ * longer prefixes are then completed from it without querying the provider 
+ * again.<p>
+ * 
+ * A provider is stateless with respect to the document, but its properties 
+ * must not be changed while it is installed.
+ * 
+ * @see AutoCompleteDocument#setCompletionProvider(CompletionProvider)
+ * @see AutoCompleteDecorator#decorate(javax.swing.text.JTextComponent, CompletionProvider, ObjectToStringConverter)
+ */
+public abstract class CompletionProvider {
+
+    private int limit = 100;
+    private int delay = 150;
+    private int cacheSize = 64;
+
+    /**
+     * Returns the completions for the given prefix. This method is invoked
+     * on a background thread, a long running implementation should stop 
+     * when the thread is interrupted because the query became stale.
+     * 
+     * @param prefix the typed prefix, never empty
+     * @param limit the maximal number of completions
+     * @return the completions in the order of preference, never null
+     * @throws Exception if the completions cannot be computed
+     */
+    public abstract List<?> getCompletions(String prefix, int limit) throws Exception;
+
+    /**
+     * Returns the maximal number of completions requested by a query.
+     * 
+     * @return the result limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the maximal number of completions requested by a query. The
+     * default is 100.
+     * 
+     * @param limit the result limit, must be positive
+     */
+    public void setLimit(int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive: " + limit);
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the delay in milliseconds after the last keystroke before the
+     * provider is queried.
+     * 
+     * @return the debounce delay
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Sets the delay in milliseconds after the last keystroke before the
+     * provider is queried. The default is 150.
+     * 
+     * @param delay the debounce delay, must not be negative
+     */
+    public void setDelay(int delay) {
+        if (delay < 0) throw new IllegalArgumentException("delay must not be negative: " + delay);
+        this.delay = delay;
+    }
+
+    /**
+     * Returns the number of prefixes whose completions are cached.
+     * 
+     * @return the cache size
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the number of prefixes whose completions are cached, the least 
+     * recently used are evicted first. The default is 64.
+     * 
+     * @param cacheSize the cache size, must be positive
+     */
+    public void setCacheSize(int cacheSize) {
+        if (cacheSize <= 0) throw new IllegalArgumentException("cacheSize must be positive: " + cacheSize);
+        this.cacheSize = cacheSize;
+    }
+}
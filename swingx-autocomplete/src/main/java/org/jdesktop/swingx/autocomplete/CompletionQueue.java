@@ -0,0 +1,193 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.autocomplete;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+/**
+ * Queries a CompletionProvider for an AutoCompleteDocument. Queries are 
+ * debounced by the provider's delay and run in a SwingWorker, a running 
+ * query is cancelled by the next keystroke. The results are kept in an LRU 
+ * cache keyed by the lower case prefix, completions ignore case.<p>
+ * 
+ * All methods must be called on the EDT.
+ */
+final class CompletionQueue {
+
+    private static final Logger LOG = Logger.getLogger(CompletionQueue.class.getName());
+
+    private final AutoCompleteDocument document;
+    private final CompletionProvider provider;
+    private final int limit;
+    private final Map<String, List<?>> cache;
+    private final Timer timer;
+
+    /** the prefix of the next query, null if no query is scheduled. */
+    private String pendingPrefix;
+    /** the running query, null if none. */
+    private SwingWorker<List<?>, Void> worker;
+    /** the candidates of the last prefix. */
+    private List<?> completions = Collections.emptyList();
+
+    /**
+     * Instantiates a queue for the given document and provider.
+     * 
+     * @param document the document to notify about arriving completions
+     * @param provider the provider to query
+     */
+    public CompletionQueue(AutoCompleteDocument document, CompletionProvider provider) {
+        this.document = document;
+        this.provider = provider;
+        this.limit = provider.getLimit();
+        final int cacheSize = provider.getCacheSize();
+        cache = new LinkedHashMap<String, List<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<?>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        timer = new Timer(provider.getDelay(), new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                query();
+            }
+        });
+        timer.setRepeats(false);
+    }
+
+    /**
+     * @return the provider queried by this queue
+     */
+    public CompletionProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Returns the candidates of the last updated prefix: the cached
+     * completions of the prefix or of its longest cached prefix.
+     * 
+     * @return the candidate items, never null
+     */
+    public List<?> getCompletions() {
+        return completions;
+    }
+
+    /**
+     * Updates the candidates for the given prefix from the cache. Cancels
+     * the running query and schedules a query for the prefix unless its 
+     * completions are cached or known to be complete.
+     * 
+     * @param prefix the typed prefix, not empty
+     */
+    public void update(String prefix) {
+        cancel();
+        completions = Collections.emptyList();
+        boolean complete = false;
+        String key = toKey(prefix);
+        for (int length = key.length(); length > 0; length--) {
+            List<?> cached = cache.get(key.substring(0, length));
+            if (cached != null) {
+                completions = cached;
+                // a result below the limit contains all completions of longer prefixes
+                complete = length == key.length() || cached.size() < limit;
+                break;
+            }
+        }
+        if (!complete) {
+            pendingPrefix = prefix;
+            timer.restart();
+        }
+    }
+
+    /**
+     * Cancels the scheduled and the running query.
+     */
+    public void cancel() {
+        timer.stop();
+        pendingPrefix = null;
+        if (worker != null) {
+            worker.cancel(true);
+            worker = null;
+        }
+    }
+
+    /**
+     * Cancels all queries and clears the cache.
+     */
+    public void dispose() {
+        cancel();
+        cache.clear();
+        completions = Collections.emptyList();
+    }
+
+    private static String toKey(String prefix) {
+        return prefix.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Starts the query for the pending prefix.
+     */
+    private void query() {
+        final String prefix = pendingPrefix;
+        pendingPrefix = null;
+        if (prefix == null) return;
+        worker = new SwingWorker<List<?>, Void>() {
+            @Override
+            protected List<?> doInBackground() throws Exception {
+                return provider.getCompletions(prefix, limit);
+            }
+
+            @Override
+            protected void done() {
+                if (worker != this || isCancelled()) return;
+                worker = null;
+                List<?> result;
+                try {
+                    result = get();
+                } catch (InterruptedException e) {
+                    return;
+                } catch (ExecutionException e) {
+                    LOG.log(Level.WARNING, "completion query failed for prefix " + prefix, e.getCause());
+                    return;
+                }
+                result = Collections.unmodifiableList(new ArrayList<Object>(result));
+                cache.put(toKey(prefix), result);
+                completions = result;
+                document.completionsAvailable(prefix);
+            }
+        };
+        worker.execute();
+    }
+}
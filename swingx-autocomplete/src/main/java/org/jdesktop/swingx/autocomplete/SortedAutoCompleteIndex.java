@@ -0,0 +1,424 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.autocomplete;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.swing.ComboBoxModel;
+import javax.swing.ListModel;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+/**
+ * An AutoCompleteIndex which keeps the string representations of the items
+ * in sorted arrays, one in case-sensitive and one in case-insensitive order.
+ * Exact and prefix matches are found by binary search, the lowest item 
+ * index of the matching range by a segment tree. Both is O(log n).<p>
+ * 
+ * The index is built on first lookup. If the adaptor's items are contained
+ * in a ListModel, the index is updated from the model's ListDataEvents: 
+ * only the changed items are converted to strings, the other entries are 
+ * merged in O(n). Changes of more than half of the items drop the index, it
+ * is rebuilt on the next lookup. So do changes without a range, except for 
+ * those notifying a new selected item of a ComboBoxModel.<p>
+ * 
+ * The adaptor must contain its items in a ListModel: changes of items which
+ * are not notified can't be seen by the index, lookups would miss them. 
+ * 
+ * @see AutoCompleteDecorator#decorate(javax.swing.JComboBox, ObjectToStringConverter, AutoCompleteIndex)
+ */
+public class SortedAutoCompleteIndex extends AutoCompleteIndex {
+
+    private AbstractAutoCompleteAdaptor adaptor;
+    private ObjectToStringConverter stringConverter;
+    private ListModel<?> listModel;
+    private ListDataListener listDataListener;
+    /** the selected item of a ComboBoxModel at the last change without range. */
+    private Object selectedItem;
+    /** the number of indexed items. */
+    private int itemCount;
+    /** the sorted entries, null if the index is not built. */
+    private SortedEntries caseSensitive;
+    private SortedEntries caseInsensitive;
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalArgumentException if the adaptor's items are not 
+     *   contained in a ListModel
+     */
+    @Override
+    public void install(AbstractAutoCompleteAdaptor adaptor,
+            ObjectToStringConverter stringConverter) {
+        if (adaptor.getListModel() == null) {
+            throw new IllegalArgumentException("the adaptor's items must be contained in a ListModel");
+        }
+        uninstall();
+        this.adaptor = adaptor;
+        this.stringConverter = stringConverter == null 
+                ? ObjectToStringConverter.DEFAULT_IMPLEMENTATION : stringConverter;
+        installListModel();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void uninstall() {
+        uninstallListModel();
+        adaptor = null;
+        stringConverter = null;
+        invalidate();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int indexOf(String pattern, boolean prefix, boolean ignoreCase) {
+        if (adaptor == null) return -1;
+        // the adapted component's model might have been replaced
+        if (adaptor.getListModel() != listModel) {
+            uninstallListModel();
+            installListModel();
+            invalidate();
+        }
+        if (caseSensitive == null || itemCount != adaptor.getItemCount()) {
+            build();
+        }
+        SortedEntries entries = ignoreCase ? caseInsensitive : caseSensitive;
+        return entries.indexOf(pattern, prefix);
+    }
+
+    private void installListModel() {
+        listModel = adaptor.getListModel();
+        if (listModel != null) {
+            listModel.addListDataListener(getListDataListener());
+        }
+        selectedItem = getSelectedItem();
+    }
+
+    private void uninstallListModel() {
+        if (listModel != null) {
+            listModel.removeListDataListener(getListDataListener());
+            listModel = null;
+        }
+        selectedItem = null;
+    }
+
+    /**
+     * Returns the selected item if the list model is a ComboBoxModel,
+     * null otherwise.
+     */
+    private Object getSelectedItem() {
+        return listModel instanceof ComboBoxModel<?> 
+                ? ((ComboBoxModel<?>) listModel).getSelectedItem() : null;
+    }
+
+    private ListDataListener getListDataListener() {
+        if (listDataListener == null) {
+            listDataListener = new ListDataListener() {
+
+                @Override
+                public void intervalAdded(ListDataEvent e) {
+                    itemsAdded(e.getIndex0(), e.getIndex1());
+                }
+
+                @Override
+                public void intervalRemoved(ListDataEvent e) {
+                    itemsRemoved(e.getIndex0(), e.getIndex1());
+                }
+
+                @Override
+                public void contentsChanged(ListDataEvent e) {
+                    itemsChanged(e.getIndex0(), e.getIndex1());
+                }
+            };
+        }
+        return listDataListener;
+    }
+
+    /**
+     * Drops the index, it's rebuilt on the next lookup.
+     */
+    private void invalidate() {
+        caseSensitive = null;
+        caseInsensitive = null;
+        itemCount = 0;
+    }
+
+    private void build() {
+        itemCount = adaptor.getItemCount();
+        Entry[] entries = createEntries(0, itemCount - 1);
+        caseSensitive = new SortedEntries(false, entries);
+        caseInsensitive = new SortedEntries(true, entries);
+    }
+
+    /**
+     * Returns a boolean indicating whether the given change is applied
+     * incrementally. If not, the index is dropped. 
+     */
+    private boolean isIncremental(int index0, int index1) {
+        if (caseSensitive == null) return false;
+        if (index1 - index0 + 1 > itemCount / 2) {
+            invalidate();
+            return false;
+        }
+        return true;
+    }
+
+    private void itemsAdded(int index0, int index1) {
+        if (!isIncremental(index0, index1)) return;
+        int count = index1 - index0 + 1;
+        caseSensitive.shiftItems(index0, count);
+        itemCount += count;
+        Entry[] added = createEntries(index0, index1);
+        caseSensitive.add(added);
+        caseInsensitive.add(added);
+        rebuild();
+    }
+
+    private void itemsRemoved(int index0, int index1) {
+        if (!isIncremental(index0, index1)) return;
+        int count = index1 - index0 + 1;
+        caseSensitive.remove(index0, index1);
+        caseInsensitive.remove(index0, index1);
+        caseSensitive.shiftItems(index1 + 1, -count);
+        itemCount -= count;
+        rebuild();
+    }
+
+    private void itemsChanged(int index0, int index1) {
+        if (index0 < 0 || index1 < 0) {
+            allItemsChanged();
+            return;
+        }
+        if (!isIncremental(index0, index1)) return;
+        caseSensitive.remove(index0, index1);
+        caseInsensitive.remove(index0, index1);
+        Entry[] changed = createEntries(index0, index1);
+        caseSensitive.add(changed);
+        caseInsensitive.add(changed);
+        rebuild();
+    }
+
+    /**
+     * Handles a change without range. A ComboBoxModel notifies a new 
+     * selected item this way, which doesn't affect the index. Otherwise
+     * any item might have changed and the index is dropped.
+     */
+    private void allItemsChanged() {
+        Object selected = getSelectedItem();
+        if (selected != selectedItem) {
+            selectedItem = selected;
+            return;
+        }
+        invalidate();
+    }
+
+    /**
+     * Rebuilds the segment trees after a change of the entries.
+     */
+    private void rebuild() {
+        caseSensitive.rebuild();
+        caseInsensitive.rebuild();
+    }
+
+    /**
+     * Returns the entries for all string representations of the items in 
+     * the given range.
+     */
+    private Entry[] createEntries(int index0, int index1) {
+        Entry[] entries = new Entry[Math.max(0, index1 - index0 + 1)];
+        int size = 0;
+        for (int i = index0; i <= index1; i++) {
+            String[] strings = stringConverter.getPossibleStringsForItem(adaptor.getItem(i));
+            if (strings == null) continue;
+            for (String string : strings) {
+                if (string == null) continue;
+                if (size == entries.length) {
+                    entries = Arrays.copyOf(entries, size * 2 + 1);
+                }
+                entries[size++] = new Entry(string, i);
+            }
+        }
+        return size == entries.length ? entries : Arrays.copyOf(entries, size);
+    }
+
+    /**
+     * A string representation of the item at an index. The entries are shared
+     * by both sort orders.
+     */
+    private static final class Entry {
+        final String string;
+        int item;
+
+        Entry(String string, int item) {
+            this.string = string;
+            this.item = item;
+        }
+    }
+
+    /**
+     * Entries sorted in case-sensitive or case-insensitive order with a 
+     * segment tree over the item indices.
+     */
+    private static final class SortedEntries implements Comparator<Entry> {
+        private final boolean ignoreCase;
+        private Entry[] entries;
+        /** 1-based segment tree of the minimum item index, leaves at entries.length. */
+        private int[] minItems;
+
+        SortedEntries(boolean ignoreCase, Entry[] entries) {
+            this.ignoreCase = ignoreCase;
+            this.entries = entries.clone();
+            Arrays.sort(this.entries, this);
+            rebuild();
+        }
+
+        @Override
+        public int compare(Entry o1, Entry o2) {
+            return compare(o1.string, o2.string, false);
+        }
+
+        /**
+         * Compares the string to the pattern in lexicographic order, 
+         * ignoring the case if required. If prefix is true, a string 
+         * starting with the pattern is equal to the pattern.
+         */
+        private int compare(String string, String pattern, boolean prefix) {
+            int n = Math.min(string.length(), pattern.length());
+            for (int i = 0; i < n; i++) {
+                char c1 = string.charAt(i);
+                char c2 = pattern.charAt(i);
+                if (c1 == c2) continue;
+                if (ignoreCase) {
+                    // same folding as String.CASE_INSENSITIVE_ORDER and regionMatches
+                    c1 = Character.toLowerCase(Character.toUpperCase(c1));
+                    c2 = Character.toLowerCase(Character.toUpperCase(c2));
+                    if (c1 == c2) continue;
+                }
+                return c1 - c2;
+            }
+            if (prefix && string.length() >= pattern.length()) return 0;
+            return string.length() - pattern.length();
+        }
+
+        /**
+         * Returns the lowest item index of the entries matching the pattern
+         * or -1 if there are none.
+         */
+        int indexOf(String pattern, boolean prefix) {
+            int from = search(pattern, prefix, false);
+            int to = search(pattern, prefix, true);
+            return from < to ? getMinItem(from, to) : -1;
+        }
+
+        /**
+         * Returns the position of the first entry which is greater than or 
+         * equal to (or greater than, if after is true) the pattern.
+         */
+        private int search(String pattern, boolean prefix, boolean after) {
+            int low = 0;
+            int high = entries.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int c = compare(entries[mid].string, pattern, prefix);
+                if (c < 0 || (after && c == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the minimum item index of the entries in the given range.
+         */
+        private int getMinItem(int from, int to) {
+            int min = Integer.MAX_VALUE;
+            for (int l = from + entries.length, r = to + entries.length; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) min = Math.min(min, minItems[l++]);
+                if ((r & 1) == 1) min = Math.min(min, minItems[--r]);
+            }
+            return min;
+        }
+
+        /**
+         * Adds count to the item index of all entries at or after index.
+         * As the entries are shared, this is done for one sort order only.
+         */
+        void shiftItems(int index, int count) {
+            for (Entry entry : entries) {
+                if (entry.item >= index) {
+                    entry.item += count;
+                }
+            }
+        }
+
+        /**
+         * Merges the given entries.
+         */
+        void add(Entry[] added) {
+            Entry[] sorted = added.clone();
+            Arrays.sort(sorted, this);
+            Entry[] merged = new Entry[entries.length + sorted.length];
+            int i = 0, j = 0, k = 0;
+            while (i < entries.length && j < sorted.length) {
+                merged[k++] = compare(entries[i], sorted[j]) <= 0 ? entries[i++] : sorted[j++];
+            }
+            while (i < entries.length) merged[k++] = entries[i++];
+            while (j < sorted.length) merged[k++] = sorted[j++];
+            entries = merged;
+        }
+
+        /**
+         * Removes the entries of the items in the given range.
+         */
+        void remove(int index0, int index1) {
+            int size = 0;
+            for (Entry entry : entries) {
+                if (entry.item < index0 || entry.item > index1) {
+                    entries[size++] = entry;
+                }
+            }
+            entries = Arrays.copyOf(entries, size);
+        }
+
+        /**
+         * Rebuilds the segment tree from the item indices of the entries. 
+         * Must be invoked after any change.
+         */
+        void rebuild() {
+            int n = entries.length;
+            minItems = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                minItems[n + i] = entries[i].item;
+            }
+            for (int i = n - 1; i > 0; i--) {
+                minItems[i] = Math.min(minItems[2 * i], minItems[2 * i + 1]);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.autocomplete;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.JList;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+
+/**
+ * Simple benchmark for the lookup of matching items while typing into an
+ * AutoCompleteDocument, for growing item counts. Reports the average time 
+ * per keystroke when iterating over all items and when using a
+ * SortedAutoCompleteIndex, and the time to build the index.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class AutoCompleteLookupBenchmark {
+
+    private static final int[] ITEM_COUNTS = {1000, 10000, 100000, 200000};
+    private static final int WORDS = 50;
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println("items\titerating(us/key)\tindexed(us/key)\tindex build(ms)");
+                for (int itemCount : ITEM_COUNTS) {
+                    List<String> items = createItems(itemCount);
+                    // warm up
+                    timeTyping(items, null);
+                    timeTyping(items, new SortedAutoCompleteIndex());
+                    long[] iterating = timeTyping(items, null);
+                    long[] indexed = timeTyping(items, new SortedAutoCompleteIndex());
+                    System.out.println(itemCount + "\t" + iterating[0] / 1000
+                            + "\t" + indexed[0] / 1000 + "\t" + indexed[1] / 1000000);
+                }
+            }
+        });
+        System.exit(0);
+    }
+
+    /**
+     * Types words character by character into an AutoCompleteDocument,
+     * returns the average nanos per keystroke and the nanos to build the
+     * index.
+     */
+    private static long[] timeTyping(List<String> items, AutoCompleteIndex index) {
+        JTextField textField = new JTextField();
+        AutoCompleteDecorator.decorate(new JList<Object>(items.toArray()), textField, null, index);
+        Document document = textField.getDocument();
+        long build = System.nanoTime();
+        if (index != null) {
+            // the first lookup builds the index
+            index.indexOf("", true, false);
+        }
+        build = System.nanoTime() - build;
+        Random random = new Random(1);
+        int keys = 0;
+        long start = System.nanoTime();
+        try {
+            for (int w = 0; w < WORDS; w++) {
+                document.remove(0, document.getLength());
+                // a word of the items with a typo at the end
+                String word = items.get(random.nextInt(items.size())) + "#";
+                for (int i = 0; i < word.length(); i++) {
+                    document.insertString(i, word.substring(i, i + 1), null);
+                    keys++;
+                }
+            }
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e);
+        }
+        return new long[] {(System.nanoTime() - start) / keys, build};
+    }
+
+    private static List<String> createItems(int count) {
+        Random random = new Random(42);
+        List<String> items = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder builder = new StringBuilder();
+            int length = 4 + random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                char c = (char) ('a' + random.nextInt(26));
+                builder.append(j == 0 ? Character.toUpperCase(c) : c);
+            }
+            items.add(builder.toString());
+        }
+        return items;
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test completion of a text field by a CompletionProvider.
+ */
+@RunWith(JUnit4.class)
+public class CompletionProviderTest extends TestCase {
+
+    private static final List<String> ITEMS = Arrays.asList("Jack", "Jane", "John", "Johnny", 
+            "Alice", "Alfred", "Bob");
+
+    /**
+     * The provider is queried once for a burst of keystrokes, the text is 
+     * completed when the completions arrive.
+     */
+    @Test
+    public void testAsyncCompletion() throws Exception {
+        ListCompletionProvider provider = new ListCompletionProvider();
+        JTextField field = createField(provider);
+        type(field, "jo");
+        waitForText(field, "John");
+        assertEquals(Arrays.asList("jo"), provider.getPrefixes());
+        assertEquals("hn", getSelectedText(field));
+    }
+
+    /**
+     * A complete result of a shorter prefix is used without querying.
+     */
+    @Test
+    public void testCompleteResultCached() throws Exception {
+        ListCompletionProvider provider = new ListCompletionProvider();
+        JTextField field = createField(provider);
+        type(field, "j");
+        waitForText(field, "Jack");
+        type(field, "o");
+        assertEquals("John", getText(field));
+        setText(field, "");
+        type(field, "j");
+        assertEquals("Jack", getText(field));
+        assertEquals(Arrays.asList("j"), provider.getPrefixes());
+    }
+
+    /**
+     * A result at the limit is not complete, longer prefixes are queried.
+     */
+    @Test
+    public void testLimitedResultQueried() throws Exception {
+        ListCompletionProvider provider = new ListCompletionProvider();
+        provider.setLimit(2);
+        JTextField field = createField(provider);
+        type(field, "j");
+        waitForText(field, "Jack");
+        type(field, "o");
+        waitForText(field, "John");
+        assertEquals(Arrays.asList("j", "Jo"), provider.getPrefixes());
+    }
+
+    /**
+     * A running query is cancelled by the next keystroke, its completions
+     * are not applied.
+     */
+    @Test
+    public void testStaleQueryCancelled() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        ListCompletionProvider provider = new ListCompletionProvider() {
+            @Override
+            public List<?> getCompletions(String prefix, int limit) throws Exception {
+                if ("a".equals(prefix)) {
+                    started.countDown();
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw e;
+                    }
+                }
+                return super.getCompletions(prefix, limit);
+            }
+        };
+        JTextField field = createField(provider);
+        type(field, "a");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        type(field, "lf");
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        waitForText(field, "Alfred");
+        // the cancelled query is not recorded
+        assertEquals(Arrays.asList("alf"), provider.getPrefixes());
+    }
+
+    private JTextField createField(final CompletionProvider provider) throws Exception {
+        provider.setDelay(20);
+        final JTextField[] field = new JTextField[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                field[0] = new JTextField();
+                AutoCompleteDecorator.decorate(field[0], provider, null);
+            }
+        });
+        return field[0];
+    }
+
+    /**
+     * Types the given text at once on the EDT, replacing the selection.
+     */
+    private void type(final JTextField field, final String text) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (char c : text.toCharArray()) {
+                    field.replaceSelection(String.valueOf(c));
+                }
+            }
+        });
+    }
+
+    private void setText(final JTextField field, final String text) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                field.setText(text);
+            }
+        });
+    }
+
+    private String getText(final JTextField field) throws Exception {
+        final String[] text = new String[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                text[0] = field.getText();
+            }
+        });
+        return text[0];
+    }
+
+    private String getSelectedText(final JTextField field) throws Exception {
+        final String[] text = new String[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                text[0] = field.getSelectedText();
+            }
+        });
+        return text[0];
+    }
+
+    private void waitForText(JTextField field, String expected) throws Exception {
+        long end = System.currentTimeMillis() + 5000;
+        while (!expected.equals(getText(field)) && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, getText(field));
+    }
+
+    /**
+     * Provides the matching ITEMS, records the queried prefixes.
+     */
+    private static class ListCompletionProvider extends CompletionProvider {
+        private final List<String> prefixes = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public List<?> getCompletions(String prefix, int limit) throws Exception {
+            prefixes.add(prefix);
+            List<String> result = new ArrayList<String>();
+            for (String item : ITEMS) {
+                if (result.size() < limit && item.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    result.add(item);
+                }
+            }
+            return result;
+        }
+
+        List<String> getPrefixes() {
+            return new ArrayList<String>(prefixes);
+        }
+    }
+}
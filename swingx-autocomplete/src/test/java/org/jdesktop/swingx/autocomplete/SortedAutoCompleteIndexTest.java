@@ -0,0 +1,250 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.AbstractListModel;
+import javax.swing.DefaultListModel;
+import javax.swing.JComboBox;
+import javax.swing.JList;
+import javax.swing.JTextField;
+import javax.swing.text.JTextComponent;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test SortedAutoCompleteIndex against iterating over all items.
+ */
+@RunWith(JUnit4.class)
+public class SortedAutoCompleteIndexTest extends TestCase {
+
+    private static final String[] WORDS = {"alpha", "Alpha", "ALPHABET", "al", "bravo",
+        "Bravo", "charlie", "CHARLIE", "delta", "deltas", "echo", "Echo", ""};
+
+    /**
+     * The index finds the same items as iterating.
+     */
+    @Test
+    public void testLookupLikeIteration() {
+        JList list = new JList(createItems(500, new Random(42)).toArray());
+        ListAdaptor adaptor = new ListAdaptor(list, new JTextField());
+        SortedAutoCompleteIndex index = new SortedAutoCompleteIndex();
+        index.install(adaptor, null);
+        assertLookupLikeIteration(index, adaptor);
+    }
+
+    /**
+     * The index can't see changes of items which aren't contained in a 
+     * ListModel: it rejects such adaptors, the document keeps iterating.
+     */
+    @Test
+    public void testRequiresListModel() {
+        List<String> items = createItems(10, new Random(42));
+        JTextComponent textComponent = new JTextField();
+        AutoCompleteDecorator.decorate(textComponent, items, false);
+        AutoCompleteDocument document = (AutoCompleteDocument) textComponent.getDocument();
+        try {
+            document.setIndex(new SortedAutoCompleteIndex());
+            fail("index without ListModel must be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertNull(document.getIndex());
+    }
+
+    /**
+     * The index is updated from the list model's events.
+     */
+    @Test
+    public void testListDataEvents() {
+        Random random = new Random(7);
+        DefaultListModel model = new DefaultListModel();
+        for (String item : createItems(200, random)) {
+            model.addElement(item);
+        }
+        ListAdaptor adaptor = new ListAdaptor(new JList(model), new JTextField());
+        SortedAutoCompleteIndex index = new SortedAutoCompleteIndex();
+        index.install(adaptor, null);
+        assertLookupLikeIteration(index, adaptor);
+        for (int i = 0; i < 50; i++) {
+            String item = WORDS[random.nextInt(WORDS.length)] + random.nextInt(10);
+            switch (i % 4) {
+            case 0:
+                model.add(random.nextInt(model.size() + 1), item);
+                break;
+            case 1:
+                model.remove(random.nextInt(model.size()));
+                break;
+            case 2:
+                model.set(random.nextInt(model.size()), item);
+                break;
+            default:
+                model.addElement(item);
+            }
+            assertLookupLikeIteration(index, adaptor);
+        }
+        model.removeRange(10, 20);
+        assertLookupLikeIteration(index, adaptor);
+        model.clear();
+        assertEquals(-1, index.indexOf("a", true, true));
+    }
+
+    /**
+     * A change without range drops the index, a new selected item of a
+     * ComboBoxModel doesn't.
+     */
+    @Test
+    public void testContentsChangedWithoutRange() {
+        ReplaceableListModel model = new ReplaceableListModel("alpha", "bravo");
+        ListAdaptor adaptor = new ListAdaptor(new JList(model), new JTextField());
+        SortedAutoCompleteIndex index = new SortedAutoCompleteIndex();
+        index.install(adaptor, null);
+        assertEquals(-1, index.indexOf("charlie", true, false));
+        model.replace("charlie", "delta");
+        assertEquals(0, index.indexOf("charlie", true, false));
+        assertEquals(-1, index.indexOf("alpha", true, false));
+        DefaultComboBoxModel comboBoxModel = new DefaultComboBoxModel(new String[] {"echo", "foxtrot"});
+        final int[] converted = new int[1];
+        ObjectToStringConverter converter = new ObjectToStringConverter() {
+            @Override
+            public String getPreferredStringForItem(Object item) {
+                converted[0]++;
+                return item == null ? null : item.toString();
+            }
+        };
+        index.install(new ComboBoxAdaptor(new JComboBox(comboBoxModel)), converter);
+        assertEquals(1, index.indexOf("fox", true, false));
+        int count = converted[0];
+        comboBoxModel.setSelectedItem("foxtrot");
+        assertEquals(1, index.indexOf("fox", true, false));
+        assertEquals("selection change must not drop the index", count, converted[0]);
+    }
+
+    /**
+     * A decorated combo box selects the items found by the index, also
+     * after changes and replacement of the model.
+     */
+    @Test
+    public void testDecorateComboBox() throws Exception {
+        JComboBox comboBox = new JComboBox(new String[] {"Alpha", "Bravo", "Charlie"});
+        AutoCompleteDecorator.decorate(comboBox, null, new SortedAutoCompleteIndex());
+        JTextComponent editor = (JTextComponent) comboBox.getEditor().getEditorComponent();
+        AutoCompleteDocument document = (AutoCompleteDocument) editor.getDocument();
+        assertTrue(document.getIndex() instanceof SortedAutoCompleteIndex);
+        document.remove(0, document.getLength());
+        document.insertString(0, "br", null);
+        assertEquals("Bravo", comboBox.getSelectedItem());
+        comboBox.insertItemAt("Aardvark", 0);
+        document.remove(0, document.getLength());
+        document.insertString(0, "a", null);
+        assertEquals("Aardvark", comboBox.getSelectedItem());
+        comboBox.setModel(new DefaultComboBoxModel(new String[] {"Delta", "Echo"}));
+        document.remove(0, document.getLength());
+        document.insertString(0, "e", null);
+        assertEquals("Echo", comboBox.getSelectedItem());
+        AutoCompleteDecorator.undecorate(comboBox);
+        assertNull(document.getIndex());
+    }
+
+    /**
+     * Asserts the index finds the same items as iterating for prefixes of 
+     * all items in all modes.
+     */
+    private void assertLookupLikeIteration(AutoCompleteIndex index, AbstractAutoCompleteAdaptor adaptor) {
+        List<String> patterns = new ArrayList<String>(Arrays.asList("x", "a", "AL", "zz", "alpha"));
+        for (int i = 0; i < adaptor.getItemCount(); i++) {
+            String item = (String) adaptor.getItem(i);
+            for (int length = 1; length <= item.length(); length++) {
+                patterns.add(item.substring(0, length));
+                patterns.add(item.substring(0, length).toUpperCase());
+            }
+        }
+        for (String pattern : patterns) {
+            for (int mode = 0; mode < 4; mode++) {
+                boolean prefix = (mode & 1) != 0;
+                boolean ignoreCase = (mode & 2) != 0;
+                assertEquals(pattern + " prefix: " + prefix + " ignoreCase: " + ignoreCase, 
+                        iterate(adaptor, pattern, prefix, ignoreCase), 
+                        index.indexOf(pattern, prefix, ignoreCase));
+            }
+        }
+    }
+
+    private int iterate(AbstractAutoCompleteAdaptor adaptor, String pattern, 
+            boolean prefix, boolean ignoreCase) {
+        for (int i = 0; i < adaptor.getItemCount(); i++) {
+            String item = (String) adaptor.getItem(i);
+            boolean matches;
+            if (prefix) {
+                matches = item.regionMatches(ignoreCase, 0, pattern, 0, pattern.length());
+            } else {
+                matches = ignoreCase ? item.equalsIgnoreCase(pattern) : item.equals(pattern);
+            }
+            if (matches) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * A list model which replaces all its items and notifies a change
+     * without range.
+     */
+    private static class ReplaceableListModel extends AbstractListModel {
+        private String[] items;
+
+        ReplaceableListModel(String... items) {
+            this.items = items;
+        }
+
+        void replace(String... items) {
+            this.items = items;
+            fireContentsChanged(this, -1, -1);
+        }
+
+        @Override
+        public int getSize() {
+            return items.length;
+        }
+
+        @Override
+        public Object getElementAt(int index) {
+            return items[index];
+        }
+    }
+
+    private List<String> createItems(int count, Random random) {
+        List<String> items = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            items.add(WORDS[random.nextInt(WORDS.length)] + random.nextInt(100));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * $Id$
+ *
+ * Copyright 2004 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.jdesktop.swingx;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * A shared clock for the animations of SwingX components, like the busy
+ * indicator of {@link JXBusyLabel} or the collapsing of
+ * {@link JXCollapsiblePane}.
+ * <p>
+ * 
+ * Instead of a {@code Timer} per animation, a single {@code Timer} fires one
+ * pulse for all running animations. On each pulse, the animations which are
+ * due according to their delay are notified, one after the other. The dirty
+ * regions they add are painted in a single pass of the
+ * {@code RepaintManager}. The pulse rate is the shortest delay of the running
+ * animations.
+ * <p>
+ * 
+ * Animations of components which are not showing are paused: they are not
+ * notified and, if no animated component is showing, the {@code Timer} is
+ * stopped until one of them is shown again.
+ * <p>
+ * 
+ * Usage:
+ * 
+ * <pre><code>
+ * ActionListener animation = new ActionListener() {
+ *     public void actionPerformed(ActionEvent e) {
+ *         painter.setFrame(nextFrame());
+ *         component.repaint();
+ *     }
+ * };
+ * AnimationClock.getInstance().start(component, 100, animation);
+ * ...
+ * AnimationClock.getInstance().stop(animation);
+ * </code></pre>
+ * 
+ * The clock is not thread-safe, it must be used on the EDT only.
+ * 
+ * @see #getAverageFrameTime()
+ */
+public final class AnimationClock {
+    
+    private static AnimationClock instance;
+    
+    private final Map<ActionListener, Entry> animations = new LinkedHashMap<ActionListener, Entry>();
+    
+    /** The entries notified on a pulse, reused to allow stopping animations while notified. */
+    private final List<Entry> due = new ArrayList<Entry>();
+    
+    private final Timer timer;
+    
+    private final HierarchyListener showingListener = new HierarchyListener() {
+        @Override
+        public void hierarchyChanged(HierarchyEvent e) {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0
+                    && e.getComponent().isShowing()) {
+                updateTimer(true);
+            }
+        }
+    };
+    
+    private long frameCount;
+    private long totalFrameTime;
+    private long lastFrameTime;
+    private long maxFrameTime;
+    
+    /**
+     * Returns the clock shared by all SwingX components.
+     * 
+     * @return the shared clock
+     */
+    public static AnimationClock getInstance() {
+        if (instance == null) {
+            instance = new AnimationClock();
+        }
+        
+        return instance;
+    }
+    
+    /**
+     * Creates a new clock. Components use the shared clock, separate
+     * clocks are for testing only.
+     */
+    AnimationClock() {
+        timer = new Timer(0, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                pulse();
+            }
+        });
+    }
+    
+    /**
+     * Starts the given animation. The animation is notified immediately and
+     * then every {@code delay} milliseconds, while the component is showing.
+     * If the animation is already running, its component and delay are
+     * updated.
+     * 
+     * @param component
+     *            the animated component
+     * @param delay
+     *            the delay between notifications, in milliseconds
+     * @param animation
+     *            the animation to notify
+     * @throws NullPointerException
+     *             if {@code component} or {@code animation} is {@code null}
+     * @throws IllegalArgumentException
+     *             if {@code delay} is negative
+     */
+    public void start(JComponent component, int delay, ActionListener animation) {
+        Contract.asNotNull(component, "component is null");
+        Contract.asNotNull(animation, "animation is null");
+        
+        if (delay < 0) {
+            throw new IllegalArgumentException("invalid delay " + delay);
+        }
+        
+        Entry entry = animations.get(animation);
+        
+        if (entry == null) {
+            entry = new Entry(animation);
+            entry.due = currentTimeMillis();
+            animations.put(animation, entry);
+        } else if (entry.component != component) {
+            entry.component.removeHierarchyListener(showingListener);
+        }
+        
+        if (entry.component != component) {
+            entry.component = component;
+            component.addHierarchyListener(showingListener);
+        }
+        entry.delay = delay;
+        
+        updateTimer(true);
+    }
+    
+    /**
+     * Changes the delay of the given animation, if it is running.
+     * 
+     * @param animation
+     *            the animation to change
+     * @param delay
+     *            the delay between notifications, in milliseconds
+     * @throws IllegalArgumentException
+     *             if {@code delay} is negative
+     */
+    public void setDelay(ActionListener animation, int delay) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("invalid delay " + delay);
+        }
+        
+        Entry entry = animations.get(animation);
+        
+        if (entry != null) {
+            entry.due += delay - entry.delay;
+            entry.delay = delay;
+            updateTimer(false);
+        }
+    }
+    
+    /**
+     * Stops the given animation. Does nothing if it is not running.
+     * 
+     * @param animation
+     *            the animation to stop
+     */
+    public void stop(ActionListener animation) {
+        Entry entry = animations.remove(animation);
+        
+        if (entry != null) {
+            entry.component.removeHierarchyListener(showingListener);
+            updateTimer(false);
+        }
+    }
+    
+    /**
+     * Returns a boolean indicating whether the given animation is running. A
+     * paused animation is running.
+     * 
+     * @param animation
+     *            the animation to check
+     * @return {@code true} if the animation was started and not stopped;
+     *         {@code false} otherwise
+     */
+    public boolean isRunning(ActionListener animation) {
+        return animations.containsKey(animation);
+    }
+    
+    /**
+     * Returns the number of running animations, including paused ones.
+     * 
+     * @return the number of running animations
+     */
+    public int getAnimationCount() {
+        return animations.size();
+    }
+    
+    /**
+     * Returns the number of frames, that is pulses which notified at least one
+     * animation, since the metrics were reset.
+     * 
+     * @return the number of frames
+     * @see #resetMetrics()
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+    
+    /**
+     * Returns the time it took to notify the animations of the last frame.
+     * 
+     * @return the time of the last frame, in nanoseconds
+     */
+    public long getLastFrameTime() {
+        return lastFrameTime;
+    }
+    
+    /**
+     * Returns the average time it took to notify the animations of a frame,
+     * since the metrics were reset. Painting is not included, the dirty regions
+     * are painted after the frame.
+     * 
+     * @return the average time of a frame, in nanoseconds
+     * @see #resetMetrics()
+     */
+    public long getAverageFrameTime() {
+        return frameCount == 0 ? 0 : totalFrameTime / frameCount;
+    }
+    
+    /**
+     * Returns the longest time it took to notify the animations of a frame,
+     * since the metrics were reset.
+     * 
+     * @return the maximal time of a frame, in nanoseconds
+     * @see #resetMetrics()
+     */
+    public long getMaxFrameTime() {
+        return maxFrameTime;
+    }
+    
+    /**
+     * Resets the frame count and frame times.
+     */
+    public void resetMetrics() {
+        frameCount = 0;
+        totalFrameTime = 0;
+        lastFrameTime = 0;
+        maxFrameTime = 0;
+    }
+    
+    /**
+     * Notifies the animations which are due, then adjusts the timer.
+     */
+    void pulse() {
+        long start = System.nanoTime();
+        long now = currentTimeMillis();
+        // notify animations which would be late on the next pulse already
+        long tolerance = timer.getDelay() / 2;
+        
+        for (Entry entry : animations.values()) {
+            if (entry.component.isShowing()) {
+                if (entry.due - tolerance <= now) {
+                    due.add(entry);
+                }
+            } else {
+                // a paused animation continues immediately when shown
+                entry.due = now;
+            }
+        }
+        
+        if (!due.isEmpty()) {
+            ActionEvent event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, "pulse");
+            
+            for (Entry entry : due) {
+                // an animation might stop another one
+                if (animations.get(entry.animation) == entry) {
+                    entry.due = Math.max(entry.due + entry.delay, now);
+                    entry.animation.actionPerformed(event);
+                }
+            }
+            due.clear();
+            
+            lastFrameTime = System.nanoTime() - start;
+            totalFrameTime += lastFrameTime;
+            maxFrameTime = Math.max(maxFrameTime, lastFrameTime);
+            frameCount++;
+        }
+        
+        updateTimer(false);
+    }
+    
+    /**
+     * Sets the pulse rate to the shortest delay of the animations of showing
+     * components, stops the timer if there are none.
+     * 
+     * @param immediate
+     *            {@code true} to pulse as soon as possible
+     */
+    private void updateTimer(boolean immediate) {
+        int delay = Integer.MAX_VALUE;
+        
+        for (Entry entry : animations.values()) {
+            if (entry.component.isShowing()) {
+                delay = Math.min(delay, entry.delay);
+            }
+        }
+        
+        if (delay == Integer.MAX_VALUE) {
+            timer.stop();
+            return;
+        }
+        
+        timer.setDelay(delay);
+        
+        if (immediate) {
+            timer.setInitialDelay(0);
+            timer.restart();
+        } else if (!timer.isRunning()) {
+            timer.setInitialDelay(delay);
+            timer.start();
+        }
+    }
+    
+    /**
+     * @return the current time, in milliseconds
+     */
+    long currentTimeMillis() {
+        return System.nanoTime() / 1000000L;
+    }
+    
+    /**
+     * @return {@code true} if the timer of this clock is running
+     */
+    boolean isTimerRunning() {
+        return timer.isRunning();
+    }
+    
+    private static class Entry {
+        private final ActionListener animation;
+        private JComponent component;
+        private int delay;
+        /** The time the animation is notified next, in milliseconds. */
+        private long due;
+        
+        Entry(ActionListener animation) {
+            this.animation = animation;
+        }
+    }
+}
@@ -27,7 +27,6 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 import javax.swing.JLabel;
-import javax.swing.Timer;
 import javax.swing.plaf.LabelUI;
 
 import org.jdesktop.beans.JavaBean;
@@ -101,7 +100,7 @@ public class JXBusyLabel extends JLabel {
 
     private static final long serialVersionUID = 5979268460848257147L;
     private BusyPainter busyPainter;
-    private Timer busy;
+    private ActionListener busy;
     private int delay;
     /** Status flag to save/restore status of timer when moving component between containers. */
     private boolean wasBusyOnNotify = false;
@@ -235,7 +234,7 @@ public class JXBusyLabel extends JLabel {
             stopAnimation();
         }
         
-        busy = new Timer(delay, new ActionListener() {
+        busy = new ActionListener() {
             BusyPainter busyPainter = getBusyPainter();
             int frame = busyPainter.getPoints();
             @Override
@@ -244,8 +243,8 @@ public class JXBusyLabel extends JLabel {
                 busyPainter.setFrame(direction == BusyPainter.Direction.LEFT ? busyPainter.getPoints() - frame : frame);
                 frameChanged();
             }
-        });
-        busy.start();
+        };
+        AnimationClock.getInstance().start(this, delay, busy);
     }
     
     
@@ -253,7 +252,7 @@ public class JXBusyLabel extends JLabel {
     
     private void stopAnimation() {
         if (busy != null) {
-            busy.stop();
+            AnimationClock.getInstance().stop(busy);
             getBusyPainter().setFrame(-1);
             repaint();
             busy = null;
@@ -337,8 +336,8 @@ public class JXBusyLabel extends JLabel {
         int old = getDelay();
         this.delay = delay;
         if (old != getDelay()) {
-            if (busy != null && busy.isRunning()) {
-                busy.setDelay(getDelay());
+            if (busy != null) {
+                AnimationClock.getInstance().setDelay(busy, getDelay());
             }
             firePropertyChange("delay", old, getDelay());
         }
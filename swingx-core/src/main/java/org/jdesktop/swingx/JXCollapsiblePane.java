@@ -34,6 +34,8 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
 import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -43,7 +45,6 @@ import javax.swing.JComponent;
 import javax.swing.JViewport;
 import javax.swing.Scrollable;
 import javax.swing.SwingUtilities;
-import javax.swing.Timer;
 import javax.swing.border.Border;
 
 import org.jdesktop.beans.JavaBean;
@@ -317,10 +318,6 @@ public class JXCollapsiblePane extends JXPanel {
      */
     private Direction direction = Direction.UP;
 
-    /**
-     * Timer used for doing the transparency animation (fade-in)
-     */
-    private Timer animateTimer;
     private AnimationListener animator;
     private int currentDimension = -1;
     private WrapperContainer wrapper;
@@ -355,6 +352,18 @@ public class JXCollapsiblePane extends JXPanel {
 
         // add an action to automatically toggle the state of the pane
         getActionMap().put(TOGGLE_ACTION, new ToggleAction());
+        
+        // don't leave a paused animation in the shared clock
+        addHierarchyListener(new HierarchyListener() {
+            @Override
+            public void hierarchyChanged(HierarchyEvent e) {
+                if ((e.getChangeFlags() & (HierarchyEvent.SHOWING_CHANGED
+                        | HierarchyEvent.DISPLAYABILITY_CHANGED)) != 0
+                        && !isShowing() && isAnimating()) {
+                    finishAnimation();
+                }
+            }
+        });
     }
 
     /**
@@ -478,7 +487,7 @@ public class JXCollapsiblePane extends JXPanel {
             useAnimation = animated;
             
             if (!animated) {
-            	if (animateTimer.isRunning()) {
+            	if (isAnimating()) {
             		//TODO should we listen for animation state change?
             		//yes, but we're best off creating a UI delegate for these changes
             		SwingUtilities.invokeLater(new Runnable() {
@@ -508,7 +517,7 @@ public class JXCollapsiblePane extends JXPanel {
      */
     @Override
     public void setComponentOrientation(ComponentOrientation o) {
-        if (animateTimer.isRunning()) {
+        if (isAnimating()) {
             throw new IllegalStateException("cannot be change component orientation while collapsing.");
         }
         
@@ -527,7 +536,7 @@ public class JXCollapsiblePane extends JXPanel {
      *                               collapsing/restore operation is running
      */
     public void setDirection(Direction direction) {
-        if (animateTimer.isRunning()) {
+        if (isAnimating()) {
             throw new IllegalStateException("cannot be change direction while collapsing.");
         }
         
@@ -592,7 +601,7 @@ public class JXCollapsiblePane extends JXPanel {
             
             // this ensures that if the user reverses the animation
             // before completion that no property change is fired
-            if (!animateTimer.isRunning()) {
+            if (!isAnimating()) {
                 collapseFiringState = oldValue;
             }
             
@@ -611,16 +620,33 @@ public class JXCollapsiblePane extends JXPanel {
                 animator.reinit(dimension, 0);
             }
             
-            animateTimer.start();
+            AnimationClock.getInstance().start(this, animationParams.waitTime, animator);
+        } else if (isAnimating()) {
+            finishAnimation();
         } else {
-            wrapper.collapsedState = isCollapsed();
-            wrapper.getView().setVisible(!isCollapsed());
-            revalidate();
-            repaint();
-            
-            firePropertyChange("collapsed", oldValue, isCollapsed());
+            applyCollapsed(oldValue);
         }
     }
+    
+    /**
+     * Stops a running animation and shows the pane in its final state. The
+     * "collapsed" event is fired against the state before the animation.
+     */
+    private void finishAnimation() {
+        AnimationClock.getInstance().stop(animator);
+        currentDimension = -1;
+        wrapper.setAlpha(1f);
+        applyCollapsed(collapseFiringState);
+    }
+    
+    private void applyCollapsed(boolean oldValue) {
+        wrapper.collapsedState = isCollapsed();
+        wrapper.getView().setVisible(!isCollapsed());
+        revalidate();
+        repaint();
+        
+        firePropertyChange("collapsed", oldValue, isCollapsed());
+    }
 
     /**
      * {@inheritDoc}
@@ -739,12 +765,15 @@ public class JXCollapsiblePane extends JXPanel {
     private void setAnimationParams(AnimationParams params) {
         if (params == null) { throw new IllegalArgumentException(
                 "params can't be null"); }
-        if (animateTimer != null) {
-            animateTimer.stop();
-        }
+        AnimationClock.getInstance().stop(animator);
         animationParams = params;
-        animateTimer = new Timer(animationParams.waitTime, animator);
-        animateTimer.setInitialDelay(0);
+    }
+
+    /**
+     * @return true if the pane is collapsing or expanding, false otherwise
+     */
+    private boolean isAnimating() {
+        return AnimationClock.getInstance().isRunning(animator);
     }
 
     /**
@@ -790,7 +819,7 @@ public class JXCollapsiblePane extends JXPanel {
 
     /**
      * This class actual provides the animation support for scrolling up/down this
-     * component. This listener is called whenever the animateTimer fires off. It
+     * component. This listener is called by the {@link AnimationClock} on each frame. It
      * fires off in response to scroll up/down requests. This listener is
      * responsible for modifying the size of the content container and causing it
      * to be repainted.
@@ -831,7 +860,7 @@ public class JXCollapsiblePane extends JXPanel {
             */
             synchronized (ANIMATION_MUTEX) {
                 if (startDimension == finalDimension) {
-                    animateTimer.stop();
+                    AnimationClock.getInstance().stop(this);
                     animateAlpha = animationParams.alphaEnd;
                     // keep the content pane hidden when it is collapsed, other it may
                     // still receive focus.
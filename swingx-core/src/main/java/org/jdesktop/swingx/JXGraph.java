@@ -37,15 +37,27 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
 import java.awt.event.MouseWheelEvent;
 import java.awt.event.MouseWheelListener;
-import java.awt.geom.GeneralPath;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingWorker;
 
 import org.jdesktop.beans.AbstractBean;
 import org.jdesktop.beans.JavaBean;
@@ -248,6 +260,23 @@ import org.jdesktop.swingx.painter.Painter;
  * {@link #removePlots(JXGraph.Plot...)}. You can also remove all plots at once
  * with {@link #removeAllPlots()}.</p>
  *
+ * <h3>Sampling</h3>
+ *
+ * <p>Plots are not computed for every repaint. The computed values are cached
+ * per plot and reused as long as the scale of the view does not change. When
+ * the view is panned, only the newly exposed part is computed. Plots are
+ * computed more densely where they are steep or curved. Firing a property
+ * change from a plot discards its cached values.</p>
+ *
+ * <p>Expensive plots can be computed off the EDT by enabling
+ * {@link #setBackgroundSampling(boolean) background sampling}. Plots are then
+ * computed in parallel, and {@link JXGraph.Plot#compute(double)} must be
+ * thread-safe.</p>
+ *
+ * <p>Series of measured values are shown with a {@link JXGraph.DataPlot}. It
+ * is backed by primitive arrays and draws the minimum and maximum value of
+ * each pixel column, so that millions of values can be shown.</p>
+ *
  * <h2>Painting more information</h2>
  *
  * <h3>How to draw on the graph</h3>
@@ -294,6 +323,8 @@ import org.jdesktop.swingx.painter.Painter;
  */
 @JavaBean
 public class JXGraph extends JXPanel {
+    private static final Logger LOG = Logger.getLogger(JXGraph.class.getName());
+
     // stroke widths used to draw the main axis and the grid
     // the main axis is slightly thicker
     private static final float STROKE_AXIS = 1.2f;
@@ -351,6 +382,11 @@ public class JXGraph extends JXPanel {
     private NumberFormat mainFormatter;
     private NumberFormat secondFormatter;
 
+    // computes the plots off the EDT if true
+    private boolean backgroundSampling;
+    // the running background computation of plots, if any
+    private SamplingWorker samplingWorker;
+
     // input handlers
     private boolean inputEnabled = true;
     private ZoomHandler zoomHandler;
@@ -536,6 +572,12 @@ public class JXGraph extends JXPanel {
         plotChangeListener = new PropertyChangeListener() {
             @Override
             public void propertyChange(PropertyChangeEvent evt) {
+                for (DrawablePlot drawable : plots) {
+                    if (drawable.getEquation() == evt.getSource()) {
+                        drawable.invalidate();
+                    }
+                }
+                cancelSampling();
                 repaint();
             }
         };
@@ -604,6 +646,40 @@ public class JXGraph extends JXPanel {
     public boolean isInputEnabled() {
         return inputEnabled;
     }
+
+    /**
+     * <p>Enables or disables the computation of plots off the EDT. When
+     * enabled, the plots which need to be computed for the current view are
+     * computed in parallel by a background task. Until it completes, the
+     * values computed for the previous view are drawn. Background sampling is
+     * disabled by default.</p>
+     *
+     * <p>Note: when enabled, {@link JXGraph.Plot#compute(double)} is called
+     * from threads other than the EDT and must be thread-safe.</p>
+     *
+     * @param backgroundSampling true if plots must be computed off the EDT,
+     *                           false otherwise
+     * @see #isBackgroundSampling()
+     */
+    public void setBackgroundSampling(boolean backgroundSampling) {
+        boolean old = isBackgroundSampling();
+        this.backgroundSampling = backgroundSampling;
+        if (!backgroundSampling) {
+            cancelSampling();
+        }
+        firePropertyChange("backgroundSampling", old, isBackgroundSampling());
+        repaint();
+    }
+
+    /**
+     * <p>Defines whether or not plots are computed off the EDT.</p>
+     *
+     * @return true if plots are computed off the EDT, false otherwise
+     * @see #setBackgroundSampling(boolean)
+     */
+    public boolean isBackgroundSampling() {
+        return backgroundSampling;
+    }
     
     /**
      * <p>Defines whether or not axis labels are painted by this component.
@@ -1185,7 +1261,11 @@ public class JXGraph extends JXPanel {
      * @see #addPlots(Color, JXGraph.Plot...)
      */
     public void removeAllPlots() {
+        for (DrawablePlot drawable : plots) {
+            drawable.getEquation().removePropertyChangeListener(plotChangeListener);
+        }
         plots.clear();
+        cancelSampling();
         repaint();
     }
 
@@ -1307,28 +1387,138 @@ public class JXGraph extends JXPanel {
 
     // Draw all the registered plots with the appropriate color.
     private void drawPlots(Graphics2D g2) {
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        updateSamples();
         for (DrawablePlot drawable: plots) {
-            g2.setColor(drawable.getColor());
-            drawPlot(g2, drawable.getEquation());
+            Path2D path = getPlotPath(drawable);
+            if (path != null) {
+                g2.setColor(drawable.getColor());
+                g2.draw(path);
+            }
         }
     }
 
-    // Draw a single plot as a GeneralPath made of straight lines.
-    private void drawPlot(Graphics2D g2, Plot equation) {
-        float x = 0.0f;
-        float y = (float) yPositionToPixel(equation.compute(xPixelToPosition(0.0)));
-        
-        GeneralPath path = new GeneralPath();
-        path.moveTo(x, y);
-        
-        float width = getWidth();
-        for (x = 0.0f; x < width; x += 1.0f) {
-            double position = xPixelToPosition(x);
-            y = (float) yPositionToPixel(equation.compute(position));
-            path.lineTo(x, y);
+    // Computes the samples of the plots which are not valid for the current
+    // view, either directly or in the background.
+    private void updateSamples() {
+        double pixelWidth = (maxX - minX) / getWidth();
+        double yScale = getHeight() / (maxY - minY);
+        List<DrawablePlot> stale = new ArrayList<DrawablePlot>();
+        for (DrawablePlot drawable : plots) {
+            if (!(drawable.getEquation() instanceof DataPlot)
+                    && !drawable.hasSamples(pixelWidth, yScale, minX, maxX)
+                    && !drawable.hasFailed(pixelWidth, yScale, minX, maxX)) {
+                stale.add(drawable);
+            }
+        }
+        if (stale.isEmpty()) {
+            return;
+        }
+        if (isBackgroundSampling()) {
+            if (samplingWorker == null
+                    || !samplingWorker.isSampling(pixelWidth, yScale, minX, maxX)) {
+                cancelSampling();
+                samplingWorker = new SamplingWorker(stale, pixelWidth, yScale, minX, maxX);
+                samplingWorker.execute();
+            }
+        } else {
+            for (DrawablePlot drawable : stale) {
+                drawable.setSamples(PlotSamples.sample(drawable.getEquation(),
+                        pixelWidth, yScale, minX, maxX, drawable.getSamples(), null));
+            }
+        }
+    }
+
+    // Cancels the background computation of plots, if any.
+    private void cancelSampling() {
+        if (samplingWorker != null) {
+            samplingWorker.cancel(true);
+            samplingWorker = null;
+        }
+    }
+
+    // Returns the path of a plot in the current view, created only if the
+    // view or the plot changed since the last call. May be null if the plot
+    // has not been computed yet.
+    private Path2D getPlotPath(DrawablePlot drawable) {
+        double[] view = {minX, maxX, minY, maxY, getWidth(), getHeight()};
+        if (!drawable.hasPath(view)) {
+            Path2D path;
+            if (drawable.getEquation() instanceof DataPlot) {
+                path = createDataPath((DataPlot) drawable.getEquation());
+            } else if (drawable.getSamples() != null) {
+                path = createSamplesPath(drawable.getSamples());
+            } else {
+                return null;
+            }
+            drawable.setPath(path, view);
+        }
+        return drawable.getPath();
+    }
+
+    // Connects the samples of a plot with straight lines. The path is
+    // interrupted where the plot is not defined.
+    private Path2D createSamplesPath(PlotSamples samples) {
+        Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO, samples.size());
+        boolean connected = false;
+        for (int i = 0; i < samples.size(); i++) {
+            float x = (float) xPositionToPixel(samples.getX(i));
+            float y = (float) yPositionToPixel(samples.getY(i));
+            if (Float.isNaN(y) || Float.isInfinite(y)) {
+                connected = false;
+            } else if (connected) {
+                path.lineTo(x, y);
+            } else {
+                path.moveTo(x, y);
+                connected = true;
+            }
+        }
+        return path;
+    }
+
+    // Draws a data plot with one vertical line per pixel column, from the
+    // minimum to the maximum value in the column, connected by the first and
+    // last value of the columns.
+    private Path2D createDataPath(DataPlot data) {
+        int width = getWidth();
+        Path2D path = new Path2D.Float(Path2D.WIND_NON_ZERO, Math.min(width * 4, data.getSize()) + 2);
+        int from = data.indexOf(xPixelToPosition(0.0));
+        // connect to the value left of the view
+        if (from > 0) {
+            addDataPoint(path, xPositionToPixel(data.getX(from - 1)), data.getY(from - 1));
+        }
+        for (int column = 0; column < width && from < data.getSize(); column++) {
+            int to = data.indexOf(xPixelToPosition(column + 1.0));
+            if (to > from) {
+                double min = data.getMin(from, to);
+                if (!Double.isInfinite(min)) {
+                    addDataPoint(path, column, data.getY(from));
+                    addDataPoint(path, column, min);
+                    addDataPoint(path, column, data.getMax(from, to));
+                    addDataPoint(path, column, data.getY(to - 1));
+                }
+                from = to;
+            }
+        }
+        // connect to the value right of the view
+        if (from < data.getSize()) {
+            addDataPoint(path, xPositionToPixel(data.getX(from)), data.getY(from));
+        }
+        return path;
+    }
+
+    private void addDataPoint(Path2D path, double x, double value) {
+        float y = (float) yPositionToPixel(value);
+        if (Float.isNaN(y) || Float.isInfinite(y)) {
+            return;
+        }
+        if (path.getCurrentPoint() == null) {
+            path.moveTo((float) x, y);
+        } else {
+            path.lineTo((float) x, y);
         }
-        
-        g2.draw(path);
     }
 
     // Draws the grid. First draw the vertical lines, then the horizontal lines.
@@ -1627,11 +1817,268 @@ public class JXGraph extends JXPanel {
         public abstract double compute(double value);
     }
 
+    /**
+     * <p>A plot of a series of values, for example measurements. The values
+     * are stored in primitive arrays, and the graph draws the minimum and
+     * maximum value of each pixel column instead of every value. This allows
+     * to show series of millions of values.</p>
+     *
+     * <p>The positions of the values on the X axis are either equidistant,
+     * defined by a start and a step, or given by an array in ascending order.
+     * Values may be <code>NaN</code> to denote gaps.</p>
+     *
+     * <pre>
+     * double[] samples = readSamples();
+     * graph.addPlots(Color.BLUE, new JXGraph.DataPlot(0.0, 0.001, samples));
+     * </pre>
+     *
+     * <p>The arrays are not copied. If they are changed, the data must be set
+     * again to update the graph.</p>
+     *
+     * @see JXGraph#addPlots(Color, JXGraph.Plot...)
+     */
+    public static class DataPlot extends Plot {
+        // the number of values or blocks summarized by a block of the
+        // next level
+        private static final int BLOCK_SIZE = 64;
+
+        private double startX;
+        private double stepX;
+        private double[] positions;
+        private double[] values;
+
+        // minimum and maximum of the values per block, for each level
+        private double[][] blockMinima;
+        private double[][] blockMaxima;
+
+        /**
+         * <p>Creates a new plot of equidistant values.</p>
+         *
+         * @param startX the position of the first value on the X axis
+         * @param stepX  the distance between two values on the X axis
+         * @param values the values
+         * @throws IllegalArgumentException if values is null or stepX &lt;= 0.0
+         */
+        public DataPlot(double startX, double stepX, double... values) {
+            setData(startX, stepX, values);
+        }
+
+        /**
+         * <p>Creates a new plot of values at the given positions.</p>
+         *
+         * @param positions the positions of the values on the X axis, in
+         *                  ascending order
+         * @param values    the values
+         * @throws IllegalArgumentException if either array is null, if the
+         *                                  arrays differ in length or if the
+         *                                  positions are not in ascending order
+         */
+        public DataPlot(double[] positions, double[] values) {
+            setData(positions, values);
+        }
+
+        /**
+         * <p>Replaces the values of this plot with equidistant values.</p>
+         *
+         * @param startX the position of the first value on the X axis
+         * @param stepX  the distance between two values on the X axis
+         * @param values the values
+         * @throws IllegalArgumentException if values is null or stepX &lt;= 0.0
+         */
+        public void setData(double startX, double stepX, double... values) {
+            if (values == null) {
+                throw new IllegalArgumentException("values cannot be null");
+            }
+            if (!(stepX > 0.0)) {
+                throw new IllegalArgumentException("stepX must be > 0.0");
+            }
+            this.startX = startX;
+            this.stepX = stepX;
+            this.positions = null;
+            updateValues(values);
+        }
+
+        /**
+         * <p>Replaces the values of this plot with values at the given
+         * positions.</p>
+         *
+         * @param positions the positions of the values on the X axis, in
+         *                  ascending order
+         * @param values    the values
+         * @throws IllegalArgumentException if either array is null, if the
+         *                                  arrays differ in length or if the
+         *                                  positions are not in ascending order
+         */
+        public void setData(double[] positions, double[] values) {
+            if (positions == null || values == null) {
+                throw new IllegalArgumentException("positions and values cannot be null");
+            }
+            if (positions.length != values.length) {
+                throw new IllegalArgumentException("positions and values must have the same length");
+            }
+            for (int i = 1; i < positions.length; i++) {
+                if (!(positions[i - 1] <= positions[i])) {
+                    throw new IllegalArgumentException("positions must be in ascending order");
+                }
+            }
+            this.positions = positions;
+            updateValues(values);
+        }
+
+        private void updateValues(double[] values) {
+            this.values = values;
+            List<double[]> minima = new ArrayList<double[]>();
+            List<double[]> maxima = new ArrayList<double[]>();
+            double[] lowerMinima = values;
+            double[] lowerMaxima = values;
+            while (lowerMinima.length > BLOCK_SIZE) {
+                int count = (lowerMinima.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                double[] blockMinimum = new double[count];
+                double[] blockMaximum = new double[count];
+                for (int block = 0; block < count; block++) {
+                    int from = block * BLOCK_SIZE;
+                    int to = Math.min(from + BLOCK_SIZE, lowerMinima.length);
+                    blockMinimum[block] = extreme(lowerMinima, from, to, false, Double.POSITIVE_INFINITY);
+                    blockMaximum[block] = extreme(lowerMaxima, from, to, true, Double.NEGATIVE_INFINITY);
+                }
+                minima.add(blockMinimum);
+                maxima.add(blockMaximum);
+                lowerMinima = blockMinimum;
+                lowerMaxima = blockMaximum;
+            }
+            blockMinima = minima.toArray(new double[minima.size()][]);
+            blockMaxima = maxima.toArray(new double[maxima.size()][]);
+            firePropertyChange("data", null, values);
+        }
+
+        /**
+         * <p>Gets the number of values of this plot.</p>
+         *
+         * @return the number of values
+         */
+        public int getSize() {
+            return values.length;
+        }
+
+        /**
+         * <p>Gets the position of a value on the X axis.</p>
+         *
+         * @param index the index of the value
+         * @return the position of the value on the X axis
+         */
+        public double getX(int index) {
+            return positions != null ? positions[index] : startX + index * stepX;
+        }
+
+        /**
+         * <p>Gets a value of this plot.</p>
+         *
+         * @param index the index of the value
+         * @return the value at the given index
+         */
+        public double getY(int index) {
+            return values[index];
+        }
+
+        /**
+         * <p>Interpolates linearly between the values next to the given
+         * position. Returns <code>NaN</code> outside of the series.</p>
+         *
+         * @param value a value along the X axis of the graph
+         * @return the interpolated value at the given position
+         */
+        @Override
+        public double compute(double value) {
+            int index = indexOf(value);
+            if (index == values.length || (index == 0 && getX(0) != value)) {
+                return Double.NaN;
+            }
+            double x1 = getX(index);
+            if (x1 == value) {
+                return values[index];
+            }
+            double x0 = getX(index - 1);
+            return values[index - 1] + (values[index] - values[index - 1]) * (value - x0) / (x1 - x0);
+        }
+
+        // Returns the index of the first value at or right of the given
+        // position, the size if there is none.
+        int indexOf(double position) {
+            if (positions == null) {
+                double index = Math.ceil((position - startX) / stepX);
+                return (int) Math.max(0.0, Math.min(values.length, index));
+            }
+            int low = 0;
+            int high = positions.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (positions[middle] < position) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Returns the minimum of the values in [from, to), ignoring NaN.
+        // POSITIVE_INFINITY if there is no value.
+        double getMin(int from, int to) {
+            return extreme(from, to, false);
+        }
+
+        // Returns the maximum of the values in [from, to), ignoring NaN.
+        // NEGATIVE_INFINITY if there is no value.
+        double getMax(int from, int to) {
+            return extreme(from, to, true);
+        }
+
+        // Scans the partial blocks at both ends of the range on each level and
+        // continues with the full blocks on the next level.
+        private double extreme(int from, int to, boolean max) {
+            double result = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+            double[] level = values;
+            for (int next = 0; from < to; next++) {
+                if (next == blockMinima.length) {
+                    return extreme(level, from, to, max, result);
+                }
+                int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                int lastBlock = to / BLOCK_SIZE;
+                if (firstBlock >= lastBlock) {
+                    return extreme(level, from, to, max, result);
+                }
+                result = extreme(level, from, firstBlock * BLOCK_SIZE, max, result);
+                result = extreme(level, lastBlock * BLOCK_SIZE, to, max, result);
+                level = max ? blockMaxima[next] : blockMinima[next];
+                from = firstBlock;
+                to = lastBlock;
+            }
+            return result;
+        }
+
+        private static double extreme(double[] values, int from, int to, boolean max, double result) {
+            for (int i = from; i < to; i++) {
+                double value = values[i];
+                if (max ? value > result : value < result) {
+                    result = value;
+                }
+            }
+            return result;
+        }
+    }
+
     // Encapsulates a plot and its color. Avoids the use of a full-blown Map.
+    // Also caches the computed samples and the path drawn for the plot.
     private static class DrawablePlot {
         private final Plot equation;
         private final Color color;
 
+        private PlotSamples samples;
+        private Path2D path;
+        private double[] pathView;
+        // the view for which background sampling failed, null if none
+        private double[] failedView;
+
         private DrawablePlot(Plot equation, Color color) {
             this.equation = equation;
             this.color = color;
@@ -1645,6 +2092,48 @@ public class JXGraph extends JXPanel {
             return color;
         }
 
+        private PlotSamples getSamples() {
+            return samples;
+        }
+
+        private boolean hasSamples(double pixelWidth, double yScale, double minX, double maxX) {
+            return samples != null && samples.isValid(pixelWidth, yScale, minX, maxX);
+        }
+
+        private void setSamples(PlotSamples samples) {
+            this.samples = samples;
+            this.path = null;
+            this.failedView = null;
+        }
+
+        private boolean hasFailed(double pixelWidth, double yScale, double minX, double maxX) {
+            return failedView != null 
+                    && Arrays.equals(failedView, new double[] {pixelWidth, yScale, minX, maxX});
+        }
+
+        private void setFailed(double pixelWidth, double yScale, double minX, double maxX) {
+            this.failedView = new double[] {pixelWidth, yScale, minX, maxX};
+        }
+
+        private Path2D getPath() {
+            return path;
+        }
+
+        private boolean hasPath(double[] view) {
+            return path != null && Arrays.equals(pathView, view);
+        }
+
+        private void setPath(Path2D path, double[] view) {
+            this.path = path;
+            this.pathView = view;
+        }
+
+        private void invalidate() {
+            samples = null;
+            path = null;
+            failedView = null;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) {
@@ -1669,6 +2158,105 @@ public class JXGraph extends JXPanel {
         }
     }
     
+    // Computes the samples of plots in parallel off the EDT and installs them
+    // on completion. Plots failing to compute are marked as failed for the
+    // view, they are not sampled again until the plot or the view changes.
+    private class SamplingWorker extends SwingWorker<List<PlotSamples>, Void> {
+        private final List<DrawablePlot> targets;
+        private final List<PlotSamples> previous;
+        private final double pixelWidth;
+        private final double yScale;
+        private final double minX;
+        private final double maxX;
+
+        private SamplingWorker(List<DrawablePlot> targets, double pixelWidth, double yScale,
+                double minX, double maxX) {
+            this.targets = targets;
+            this.previous = new ArrayList<PlotSamples>(targets.size());
+            for (DrawablePlot drawable : targets) {
+                previous.add(drawable.getSamples());
+            }
+            this.pixelWidth = pixelWidth;
+            this.yScale = yScale;
+            this.minX = minX;
+            this.maxX = maxX;
+        }
+
+        private boolean isSampling(double pixelWidth, double yScale, double minX, double maxX) {
+            return this.pixelWidth == pixelWidth && this.yScale == yScale
+                    && this.minX == minX && this.maxX == maxX;
+        }
+
+        @Override
+        protected List<PlotSamples> doInBackground() throws Exception {
+            final BooleanSupplier cancelled = new BooleanSupplier() {
+                @Override
+                public boolean getAsBoolean() {
+                    return isCancelled();
+                }
+            };
+            List<Callable<PlotSamples>> tasks = new ArrayList<Callable<PlotSamples>>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                final Plot plot = targets.get(i).getEquation();
+                final PlotSamples samples = previous.get(i);
+                tasks.add(new Callable<PlotSamples>() {
+                    @Override
+                    public PlotSamples call() {
+                        return PlotSamples.sample(plot, pixelWidth, yScale, minX, maxX, samples, cancelled);
+                    }
+                });
+            }
+            List<PlotSamples> result = new ArrayList<PlotSamples>(targets.size());
+            for (Future<PlotSamples> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                try {
+                    result.add(future.get());
+                } catch (ExecutionException e) {
+                    if (isCancelled()) {
+                        throw e;
+                    }
+                    LOG.log(Level.WARNING, "computing plot " 
+                            + targets.get(result.size()).getEquation() + " failed", e.getCause());
+                    result.add(null);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        protected void done() {
+            if (samplingWorker == this) {
+                samplingWorker = null;
+            }
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                List<PlotSamples> result = get();
+                for (int i = 0; i < targets.size(); i++) {
+                    // the plot might have been invalidated or removed meanwhile
+                    if (targets.get(i).getSamples() != previous.get(i)) {
+                        continue;
+                    }
+                    if (result.get(i) != null) {
+                        targets.get(i).setSamples(result.get(i));
+                    } else {
+                        targets.get(i).setFailed(pixelWidth, yScale, minX, maxX);
+                    }
+                }
+                repaint();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (CancellationException e) {
+                // plots changed, sampled again on next paint
+            } catch (ExecutionException e) {
+                LOG.log(Level.WARNING, "computing plots failed", e.getCause());
+                for (DrawablePlot drawable : targets) {
+                    drawable.setFailed(pixelWidth, yScale, minX, maxX);
+                }
+            }
+        }
+    }
+
     // Shrinks or expand the view depending on the mouse wheel direction.
     // When the wheel moves down, the view is expanded. Otherwise it is shrunk.
     private class ZoomHandler implements MouseWheelListener {
@@ -272,6 +272,8 @@ public class JXList extends JList {
 
     private Point popupTriggerLocation;
 
+    private boolean estimatedCellHeights;
+
     /**
     * Constructs a <code>JXList</code> with an empty model and filters disabled.
     *
@@ -1590,6 +1592,46 @@ public class JXList extends JList {
         
     }
 
+    /**
+     * Sets the property to enable/disable estimated cell heights. If enabled, 
+     * the ui delegate measures only the cells which are realized, that is painted or 
+     * queried for their bounds, and estimates the height of all others
+     * from the average of the cells measured so far. Model changes are 
+     * applied incrementally to the cached heights.<p>
+     * 
+     * This can be enabled to keep large lists of variable height cells 
+     * responsive, the trade-off is that the preferred size is approximate until 
+     * all cells are measured: the preferred height is corrected and the preferred
+     * width grows while scrolling through the list.<p>
+     * 
+     * Has no effect if the fixedCellHeight is set (which includes setting a 
+     * prototypeCellValue) or the layoutOrientation is not VERTICAL. <p>
+     * 
+     * Default value is disabled.
+     * 
+     * @param estimatedCellHeights a boolean indicating whether or not cell heights
+     *   may be estimated.
+     * 
+     * @see #isEstimatedCellHeights()
+     * @see #invalidateCellSizeCache()
+     */
+    public void setEstimatedCellHeights(boolean estimatedCellHeights) {
+        boolean old = isEstimatedCellHeights();
+        this.estimatedCellHeights = estimatedCellHeights;
+        firePropertyChange("estimatedCellHeights", old, isEstimatedCellHeights());
+    }
+
+    /**
+     * Returns a boolean indicating whether or not cell heights may be estimated.
+     * 
+     * @return a boolean indicating whether or not cell heights may be estimated.
+     * 
+     * @see #setEstimatedCellHeights(boolean)
+     */
+    public boolean isEstimatedCellHeights() {
+        return estimatedCellHeights;
+    }
+
     /**
      * Invalidates cell size caching in the ui delegate. May do nothing if there's no
      * safe (i.e. without reflection) way to message the delegate. <p>
@@ -41,7 +41,7 @@ import javax.swing.UIManager;
 import org.jdesktop.beans.JavaBean;
 import org.jdesktop.swingx.calendar.CalendarUtils;
 import org.jdesktop.swingx.calendar.DateSelectionModel;
-import org.jdesktop.swingx.calendar.DaySelectionModel;
+import org.jdesktop.swingx.calendar.IntervalDateSelectionModel;
 import org.jdesktop.swingx.calendar.DateSelectionModel.SelectionMode;
 import org.jdesktop.swingx.event.DateSelectionEvent;
 import org.jdesktop.swingx.event.DateSelectionListener;
@@ -119,9 +119,9 @@ import org.jdesktop.swingx.util.Contract;
  * 
  * NOTE (for users of earlier versions): as of version 1.19 control about selection 
  * dates is moved completely into the model. The default model used is of type 
- * DaySelectionModel, which handles dates in the same way the JXMonthView did earlier
+ * IntervalDateSelectionModel, which handles dates in the same way the JXMonthView did earlier
  * (that is, normalize all to the start of the day, which means zeroing all time
- * fields).<p>
+ * fields). It stores intervals of days, so selecting large ranges is cheap.<p>
  * 
  * @author Joshua Outwater
  * @author Jeanette Winzenburg
@@ -206,7 +206,7 @@ public class JXMonthView extends JComponent {
      * The manager of the flagged dates. Note
      * that the type of this is an implementation detail.  
      */
-    private DaySelectionModel flaggedDates;
+    private IntervalDateSelectionModel flaggedDates;
     /**
      * Storage of actionListeners registered with the monthView.
      */
@@ -447,13 +447,13 @@ public class JXMonthView extends JComponent {
             locale = JComponent.getDefaultLocale();
         }
         if (model == null) {
-            model = new DaySelectionModel(locale);
+            model = new IntervalDateSelectionModel(locale);
         }
         this.model = model;
         // PENDING JW: do better to synchronize Calendar related 
         // properties of flaggedDates to those of the selection model.
         // plus: should use the same normalization?
-        this.flaggedDates = new DaySelectionModel(locale);
+        this.flaggedDates = new IntervalDateSelectionModel(locale);
         flaggedDates.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
         
         installCalendar();
@@ -27,6 +27,7 @@ import java.awt.Component;
 import java.awt.ComponentOrientation;
 import java.awt.Container;
 import java.awt.Dimension;
+import java.awt.Graphics;
 import java.awt.KeyboardFocusManager;
 import java.awt.Point;
 import java.awt.Rectangle;
@@ -96,6 +97,7 @@ import org.jdesktop.swingx.action.BoundAction;
 import org.jdesktop.swingx.decorator.ComponentAdapter;
 import org.jdesktop.swingx.decorator.CompoundHighlighter;
 import org.jdesktop.swingx.decorator.Highlighter;
+import org.jdesktop.swingx.decorator.HighlighterPipeline;
 import org.jdesktop.swingx.decorator.ResetDTCRColorHighlighter;
 import org.jdesktop.swingx.event.TableColumnModelExtListener;
 import org.jdesktop.swingx.hyperlink.HyperlinkAction;
@@ -464,6 +466,9 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
     /** Listens for changes from the highlighters. */
     private ChangeListener highlighterChangeListener;
 
+    /** The execution plan compiled from the compoundHighlighter. */
+    private HighlighterPipeline highlighterPipeline;
+
     /** the factory to use for column creation and configuration. */
     private ColumnFactory columnFactory;
 
@@ -531,6 +536,9 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
      */
     protected boolean isXTableRowHeightSet;
 
+    /** flag to suppress resizeAndRepaint while setting several row heights. */
+    private boolean settingRowHeights;
+
     /** property to control search behaviour. */
     protected Searchable searchable;
 
@@ -3456,6 +3464,47 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
         return compoundHighlighter;
     }
 
+    /**
+     * Returns the execution plan compiled from the CompoundHighlighter, 
+     * re-creates it if the CompoundHighlighter has been replaced. 
+     * 
+     * @return the plan to apply the table's highlighters 
+     */
+    private HighlighterPipeline getHighlighterPipeline() {
+        if (highlighterPipeline == null 
+                || highlighterPipeline.getHighlighter() != compoundHighlighter) {
+            if (highlighterPipeline != null) {
+                highlighterPipeline.dispose();
+            }
+            highlighterPipeline = new HighlighterPipeline(getCompoundHighlighter());
+        }
+        return highlighterPipeline;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to paint the cells in one pass of the highlighter pipeline:
+     * row or column scoped HighlightPredicates are evaluated once per row or
+     * column only.
+     * 
+     * @see org.jdesktop.swingx.decorator.HighlightPredicate.ScopedHighlightPredicate
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (compoundHighlighter == null) {
+            super.paintComponent(g);
+            return;
+        }
+        HighlighterPipeline pipeline = getHighlighterPipeline();
+        pipeline.beginPass();
+        try {
+            super.paintComponent(g);
+        } finally {
+            pipeline.endPass();
+        }
+    }
+
     /**
      * Returns the <code>ChangeListener</code> to use with highlighters. Lazily
      * creates the listener.
@@ -3663,7 +3712,7 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
         // a very slight optimization: if this instance never had a highlighter
         // added then don't create a compound here.
         if (compoundHighlighter != null) {
-            stamp = compoundHighlighter.highlight(stamp, adapter);
+            stamp = getHighlighterPipeline().highlight(stamp, adapter);
         }
 
         TableColumnExt columnExt = getColumnExt(column);
@@ -4505,6 +4554,51 @@ public class JXTable extends JTable implements TableColumnModelExtListener {
         isXTableRowHeightSet = heightSet;
     }
 
+    /**
+     * Sets the heights of the given rows in one go: the table is resized and
+     * repainted once after all heights are set instead of once per row. 
+     * Rows which already have the requested height are skipped.
+     * 
+     * @param rows the rows in view coordinates
+     * @param heights the new heights in pixel, aligned with the rows, must
+     *    be positive
+     * @throws IllegalArgumentException if the arrays differ in length or a 
+     *    height is not positive
+     * @see #setRowHeight(int, int)
+     */
+    public void setRowHeights(int[] rows, int[] heights) {
+        if (rows.length != heights.length) 
+            throw new IllegalArgumentException("rows and heights must have the same length");
+        boolean changed = false;
+        settingRowHeights = true;
+        try {
+            for (int i = 0; i < rows.length; i++) {
+                if (getRowHeight(rows[i]) != heights[i]) {
+                    setRowHeight(rows[i], heights[i]);
+                    changed = true;
+                }
+            }
+        } finally {
+            settingRowHeights = false;
+        }
+        if (changed) {
+            resizeAndRepaint();
+        }
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to do nothing while setting the heights of several rows.
+     * 
+     * @see #setRowHeights(int[], int[])
+     */
+    @Override
+    protected void resizeAndRepaint() {
+        if (settingRowHeights) return;
+        super.resizeAndRepaint();
+    }
+
     // ---------------------------- overriding super factory methods and buggy
     /**
      * {@inheritDoc}
@@ -32,7 +32,13 @@ import java.awt.event.ActionEvent;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Vector;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -77,6 +83,7 @@ import org.jdesktop.swingx.search.Searchable;
 import org.jdesktop.swingx.search.TreeSearchable;
 import org.jdesktop.swingx.tree.DefaultXTreeCellEditor;
 import org.jdesktop.swingx.tree.DefaultXTreeCellRenderer;
+import org.jdesktop.swingx.tree.ExpansionPredicate;
 
 
 /**
@@ -253,6 +260,13 @@ public class JXTree extends JTree {
 
 
     private Point popupTriggerLocation;
+
+    /** Flag indicating that a bulk expand or collapse is in progress. */
+    private boolean expansionAdjusting;
+    /** The path currently expanded by a bulk expand, its expansion events are coalesced. */
+    private TreePath coalescedExpansionPath;
+    /** Flag indicating that the coalesced expansion event is being fired. */
+    private boolean firingCoalescedExpansion;
     
     
     
@@ -548,12 +562,94 @@ public class JXTree extends JTree {
 
 //--------------------- misc. new api and super overrides
     /**
-     * Collapses all nodes in this tree.
+     * Collapses all nodes in this tree. The root is collapsed only if it is
+     * visible.
+     * 
+     * @see #collapseAll(TreePath)
      */
     public void collapseAll() {
-        for (int i = getRowCount() - 1; i >= 0 ; i--) {
-            collapseRow(i);
+        TreeModel model = getModel();
+        if (model == null || model.getRoot() == null) return;
+        TreePath rootPath = new TreePath(model.getRoot());
+        if (isRootVisible()) {
+            collapseAll(rootPath);
+            return;
+        }
+        boolean old = isExpansionAdjusting();
+        setExpansionAdjusting(true);
+        try {
+            collapseDescendants(rootPath);
+        } finally {
+            setExpansionAdjusting(old);
+        }
+    }
+
+    /**
+     * Collapses the node at the given path and all of its visible expanded 
+     * descendants.<p>
+     * 
+     * The descendants are collapsed bottom-up, each with its own 
+     * TreeExpansionEvent to keep the ui's layout in synch. The 
+     * expansionAdjusting property is true while collapsing, so listeners
+     * can defer their update until the collapse is completed.
+     * 
+     * @param path the path of the subtree to collapse
+     * @see #isExpansionAdjusting()
+     */
+    public void collapseAll(TreePath path) {
+        if (path == null) return;
+        boolean old = isExpansionAdjusting();
+        setExpansionAdjusting(true);
+        try {
+            collapseDescendants(path);
+            collapsePath(path);
+        } finally {
+            setExpansionAdjusting(old);
+        }
+    }
+
+    /**
+     * Collapses the visible expanded descendants of the given path, 
+     * deepest first.
+     * 
+     * @param path the path of the subtree to collapse
+     */
+    private void collapseDescendants(TreePath path) {
+        if (!isExpanded(path)) return;
+        List<TreePath> expanded = getExpandedDescendantList(path);
+        for (int i = expanded.size() - 1; i >= 0; i--) {
+            collapsePath(expanded.get(i));
+        }
+    }
+
+    /**
+     * Returns the visible expanded descendants of the given expanded path 
+     * in preorder, the path itself is not included.
+     * 
+     * @param path the expanded path
+     * @return the expanded descendants in preorder
+     */
+    private List<TreePath> getExpandedDescendantList(TreePath path) {
+        TreeModel model = getModel();
+        List<TreePath> expanded = new ArrayList<TreePath>();
+        Deque<TreePath> stack = new ArrayDeque<TreePath>();
+        stack.push(path);
+        while (!stack.isEmpty()) {
+            TreePath parent = stack.pop();
+            Object node = parent.getLastPathComponent();
+            for (int i = model.getChildCount(node) - 1; i >= 0; i--) {
+                Object child = model.getChild(node, i);
+                if (model.isLeaf(child)) continue;
+                TreePath childPath = parent.pathByAddingChild(child);
+                if (isExpanded(childPath)) {
+                    stack.push(childPath);
+                }
+            }
+            if (parent != path) {
+                expanded.add(parent);
+            }
         }
+        return expanded;
     }
 
     /**
@@ -561,25 +657,159 @@ public class JXTree extends JTree {
      * 
      * Note: it's not recommended to use this method on the EDT for large/deep trees
      * because expansion can take a considerable amount of time. 
+     * 
+     * @see #expandAll(TreePath, int, ExpansionPredicate)
      */
     public void expandAll() {
-        if (getRowCount() == 0) {
-            expandRoot();
+        TreeModel model = getModel();
+        if (model != null && model.getRoot() != null) {
+            expandAll(new TreePath(model.getRoot()), -1, null);
+        }
+    }
+
+    /**
+     * Expands the node at the given path and its descendants up to the given
+     * depth, skipping the subtrees of nodes which are not accepted by the
+     * given predicate. The parents of the path are expanded as needed.<p>
+     * 
+     * The expanded state of all nodes is recorded in one pass. Listeners 
+     * are notified by a single TreeExpansionEvent for the topmost newly 
+     * expanded path, so the ui updates its layout once. TreeWillExpandListeners
+     * are still notified per node, a vetoed node's subtree is skipped. The 
+     * expansionAdjusting property is true while expanding.
+     * 
+     * @param path the path of the subtree to expand
+     * @param depth the number of levels to expand, with the node at path
+     *   being the first level. A negative value expands all levels.
+     * @param predicate the predicate to decide which nodes to expand, 
+     *   may be null to expand all nodes.
+     * @see #isExpansionAdjusting()
+     */
+    public void expandAll(TreePath path, int depth, ExpansionPredicate predicate) {
+        TreeModel model = getModel();
+        if (path == null || depth == 0 || model == null) return;
+        // the topmost path which will become expanded
+        TreePath top = path;
+        while (top.getParentPath() != null && !isExpanded(top.getParentPath())) {
+            top = top.getParentPath();
         }
-        for (int i = 0; i < getRowCount(); i++) {
-            expandRow(i);
+        boolean old = isExpansionAdjusting();
+        setExpansionAdjusting(true);
+        try {
+            boolean changed = expandDescendants(path, depth, predicate)
+                || (top != path && isExpanded(top));
+            if (changed) {
+                firingCoalescedExpansion = true;
+                try {
+                    fireTreeExpanded(top);
+                } finally {
+                    firingCoalescedExpansion = false;
+                }
+            }
+        } finally {
+            setExpansionAdjusting(old);
         }
     }
 
     /**
-     * Expands the root path if a TreeModel has been set, does nothing if not.
+     * Sets the expanded state of the node at the given path and its 
+     * descendants, walking the subtree in preorder.
      * 
+     * @return true if the expanded state of any node has been changed
      */
-    private void expandRoot() {
+    private boolean expandDescendants(TreePath path, int depth, 
+            ExpansionPredicate predicate) {
         TreeModel model = getModel();
-        if (model != null && model.getRoot() != null) {
-            expandPath(new TreePath(model.getRoot()));
+        if (model.isLeaf(path.getLastPathComponent())) return false;
+        boolean changed = false;
+        int level = path.getPathCount();
+        Deque<TreePath> stack = new ArrayDeque<TreePath>();
+        stack.push(path);
+        while (!stack.isEmpty()) {
+            TreePath current = stack.pop();
+            if (predicate != null && !predicate.shouldExpand(current)) continue;
+            if (!isExpanded(current)) {
+                TreePath old = coalescedExpansionPath;
+                coalescedExpansionPath = current;
+                try {
+                    setExpandedState(current, true);
+                } finally {
+                    coalescedExpansionPath = old;
+                }
+                // vetoed
+                if (!isExpanded(current)) continue;
+                changed = true;
+            }
+            if (depth > 0 && current.getPathCount() - level + 1 >= depth) continue;
+            Object node = current.getLastPathComponent();
+            for (int i = model.getChildCount(node) - 1; i >= 0; i--) {
+                Object child = model.getChild(node, i);
+                if (!model.isLeaf(child)) {
+                    stack.push(current.pathByAddingChild(child));
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to not notify listeners of the nodes expanded while 
+     * expanding a subtree in bulk, that is the node being expanded and its
+     * parents. Expansion of other paths, f.i. by a listener, is notified
+     * as usual.
+     * 
+     * @see #expandAll(TreePath, int, ExpansionPredicate)
+     */
+    @Override
+    public void fireTreeExpanded(TreePath path) {
+        if (coalescedExpansionPath != null && path != null
+                && path.isDescendant(coalescedExpansionPath)) return;
+        super.fireTreeExpanded(path);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to return the descendants in preorder while notifying
+     * listeners of a bulk expansion. The ui updates its layout for each 
+     * expanded descendant, top-down is considerably faster than the
+     * unordered super implementation.
+     * 
+     * @see #expandAll(TreePath, int, ExpansionPredicate)
+     */
+    @Override
+    public Enumeration<TreePath> getExpandedDescendants(TreePath parent) {
+        if (!firingCoalescedExpansion || !isExpanded(parent)) {
+            return super.getExpandedDescendants(parent);
         }
+        return Collections.enumeration(getExpandedDescendantList(parent));
+    }
+
+    /**
+     * Returns a boolean indicating whether a bulk expand or collapse is
+     * in progress. Listeners to expansion events may use this to defer 
+     * their update until the property is reset to false.
+     * 
+     * @return true if a bulk expand or collapse is in progress, false 
+     *   otherwise
+     * @see #expandAll(TreePath, int, ExpansionPredicate)
+     * @see #collapseAll(TreePath)
+     */
+    public boolean isExpansionAdjusting() {
+        return expansionAdjusting;
+    }
+
+    /**
+     * Sets the expansionAdjusting property, fires a property change.
+     * 
+     * @param adjusting the new value of the property
+     */
+    private void setExpansionAdjusting(boolean adjusting) {
+        boolean old = isExpansionAdjusting();
+        this.expansionAdjusting = adjusting;
+        firePropertyChange("expansionAdjusting", old, isExpansionAdjusting());
     }
 
     /**
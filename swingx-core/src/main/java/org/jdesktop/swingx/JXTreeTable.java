@@ -32,10 +32,14 @@ import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Enumeration;
 import java.util.EventObject;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import javax.swing.ActionMap;
@@ -67,6 +71,7 @@ import javax.swing.table.TableModel;
 import javax.swing.tree.DefaultTreeCellRenderer;
 import javax.swing.tree.DefaultTreeSelectionModel;
 import javax.swing.tree.TreeCellRenderer;
+import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 
@@ -79,6 +84,7 @@ import org.jdesktop.swingx.renderer.StringValues;
 import org.jdesktop.swingx.rollover.RolloverProducer;
 import org.jdesktop.swingx.rollover.RolloverRenderer;
 import org.jdesktop.swingx.tree.DefaultXTreeCellRenderer;
+import org.jdesktop.swingx.tree.ExpansionPredicate;
 import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
 import org.jdesktop.swingx.treetable.TreeTableCellEditor;
 import org.jdesktop.swingx.treetable.TreeTableModel;
@@ -1327,10 +1333,22 @@ public class JXTreeTable extends JXTable {
 
 
     
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to not pass inserts and deletes to super: the selection is kept
+     * in synch by the tree's selection model. Instead, revalidates and repaints 
+     * the area from the first changed row downwards.
+     */
     @Override
     public void tableChanged(TableModelEvent e) {
         if (isStructureChanged(e) || isUpdate(e)) {
             super.tableChanged(e);
+        } else if (e.getType() == TableModelEvent.INSERT 
+                || e.getType() == TableModelEvent.DELETE) {
+            revalidate();
+            Rectangle dirty = getCellRect(e.getFirstRow(), 0, true);
+            repaint(0, dirty.y, getWidth(), Math.max(0, getHeight() - dirty.y));
         } else {
             resizeAndRepaint();
         }
@@ -1676,6 +1694,17 @@ public class JXTreeTable extends JXTable {
         renderer.collapseAll();
     }
 
+    /**
+     * Collapses the node at the given path and all of its visible expanded
+     * descendants. The table is notified by a single dataChanged.
+     * 
+     * @param path the path of the subtree to collapse
+     * @see JXTree#collapseAll(TreePath)
+     */
+    public void collapseAll(TreePath path) {
+        renderer.collapseAll(path);
+    }
+
     /**
      * Expands all nodes in the treetable.
      */
@@ -1683,6 +1712,22 @@ public class JXTreeTable extends JXTable {
         renderer.expandAll();
     }
 
+    /**
+     * Expands the node at the given path and its descendants up to the given
+     * depth, skipping the subtrees of nodes which are not accepted by the
+     * given predicate. The table is notified by a single dataChanged.
+     * 
+     * @param path the path of the subtree to expand
+     * @param depth the number of levels to expand, with the node at path
+     *   being the first level. A negative value expands all levels.
+     * @param predicate the predicate to decide which nodes to expand, 
+     *   may be null to expand all nodes.
+     * @see JXTree#expandAll(TreePath, int, ExpansionPredicate)
+     */
+    public void expandAll(TreePath path, int depth, ExpansionPredicate predicate) {
+        renderer.expandAll(path, depth, predicate);
+    }
+
     /**
      * Collapses the node at the specified path in the treetable.
      *
@@ -2323,6 +2368,19 @@ public class JXTreeTable extends JXTable {
         private TreeModelListener treeModelListener;
         private final JTree tree; // immutable
         private JXTreeTable treeTable; // logically immutable
+        private static final int ROWS_INSERTED = 1;
+        private static final int ROWS_DELETED = 2;
+        /** the number of updated nodes above which a dataChanged is fired. */
+        private static final int MAX_PENDING_UPDATES = 100;
+        /** the tree model changes pending until the next flush. */
+        private boolean flushScheduled;
+        private boolean pendingStructureChanged;
+        private boolean pendingDataChanged;
+        private RowsChange pendingRows;
+        private final Set<TreePath> pendingUpdates = new LinkedHashSet<TreePath>();
+        /** the path and visible descendant count of a pending collapse. */
+        private TreePath collapsingPath;
+        private int collapsingCount;
         
         /**
          * Maintains a TreeTableModel and a JTree as purely implementation details.
@@ -2338,19 +2396,46 @@ public class JXTreeTable extends JXTable {
 
             this.tree = tree; // need tree to implement getRowCount()
             tree.getModel().addTreeModelListener(getTreeModelListener());
+            tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+                
+                @Override
+                public void treeWillExpand(TreeExpansionEvent event) {
+                }
+                
+                // the rows to delete must be counted while the path
+                // is still expanded
+                @Override
+                public void treeWillCollapse(TreeExpansionEvent event) {
+                    if (isExpansionAdjusting()) return;
+                    collapsingPath = event.getPath();
+                    collapsingCount = getVisibleDescendantCount(collapsingPath);
+                }
+            });
             tree.addTreeExpansionListener(new TreeExpansionListener() {
-                // Don't use fireTableRowsInserted() here; the selection model
-                // would get updated twice.
+                // The ui's listener is notified first, so the tree's layout 
+                // is up to date. JXTreeTable doesn't pass inserts/deletes to 
+                // the JTable, the selection model isn't updated twice.
                 @Override
                 public void treeExpanded(TreeExpansionEvent event) {
+                    if (isExpansionAdjusting()) return;
                     updateAfterExpansionEvent(event);
                 }
 
                 @Override
                 public void treeCollapsed(TreeExpansionEvent event) {
+                    if (isExpansionAdjusting()) return;
                     updateAfterExpansionEvent(event);
                 }
             });
+            // a bulk expand/collapse is notified by a single dataChanged
+            tree.addPropertyChangeListener("expansionAdjusting", new PropertyChangeListener() {
+                @Override
+                public void propertyChange(PropertyChangeEvent evt) {
+                    if (!isExpansionAdjusting()) {
+                        fireTableDataChanged();
+                    }
+                }
+            });
             tree.addPropertyChangeListener("model", new PropertyChangeListener() {
                 @Override
                 public void propertyChange(PropertyChangeEvent evt) {
@@ -2365,16 +2450,94 @@ public class JXTreeTable extends JXTable {
             });
         }
 
+        /**
+         * Returns a boolean indicating whether the tree is in the process
+         * of a bulk expand or collapse.
+         * 
+         * @return true if the tree's expansion is adjusting, false otherwise
+         */
+        private boolean isExpansionAdjusting() {
+            return tree instanceof JXTree && ((JXTree) tree).isExpansionAdjusting();
+        }
+
         /**
          * updates the table after having received an TreeExpansionEvent.<p>
          * 
+         * Fires rowsInserted/rowsDeleted for the rows of the expanded/collapsed 
+         * subtree and rowsUpdated for the row of the path itself. Falls back
+         * to dataChanged if the rows can't be determined.
+         * 
          * @param event the TreeExpansionEvent which triggered the method call.
          */
         protected void updateAfterExpansionEvent(TreeExpansionEvent event) {
             // moved to let the renderer handle directly
 //            treeTable.getTreeTableHacker().setExpansionChangedFlag();
-            // JW: delayed fire leads to a certain sluggishness occasionally? 
-            fireTableDataChanged();
+            TreePath path = event.getPath();
+            boolean expanded = tree.isExpanded(path);
+            int count;
+            if (expanded) {
+                count = getVisibleDescendantCount(path);
+            } else {
+                count = path.equals(collapsingPath) ? collapsingCount : -1;
+            }
+            collapsingPath = null;
+            // PENDING: this is the only lookup which is linear in the
+            // row count (for a VariableHeightLayoutCache)
+            int row = tree.getRowForPath(path);
+            if (row < 0 && !(path.getParentPath() == null && !tree.isRootVisible())) {
+                // collapsed below a collapsed parent: nothing visible changed
+                // (expanding always expands the parents first)
+                if (!expanded) return;
+                fireTableDataChanged();
+                return;
+            }
+            if (count < 0 || (expanded && row + count >= tree.getRowCount())) {
+                // the tree's layout is not in synch with the model
+                fireTableDataChanged();
+                return;
+            }
+            if (count > 0) {
+                if (expanded) {
+                    fireTableRowsInserted(row + 1, row + count);
+                } else {
+                    fireTableRowsDeleted(row + 1, row + count);
+                }
+            }
+            // the expansion handle
+            if (row >= 0) {
+                fireTableRowsUpdated(row, row);
+            }
+        }
+
+        /**
+         * Returns the number of rows below the given path which are visible 
+         * if the path is expanded, that is its children plus the visible
+         * descendants of its expanded children. Returns 0 if the path is 
+         * not expanded. The subtree is walked iteratively, so deep trees
+         * don't overflow the stack.
+         * 
+         * @param path the path to count the visible descendants of
+         * @return the number of visible descendants
+         */
+        private int getVisibleDescendantCount(TreePath path) {
+            TreeModel model = tree.getModel();
+            int count = 0;
+            Deque<TreePath> stack = new ArrayDeque<TreePath>();
+            stack.push(path);
+            while (!stack.isEmpty()) {
+                TreePath current = stack.pop();
+                if (!tree.isExpanded(current)) continue;
+                Object node = current.getLastPathComponent();
+                int childCount = model.getChildCount(node);
+                count += childCount;
+                for (int i = 0; i < childCount; i++) {
+                    Object child = model.getChild(node, i);
+                    if (!model.isLeaf(child)) {
+                        stack.push(current.pathByAddingChild(child));
+                    }
+                }
+            }
+            return count;
         }
 
         /**
@@ -2485,28 +2648,32 @@ public class JXTreeTable extends JXTable {
                         delayedFireTableDataUpdated(e);
                     }   
 
-                    // We use delayedFireTableDataChanged as we can
+                    // We coalesce the events and fire delayed as we can
                     // not be guaranteed the tree will have finished processing
                     // the event before us.
                     @Override
                     public void treeNodesInserted(TreeModelEvent e) {
-                        delayedFireTableDataChanged(e, 1);
+                        delayedFireTableRowsChanged(e, ROWS_INSERTED);
                     }
 
                     @Override
                     public void treeNodesRemoved(TreeModelEvent e) {
 //                        LOG.info("got tree event: removed " + e);
-                       delayedFireTableDataChanged(e, 2);
+                        delayedFireTableRowsChanged(e, ROWS_DELETED);
                     }
 
                     @Override
                     public void treeStructureChanged(TreeModelEvent e) {
                         // ?? should be mapped to structureChanged -- JW
                         if (isTableStructureChanged(e)) {
-                            delayedFireTableStructureChanged();
+                            pendingStructureChanged = true;
+                        } else if (tree.isExpanded(e.getTreePath())) {
+                            pendingDataChanged = true;
                         } else {
-                            delayedFireTableDataChanged();
+                            // the rows below a collapsed node are not visible
+                            addPendingUpdate(e.getTreePath(), null);
                         }
+                        scheduleFlush();
                     }
                 };
             }
@@ -2533,147 +2700,285 @@ public class JXTreeTable extends JXTable {
         }
 
         /**
-         * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
+         * Records inserted or removed children, the table event is fired
+         * on the next flush. Children of a collapsed node are not visible, 
+         * only the node's row is updated (its appearance might depend on
+         * the children, Issue #82-swingx). 
+         * 
+         * @param tme the TreeModelEvent received from the model
+         * @param type the type of change, one of ROWS_INSERTED, ROWS_DELETED
          */
-        private void delayedFireTableStructureChanged() {
-            SwingUtilities.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    fireTableStructureChanged();
+        private void delayedFireTableRowsChanged(TreeModelEvent tme, int type) {
+            addPendingRowsChange(tme, type);
+            scheduleFlush();
+        }
+
+        private void addPendingRowsChange(TreeModelEvent tme, int type) {
+            TreePath path = tme.getTreePath();
+            int[] indices = tme.getChildIndices();
+            if (path == null || indices == null || indices.length == 0) {
+                // case where the event is fired to identify root.
+                pendingDataChanged = true;
+                return;
+            }
+            // expansion state at flush time may be different
+            if (!tree.isExpanded(path)) {
+                addPendingUpdate(path, null);
+                return;
+            }
+            // indices must in ascending order, as per TreeEvent/Listener doc
+            for (int i = 1; i < indices.length; i++) {
+                if (indices[i] != indices[0] + i) {
+                    pendingDataChanged = true;
+                    return;
                 }
-            });
+            }
+            int rowCount = type == ROWS_INSERTED 
+                    ? getInsertedRowCount(path, tme.getChildren()) 
+                    : getRemovedRowCount(path, indices[0], tme.getChildren());
+            if (rowCount < 0) {
+                pendingDataChanged = true;
+                return;
+            }
+            if (pendingRows == null) {
+                pendingRows = new RowsChange(path, type, indices[0], indices.length, rowCount);
+            } else if (!pendingRows.merge(path, type, indices[0], indices.length, rowCount)) {
+                // PENDING: more than one block of rows can't be mapped
+                // reliably against the tree's final layout
+                pendingDataChanged = true;
+            }
         }
 
         /**
-         * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
+         * Returns the number of rows of the inserted children, including 
+         * their visible descendants.
          */
-        private void delayedFireTableDataChanged() {
-            SwingUtilities.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    fireTableDataChanged();
-                }
-            });
+        private int getInsertedRowCount(TreePath parent, Object[] children) {
+            int rowCount = 0;
+            for (Object child : children) {
+                rowCount += 1 + getVisibleDescendantCount(parent.pathByAddingChild(child));
+            }
+            return rowCount;
         }
 
         /**
-         * Invokes fireTableDataChanged after all the pending events have been
-         * processed. SwingUtilities.invokeLater is used to handle this.
-         * Allowed event types: 1 for insert, 2 for delete
+         * Returns the number of rows of the removed children, including 
+         * their visible descendants, or -1 if unknown. The removed nodes
+         * are no longer part of the model, but the tree's layout
+         * and expansion state are not yet updated: we are notified before 
+         * the tree.
          */
-        private void delayedFireTableDataChanged(final TreeModelEvent tme, final int typeChange) {
-            if ((typeChange < 1 ) || (typeChange > 2)) 
-                throw new IllegalArgumentException("Event type must be 1 or 2, was " + typeChange);
-            // expansion state before invoke may be different 
-            // from expansion state in invoke 
-            final boolean expanded = tree.isExpanded(tme.getTreePath());
-            // quick test if tree throws for unrelated path. Seems like not.
-//            tree.getRowForPath(new TreePath("dummy"));
-            SwingUtilities.invokeLater(new Runnable() {
-                @Override
-                public void run() {
-                    int indices[] = tme.getChildIndices();
-                    TreePath path = tme.getTreePath();
-                    // quick test to see if bailing out is an option
-//                    if (false) {
-                    if (indices != null) {
-                        if (expanded) { // Dont bother to update if the parent
-                            // node is collapsed
-                            // indices must in ascending order, as per TreeEvent/Listener doc
-                            int min = indices[0];
-                            int max = indices[indices.length - 1];
-                            int startingRow = tree.getRowForPath(path) + 1;
-                            min = startingRow + min;
-                            max = startingRow + max;
-                            switch (typeChange) {
-                            case 1:
-//                                LOG.info("rows inserted: path " + path + "/" + min + "/"
-//                                        + max);
-                                fireTableRowsInserted(min, max);
-                                break;
-                            case 2:
-//                                LOG.info("rows deleted path " + path + "/" + min + "/"
-//                                                + max);
-                                fireTableRowsDeleted(min, max);
-                                break;
-                            }
-                        } else {
-                            // not expanded - but change might effect appearance
-                            // of parent
-                            // Issue #82-swingx
-                            int row = tree.getRowForPath(path);
-                            // fix Issue #247-swingx: prevent accidental
-                            // structureChanged
-                            // for collapsed path
-                            // in this case row == -1, which ==
-                            // TableEvent.HEADER_ROW
-                            if (row >= 0)
-                                fireTableRowsUpdated(row, row);
-                        }
-                    } else { // case where the event is fired to identify
-                                // root.
-                        fireTableDataChanged();
+        private int getRemovedRowCount(TreePath parent, int firstIndex, Object[] children) {
+            boolean expandedChild = false;
+            for (Object child : children) {
+                if (tree.isExpanded(parent.pathByAddingChild(child))) {
+                    expandedChild = true;
+                    break;
+                }
+            }
+            if (!expandedChild) return children.length;
+            // the rows from the first removed child to the node following 
+            // the removed block in the layout 
+            int firstRow = tree.getRowForPath(parent.pathByAddingChild(children[0]));
+            if (firstRow < 0) return -1;
+            TreeModel model = tree.getModel();
+            TreePath next = null;
+            if (firstIndex < model.getChildCount(parent.getLastPathComponent())) {
+                next = parent.pathByAddingChild(
+                        model.getChild(parent.getLastPathComponent(), firstIndex));
+            } else {
+                for (TreePath path = parent; next == null && path.getParentPath() != null; 
+                        path = path.getParentPath()) {
+                    Object node = path.getParentPath().getLastPathComponent();
+                    int index = model.getIndexOfChild(node, path.getLastPathComponent());
+                    if (index >= 0 && index + 1 < model.getChildCount(node)) {
+                        next = path.getParentPath().pathByAddingChild(
+                                model.getChild(node, index + 1));
                     }
                 }
-            });
+            }
+            int nextRow = next != null ? tree.getRowForPath(next) : tree.getRowCount();
+            return nextRow > firstRow ? nextRow - firstRow : -1;
         }
 
         /**
-         * This is used for updated only. PENDING: not necessary to delay?
-         * Updates are never structural changes which are the critical.
+         * This is used for updated only. The rows are looked up on the next
+         * flush. Changed children of a collapsed node are not visible and 
+         * skipped.
          * 
          * @param tme
          */
         protected void delayedFireTableDataUpdated(final TreeModelEvent tme) {
-            final boolean expanded = tree.isExpanded(tme.getTreePath());
+            TreePath path = tme.getTreePath();
+            Object[] children = tme.getChildren();
+            if (path == null) {
+                pendingDataChanged = true;
+            } else if (children == null || children.length == 0) {
+                // the node at path itself has changed
+                addPendingUpdate(path, null);
+            } else if (tree.isExpanded(path)) {
+                // the children are in ascending index order: rows in between 
+                // are updated as well
+                addPendingUpdate(path, children[0]);
+                addPendingUpdate(path, children[children.length - 1]);
+            } else {
+                return;
+            }
+            scheduleFlush();
+        }
+
+        /**
+         * Records an updated node, given by its parent path and the node or 
+         * by its path only if the child is null.
+         */
+        private void addPendingUpdate(TreePath path, Object child) {
+            // the rows are looked up one by one
+            if (pendingUpdates.size() >= MAX_PENDING_UPDATES) {
+                pendingDataChanged = true;
+                return;
+            }
+            pendingUpdates.add(child != null ? path.pathByAddingChild(child) : path);
+        }
+
+        /**
+         * Schedules a flush of the pending changes after all the pending 
+         * events have been processed. SwingUtilities.invokeLater is used to 
+         * handle this. 
+         */
+        private void scheduleFlush() {
+            if (flushScheduled) return;
+            flushScheduled = true;
             SwingUtilities.invokeLater(new Runnable() {
                 @Override
                 public void run() {
-                    int indices[] = tme.getChildIndices();
-                    TreePath path = tme.getTreePath();
-                    if (indices != null) {
-                        if (expanded) { // Dont bother to update if the parent
-                            // node is collapsed
-                            Object children[] = tme.getChildren();
-                            // can we be sure that children.length > 0?
-                            // int min = tree.getRowForPath(path.pathByAddingChild(children[0]));
-                            // int max = tree.getRowForPath(path.pathByAddingChild(children[children.length -1]));
-                            int min = Integer.MAX_VALUE;
-                            int max = Integer.MIN_VALUE;
-                            for (int i = 0; i < indices.length; i++) {
-                                Object child = children[i];
-                                TreePath childPath = path
-                                        .pathByAddingChild(child);
-                                int index = tree.getRowForPath(childPath);
-                                if (index < min) {
-                                    min = index;
-                                }
-                                if (index > max) {
-                                    max = index;
-                                }
-                            }
-//                            LOG.info("Updated: parentPath/min/max" + path + "/" + min + "/" + max);
-                            // JW: the index is occasionally - 1 - need further digging 
-                            fireTableRowsUpdated(Math.max(0, min), Math.max(0, max));
-                        } else {
-                            // not expanded - but change might effect appearance
-                            // of parent Issue #82-swingx
-                            int row = tree.getRowForPath(path);
-                            // fix Issue #247-swingx: prevent accidental structureChanged
-                            // for collapsed path in this case row == -1, 
-                            // which == TableEvent.HEADER_ROW
-                            if (row >= 0)
-                                fireTableRowsUpdated(row, row);
-                        }
-                    } else { // case where the event is fired to identify
-                                // root.
-                        fireTableDataChanged();
-                    }
+                    flush();
                 }
             });
+        }
+
+        /**
+         * Fires the coalesced table event(s) for the tree events received 
+         * since the last flush: at most one structureChanged, dataChanged or 
+         * rowsInserted/rowsDeleted, followed by one rowsUpdated. 
+         */
+        private void flush() {
+            boolean structureChanged = pendingStructureChanged;
+            boolean dataChanged = pendingDataChanged;
+            RowsChange rows = pendingRows;
+            List<TreePath> updates = new ArrayList<TreePath>(pendingUpdates);
+            // listeners might trigger new tree events
+            flushScheduled = false;
+            pendingStructureChanged = false;
+            pendingDataChanged = false;
+            pendingRows = null;
+            pendingUpdates.clear();
+            if (structureChanged) {
+                fireTableStructureChanged();
+                return;
+            }
+            if (dataChanged || (rows != null && !fireTableRowsChanged(rows))) {
+                fireTableDataChanged();
+                return;
+            }
+            int min = Integer.MAX_VALUE;
+            int max = -1;
+            for (TreePath path : updates) {
+                // fix Issue #247-swingx: prevent accidental structureChanged
+                // for collapsed path in this case row == -1, 
+                // which == TableEvent.HEADER_ROW
+                int row = tree.getRowForPath(path);
+                if (row >= 0) {
+                    min = Math.min(min, row);
+                    max = Math.max(max, row);
+                }
+            }
+            if (max >= 0) {
+                fireTableRowsUpdated(min, max);
+            }
+        }
+
+        /**
+         * Fires rowsInserted/rowsDeleted for the given block of children, 
+         * looked up in the tree's current layout. Returns false if the rows 
+         * can't be determined.
+         */
+        private boolean fireTableRowsChanged(RowsChange rows) {
+            TreePath parent = rows.parent;
+            // a parent without children is no longer expanded
+            if (tree.getRowForPath(parent) < 0 
+                    && !(parent.getParentPath() == null && !tree.isRootVisible())) {
+                return false;
+            }
+            TreeModel model = tree.getModel();
+            Object node = parent.getLastPathComponent();
+            int childCount = model.getChildCount(node);
+            int firstRow;
+            if (rows.firstIndex < childCount) {
+                // the first inserted child or the child following the removed
+                firstRow = tree.getRowForPath(parent.pathByAddingChild(
+                        model.getChild(node, rows.firstIndex)));
+            } else if (rows.firstIndex == 0) {
+                // all children removed
+                firstRow = tree.getRowForPath(parent) + 1;
+            } else {
+                // removed at the end: the row after the last child's subtree
+                TreePath last = parent.pathByAddingChild(model.getChild(node, childCount - 1));
+                int lastRow = tree.getRowForPath(last);
+                firstRow = lastRow < 0 ? -1 : lastRow + 1 + getVisibleDescendantCount(last);
+            }
+            if (firstRow < 0) return false;
+            int lastRow = firstRow + rows.rowCount - 1;
+            if (rows.type == ROWS_INSERTED) {
+                if (lastRow >= tree.getRowCount()) return false;
+                fireTableRowsInserted(firstRow, lastRow);
+            } else {
+                if (firstRow > tree.getRowCount()) return false;
+                fireTableRowsDeleted(firstRow, lastRow);
+            }
+            return true;
+        }
+
+        /**
+         * A contiguous block of children inserted into or removed from the same
+         * parent.
+         */
+        private static class RowsChange {
+            final TreePath parent;
+            final int type;
+            /** the index of the first child of the block, after the change. */
+            int firstIndex;
+            int childCount;
+            /** the number of rows, including the visible descendants. */
+            int rowCount;
+
+            RowsChange(TreePath parent, int type, int firstIndex, int childCount, int rowCount) {
+                this.parent = parent;
+                this.type = type;
+                this.firstIndex = firstIndex;
+                this.childCount = childCount;
+                this.rowCount = rowCount;
+            }
 
+            /**
+             * Merges the given change into this if the result is a contiguous
+             * block of children. Returns false if not merged.
+             */
+            boolean merge(TreePath parent, int type, int firstIndex, int childCount, int rowCount) {
+                if (type != this.type || !parent.equals(this.parent)) return false;
+                if (type == ROWS_INSERTED) {
+                    // inserted into the block or adjacent to it
+                    if (firstIndex < this.firstIndex
+                            || firstIndex > this.firstIndex + this.childCount) return false;
+                } else {
+                    // removed around the position of the block
+                    if (this.firstIndex < firstIndex
+                            || this.firstIndex > firstIndex + childCount) return false;
+                    this.firstIndex = firstIndex;
+                }
+                this.childCount += childCount;
+                this.rowCount += rowCount;
+                return true;
+            }
         }
 
     }
@@ -0,0 +1,268 @@
+/*
+ * $Id$
+ *
+ * Copyright 2006 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+import org.jdesktop.swingx.JXGraph.Plot;
+
+/**
+ * The sampled values of a {@link JXGraph.Plot} along the X axis, in graph
+ * units. Instances are immutable and can be created off the EDT.
+ * <p>
+ *
+ * Samples are taken on a grid of base points which is anchored at 0.0, so that
+ * it is the same for all views with the same scale. The distance between base
+ * points is {@link #BASE_STEP} pixels. Each segment between two base points is
+ * refined by bisection where the plot deviates from a straight line by more
+ * than {@link #TOLERANCE} pixels, down to a fraction of a pixel. Smooth plots
+ * are thus computed every other pixel, steep or curved parts more densely.
+ * <p>
+ *
+ * Samples depend on the scale of the view only, not on its location. After
+ * panning, the segments which are still visible are reused and only the newly
+ * exposed ones are computed.
+ */
+final class PlotSamples {
+
+    /** The distance between base points, in pixels. */
+    static final int BASE_STEP = 4;
+
+    /** The maximal deviation from a straight line, in pixels. */
+    static final double TOLERANCE = 0.25;
+
+    /** The maximal number of bisections of a segment. */
+    private static final int MAX_DEPTH = 4;
+
+    /**
+     * The relative difference up to which scales are considered equal. Panning
+     * changes the bounds of the view, rounding may change its width slightly.
+     */
+    private static final double SCALE_EPSILON = 1e-9;
+
+    /** The width of a pixel, in graph units on the X axis. */
+    private final double pixelWidth;
+    /** The height of a graph unit on the Y axis, in pixels. */
+    private final double yScale;
+    /** The index of the first segment, relative to 0.0. */
+    private final long firstSegment;
+    /**
+     * The index of the first sample of each segment in xs/ys, the last
+     * element is the index of the end point.
+     */
+    private final int[] offsets;
+    private final double[] xs;
+    private final double[] ys;
+
+    private PlotSamples(double pixelWidth, double yScale, long firstSegment, int[] offsets, double[] xs,
+            double[] ys) {
+        this.pixelWidth = pixelWidth;
+        this.yScale = yScale;
+        this.firstSegment = firstSegment;
+        this.offsets = offsets;
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Samples the given plot in the range [minX, maxX], reusing the segments
+     * of the given previous samples if they have the same scale. In that case
+     * the scale of the previous samples is kept.
+     *
+     * @param plot the plot to sample
+     * @param pixelWidth the width of a pixel in graph units on the X axis
+     * @param yScale the height of a graph unit on the Y axis in pixels
+     * @param minX the start of the range to sample
+     * @param maxX the end of the range to sample
+     * @param previous the samples to reuse, may be null
+     * @param cancelled the flag to check for cancellation, may be null
+     * @return the samples of the plot which cover the given range.
+     * @throws CancellationException if sampling was cancelled
+     */
+    static PlotSamples sample(Plot plot, double pixelWidth, double yScale, double minX, double maxX,
+            PlotSamples previous, BooleanSupplier cancelled) {
+        if (previous != null) {
+            if (previous.hasScale(pixelWidth, yScale)) {
+                pixelWidth = previous.pixelWidth;
+                yScale = previous.yScale;
+            } else {
+                previous = null;
+            }
+        }
+        double segmentWidth = BASE_STEP * pixelWidth;
+        long first = (long) Math.floor(minX / segmentWidth);
+        long last = (long) Math.floor(maxX / segmentWidth);
+        int count = (int) (last - first + 1);
+
+        // base points, including the end point of the last segment
+        double[] base = new double[count + 1];
+        for (int i = 0; i <= count; i++) {
+            long segment = first + i;
+            base[i] = (previous != null && previous.hasBase(segment)) ? previous.getBase(segment)
+                    : plot.compute(segment * segmentWidth);
+        }
+
+        Builder builder = new Builder(count * 2 + 1);
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            if (cancelled != null && cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            long segment = first + i;
+            offsets[i] = builder.size;
+            if (previous != null && previous.hasSegment(segment)) {
+                previous.copySegment(segment, builder);
+            } else {
+                double x0 = segment * segmentWidth;
+                builder.add(x0, base[i]);
+                refine(plot, yScale, x0, base[i], (segment + 1) * segmentWidth, base[i + 1], 0, builder);
+            }
+        }
+        offsets[count] = builder.size;
+        builder.add((last + 1) * segmentWidth, base[count]);
+        return new PlotSamples(pixelWidth, yScale, first, offsets, builder.trimmedXs(), builder.trimmedYs());
+    }
+
+    /**
+     * Adds the points between x0 and x1 (both exclusive) which are needed to
+     * draw the plot within the tolerance.
+     */
+    private static void refine(Plot plot, double yScale, double x0, double y0, double x1, double y1, int depth,
+            Builder builder) {
+        if (depth == MAX_DEPTH) {
+            return;
+        }
+        double xm = (x0 + x1) / 2.0;
+        double ym = plot.compute(xm);
+        double deviation = Math.abs(ym - (y0 + y1) / 2.0) * yScale;
+        if (deviation <= TOLERANCE) {
+            builder.add(xm, ym);
+            return;
+        }
+        // also taken for NaN and infinite values
+        refine(plot, yScale, x0, y0, xm, ym, depth + 1, builder);
+        builder.add(xm, ym);
+        refine(plot, yScale, xm, ym, x1, y1, depth + 1, builder);
+    }
+
+    /**
+     * Returns a boolean indicating whether the samples have the given scale.
+     *
+     * @param pixelWidth the width of a pixel in graph units on the X axis
+     * @param yScale the height of a graph unit on the Y axis in pixels
+     * @return true if the samples have the given scale, false otherwise.
+     */
+    boolean hasScale(double pixelWidth, double yScale) {
+        return Math.abs(this.pixelWidth - pixelWidth) <= SCALE_EPSILON * this.pixelWidth
+                && Math.abs(this.yScale - yScale) <= SCALE_EPSILON * this.yScale;
+    }
+
+    /**
+     * Returns a boolean indicating whether the samples have the given scale and
+     * cover the given range.
+     *
+     * @return true if the samples can be drawn for the given view without
+     *         sampling, false otherwise.
+     */
+    boolean isValid(double pixelWidth, double yScale, double minX, double maxX) {
+        if (!hasScale(pixelWidth, yScale)) {
+            return false;
+        }
+        double segmentWidth = BASE_STEP * this.pixelWidth;
+        return hasSegment((long) Math.floor(minX / segmentWidth))
+                && hasSegment((long) Math.floor(maxX / segmentWidth));
+    }
+
+    /**
+     * @return the number of samples.
+     */
+    int size() {
+        return xs.length;
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the X position of the sample, in graph units
+     */
+    double getX(int index) {
+        return xs[index];
+    }
+
+    /**
+     * @param index the index of the sample
+     * @return the value of the plot at the sample
+     */
+    double getY(int index) {
+        return ys[index];
+    }
+
+    private boolean hasSegment(long segment) {
+        return segment >= firstSegment && segment < firstSegment + offsets.length - 1;
+    }
+
+    private boolean hasBase(long segment) {
+        return segment >= firstSegment && segment < firstSegment + offsets.length;
+    }
+
+    private double getBase(long segment) {
+        return ys[offsets[(int) (segment - firstSegment)]];
+    }
+
+    private void copySegment(long segment, Builder builder) {
+        int index = (int) (segment - firstSegment);
+        for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+            builder.add(xs[i], ys[i]);
+        }
+    }
+
+    // growable pair of primitive arrays
+    private static class Builder {
+        private double[] xs;
+        private double[] ys;
+        private int size;
+
+        Builder(int capacity) {
+            xs = new double[capacity];
+            ys = new double[capacity];
+        }
+
+        void add(double x, double y) {
+            if (size == xs.length) {
+                int capacity = xs.length * 3 / 2 + 1;
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        double[] trimmedXs() {
+            return size == xs.length ? xs : Arrays.copyOf(xs, size);
+        }
+
+        double[] trimmedYs() {
+            return size == ys.length ? ys : Arrays.copyOf(ys, size);
+        }
+    }
+}
@@ -21,7 +21,19 @@
 
 package org.jdesktop.swingx;
 
+import java.awt.Component;
 import java.awt.Point;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import javax.swing.JComponent;
 import javax.swing.RepaintManager;
@@ -33,6 +45,21 @@ import javax.swing.SwingUtilities;
  * replace the current RepaintManager with an instance of RepaintManagerX 
  * <em>unless</em> the current RepaintManager is tagged by the {@link TranslucentRepaintManager}
  * annotation.</p>
+ * 
+ * <p>Dirty regions of components inside of a translucent {@link AlphaPaintable} are
+ * redirected to that ancestor. By default the ancestor is looked up for each dirty
+ * region. With {@link #setAncestorCachingEnabled(boolean) ancestor caching} enabled,
+ * the manager remembers the translucent root of each component, or that it has none,
+ * until the component hierarchy or the translucency of an ancestor changes.
+ * The dirty regions are forwarded to the root immediately, the delegate coalesces
+ * them with the other dirty regions of the same paint cycle:</p>
+ * 
+ * <pre><code>
+ * RepaintManager manager = RepaintManager.currentManager(panel);
+ * if (manager instanceof RepaintManagerX) {
+ *     ((RepaintManagerX) manager).setAncestorCachingEnabled(true);
+ * }
+ * </code></pre>
  *
  * @author zixle
  * @author rbair
@@ -40,6 +67,30 @@ import javax.swing.SwingUtilities;
  */
 @TranslucentRepaintManager
 public class RepaintManagerX extends ForwardingRepaintManager {
+    private final Object lock = new Object();
+    
+    private boolean ancestorCachingEnabled;
+    
+    /** The cached root of components without a translucent ancestor. */
+    private static final WeakReference<JComponent> NO_ROOT = new WeakReference<JComponent>(null);
+    
+    /**
+     * The translucent root of components, or NO_ROOT. The root references
+     * the component, so it must not be referenced strongly.
+     */
+    private final Map<Component, WeakReference<JComponent>> roots = new WeakHashMap<Component, WeakReference<JComponent>>();
+    
+    /** Incremented whenever cached roots are invalidated. */
+    private int generation;
+    
+    /** The components the ancestorListener is registered with. */
+    private final Set<Component> observedHierarchies = Collections.newSetFromMap(new WeakHashMap<Component, Boolean>());
+    
+    /** The AlphaPaintables the ancestorListener is registered with. */
+    private final Set<Component> observedAlphas = Collections.newSetFromMap(new WeakHashMap<Component, Boolean>());
+    
+    private final AncestorListener ancestorListener = new AncestorListener();
+    
     /**
      * Creates a new manager that forwards all calls to the delegate.
      * 
@@ -52,11 +103,73 @@ public class RepaintManagerX extends ForwardingRepaintManager {
         super(delegate);
     }
     
+    /**
+     * Returns a boolean indicating whether the translucent roots of components
+     * are cached.
+     * 
+     * @return {@code true} if translucent roots are cached; {@code false}
+     *         otherwise
+     * @see #setAncestorCachingEnabled(boolean)
+     */
+    public boolean isAncestorCachingEnabled() {
+        synchronized (lock) {
+            return ancestorCachingEnabled;
+        }
+    }
+    
+    /**
+     * Sets whether the translucent roots of components are cached. If enabled,
+     * the {@code AlphaPaintable} ancestors of a component are looked up for its
+     * first dirty region only, until the component hierarchy or the alpha of one
+     * of the ancestors changes. This includes components without a translucent
+     * ancestor, so each cached component is listened to.
+     * <p>
+     * The default value is {@code false}.
+     * 
+     * @param enabled
+     *            {@code true} to cache translucent roots; {@code false}
+     *            to look them up for each dirty region
+     * @see #isAncestorCachingEnabled()
+     */
+    public void setAncestorCachingEnabled(boolean enabled) {
+        List<Component> hierarchies;
+        List<Component> alphas;
+        
+        synchronized (lock) {
+            if (ancestorCachingEnabled == enabled) {
+                return;
+            }
+            ancestorCachingEnabled = enabled;
+            
+            if (enabled) {
+                return;
+            }
+            hierarchies = new ArrayList<Component>(observedHierarchies);
+            alphas = new ArrayList<Component>(observedAlphas);
+            observedHierarchies.clear();
+            observedAlphas.clear();
+            roots.clear();
+            generation++;
+        }
+        
+        for (Component c : hierarchies) {
+            c.removeHierarchyListener(ancestorListener);
+        }
+        for (Component c : alphas) {
+            c.removePropertyChangeListener("alpha", ancestorListener);
+        }
+    }
+    
     /**
      * {@inheritDoc}
      */
     @Override
     public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+        if (isAncestorCachingEnabled()) {
+            addDirtyRegionCached(c, x, y, w, h);
+            return;
+        }
+        
         AlphaPaintable alphaPaintable = (AlphaPaintable) SwingUtilities.getAncestorOfClass(AlphaPaintable.class, c);
         
         if (alphaPaintable != null && alphaPaintable.getAlpha() < 1f) {
@@ -66,4 +179,133 @@ public class RepaintManagerX extends ForwardingRepaintManager {
             super.addDirtyRegion(c, x, y, w, h);
         }
     }
+    
+    private void addDirtyRegionCached(JComponent c, int x, int y, int w, int h) {
+        JComponent root = getTranslucentRoot(c);
+        
+        if (root == null) {
+            super.addDirtyRegion(c, x, y, w, h);
+        } else {
+            Point p = SwingUtilities.convertPoint(c, x, y, root);
+            super.addDirtyRegion(root, p.x, p.y, w, h);
+        }
+    }
+    
+    /**
+     * Returns the outermost translucent {@code AlphaPaintable} the dirty regions
+     * of the given component are redirected to, looking it up if it is not
+     * cached. This is the component the recursion of the uncached lookup ends
+     * with.
+     * 
+     * @param c
+     *            the component to return the translucent root for
+     * @return the translucent root or {@code null} if the component has no
+     *         translucent {@code AlphaPaintable} ancestor
+     */
+    private JComponent getTranslucentRoot(JComponent c) {
+        int expectedGeneration;
+        
+        synchronized (lock) {
+            WeakReference<JComponent> cached = roots.get(c);
+            
+            if (cached == NO_ROOT) {
+                return null;
+            }
+            JComponent root = cached == null ? null : cached.get();
+            
+            if (root != null) {
+                return root;
+            }
+            expectedGeneration = generation;
+        }
+        
+        JComponent root = null;
+        Component current = c;
+        AlphaPaintable alphaPaintable;
+        List<Component> chain = new ArrayList<Component>();
+        
+        while ((alphaPaintable = (AlphaPaintable) SwingUtilities.getAncestorOfClass(
+                AlphaPaintable.class, current)) != null) {
+            // the opaque ancestor ending the lookup must be observed as well
+            chain.add((Component) alphaPaintable);
+            
+            if (alphaPaintable.getAlpha() >= 1f) {
+                break;
+            }
+            root = (JComponent) alphaPaintable;
+            current = root;
+        }
+        
+        // listeners are added without holding the lock: hierarchy events are
+        // fired with the tree lock held, which is needed to add listeners
+        for (Component ancestor : chain) {
+            observe(ancestor, observedAlphas);
+        }
+        observe(c, observedHierarchies);
+        
+        synchronized (lock) {
+            // don't cache a root which was invalidated during the lookup
+            if (ancestorCachingEnabled && generation == expectedGeneration) {
+                roots.put(c, root == null ? NO_ROOT : new WeakReference<JComponent>(root));
+            }
+        }
+        
+        return root;
+    }
+    
+    private void observe(Component c, Set<Component> observed) {
+        synchronized (lock) {
+            if (!ancestorCachingEnabled || !observed.add(c)) {
+                return;
+            }
+        }
+        
+        if (observed == observedAlphas) {
+            c.addPropertyChangeListener("alpha", ancestorListener);
+        } else {
+            c.addHierarchyListener(ancestorListener);
+        }
+    }
+    
+    /**
+     * Invalidates cached translucent roots. A change of the parent of a
+     * component or any of its ancestors invalidates the root of the
+     * component and stops observing it; a change of an alpha from or to
+     * fully opaque invalidates all roots.
+     */
+    private class AncestorListener implements HierarchyListener, PropertyChangeListener {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void hierarchyChanged(HierarchyEvent e) {
+            if ((e.getChangeFlags() & HierarchyEvent.PARENT_CHANGED) != 0) {
+                Component c = e.getComponent();
+                
+                synchronized (lock) {
+                    roots.remove(c);
+                    observedHierarchies.remove(c);
+                    generation++;
+                }
+                c.removeHierarchyListener(this);
+            }
+        }
+        
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            Object oldValue = evt.getOldValue();
+            Object newValue = evt.getNewValue();
+            
+            if (!(oldValue instanceof Float) || !(newValue instanceof Float)
+                    || ((Float) oldValue < 1f) != ((Float) newValue < 1f)) {
+                synchronized (lock) {
+                    roots.clear();
+                    generation++;
+                }
+            }
+        }
+    }
 }
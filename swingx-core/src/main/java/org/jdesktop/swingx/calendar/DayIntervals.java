@@ -0,0 +1,292 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.calendar;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of days, stored as sorted, disjoint and non-adjacent 
+ * intervals of epoch days in primitive arrays. Membership is answered in 
+ * O(log k) for k intervals, without allocation. Modifications return a new 
+ * instance (or this, if nothing changed), so instances can be shared freely
+ * as snapshots.
+ */
+final class DayIntervals {
+
+    static final DayIntervals EMPTY = new DayIntervals(new long[0], new long[0]);
+
+    /** The first days of the intervals, inclusive. */
+    private final long[] starts;
+    /** The last days of the intervals, inclusive. */
+    private final long[] ends;
+
+    private DayIntervals(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Returns the interval of the given days.
+     * 
+     * @param start the first day, inclusive
+     * @param end the last day, inclusive
+     * @return the interval of the given days, EMPTY if start &gt; end.
+     */
+    static DayIntervals of(long start, long end) {
+        if (start > end) return EMPTY;
+        return new DayIntervals(new long[] {start}, new long[] {end});
+    }
+
+    /**
+     * Returns the intervals covering the given days. 
+     * 
+     * @param days the days in any order, duplicates allowed. The array 
+     *   is sorted by this method.
+     * @param count the number of days to use from the array
+     * @return the intervals covering the given days.
+     */
+    static DayIntervals of(long[] days, int count) {
+        if (count == 0) return EMPTY;
+        Arrays.sort(days, 0, count);
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (size > 0 && days[i] <= ends[size - 1] + 1) {
+                ends[size - 1] = Math.max(ends[size - 1], days[i]);
+            } else {
+                starts[size] = days[i];
+                ends[size] = days[i];
+                size++;
+            }
+        }
+        return new DayIntervals(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    /**
+     * @return the number of intervals.
+     */
+    int size() {
+        return starts.length;
+    }
+
+    /**
+     * @return true if there are no days, false otherwise.
+     */
+    boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    /**
+     * @param index the index of the interval
+     * @return the first day of the interval at the given index.
+     */
+    long getStart(int index) {
+        return starts[index];
+    }
+
+    /**
+     * @param index the index of the interval
+     * @return the last day of the interval at the given index.
+     */
+    long getEnd(int index) {
+        return ends[index];
+    }
+
+    /**
+     * @param day the epoch day
+     * @return true if the given day is contained, false otherwise.
+     */
+    boolean contains(long day) {
+        int index = lastStartingAtOrBefore(day);
+        return index >= 0 && ends[index] >= day;
+    }
+
+    /**
+     * Returns the number of days contained in the given range of days.
+     * 
+     * @param from the first day of the range, inclusive
+     * @param to the last day of the range, inclusive
+     * @return the number of days contained in the range.
+     */
+    long count(long from, long to) {
+        long count = 0;
+        for (int i = firstEndingAtOrAfter(from); i < starts.length && starts[i] <= to; i++) {
+            count += Math.min(ends[i], to) - Math.max(starts[i], from) + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the first interval which ends at or after the 
+     * given day, or size if there is none.
+     * 
+     * @param day the epoch day
+     * @return the index of the first interval ending at or after the day
+     */
+    int firstEndingAtOrAfter(long day) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the last interval which starts at or before the 
+     * given day, or -1 if there is none.
+     * 
+     * @param day the epoch day
+     * @return the index of the last interval starting at or before the day
+     */
+    int lastStartingAtOrBefore(long day) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] <= day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Adds the given days.
+     * 
+     * @param start the first day, inclusive
+     * @param end the last day, inclusive
+     * @return the intervals with the given days added.
+     */
+    DayIntervals add(long start, long end) {
+        if (start > end) return this;
+        // merges overlapping and adjacent intervals
+        int low = firstEndingAtOrAfter(start - 1);
+        int high = lastStartingAtOrBefore(end + 1);
+        if (low == high && starts[low] <= start && ends[high] >= end) {
+            return this;
+        }
+        if (low <= high) {
+            start = Math.min(start, starts[low]);
+            end = Math.max(end, ends[high]);
+        }
+        int size = starts.length - (high - low + 1) + 1;
+        long[] newStarts = new long[size];
+        long[] newEnds = new long[size];
+        System.arraycopy(starts, 0, newStarts, 0, low);
+        System.arraycopy(ends, 0, newEnds, 0, low);
+        newStarts[low] = start;
+        newEnds[low] = end;
+        System.arraycopy(starts, high + 1, newStarts, low + 1, starts.length - high - 1);
+        System.arraycopy(ends, high + 1, newEnds, low + 1, ends.length - high - 1);
+        return new DayIntervals(newStarts, newEnds);
+    }
+
+    /**
+     * Adds all days of the given intervals.
+     * 
+     * @param other the days to add
+     * @return the intervals with the given days added.
+     */
+    DayIntervals add(DayIntervals other) {
+        if (isEmpty()) return other;
+        DayIntervals result = this;
+        for (int i = 0; i < other.size(); i++) {
+            result = result.add(other.starts[i], other.ends[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Removes the given days.
+     * 
+     * @param start the first day, inclusive
+     * @param end the last day, inclusive
+     * @return the intervals with the given days removed.
+     */
+    DayIntervals remove(long start, long end) {
+        if (start > end) return this;
+        int low = firstEndingAtOrAfter(start);
+        int high = lastStartingAtOrBefore(end);
+        if (low > high) return this;
+        boolean left = starts[low] < start;
+        boolean right = ends[high] > end;
+        int size = starts.length - (high - low + 1) + (left ? 1 : 0) + (right ? 1 : 0);
+        long[] newStarts = new long[size];
+        long[] newEnds = new long[size];
+        System.arraycopy(starts, 0, newStarts, 0, low);
+        System.arraycopy(ends, 0, newEnds, 0, low);
+        int index = low;
+        if (left) {
+            newStarts[index] = starts[low];
+            newEnds[index++] = start - 1;
+        }
+        if (right) {
+            newStarts[index] = end + 1;
+            newEnds[index++] = ends[high];
+        }
+        System.arraycopy(starts, high + 1, newStarts, index, starts.length - high - 1);
+        System.arraycopy(ends, high + 1, newEnds, index, ends.length - high - 1);
+        return new DayIntervals(newStarts, newEnds);
+    }
+
+    /**
+     * Removes all days of the given intervals.
+     * 
+     * @param other the days to remove
+     * @return the intervals with the given days removed.
+     */
+    DayIntervals remove(DayIntervals other) {
+        DayIntervals result = this;
+        for (int i = 0; i < other.size() && !result.isEmpty(); i++) {
+            result = result.remove(other.starts[i], other.ends[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Removes all days outside of the given range.
+     * 
+     * @param from the first day to keep, inclusive
+     * @param to the last day to keep, inclusive
+     * @return the intervals restricted to the given range.
+     */
+    DayIntervals retain(long from, long to) {
+        if (from > to) return EMPTY;
+        DayIntervals result = this;
+        if (from != Long.MIN_VALUE) {
+            result = result.remove(Long.MIN_VALUE, from - 1);
+        }
+        if (to != Long.MAX_VALUE) {
+            result = result.remove(to + 1, Long.MAX_VALUE);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.calendar;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+import org.jdesktop.swingx.event.DateSelectionEvent.EventType;
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * DateSelectionModel which normalizes all dates to the start of the day, like
+ * DaySelectionModel, but stores the selected and unselectable days as 
+ * sorted intervals of days instead of a set of dates per day. <p>
+ * 
+ * Selecting a range of days is independent of the number of days in the
+ * range. The membership queries isSelected and isUnselectableDate are 
+ * answered by a binary search over the intervals without creating any 
+ * objects. The sets returned by getSelection and getUnselectableDates are 
+ * unmodifiable snapshots backed by the intervals, the dates are created
+ * on access only. <p>
+ * 
+ * The days are in the coordinates of the model's calendar: a date belongs to 
+ * the day which contains it in the calendar's time zone.
+ * 
+ * @see DaySelectionModel
+ */
+public class IntervalDateSelectionModel extends AbstractDateSelectionModel {
+    private SelectionMode selectionMode;
+    private DayIntervals selectedDays;
+    private DayIntervals unselectableDays;
+
+    /**
+     * Instantiates a model with the default locale. 
+     */
+    public IntervalDateSelectionModel() {
+        this(null);
+    }
+
+    /**
+     * Instantiates a model with the given locale. The selection mode 
+     * defaults to SINGLE_SELECTION.
+     * 
+     * @param locale the Locale to use with this model, defaults to 
+     *    Locale.default() if null.
+     */
+    public IntervalDateSelectionModel(Locale locale) {
+        super(locale);
+        this.selectionMode = SelectionMode.SINGLE_SELECTION;
+        this.selectedDays = DayIntervals.EMPTY;
+        this.unselectableDays = DayIntervals.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SelectionMode getSelectionMode() {
+        return selectionMode;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSelectionMode(final SelectionMode selectionMode) {
+        this.selectionMode = selectionMode;
+        clearSelection();
+    }
+
+    //---------------------- selection ops    
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addSelectionInterval(Date startDate, Date endDate) {
+        if (startDate.after(endDate)) {
+            return;
+        }
+        long startDay = toDay(startDate);
+        long endDay = toDay(endDate);
+        boolean added = false;
+        switch (selectionMode) {
+            case SINGLE_SELECTION:
+                if (selectedDays.contains(startDay)) return;
+                clearSelectionImpl();
+                added = addSelectionImpl(startDay, startDay);
+                break;
+            case SINGLE_INTERVAL_SELECTION:
+                if (isIntervalSelected(startDay, endDay)) return;
+                clearSelectionImpl();
+                added = addSelectionImpl(startDay, endDay);
+                break;
+            case MULTIPLE_INTERVAL_SELECTION:
+                if (isIntervalSelected(startDay, endDay)) return;
+                added = addSelectionImpl(startDay, endDay);
+                break;
+            default:
+                break;
+        }
+        if (added) {
+            fireValueChanged(EventType.DATES_ADDED);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setSelectionInterval(Date startDate, Date endDate) {
+        long startDay = toDay(startDate);
+        long endDay = toDay(endDate);
+        if (SelectionMode.SINGLE_SELECTION.equals(selectionMode)) {
+           if (selectedDays.contains(startDay)) return;
+           endDay = startDay;
+        } else {
+            if (isIntervalSelected(startDay, endDay)) return;
+        }
+        clearSelectionImpl();
+        if (addSelectionImpl(startDay, endDay)) {
+            fireValueChanged(EventType.DATES_SET);
+        }
+    }
+
+    /**
+     * Checks and returns if the single interval bounded by the given days 
+     * is selected. This is useful only for SingleInterval mode.
+     * 
+     * @param startDay the first day of the interval
+     * @param endDay the last day of the interval
+     * @return true the interval is selected, false otherwise.
+     */
+    private boolean isIntervalSelected(long startDay, long endDay) {
+        if (isSelectionEmpty()) return false;
+        return selectedDays.getStart(0) == startDay 
+            && selectedDays.getEnd(selectedDays.size() - 1) == endDay;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeSelectionInterval(Date startDate, Date endDate) {
+        if (startDate.after(endDate)) {
+            return;
+        }
+        DayIntervals remaining = selectedDays.remove(toDay(startDate), toDay(endDate));
+        if (remaining != selectedDays) {
+            selectedDays = remaining;
+            fireValueChanged(EventType.DATES_REMOVED);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clearSelection() {
+        if (isSelectionEmpty()) return;
+        clearSelectionImpl();
+        fireValueChanged(EventType.SELECTION_CLEARED);
+    }
+
+    private void clearSelectionImpl() {
+        selectedDays = DayIntervals.EMPTY;
+    }
+
+    /**
+     * Adds the selectable days of the given interval to the selection.
+     * 
+     * @param startDay the first day, inclusive
+     * @param endDay the last day, inclusive
+     * @return true if the interval contained any selectable day, false otherwise
+     */
+    private boolean addSelectionImpl(long startDay, long endDay) {
+        if (lowerBound != null) {
+            startDay = Math.max(startDay, toDay(lowerBound));
+        }
+        if (upperBound != null) {
+            endDay = Math.min(endDay, toDay(upperBound));
+        }
+        DayIntervals added = DayIntervals.of(startDay, endDay).remove(unselectableDays);
+        if (added.isEmpty()) return false;
+        selectedDays = selectedDays.add(added);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return an unmodifiable snapshot of the selection. 
+     */
+    @Override
+    public SortedSet<Date> getSelection() {
+        return new DaySet(selectedDays, (Calendar) calendar.clone());
+    }
+
+    /**
+     * Returns the current selection as intervals of consecutive days. Each
+     * DateSpan starts at the start of its first day and ends at the end of 
+     * its last day. The list is an unmodifiable snapshot.
+     * 
+     * @return the list of selected intervals, sorted by date, guaranteed to
+     *   be never null.
+     */
+    public List<DateSpan> getSelectionIntervals() {
+        final DayIntervals intervals = selectedDays;
+        final Calendar calendar = (Calendar) this.calendar.clone();
+        return new AbstractList<DateSpan>() {
+            @Override
+            public DateSpan get(int index) {
+                return new DateSpan(toMillis(calendar, intervals.getStart(index)), 
+                        toMillis(calendar, intervals.getEnd(index) + 1) - 1);
+            }
+
+            @Override
+            public int size() {
+                return intervals.size();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Date getFirstSelectionDate() {
+        return isSelectionEmpty() ? null : toDate(selectedDays.getStart(0));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Date getLastSelectionDate() {
+        return isSelectionEmpty() ? null : toDate(selectedDays.getEnd(selectedDays.size() - 1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSelected(Date date) {
+        return selectedDays.contains(toDay(date));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSelectionEmpty() {
+        return selectedDays.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return an unmodifiable snapshot of the unselectable
+     * days.
+     */
+    @Override
+    public SortedSet<Date> getUnselectableDates() {
+        return new DaySet(unselectableDays, (Calendar) calendar.clone());
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to make all days unselectable which contain any of the 
+     * given dates.
+     */
+    @Override
+    public void setUnselectableDates(SortedSet<Date> unselectables) {
+        if (unselectables instanceof DaySet 
+                && ((DaySet) unselectables).calendar.getTimeZone().equals(getTimeZone())) {
+            unselectableDays = ((DaySet) unselectables).getIntervals();
+        } else {
+            long[] days = new long[unselectables.size()];
+            int count = 0;
+            for (Date date : unselectables) {
+                days[count++] = toDay(date);
+            }
+            unselectableDays = DayIntervals.of(days, count);
+        }
+        DayIntervals remaining = selectedDays.remove(unselectableDays);
+        if (remaining != selectedDays) {
+            selectedDays = remaining;
+            fireValueChanged(EventType.DATES_REMOVED);
+        }
+        fireValueChanged(EventType.UNSELECTED_DATES_CHANGED);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isUnselectableDate(Date date) {
+        long day = toDay(date);
+        return upperBound != null && toDay(upperBound) < day ||
+                lowerBound != null && toDay(lowerBound) > day ||
+                unselectableDays.contains(day);
+    }
+
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Implemented to return the start of the day which contains the date.
+     */
+    @Override
+    public Date getNormalizedDate(Date date) {
+        Contract.asNotNull(date, "date must not be null");
+        return startOfDay(date);
+    }
+
+//------------------- days
+
+    /**
+     * Returns the day which contains the given date in this model's calendar.
+     * 
+     * @param date the date, must not be null
+     * @return the day containing the date, as days since the epoch
+     */
+    private long toDay(Date date) {
+        return toDay(calendar, date.getTime());
+    }
+
+    /**
+     * Returns the start of the given day in this model's calendar. 
+     * NOTE: the calendar is changed by this operation.
+     * 
+     * @param day the day, as days since the epoch
+     * @return the start of the day
+     */
+    private Date toDate(long day) {
+        return new Date(toMillis(calendar, day));
+    }
+
+    /**
+     * Returns the day which contains the given instant in the time zone of 
+     * the given calendar.
+     * 
+     * @param calendar the calendar
+     * @param millis the instant
+     * @return the day containing the instant, as days since the epoch
+     */
+    static long toDay(Calendar calendar, long millis) {
+        return Math.floorDiv(millis + calendar.getTimeZone().getOffset(millis), 
+                CalendarUtils.ONE_DAY);
+    }
+
+    /**
+     * Returns the start of the given day in the given calendar.
+     * NOTE: the calendar is changed by this operation.
+     * 
+     * @param calendar the calendar
+     * @param day the day, as days since the epoch
+     * @return the start of the day, in milliseconds since the epoch
+     */
+    static long toMillis(Calendar calendar, long day) {
+        // about noon of the day, far enough from the day's bounds for any 
+        // change of the time zone's offset
+        long noon = day * CalendarUtils.ONE_DAY + CalendarUtils.ONE_DAY / 2;
+        calendar.setTimeInMillis(noon - calendar.getTimeZone().getOffset(noon));
+        CalendarUtils.startOfDay(calendar);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Unmodifiable sorted set of the start dates of the days in the given 
+     * intervals, restricted to a range of days. The dates are created on 
+     * access.
+     */
+    private static final class DaySet extends AbstractSet<Date> implements SortedSet<Date> {
+        private final DayIntervals intervals;
+        private final Calendar calendar;
+        /** the first day of the range, inclusive. */
+        private final long from;
+        /** the last day of the range, inclusive. */
+        private final long to;
+
+        DaySet(DayIntervals intervals, Calendar calendar) {
+            this(intervals, calendar, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        private DaySet(DayIntervals intervals, Calendar calendar, long from, long to) {
+            this.intervals = intervals;
+            this.calendar = calendar;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return the intervals restricted to the range of this set.
+         */
+        DayIntervals getIntervals() {
+            return intervals.retain(from, to);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, intervals.count(from, to));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            int index = intervals.firstEndingAtOrAfter(from);
+            return index == intervals.size() || intervals.getStart(index) > to;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Date)) return false;
+            long millis = ((Date) o).getTime();
+            long day = toDay(calendar, millis);
+            return day >= from && day <= to && intervals.contains(day) 
+                    && toMillis(calendar, day) == millis;
+        }
+
+        @Override
+        public Iterator<Date> iterator() {
+            return new Iterator<Date>() {
+                private int index = intervals.firstEndingAtOrAfter(from);
+                private long day = index < intervals.size() 
+                        ? Math.max(from, intervals.getStart(index)) : 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < intervals.size() && day <= to;
+                }
+
+                @Override
+                public Date next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    Date date = new Date(toMillis(calendar, day));
+                    if (day < intervals.getEnd(index)) {
+                        day++;
+                    } else if (++index < intervals.size()) {
+                        day = intervals.getStart(index);
+                    }
+                    return date;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super Date> comparator() {
+            return null;
+        }
+
+        @Override
+        public Date first() {
+            int index = intervals.firstEndingAtOrAfter(from);
+            if (index == intervals.size() || intervals.getStart(index) > to) {
+                throw new NoSuchElementException();
+            }
+            return new Date(toMillis(calendar, Math.max(from, intervals.getStart(index))));
+        }
+
+        @Override
+        public Date last() {
+            int index = intervals.lastStartingAtOrBefore(to);
+            if (index < 0 || intervals.getEnd(index) < from) {
+                throw new NoSuchElementException();
+            }
+            return new Date(toMillis(calendar, Math.min(to, intervals.getEnd(index))));
+        }
+
+        @Override
+        public SortedSet<Date> subSet(Date fromElement, Date toElement) {
+            if (fromElement.after(toElement)) {
+                throw new IllegalArgumentException("fromElement must not be after toElement");
+            }
+            return new DaySet(intervals, calendar, 
+                    Math.max(from, ceilDay(fromElement)), Math.min(to, ceilDay(toElement) - 1));
+        }
+
+        @Override
+        public SortedSet<Date> headSet(Date toElement) {
+            return new DaySet(intervals, calendar, from, Math.min(to, ceilDay(toElement) - 1));
+        }
+
+        @Override
+        public SortedSet<Date> tailSet(Date fromElement) {
+            return new DaySet(intervals, calendar, Math.max(from, ceilDay(fromElement)), to);
+        }
+
+        /**
+         * Returns the first day which starts at or after the given date.
+         */
+        private long ceilDay(Date date) {
+            long day = toDay(calendar, date.getTime());
+            return toMillis(calendar, day) < date.getTime() ? day + 1 : day;
+        }
+    }
+}
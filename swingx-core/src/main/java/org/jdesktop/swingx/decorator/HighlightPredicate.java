@@ -112,8 +112,17 @@ public interface HighlightPredicate {
     /**
      * Rollover  Row.
      */
-    public static final HighlightPredicate ROLLOVER_ROW = new HighlightPredicate() {
+    public static final HighlightPredicate ROLLOVER_ROW = new ScopedHighlightPredicate() {
         
+        /**
+         * {@inheritDoc}
+         * Implemented to return ROW.
+         */
+        @Override
+        public Scope getScope() {
+            return Scope.ROW;
+        }
+
         /**
          * {@inheritDoc}
          * Implemented to return true if the adapter's component is enabled and
@@ -135,8 +144,17 @@ public interface HighlightPredicate {
     /**
      * Rollover  Column.
      */
-    public static final HighlightPredicate ROLLOVER_COLUMN = new HighlightPredicate() {
+    public static final HighlightPredicate ROLLOVER_COLUMN = new ScopedHighlightPredicate() {
         
+        /**
+         * {@inheritDoc}
+         * Implemented to return COLUMN.
+         */
+        @Override
+        public Scope getScope() {
+            return Scope.COLUMN;
+        }
+
         /**
          * {@inheritDoc}
          * Implemented to return true if the adapter's component is enabled and
@@ -313,7 +331,12 @@ public interface HighlightPredicate {
      * from the old AlternateRowHighlighter.
      * 
      */
-    public static final HighlightPredicate EVEN = new HighlightPredicate() {
+    public static final HighlightPredicate EVEN = new ScopedHighlightPredicate() {
+
+        @Override
+        public Scope getScope() {
+            return Scope.ROW;
+        }
 
         @Override
         public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
@@ -329,7 +352,12 @@ public interface HighlightPredicate {
      * the old implementation which was one based?
      * 
      */
-    public static final HighlightPredicate ODD = new HighlightPredicate() {
+    public static final HighlightPredicate ODD = new ScopedHighlightPredicate() {
+
+        @Override
+        public Scope getScope() {
+            return Scope.ROW;
+        }
 
         @Override
         public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
@@ -371,6 +399,41 @@ public interface HighlightPredicate {
     public static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
     public static final Integer[] EMPTY_INTEGER_ARRAY = new Integer[0];
     
+//----------------- scope
+
+    /**
+     * The part of the adapter's state a <code>ScopedHighlightPredicate</code>
+     * depends on.
+     */
+    public static enum Scope {
+        /** depends on the row and on the component's state only. */
+        ROW, 
+        /** depends on the column and on the component's state only. */
+        COLUMN, 
+        /** might depend on anything. */
+        CELL
+    }
+    
+    /**
+     * A HighlightPredicate which declares the part of the adapter's state its
+     * decision depends on. Row or column scoped predicates must not depend 
+     * on the renderer, the value or any other cell state, which allows to
+     * evaluate them once per row or column for all cells painted in one go.
+     * They must not rely on the order of evaluation in compound predicates
+     * either. <p>
+     * 
+     * @see HighlighterPipeline
+     */
+    public static interface ScopedHighlightPredicate extends HighlightPredicate {
+        
+        /**
+         * Returns the scope of this predicate.
+         * 
+         * @return the scope of this predicate, must not be null
+         */
+        Scope getScope();
+    }
+    
 //----------------- logical implementations amongst HighlightPredicates
     
     /**
@@ -507,7 +570,7 @@ public interface HighlightPredicate {
     
 //------------------------ coordinates
     
-    public static class RowGroupHighlightPredicate implements HighlightPredicate {
+    public static class RowGroupHighlightPredicate implements ScopedHighlightPredicate {
 
         private int linesPerGroup;
 
@@ -538,6 +601,15 @@ public interface HighlightPredicate {
             return (adapter.row / linesPerGroup) % 2 == 1;
         }
 
+        /**
+         * {@inheritDoc}
+         * Implemented to return ROW.
+         */
+        @Override
+        public Scope getScope() {
+            return Scope.ROW;
+        }
+
         /**
          * 
          * @return the number of lines per group.
@@ -552,7 +624,7 @@ public interface HighlightPredicate {
      * A HighlightPredicate based on column index.
      * 
      */
-    public static class ColumnHighlightPredicate implements HighlightPredicate {
+    public static class ColumnHighlightPredicate implements ScopedHighlightPredicate {
         List<Integer> columnList;
         
         /**
@@ -581,6 +653,15 @@ public interface HighlightPredicate {
             return columnList.contains(modelIndex);
         }
 
+        /**
+         * {@inheritDoc}
+         * Implemented to return COLUMN.
+         */
+        @Override
+        public Scope getScope() {
+            return Scope.COLUMN;
+        }
+
         /**
          * PENDING JW: get array of int instead of Integer?
          * 
@@ -598,7 +679,7 @@ public interface HighlightPredicate {
      * A HighlightPredicate based on column identifier.
      * 
      */
-    public static class IdentifierHighlightPredicate implements HighlightPredicate {
+    public static class IdentifierHighlightPredicate implements ScopedHighlightPredicate {
         List<Object> columnList;
         
         /**
@@ -628,6 +709,15 @@ public interface HighlightPredicate {
             return identifier != null ? columnList.contains(identifier) : false;
         }
 
+        /**
+         * {@inheritDoc}
+         * Implemented to return COLUMN.
+         */
+        @Override
+        public Scope getScope() {
+            return Scope.COLUMN;
+        }
+
         /**
          * @return the identifiers
          */
@@ -789,7 +879,7 @@ public interface HighlightPredicate {
      * Predicate testing the componentAdapter column type against a given
      * Class. 
      */
-    public static class ColumnTypeHighlightPredicate implements HighlightPredicate {
+    public static class ColumnTypeHighlightPredicate implements ScopedHighlightPredicate {
 
         private Class<?> clazz;
         
@@ -828,6 +918,15 @@ public interface HighlightPredicate {
         public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
             return clazz.isAssignableFrom(adapter.getColumnClass());
         }
+
+        /**
+         * {@inheritDoc}
+         * Implemented to return COLUMN.
+         */
+        @Override
+        public Scope getScope() {
+            return Scope.COLUMN;
+        }
         
         public Class<?> getType() {
             return clazz;
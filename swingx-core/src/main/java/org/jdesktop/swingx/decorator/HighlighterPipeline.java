@@ -0,0 +1,474 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.decorator;
+
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.jdesktop.swingx.decorator.HighlightPredicate.AndHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.NotHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.OrHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.Scope;
+import org.jdesktop.swingx.decorator.HighlightPredicate.ScopedHighlightPredicate;
+import org.jdesktop.swingx.util.Contract;
+
+/**
+ * An execution plan compiled from a <code>Highlighter</code>, typically the
+ * <code>CompoundHighlighter</code> of a collection component. Applying the
+ * plan has the same effect as applying the Highlighter, but is cheaper if
+ * many cells are highlighted in one go.<p>
+ *
+ * Compiling flattens plain CompoundHighlighters and AbstractHighlighters
+ * into a list of steps and their predicates into a tree of nodes:
+ * <ul>
+ * <li> Highlighters with a predicate which is NEVER are dropped,
+ *      predicates which are ALWAYS are not evaluated. Not, And and Or
+ *      predicates are folded accordingly.
+ * <li> <code>ScopedHighlightPredicate</code>s of scope ROW or COLUMN are
+ *      evaluated once per row or column during a pass, that is between
+ *      <code>beginPass</code> and <code>endPass</code>. Outside of a pass
+ *      they are evaluated per cell. Predicates shared by several
+ *      highlighters share the memoized result. The scope is ignored if
+ *      it isn't declared by the class implementing <code>isHighlighted</code>,
+ *      f.i. for a subclass of a scoped predicate which overrides
+ *      <code>isHighlighted</code> only.
+ * <li> Other Highlighters are applied as-is.
+ * </ul>
+ *
+ * The plan listens to the Highlighter and is re-compiled lazily on
+ * change notification.<p>
+ *
+ * A pass is bracketed by a client which highlights cells of a single
+ * component, f.i. while painting. The state of the component
+ * which might influence a scoped predicate must not change during a pass.
+ *
+ * @see HighlightPredicate.ScopedHighlightPredicate
+ */
+public class HighlighterPipeline {
+
+    private final Highlighter highlighter;
+
+    /** the compiled steps, null if invalid. */
+    private Step[] steps;
+
+    /** the current pass, 0 if not in a pass. */
+    private int pass;
+    private int lastPass;
+    private int passDepth;
+
+    /** strong reference, highlighters keep their listeners weakly. */
+    private final ChangeListener highlighterListener = new ChangeListener() {
+        @Override
+        public void stateChanged(ChangeEvent e) {
+            steps = null;
+        }
+    };
+
+    /**
+     * Instantiates a plan for the given Highlighter.
+     *
+     * @param highlighter the Highlighter to compile, must not be null
+     * @throws NullPointerException if the highlighter is null
+     */
+    public HighlighterPipeline(Highlighter highlighter) {
+        this.highlighter = Contract.asNotNull(highlighter, "highlighter must not be null");
+        highlighter.addChangeListener(highlighterListener);
+    }
+
+    /**
+     * Returns the Highlighter this plan is compiled from.
+     *
+     * @return the compiled Highlighter
+     */
+    public Highlighter getHighlighter() {
+        return highlighter;
+    }
+
+    /**
+     * Stops listening to the Highlighter. The plan must not be used
+     * afterwards.
+     */
+    public void dispose() {
+        highlighter.removeChangeListener(highlighterListener);
+    }
+
+    /**
+     * Starts a pass: scoped predicates are evaluated once per row or
+     * column until the pass ends. Passes may be nested, the outermost
+     * defines the scope of memoized results.
+     *
+     * @see #endPass()
+     */
+    public void beginPass() {
+        if (passDepth++ == 0) {
+            pass = ++lastPass;
+            if (pass == 0) {
+                // wrapped around
+                pass = lastPass = 1;
+            }
+        }
+    }
+
+    /**
+     * Ends a pass.
+     *
+     * @see #beginPass()
+     */
+    public void endPass() {
+        if (passDepth > 0 && --passDepth == 0) {
+            pass = 0;
+        }
+    }
+
+    /**
+     * Decorates the given component as the Highlighter would do.
+     *
+     * @param component the cell renderer component that is to be decorated
+     * @param adapter the ComponentAdapter for this decorate operation
+     * @return the decorated cell rendering component
+     */
+    public Component highlight(Component component, ComponentAdapter adapter) {
+        if (steps == null) {
+            steps = compile();
+        }
+        for (Step step : steps) {
+            component = step.highlight(component, adapter);
+        }
+        return component;
+    }
+
+//------------------ compile
+
+    private Step[] compile() {
+        List<Step> list = new ArrayList<Step>();
+        compile(highlighter, list, new IdentityHashMap<HighlightPredicate, Node>());
+        return list.toArray(new Step[list.size()]);
+    }
+
+    private void compile(Highlighter hl, List<Step> list, Map<HighlightPredicate, Node> nodes) {
+        if (hl.getClass() == CompoundHighlighter.class) {
+            CompoundHighlighter compound = (CompoundHighlighter) hl;
+            Node node = compile(compound.getHighlightPredicate(), nodes);
+            if (node == FALSE) return;
+            List<Step> children = node == TRUE ? list : new ArrayList<Step>();
+            for (Highlighter child : compound.getHighlighters()) {
+                compile(child, children, nodes);
+            }
+            if (node != TRUE && !children.isEmpty()) {
+                list.add(new GroupStep(node, children.toArray(new Step[children.size()])));
+            }
+        } else if (hl instanceof AbstractHighlighter && !overridesHighlight(hl)) {
+            AbstractHighlighter abstractHighlighter = (AbstractHighlighter) hl;
+            Node node = compile(abstractHighlighter.getHighlightPredicate(), nodes);
+            if (node == FALSE) return;
+            list.add(new HighlighterStep(abstractHighlighter, node));
+        } else {
+            list.add(new OpaqueStep(hl));
+        }
+    }
+
+    private static boolean overridesHighlight(Highlighter hl) {
+        try {
+            return hl.getClass().getMethod("highlight", Component.class, ComponentAdapter.class)
+                    .getDeclaringClass() != AbstractHighlighter.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+
+    private Node compile(HighlightPredicate predicate, Map<HighlightPredicate, Node> nodes) {
+        Node node = nodes.get(predicate);
+        if (node == null) {
+            node = doCompile(predicate, nodes);
+            nodes.put(predicate, node);
+        }
+        return node;
+    }
+
+    private Node doCompile(HighlightPredicate predicate, Map<HighlightPredicate, Node> nodes) {
+        if (predicate == HighlightPredicate.ALWAYS) return TRUE;
+        if (predicate == HighlightPredicate.NEVER) return FALSE;
+        if (predicate.getClass() == NotHighlightPredicate.class) {
+            Node node = compile(((NotHighlightPredicate) predicate).getHighlightPredicate(), nodes);
+            if (node == TRUE) return FALSE;
+            if (node == FALSE) return TRUE;
+            return new NotNode(node);
+        }
+        if (predicate.getClass() == AndHighlightPredicate.class) {
+            HighlightPredicate[] predicates = ((AndHighlightPredicate) predicate).getHighlightPredicates();
+            // empty is false
+            if (predicates.length == 0) return FALSE;
+            List<Node> list = compile(predicates, TRUE, FALSE, nodes);
+            if (list == null) return FALSE;
+            if (list.isEmpty()) return TRUE;
+            return list.size() == 1 ? list.get(0) : new AndNode(list);
+        }
+        if (predicate.getClass() == OrHighlightPredicate.class) {
+            HighlightPredicate[] predicates = ((OrHighlightPredicate) predicate).getHighlightPredicates();
+            List<Node> list = compile(predicates, FALSE, TRUE, nodes);
+            if (list == null) return TRUE;
+            if (list.isEmpty()) return FALSE;
+            return list.size() == 1 ? list.get(0) : new OrNode(list);
+        }
+        if (predicate instanceof ScopedHighlightPredicate && declaresScope(predicate)) {
+            Scope scope = ((ScopedHighlightPredicate) predicate).getScope();
+            if (scope == Scope.ROW) return new RowNode(predicate);
+            if (scope == Scope.COLUMN) return new ColumnNode(predicate);
+        }
+        return new PredicateNode(predicate);
+    }
+
+    /**
+     * Returns true if getScope is declared by the class implementing 
+     * isHighlighted. An inherited scope might not hold for the overridden
+     * decision.
+     */
+    private static boolean declaresScope(HighlightPredicate predicate) {
+        try {
+            Class<?> clazz = predicate.getClass();
+            return clazz.getMethod("getScope").getDeclaringClass() 
+                    == clazz.getMethod("isHighlighted", Component.class, ComponentAdapter.class)
+                    .getDeclaringClass();
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compiles the operands of an And/Or in their original order. Drops the 
+     * neutral constants, returns null if a dominant constant is found.
+     */
+    private List<Node> compile(HighlightPredicate[] predicates, Node neutral, Node dominant,
+            Map<HighlightPredicate, Node> nodes) {
+        List<Node> list = new ArrayList<Node>();
+        for (HighlightPredicate hp : predicates) {
+            Node node = compile(hp, nodes);
+            if (node == dominant) return null;
+            if (node == neutral) continue;
+            list.add(node);
+        }
+        return list;
+    }
+
+//------------------ steps
+
+    private abstract static class Step {
+        abstract Component highlight(Component component, ComponentAdapter adapter);
+    }
+
+    /**
+     * Applies an AbstractHighlighter with its compiled predicate.
+     */
+    private static class HighlighterStep extends Step {
+        private final AbstractHighlighter highlighter;
+        private final Node predicate;
+
+        HighlighterStep(AbstractHighlighter highlighter, Node predicate) {
+            this.highlighter = highlighter;
+            this.predicate = predicate;
+        }
+
+        @Override
+        Component highlight(Component component, ComponentAdapter adapter) {
+            if (highlighter.canHighlight(component, adapter)
+                    && predicate.isHighlighted(component, adapter)) {
+                component = highlighter.doHighlight(component, adapter);
+            }
+            return component;
+        }
+    }
+
+    /**
+     * Applies the steps of a CompoundHighlighter with a predicate.
+     */
+    private static class GroupStep extends Step {
+        private final Node predicate;
+        private final Step[] steps;
+
+        GroupStep(Node predicate, Step[] steps) {
+            this.predicate = predicate;
+            this.steps = steps;
+        }
+
+        @Override
+        Component highlight(Component component, ComponentAdapter adapter) {
+            if (predicate.isHighlighted(component, adapter)) {
+                for (Step step : steps) {
+                    component = step.highlight(component, adapter);
+                }
+            }
+            return component;
+        }
+    }
+
+    /**
+     * Applies a Highlighter as-is.
+     */
+    private static class OpaqueStep extends Step {
+        private final Highlighter highlighter;
+
+        OpaqueStep(Highlighter highlighter) {
+            this.highlighter = highlighter;
+        }
+
+        @Override
+        Component highlight(Component component, ComponentAdapter adapter) {
+            return highlighter.highlight(component, adapter);
+        }
+    }
+
+//------------------ predicate nodes
+
+    private abstract static class Node {
+        abstract boolean isHighlighted(Component renderer, ComponentAdapter adapter);
+    }
+
+    private static final Node TRUE = new Node() {
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            return true;
+        }
+    };
+
+    private static final Node FALSE = new Node() {
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            return false;
+        }
+    };
+
+    private static class PredicateNode extends Node {
+        final HighlightPredicate predicate;
+
+        PredicateNode(HighlightPredicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            return predicate.isHighlighted(renderer, adapter);
+        }
+    }
+
+    /**
+     * Evaluates the predicate once per row and pass.
+     */
+    private class RowNode extends PredicateNode {
+        private int row = -1;
+        private int rowPass;
+        private boolean value;
+
+        RowNode(HighlightPredicate predicate) {
+            super(predicate);
+        }
+
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            if (pass == 0) return predicate.isHighlighted(renderer, adapter);
+            if (rowPass != pass || row != adapter.row) {
+                value = predicate.isHighlighted(renderer, adapter);
+                row = adapter.row;
+                rowPass = pass;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Evaluates the predicate once per column and pass.
+     */
+    private class ColumnNode extends PredicateNode {
+        private int[] passes = new int[0];
+        private boolean[] values = new boolean[0];
+
+        ColumnNode(HighlightPredicate predicate) {
+            super(predicate);
+        }
+
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            int column = adapter.column;
+            if (pass == 0 || column < 0) return predicate.isHighlighted(renderer, adapter);
+            if (column >= passes.length) {
+                passes = Arrays.copyOf(passes, column + 8);
+                values = Arrays.copyOf(values, column + 8);
+            }
+            if (passes[column] != pass) {
+                values[column] = predicate.isHighlighted(renderer, adapter);
+                passes[column] = pass;
+            }
+            return values[column];
+        }
+    }
+
+    private static class NotNode extends Node {
+        private final Node node;
+
+        NotNode(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            return !node.isHighlighted(renderer, adapter);
+        }
+    }
+
+    private static class AndNode extends Node {
+        private final Node[] nodes;
+
+        AndNode(List<Node> nodes) {
+            this.nodes = nodes.toArray(new Node[nodes.size()]);
+        }
+
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            for (Node node : nodes) {
+                if (!node.isHighlighted(renderer, adapter)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static class OrNode extends Node {
+        private final Node[] nodes;
+
+        OrNode(List<Node> nodes) {
+            this.nodes = nodes.toArray(new Node[nodes.size()]);
+        }
+
+        @Override
+        boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            for (Node node : nodes) {
+                if (node.isHighlighted(renderer, adapter)) return true;
+            }
+            return false;
+        }
+    }
+}
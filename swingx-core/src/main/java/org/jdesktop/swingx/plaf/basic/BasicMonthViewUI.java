@@ -64,6 +64,7 @@ import org.jdesktop.swingx.event.DateSelectionEvent;
 import org.jdesktop.swingx.event.DateSelectionListener;
 import org.jdesktop.swingx.plaf.MonthViewUI;
 import org.jdesktop.swingx.plaf.UIManagerExt;
+import org.jdesktop.swingx.plaf.basic.MonthLayoutCache.MonthLayout;
 
 /**
  * Base implementation of the <code>JXMonthView</code> UI.
@@ -229,6 +230,13 @@ public class BasicMonthViewUI extends MonthViewUI {
      */
     private CalendarHeaderHandler calendarHeaderHandler;
 
+    /**
+     * The day grids of the months, used by paint and hit-test paths instead of
+     * calendar arithmetic per day. Lazily re-created if the monthView's
+     * calendar configuration changed.
+     */
+    private MonthLayoutCache monthLayoutCache;
+
     @SuppressWarnings({ "UnusedDeclaration" })
     public static ComponentUI createUI(JComponent c) {
         return new BasicMonthViewUI();
@@ -265,6 +273,7 @@ public class BasicMonthViewUI extends MonthViewUI {
         uninstallComponents();
         monthView.setLayout(null);
         monthView = null;
+        monthLayoutCache = null;
     }
 
     /**
@@ -658,22 +667,38 @@ public class BasicMonthViewUI extends MonthViewUI {
         Rectangle monthBounds = getMonthBounds(month);
         if (monthBounds == null)
             return null;
+        return getDayBoundsInMonth(monthBounds, row, column, monthBounds);
+    }
+
+    /**
+     * Computes the bounds of the day box at logical coordinates in the month
+     * with the given bounds. No range checks, the week header column is
+     * expected to be showing if requested.
+     * 
+     * @param monthBounds the bounds of the month containing the day box
+     * @param row the logical row (== week) coordinate in the day grid
+     * @param column the logical column (== day) coordinate in the day grid
+     * @param dayBounds the rectangle to store the result in, may be the same
+     *        instance as monthBounds
+     * @return the dayBounds, set to the bounds of the day box
+     */
+    private Rectangle getDayBoundsInMonth(Rectangle monthBounds, int row, int column, Rectangle dayBounds) {
         // dayOfWeek header is shown always
-        monthBounds.y += getMonthHeaderHeight() + (row - DAY_HEADER_ROW) * fullBoxHeight;
+        int y = monthBounds.y + getMonthHeaderHeight() + (row - DAY_HEADER_ROW) * fullBoxHeight;
         // PENDING JW: still looks fishy ...
         int absoluteColumn = column - FIRST_DAY_COLUMN;
         if (monthView.isShowingWeekNumber()) {
             absoluteColumn++;
         }
+        int x;
         if (isLeftToRight) {
-            monthBounds.x += absoluteColumn * fullBoxWidth;
+            x = monthBounds.x + absoluteColumn * fullBoxWidth;
         } else {
             int leading = monthBounds.x + monthBounds.width - fullBoxWidth;
-            monthBounds.x = leading - absoluteColumn * fullBoxWidth;
+            x = leading - absoluteColumn * fullBoxWidth;
         }
-        monthBounds.width = fullBoxWidth;
-        monthBounds.height = fullBoxHeight;
-        return monthBounds;
+        dayBounds.setBounds(x, y, fullBoxWidth, fullBoxHeight);
+        return dayBounds;
     }
 
     /**
@@ -737,21 +762,17 @@ public class BasicMonthViewUI extends MonthViewUI {
     protected Date getDayInMonth(Date month, int row, int column) {
         if ((row == DAY_HEADER_ROW) || (column == WEEK_HEADER_COLUMN))
             return null;
-        Calendar calendar = getCalendar(month);
-        int monthField = calendar.get(Calendar.MONTH);
-        if (!CalendarUtils.isStartOfMonth(calendar))
-            throw new IllegalStateException("calendar must be start of month but was: " + month.getTime());
-        CalendarUtils.startOfWeek(calendar);
+        MonthLayout layout = getStartOfMonthLayout(month);
         // PENDING JW: correctly mapped now?
-        calendar.add(Calendar.DAY_OF_MONTH, (row - FIRST_WEEK_ROW) * DAYS_IN_WEEK + (column - FIRST_DAY_COLUMN));
+        int index = (row - FIRST_WEEK_ROW) * DAYS_IN_WEEK + (column - FIRST_DAY_COLUMN);
         // If leading and trailing days are shown, then you should be able to
         // select them aswell.
         if (monthView.isShowingLeadingDays() && monthView.isShowingTrailingDays()) {
-            return calendar.getTime();
+            return new Date(layout.getDayStart(index));
         }
         // if not only allow selection within month bounds.
-        if (calendar.get(Calendar.MONTH) == monthField) {
-            return calendar.getTime();
+        if (!layout.isLeading(index) && !layout.isTrailing(index)) {
+            return new Date(layout.getDayStart(index));
         }
         return null;
 
@@ -770,13 +791,23 @@ public class BasicMonthViewUI extends MonthViewUI {
     protected Date getLastDayInWeek(Date month, int row, int column) {
         if ((row == DAY_HEADER_ROW))
             return null;
-        Calendar calendar = getCalendar(month);
-        if (!CalendarUtils.isStartOfMonth(calendar))
-            throw new IllegalStateException("calendar must be start of month but was: " + month.getTime());
-        CalendarUtils.startOfWeek(calendar);
+        MonthLayout layout = getStartOfMonthLayout(month);
         // PENDING JW: correctly mapped now?
-        calendar.add(Calendar.DAY_OF_MONTH, (row) * DAYS_IN_WEEK + (column - FIRST_DAY_COLUMN));
-        return calendar.getTime();
+        return new Date(layout.getDayStart((row) * DAYS_IN_WEEK + (column - FIRST_DAY_COLUMN)));
+    }
+
+    /**
+     * Returns the layout of the given month.
+     * 
+     * @param month the start of the month, must not be null.
+     * @return the layout of the month
+     * @throws IllegalStateException if the month is not the start of the month.
+     */
+    private MonthLayout getStartOfMonthLayout(Date month) {
+        MonthLayout layout = getMonthLayoutCache().getLayout(month.getTime());
+        if (layout.getMonthStart() != month.getTime())
+            throw new IllegalStateException("calendar must be start of month but was: " + month.getTime());
+        return layout;
     }
 
     /**
@@ -792,26 +823,10 @@ public class BasicMonthViewUI extends MonthViewUI {
     protected Point getDayGridPosition(Date date) {
         if (!isVisible(date))
             return null;
-        Calendar calendar = getCalendar(date);
-        Date startOfDay = CalendarUtils.startOfDay(calendar, date);
-        // there must be a less ugly way?
-        // columns
-        CalendarUtils.startOfWeek(calendar);
-        int column = FIRST_DAY_COLUMN;
-        while (calendar.getTime().before(startOfDay)) {
-            column++;
-            calendar.add(Calendar.DAY_OF_MONTH, 1);
-        }
-
-        Date startOfWeek = CalendarUtils.startOfWeek(calendar, date);
-        calendar.setTime(date);
-        CalendarUtils.startOfMonth(calendar);
-        int row = FIRST_WEEK_ROW;
-        while (calendar.getTime().before(startOfWeek)) {
-            row++;
-            calendar.add(Calendar.WEEK_OF_YEAR, 1);
-        }
-        return new Point(column, row);
+        MonthLayoutCache cache = getMonthLayoutCache();
+        MonthLayout layout = cache.getLayout(cache.getStartOfMonth(date.getTime()));
+        int index = layout.indexOf(cache.getEpochDay(date.getTime()));
+        return new Point(index % DAYS_IN_WEEK + FIRST_DAY_COLUMN, index / DAYS_IN_WEEK + FIRST_WEEK_ROW);
     }
 
     /**
@@ -1385,12 +1400,14 @@ public class BasicMonthViewUI extends MonthViewUI {
      */
     protected void paintDayHeader(Graphics g, Calendar month) {
         paintDaysOfWeekSeparator(g, month);
-        Calendar cal = (Calendar) month.clone();
-        CalendarUtils.startOfWeek(cal);
+        Rectangle monthBounds = getMonthBounds(month.getTime());
+        MonthLayoutCache cache = getMonthLayoutCache();
+        MonthLayout layout = cache.getLayout(month.getTimeInMillis());
+        Rectangle dayBox = new Rectangle();
         for (int i = FIRST_DAY_COLUMN; i <= LAST_DAY_COLUMN; i++) {
-            Rectangle dayBox = getDayBoundsInMonth(month.getTime(), DAY_HEADER_ROW, i);
-            paintDayOfMonth(g, dayBox, cal, CalendarState.DAY_OF_WEEK);
-            cal.add(Calendar.DATE, 1);
+            getDayBoundsInMonth(monthBounds, DAY_HEADER_ROW, i, dayBox);
+            paintDayOfMonth(g, dayBox, cache.getCalendar(layout.getDayStart(i - FIRST_DAY_COLUMN)),
+                            CalendarState.DAY_OF_WEEK);
         }
     }
 
@@ -1408,58 +1425,28 @@ public class BasicMonthViewUI extends MonthViewUI {
             return;
 
         int weeks = getWeeks(month);
-        // the calendar passed to the renderers
-        Calendar weekCalendar = (Calendar) month.clone();
-
-        // Gets the weeknumber of the first day in month
-        int firstWeekOfMonth = month.get(Calendar.WEEK_OF_YEAR);
-        Calendar cal = (Calendar) month.clone();
-        cal.set(Calendar.DAY_OF_MONTH, month.getActualMaximum(Calendar.DAY_OF_MONTH));
-        // Gets the weeknumber of the last day in month
-        int lastWeekOfMonth = cal.get(Calendar.WEEK_OF_YEAR);
-        // In order to get the amount of weeknumbers in current month, we
-        // simple subtract the lowest weeknumber from the highest and add 1.
-        int weekOfYearAmountInMonth = lastWeekOfMonth - firstWeekOfMonth + 1;
-
-        // Special case for january, because the first weeknumber could be
-        // 52 or 53. That's why the calculation for weekOfYearAmountInMonth
-        // wouldn't work.
-        if (month.get(Calendar.MONTH) == Calendar.JANUARY) {
-            Calendar calendar = (Calendar) month.clone();
-            calendar.set(Calendar.DAY_OF_MONTH, 1);
-            if (calendar.get(Calendar.WEEK_OF_YEAR) >= 52) {
-                weekOfYearAmountInMonth = lastWeekOfMonth + 1;
-            }
-        }
-        // Special case for december, because the last weeknumber could be
-        // 1. That's why the calculation for amountOfWeeksOfYearInsideMonth
-        // wouldn't work.
-        else if (month.get(Calendar.MONTH) == Calendar.DECEMBER) {
-            Calendar calendar = (Calendar) month.clone();
-            calendar.set(Calendar.DAY_OF_MONTH, 31);
-            if (calendar.get(Calendar.WEEK_OF_YEAR) == 1) {
-                calendar.set(Calendar.DAY_OF_MONTH, 24);
-                lastWeekOfMonth = calendar.get(Calendar.WEEK_OF_YEAR) + 1;
-                weekOfYearAmountInMonth = lastWeekOfMonth - firstWeekOfMonth + 1;
-            }
-        }
-
+        Rectangle monthBounds = getMonthBounds(month.getTime());
+        MonthLayoutCache cache = getMonthLayoutCache();
+        MonthLayout layout = cache.getLayout(month.getTimeInMillis());
+        Rectangle dayBox = new Rectangle();
         // we loop by logical row (== week in month) coordinates
         for (int week = FIRST_WEEK_ROW; week < FIRST_WEEK_ROW + weeks; week++) {
             // get the day bounds based on logical row/column coordinates
-            Rectangle dayBox = getDayBoundsInMonth(month.getTime(), week, WEEK_HEADER_COLUMN);
+            getDayBoundsInMonth(monthBounds, week, WEEK_HEADER_COLUMN, dayBox);
             // NOTE: this can be set to any day in the week to render the
             // weeknumber of categorized by CalendarState
+            Calendar weekCalendar = cache.getCalendar(layout.getDayStart((week - FIRST_WEEK_ROW) * DAYS_IN_WEEK));
 
             // If the current week is higher than the amount of weeksnumbers
             // inside the current month, we have to paint it disabled,
             // because it's outside of the months range.
-            if (week > weekOfYearAmountInMonth) {
+            if (week > layout.getWeekNumberCount()) {
                 paintDayOfMonthForDisabledWeekNumbers(g, dayBox, weekCalendar, CalendarState.WEEK_OF_YEAR);
             } else {
                 paintDayOfMonth(g, dayBox, weekCalendar, CalendarState.WEEK_OF_YEAR);
             }
-            weekCalendar.add(Calendar.WEEK_OF_YEAR, 1);
+        }
+        if (weeks > 0) {
             paintWeekOfYearSeparator(g, month);
         }
     }
@@ -1474,36 +1461,35 @@ public class BasicMonthViewUI extends MonthViewUI {
      *        must not be null
      */
     protected void paintDays(Graphics g, Calendar month) {
-        Calendar clonedCal = (Calendar) month.clone();
-        CalendarUtils.startOfMonth(clonedCal);
-        Date startOfMonth = clonedCal.getTime();
-        CalendarUtils.endOfMonth(clonedCal);
-        Date endOfMonth = clonedCal.getTime();
-        // reset the clone
-        clonedCal.setTime(month.getTime());
-        // adjust to start of week
-        clonedCal.setTime(month.getTime());
-        CalendarUtils.startOfWeek(clonedCal);
+        Rectangle clip = g.getClipBounds();
+        Rectangle monthBounds = getMonthBounds(month.getTime());
+        MonthLayoutCache cache = getMonthLayoutCache();
+        MonthLayout layout = cache.getLayout(month.getTimeInMillis());
+        Date today = getToday();
+        int todayEpochDay = today != null ? cache.getEpochDay(today.getTime()) : Integer.MIN_VALUE;
+        Rectangle bounds = new Rectangle();
+        int index = 0;
         for (int week = FIRST_WEEK_ROW; week <= LAST_WEEK_ROW; week++) {
-            for (int day = FIRST_DAY_COLUMN; day <= LAST_DAY_COLUMN; day++) {
+            for (int day = FIRST_DAY_COLUMN; day <= LAST_DAY_COLUMN; day++, index++) {
                 CalendarState state = null;
-                if (clonedCal.getTime().before(startOfMonth)) {
+                if (layout.isLeading(index)) {
                     if (monthView.isShowingLeadingDays()) {
                         state = CalendarState.LEADING;
                     }
-                } else if (clonedCal.getTime().after(endOfMonth)) {
+                } else if (layout.isTrailing(index)) {
                     if (monthView.isShowingTrailingDays()) {
                         state = CalendarState.TRAILING;
                     }
 
                 } else {
-                    state = isToday(clonedCal.getTime()) ? CalendarState.TODAY : CalendarState.IN_MONTH;
+                    state = layout.getEpochDay(index) == todayEpochDay ? CalendarState.TODAY : CalendarState.IN_MONTH;
                 }
                 if (state != null) {
-                    Rectangle bounds = getDayBoundsInMonth(startOfMonth, week, day);
-                    paintDayOfMonth(g, bounds, clonedCal, state);
+                    getDayBoundsInMonth(monthBounds, week, day, bounds);
+                    if ((clip == null) || clip.intersects(bounds)) {
+                        paintDayOfMonth(g, bounds, cache.getCalendar(layout.getDayStart(index)), state);
+                    }
                 }
-                clonedCal.add(Calendar.DAY_OF_MONTH, 1);
             }
         }
     }
@@ -1630,21 +1616,7 @@ public class BasicMonthViewUI extends MonthViewUI {
         if (monthView.isShowingTrailingDays()) {
             return 6;
         }
-
-        Calendar cloned = (Calendar) month.clone();
-        // the calendar is set to the first of month, get date for last
-        CalendarUtils.endOfMonth(cloned);
-        // marker for end
-        Date last = cloned.getTime();
-        // start again
-        cloned.setTime(month.getTime());
-        CalendarUtils.startOfWeek(cloned);
-        int weeks = 0;
-        while (last.after(cloned.getTime())) {
-            weeks++;
-            cloned.add(Calendar.WEEK_OF_MONTH, 1);
-        }
-        return weeks;
+        return getMonthLayoutCache().getLayout(month.getTimeInMillis()).getWeeks();
     }
 
     private void traverseMonth(int arrowType) {
@@ -1702,6 +1674,23 @@ public class BasicMonthViewUI extends MonthViewUI {
         return calendar;
     }
 
+    /**
+     * Returns the cache of month layouts, re-created if the monthView's
+     * locale, time zone, first day of week or minimal days in first week
+     * changed.
+     * 
+     * @return the cache of month layouts, valid for the monthView's calendar.
+     */
+    private MonthLayoutCache getMonthLayoutCache() {
+        Locale locale = monthView.getLocale();
+        if ((monthLayoutCache == null)
+                        || !monthLayoutCache.isValid(locale, monthView.getTimeZone(), monthView.getFirstDayOfWeek(),
+                                        monthView.getSelectionModel().getMinimalDaysInFirstWeek())) {
+            monthLayoutCache = new MonthLayoutCache(monthView.getCalendar(), locale);
+        }
+        return monthLayoutCache;
+    }
+
     /**
      * Updates the lastDisplayedDate property based on the given first and
      * visible # of months.
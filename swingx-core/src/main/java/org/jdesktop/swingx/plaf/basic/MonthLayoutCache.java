@@ -0,0 +1,311 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.plaf.basic;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.jdesktop.swingx.calendar.CalendarUtils;
+
+/**
+ * Cache of the day grids of months, used by BasicMonthViewUI to paint and
+ * hit-test days without Calendar arithmetic per cell.
+ * <p>
+ *
+ * A cache is bound to the locale, time zone, first day of week and minimal
+ * days in first week it was created with. The ui creates a new cache if any of
+ * them changed, see {@link #isValid(Locale, TimeZone, int, int)}. Layouts are
+ * keyed by the time they are requested for, typically the start of a month.
+ * <p>
+ *
+ * NOTE: not thread-safe, the cache is meant to be used on the EDT only.
+ */
+final class MonthLayoutCache {
+
+    /** The number of days in the grid of a month. */
+    static final int DAYS_IN_GRID = BasicMonthViewUI.WEEKS_IN_MONTH * BasicMonthViewUI.DAYS_IN_WEEK;
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    /** The maximal number of cached layouts. */
+    private static final int MAX_ENTRIES = 64;
+
+    private final Locale locale;
+    private final TimeZone timeZone;
+    private final int firstDayOfWeek;
+    private final int minimalDaysInFirstWeek;
+
+    /** The calendar used to compute layouts. */
+    private final Calendar calendar;
+    /** The calendar handed out to renderers. */
+    private final Calendar cellCalendar;
+
+    private final Map<Long, MonthLayout> layouts = new LinkedHashMap<Long, MonthLayout>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MonthLayout> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Instantiates a cache for the configuration of the given calendar.
+     *
+     * @param calendar the calendar to compute the layouts with, it is not
+     *        changed by this cache. Must not be null.
+     * @param locale the locale of the calendar
+     */
+    public MonthLayoutCache(Calendar calendar, Locale locale) {
+        this.calendar = (Calendar) calendar.clone();
+        this.cellCalendar = (Calendar) calendar.clone();
+        this.locale = locale;
+        this.timeZone = calendar.getTimeZone();
+        this.firstDayOfWeek = calendar.getFirstDayOfWeek();
+        this.minimalDaysInFirstWeek = calendar.getMinimalDaysInFirstWeek();
+    }
+
+    /**
+     * Returns a boolean indicating whether the layouts of this cache are valid
+     * for the given configuration.
+     *
+     * @return true if the layouts of this cache can be used, false if a new
+     *         cache is needed.
+     */
+    public boolean isValid(Locale locale, TimeZone timeZone, int firstDayOfWeek, int minimalDaysInFirstWeek) {
+        return this.firstDayOfWeek == firstDayOfWeek && this.minimalDaysInFirstWeek == minimalDaysInFirstWeek
+                        && this.locale.equals(locale) && this.timeZone.equals(timeZone);
+    }
+
+    /**
+     * Returns the layout of the month containing the given time.
+     *
+     * @param time the time in the month, typically its start.
+     * @return the layout of the month containing the given time.
+     */
+    public MonthLayout getLayout(long time) {
+        Long key = time;
+        MonthLayout layout = layouts.get(key);
+        if (layout == null) {
+            layout = createLayout(time);
+            layouts.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the start of the month containing the given time.
+     *
+     * @param time the time in the month
+     * @return the start of the month.
+     */
+    public long getStartOfMonth(long time) {
+        calendar.setTimeInMillis(time);
+        CalendarUtils.startOfMonth(calendar);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Returns the day containing the given time, as days since the epoch in
+     * the time zone of this cache.
+     *
+     * @param time the time
+     * @return the day containing the time, as days since the epoch.
+     */
+    public int getEpochDay(long time) {
+        return (int) Math.floorDiv(time + timeZone.getOffset(time), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Returns a calendar set to the given time. The calendar is shared: it's
+     * valid until the next call only and must not be changed by clients.
+     *
+     * @param time the time to set the calendar to.
+     * @return the shared calendar, set to the given time.
+     */
+    public Calendar getCalendar(long time) {
+        cellCalendar.setTimeInMillis(time);
+        return cellCalendar;
+    }
+
+    private MonthLayout createLayout(long time) {
+        calendar.setTimeInMillis(time);
+        CalendarUtils.startOfMonth(calendar);
+        long monthStart = calendar.getTimeInMillis();
+        int month = calendar.get(Calendar.MONTH);
+        int daysInMonth = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+        int weekNumbers = getWeekNumberCount(month, daysInMonth);
+
+        calendar.setTimeInMillis(monthStart);
+        CalendarUtils.startOfWeek(calendar);
+        long[] dayStarts = new long[DAYS_IN_GRID];
+        int[] epochDays = new int[DAYS_IN_GRID];
+        int[] daysOfMonth = new int[DAYS_IN_GRID];
+        int[] weeksOfYear = new int[BasicMonthViewUI.WEEKS_IN_MONTH];
+        for (int i = 0; i < DAYS_IN_GRID; i++) {
+            dayStarts[i] = calendar.getTimeInMillis();
+            epochDays[i] = getEpochDay(dayStarts[i]);
+            daysOfMonth[i] = calendar.get(Calendar.DAY_OF_MONTH);
+            if (i % BasicMonthViewUI.DAYS_IN_WEEK == 0) {
+                weeksOfYear[i / BasicMonthViewUI.DAYS_IN_WEEK] = calendar.get(Calendar.WEEK_OF_YEAR);
+            }
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            // the day after a day without midnight (DST) starts at midnight
+            CalendarUtils.startOfDay(calendar);
+        }
+        int firstIndex = getEpochDay(monthStart) - epochDays[0];
+        return new MonthLayout(monthStart, dayStarts, epochDays, daysOfMonth, weeksOfYear, firstIndex,
+                        daysInMonth, weekNumbers);
+    }
+
+    /**
+     * Returns the number of week rows which are painted enabled. This is the
+     * number of different week numbers of the days in the month. Expects the
+     * calendar to be set to the start of the month.
+     */
+    private int getWeekNumberCount(int month, int daysInMonth) {
+        int firstWeekOfMonth = calendar.get(Calendar.WEEK_OF_YEAR);
+        calendar.set(Calendar.DAY_OF_MONTH, daysInMonth);
+        int lastWeekOfMonth = calendar.get(Calendar.WEEK_OF_YEAR);
+        // the first week of january might be the last week of the previous
+        // year, the last week of december the first week of the next year
+        if (month == Calendar.JANUARY && firstWeekOfMonth >= 52) {
+            return lastWeekOfMonth + 1;
+        }
+        if (month == Calendar.DECEMBER && lastWeekOfMonth == 1) {
+            calendar.set(Calendar.DAY_OF_MONTH, 24);
+            return calendar.get(Calendar.WEEK_OF_YEAR) + 1 - firstWeekOfMonth + 1;
+        }
+        return lastWeekOfMonth - firstWeekOfMonth + 1;
+    }
+
+    /**
+     * The grid of days of a month, starting at the first day of the week
+     * containing the first of the month. Indices of days are row-major, that
+     * is index / DAYS_IN_WEEK is the week row and index % DAYS_IN_WEEK the day
+     * column in the grid.
+     */
+    static final class MonthLayout {
+        private final long monthStart;
+        private final long[] dayStarts;
+        private final int[] epochDays;
+        private final int[] daysOfMonth;
+        private final int[] weeksOfYear;
+        private final int firstDayIndex;
+        private final int daysInMonth;
+        private final int weekNumberCount;
+
+        MonthLayout(long monthStart, long[] dayStarts, int[] epochDays, int[] daysOfMonth, int[] weeksOfYear,
+                        int firstDayIndex, int daysInMonth, int weekNumberCount) {
+            this.monthStart = monthStart;
+            this.dayStarts = dayStarts;
+            this.epochDays = epochDays;
+            this.daysOfMonth = daysOfMonth;
+            this.weeksOfYear = weeksOfYear;
+            this.firstDayIndex = firstDayIndex;
+            this.daysInMonth = daysInMonth;
+            this.weekNumberCount = weekNumberCount;
+        }
+
+        /**
+         * @return the start of the month.
+         */
+        public long getMonthStart() {
+            return monthStart;
+        }
+
+        /**
+         * @param index the index of the day in the grid
+         * @return the start of the day at the given index.
+         */
+        public long getDayStart(int index) {
+            return dayStarts[index];
+        }
+
+        /**
+         * @param index the index of the day in the grid
+         * @return the day at the given index, as days since the epoch.
+         */
+        public int getEpochDay(int index) {
+            return epochDays[index];
+        }
+
+        /**
+         * @param index the index of the day in the grid
+         * @return the day of month of the day at the given index.
+         */
+        public int getDayOfMonth(int index) {
+            return daysOfMonth[index];
+        }
+
+        /**
+         * @param week the week row in the grid, zero-based
+         * @return the week of year of the given row.
+         */
+        public int getWeekOfYear(int week) {
+            return weeksOfYear[week];
+        }
+
+        /**
+         * Returns the index of the given day in the grid.
+         *
+         * @param epochDay the day, as days since the epoch
+         * @return the index of the day in the grid or -1 if not contained.
+         */
+        public int indexOf(int epochDay) {
+            int index = epochDay - epochDays[0];
+            return (index >= 0 && index < DAYS_IN_GRID) ? index : -1;
+        }
+
+        /**
+         * @param index the index of the day in the grid
+         * @return true if the day at the given index is before the month.
+         */
+        public boolean isLeading(int index) {
+            return index < firstDayIndex;
+        }
+
+        /**
+         * @param index the index of the day in the grid
+         * @return true if the day at the given index is after the month.
+         */
+        public boolean isTrailing(int index) {
+            return index >= firstDayIndex + daysInMonth;
+        }
+
+        /**
+         * @return the number of week rows which contain days of the month.
+         */
+        public int getWeeks() {
+            return (firstDayIndex + daysInMonth + BasicMonthViewUI.DAYS_IN_WEEK - 1)
+                            / BasicMonthViewUI.DAYS_IN_WEEK;
+        }
+
+        /**
+         * @return the number of week rows to paint with an enabled week number.
+         */
+        public int getWeekNumberCount() {
+            return weekNumberCount;
+        }
+    }
+}
@@ -159,6 +159,24 @@ public class BasicXListUI  extends BasicListUI
     protected int cellHeight = -1;
     protected int cellWidth = -1;
     protected int updateLayoutStateNeeded = modelChanged;
+    /**
+     * Cell heights if the list estimates the heights of not yet measured
+     * cells, null otherwise.
+     * 
+     * @see JXList#isEstimatedCellHeights()
+     */
+    private CellHeightTree estimatedHeights;
+    /**
+     * Sum and count of the measured cell heights, the running average is 
+     * the estimated height of not yet measured cells.
+     */
+    private long measuredHeightSum;
+    private int measuredHeightCount;
+    /**
+     * Flag indicating whether a redraw, requested by measuring a cell while
+     * asked for its bounds, is pending.
+     */
+    private boolean redrawScheduled;
     /**
      * Height of the list. When asked to paint, if the current size of
      * the list differs, this will update the layout state.
@@ -227,6 +245,12 @@ public class BasicXListUI  extends BasicListUI
     private final static int heightChanged = 1 << 8;
     private final static int widthChanged = 1 << 9;
     private final static int componentOrientationChanged = 1 << 10;
+    private final static int estimatedCellHeightsChanged = 1 << 11;
+
+    /**
+     * The number of cells measured to seed the estimated cell height.
+     */
+    private static final int ESTIMATE_SAMPLE_SIZE = 8;
 
     private static final int DROP_LINE_THICKNESS = 2;
 
@@ -518,6 +542,9 @@ public class BasicXListUI  extends BasicListUI
 
         // Determine how many columns we need to paint
         Rectangle paintBounds = g.getClipBounds();
+        if (estimatedHeights != null) {
+            measureCells(paintBounds.y, paintBounds.y + paintBounds.height);
+        }
 
         int startColumn, endColumn;
         if (c.getComponentOrientation().isLeftToRight()) {
@@ -1275,7 +1302,17 @@ public class BasicXListUI  extends BasicListUI
             break;
         default:
             x = insets.left;
-            if (cellHeights == null) {
+            if (estimatedHeights != null) {
+                if (row >= estimatedHeights.size()) {
+                    y = 0;
+                } else {
+                    if (measureCell(row)) {
+                        scheduleRedraw();
+                    }
+                    y += estimatedHeights.getY(row);
+                }
+            }
+            else if (cellHeights == null) {
                 y += (cellHeight * row);
             }
             else if (row >= cellHeights.length) {
@@ -1352,6 +1389,9 @@ public class BasicXListUI  extends BasicListUI
         if (row >= getElementCount()) {
             return -1;
         }
+        if (estimatedHeights != null) {
+            return (row < estimatedHeights.size()) ? estimatedHeights.getHeight(row) : -1;
+        }
         return (cellHeights == null) ? cellHeight :
                            ((row < cellHeights.length) ? cellHeights[row] : -1);
     }
@@ -1369,6 +1409,15 @@ public class BasicXListUI  extends BasicListUI
             return -1;
         }
         Insets insets = list.getInsets();
+        if (estimatedHeights != null) {
+            if (size > estimatedHeights.size()) {
+                return -1;
+            }
+            if (y0 < insets.top) {
+                return closest ? 0 : size - 1;
+            }
+            return Math.min(estimatedHeights.getIndex(y0 - insets.top), size - 1);
+        }
         if (cellHeights == null) {
             int row = (cellHeight == 0) ? 0 :
                            ((y0 - insets.top) / cellHeight);
@@ -1588,6 +1637,16 @@ public class BasicXListUI  extends BasicListUI
 
         cellWidth = (fixedCellWidth != -1) ? fixedCellWidth : -1;
 
+        /* If the JList estimates cell heights, measure a few samples only,
+         * the other cells are measured when they are realized.
+         */
+        estimatedHeights = null;
+        if (layoutOrientation == JList.VERTICAL && fixedCellHeight == -1
+                && list.isEstimatedCellHeights()) {
+            updateEstimatedLayoutState();
+            return;
+        }
+
         if (fixedCellHeight != -1) {
             cellHeight = fixedCellHeight;
             cellHeights = null;
@@ -1643,6 +1702,155 @@ public class BasicXListUI  extends BasicListUI
         }
     }
 
+    /**
+     * Invoked from updateLayoutState if the list estimates cell heights. 
+     * Measures a sample of the cells to estimate the height of all others.
+     * <p>
+     * This updates the <code>cellWidth</code> and <code>columnCount</code> 
+     * instance variables and re-creates the estimated cell heights.
+     */
+    private void updateEstimatedLayoutState() {
+        cellHeight = -1;
+        cellHeights = null;
+        columnCount = 1;
+        measuredHeightSum = 0;
+        measuredHeightCount = 0;
+        int dataModelSize = getElementCount();
+        int samples = Math.min(dataModelSize, ESTIMATE_SAMPLE_SIZE);
+        int[] sampleHeights = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            sampleHeights[i] = getCellSize(getSampleIndex(i, samples, dataModelSize)).height;
+        }
+        estimatedHeights = new CellHeightTree(dataModelSize, getEstimatedCellHeight());
+        for (int i = 0; i < samples; i++) {
+            estimatedHeights.setHeight(getSampleIndex(i, samples, dataModelSize), 
+                    sampleHeights[i], true);
+        }
+        if (cellWidth == -1) {
+            cellWidth = 0;
+        }
+    }
+
+    private int getSampleIndex(int sample, int samples, int dataModelSize) {
+        return (int) ((long) sample * dataModelSize / samples);
+    }
+
+    /**
+     * Returns the preferred size of the cell at the given index and updates
+     * the running average of cell heights and the cellWidth, if not fixed.
+     */
+    private Dimension getCellSize(int index) {
+        @SuppressWarnings("unchecked")
+        ListCellRenderer<Object> renderer = (ListCellRenderer<Object>) list.getCellRenderer();
+        Dimension cellSize;
+        if (renderer != null) {
+            Object value = getElementAt(index);
+            Component c = renderer.getListCellRendererComponent((JList<?>) list, value, 
+                    index, false, false);
+            rendererPane.add(c);
+            cellSize = c.getPreferredSize();
+        } else {
+            cellSize = new Dimension();
+        }
+        measuredHeightSum += cellSize.height;
+        measuredHeightCount++;
+        if (list.getFixedCellWidth() == -1) {
+            cellWidth = Math.max(cellSize.width, cellWidth);
+        }
+        return cellSize;
+    }
+
+    /**
+     * Returns the estimated height of not yet measured cells, that is the 
+     * average height of the cells measured so far.
+     */
+    private int getEstimatedCellHeight() {
+        if (measuredHeightCount == 0) {
+            return 0;
+        }
+        return (int) Math.round((double) measuredHeightSum / measuredHeightCount);
+    }
+
+    /**
+     * Measures the cell at the given index if its height is estimated. 
+     * 
+     * @return true if the preferred size of the list might have changed
+     */
+    private boolean measureCell(int index) {
+        if (estimatedHeights.isMeasured(index)) {
+            return false;
+        }
+        int oldWidth = cellWidth;
+        int height = getCellSize(index).height;
+        boolean changed = (height != estimatedHeights.getHeight(index)) || (oldWidth != cellWidth);
+        estimatedHeights.setHeight(index, height, true);
+        return changed;
+    }
+
+    /**
+     * Measures all cells with estimated height which intersect the given 
+     * vertical range. Measuring a cell changes the location of subsequent 
+     * cells only, so the range is walked top down. Revalidates the list if
+     * its preferred size might have changed.
+     */
+    private void measureCells(int y0, int y1) {
+        int size = estimatedHeights.size();
+        int top = list.getInsets().top;
+        int row = estimatedHeights.getIndex(y0 - top);
+        int y = top + estimatedHeights.getY(row);
+        boolean changed = false;
+        while (row < size && y < y1) {
+            changed |= measureCell(row);
+            y += estimatedHeights.getHeight(row);
+            row++;
+        }
+        if (changed) {
+            list.revalidate();
+        }
+    }
+
+    /**
+     * Updates the estimated cell heights incrementally to the given model
+     * change: inserted cells are estimated, removed cells are dropped and
+     * changed cells are marked for re-measuring.
+     * 
+     * @return true if the change was handled, false if the layout state must
+     *   be updated completely.
+     */
+    private boolean updateEstimatedHeights(ListDataEvent e) {
+        if (estimatedHeights == null || updateLayoutStateNeeded != 0) {
+            return false;
+        }
+        int size = estimatedHeights.size();
+        int minIndex = Math.min(e.getIndex0(), e.getIndex1());
+        int maxIndex = Math.max(e.getIndex0(), e.getIndex1());
+        if (minIndex < 0) {
+            return false;
+        }
+        switch (e.getType()) {
+        case ListDataEvent.INTERVAL_ADDED:
+            if (minIndex > size) {
+                return false;
+            }
+            estimatedHeights.insert(minIndex, maxIndex - minIndex + 1, 
+                    getEstimatedCellHeight());
+            break;
+        case ListDataEvent.INTERVAL_REMOVED:
+            if (maxIndex >= size) {
+                return false;
+            }
+            estimatedHeights.remove(minIndex, maxIndex);
+            break;
+        default:
+            if (maxIndex >= size) {
+                return false;
+            }
+            estimatedHeights.invalidate(minIndex, maxIndex);
+            break;
+        }
+        return estimatedHeights.size() == getElementCount();
+    }
+
     /**
      * Invoked when the list is layed out horizontally to determine how
      * many columns to create.
@@ -1897,6 +2105,25 @@ public class BasicXListUI  extends BasicListUI
         list.repaint();
     }
 
+    /**
+     * Redraws the list after the current event. Used if the layout changed
+     * while answering a query like getCellBounds, which must not revalidate
+     * or repaint itself.
+     */
+    private void scheduleRedraw() {
+        if (redrawScheduled) return;
+        redrawScheduled = true;
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                redrawScheduled = false;
+                if (list != null) {
+                    redrawList();
+                }
+            }
+        });
+    }
+
 
     /**
      * The ListDataListener that's added to the JLists model at
@@ -2779,6 +3006,10 @@ public class BasicXListUI  extends BasicListUI
                 updateLayoutStateNeeded |= fixedCellWidthChanged;
                 redrawList();
             }
+            else if ("estimatedCellHeights" == propertyName) {
+                updateLayoutStateNeeded |= estimatedCellHeightsChanged;
+                redrawList();
+            }
             else if (propertyName == "cellRenderer") {
                 updateLayoutStateNeeded |= cellRendererChanged;
                 redrawList();
@@ -2840,7 +3071,9 @@ public class BasicXListUI  extends BasicListUI
         // ListDataListener
         //
         public void intervalAdded(ListDataEvent e) {
-            updateLayoutStateNeeded = modelChanged;
+            if (!updateEstimatedHeights(e)) {
+                updateLayoutStateNeeded = modelChanged;
+            }
 
             int minIndex = Math.min(e.getIndex0(), e.getIndex1());
             int maxIndex = Math.max(e.getIndex0(), e.getIndex1());
@@ -2863,7 +3096,9 @@ public class BasicXListUI  extends BasicListUI
 
         public void intervalRemoved(ListDataEvent e)
         {
-            updateLayoutStateNeeded = modelChanged;
+            if (!updateEstimatedHeights(e)) {
+                updateLayoutStateNeeded = modelChanged;
+            }
 
             /* Sync the SelectionModel with the DataModel.
              */
@@ -2883,7 +3118,9 @@ public class BasicXListUI  extends BasicListUI
 
 
         public void contentsChanged(ListDataEvent e) {
-            updateLayoutStateNeeded = modelChanged;
+            if (!updateEstimatedHeights(e)) {
+                updateLayoutStateNeeded = modelChanged;
+            }
             redrawList();
         }
 
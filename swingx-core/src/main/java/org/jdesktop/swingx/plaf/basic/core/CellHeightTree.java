@@ -0,0 +1,211 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.plaf.basic.core;
+
+/**
+ * Cell heights of a list, kept in a Fenwick (binary indexed) tree. Maps
+ * between indices and y-offsets in O(log n) and updates single heights in
+ * O(log n). Each height is flagged as either measured or estimated.<p>
+ *
+ * Structural changes (insert/remove) are O(n) in plain array operations, they
+ * don't require any measuring of cells.
+ */
+final class CellHeightTree {
+
+    private int size;
+    private int[] heights;
+    private boolean[] measured;
+    /** 1-based Fenwick tree over heights. */
+    private int[] tree;
+
+    /**
+     * Instantiates a tree with the given number of cells, all of the given
+     * estimated height.
+     *
+     * @param size the number of cells
+     * @param height the estimated height of the cells
+     */
+    public CellHeightTree(int size, int height) {
+        this.size = size;
+        heights = new int[Math.max(size, 16)];
+        measured = new boolean[heights.length];
+        tree = new int[heights.length + 1];
+        for (int i = 0; i < size; i++) {
+            heights[i] = height;
+        }
+        rebuild();
+    }
+
+    /**
+     * @return the number of cells.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the cell index
+     * @return the height of the cell at the given index
+     */
+    public int getHeight(int index) {
+        return heights[index];
+    }
+
+    /**
+     * @param index the cell index
+     * @return true if the height of the cell at the given index is measured,
+     *   false if it is estimated
+     */
+    public boolean isMeasured(int index) {
+        return measured[index];
+    }
+
+    /**
+     * Sets the height of the cell at the given index.
+     *
+     * @param index the cell index
+     * @param height the new height
+     * @param isMeasured flag indicating whether the height is measured
+     */
+    public void setHeight(int index, int height, boolean isMeasured) {
+        measured[index] = isMeasured;
+        int delta = height - heights[index];
+        if (delta == 0) return;
+        heights[index] = height;
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the heights of all cells before the given index.
+     *
+     * @param index the cell index, may be size
+     * @return the y-offset of the cell at the given index
+     */
+    public int getY(int index) {
+        int y = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            y += tree[i];
+        }
+        return y;
+    }
+
+    /**
+     * @return the sum of the heights of all cells.
+     */
+    public int getTotalHeight() {
+        return getY(size);
+    }
+
+    /**
+     * Returns the index of the cell containing the given y-offset. Cells of
+     * height 0 never contain an offset.
+     *
+     * @param y the y-offset
+     * @return the index of the cell containing y, 0 if y is negative and size
+     *   if y is at or beyond the total height.
+     */
+    public int getIndex(int y) {
+        if (y < 0) return 0;
+        int index = 0;
+        int remaining = y;
+        for (int step = Integer.highestOneBit(Math.max(size, 1)); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= size && tree[next] <= remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Inserts cells of the given estimated height.
+     *
+     * @param index the index of the first inserted cell
+     * @param count the number of inserted cells
+     * @param height the estimated height of the inserted cells
+     */
+    public void insert(int index, int count, int height) {
+        if (size + count > heights.length) {
+            int capacity = Math.max(size + count, heights.length * 2);
+            int[] newHeights = new int[capacity];
+            boolean[] newMeasured = new boolean[capacity];
+            System.arraycopy(heights, 0, newHeights, 0, size);
+            System.arraycopy(measured, 0, newMeasured, 0, size);
+            heights = newHeights;
+            measured = newMeasured;
+            tree = new int[capacity + 1];
+        }
+        System.arraycopy(heights, index, heights, index + count, size - index);
+        System.arraycopy(measured, index, measured, index + count, size - index);
+        for (int i = index; i < index + count; i++) {
+            heights[i] = height;
+            measured[i] = false;
+        }
+        size += count;
+        rebuild();
+    }
+
+    /**
+     * Removes the cells in the given range.
+     *
+     * @param index0 the first index of the range, inclusive
+     * @param index1 the last index of the range, inclusive
+     */
+    public void remove(int index0, int index1) {
+        int count = index1 - index0 + 1;
+        System.arraycopy(heights, index1 + 1, heights, index0, size - index1 - 1);
+        System.arraycopy(measured, index1 + 1, measured, index0, size - index1 - 1);
+        size -= count;
+        rebuild();
+    }
+
+    /**
+     * Flags the heights of the cells in the given range as estimated. The
+     * current heights are kept as estimation.
+     *
+     * @param index0 the first index of the range, inclusive
+     * @param index1 the last index of the range, inclusive
+     */
+    public void invalidate(int index0, int index1) {
+        for (int i = index0; i <= index1; i++) {
+            measured[i] = false;
+        }
+    }
+
+    /**
+     * Rebuilds the Fenwick tree from the heights in O(n).
+     */
+    private void rebuild() {
+        for (int i = 1; i <= size; i++) {
+            tree[i] = heights[i - 1];
+        }
+        for (int i = 1; i <= size; i++) {
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
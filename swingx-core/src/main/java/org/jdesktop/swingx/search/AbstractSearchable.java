@@ -21,14 +21,29 @@
 package org.jdesktop.swingx.search;
 
 import java.awt.Color;
+import java.awt.Component;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 
 import org.jdesktop.swingx.decorator.AbstractHighlighter;
 import org.jdesktop.swingx.decorator.ColorHighlighter;
+import org.jdesktop.swingx.decorator.ComponentAdapter;
 import org.jdesktop.swingx.decorator.HighlightPredicate;
 import org.jdesktop.swingx.decorator.Highlighter;
 import org.jdesktop.swingx.decorator.SearchPredicate;
@@ -45,6 +60,14 @@ import org.jdesktop.swingx.decorator.SearchPredicate;
  * @author Jeanette Winzenburg
  */
 public abstract class AbstractSearchable implements Searchable {
+    private static final Logger LOG = Logger.getLogger(AbstractSearchable.class
+            .getName());
+
+    /** the number of cells matched per chunk in findAll. */
+    private static final int FIND_ALL_CHUNK_SIZE = 16384;
+
+    /** matches the complete content of a cell. */
+    private static final Pattern WHOLE_CELL = Pattern.compile("^.*$", Pattern.DOTALL);
 
     /**
      * stores the result of the previous search.
@@ -53,6 +76,29 @@ public abstract class AbstractSearchable implements Searchable {
 
     private AbstractHighlighter matchHighlighter;
     
+    private SearchIndex searchIndex;
+    
+    private PropertyChangeSupport changeSupport;
+    
+    /** the pattern of the last findAll, null if none. */
+    private Pattern allMatchesPattern;
+    
+    /** the cells matching allMatchesPattern. */
+    private BitSet allMatches = new BitSet();
+    
+    private int allMatchesColumnCount = 1;
+    
+    private int matchCount;
+    
+    private FindAllWorker findAllWorker;
+    
+    private boolean findAllScheduled;
+    
+    /** true if the index listeners are installed for a fetching findAll. */
+    private boolean fetchListening;
+    
+    private HighlightPredicate allMatchesPredicate;
+    
 
     /** key for client property to use SearchHighlighter as match marker. */
     public static final String MATCH_HIGHLIGHTER = "match.highlighter";
@@ -443,6 +489,553 @@ public abstract class AbstractSearchable implements Searchable {
         return viewColumn;
     }
     
+//----------------------- search index
+    
+    /**
+     * Sets a boolean indicating whether searching literal patterns should use an 
+     * index. The default value is false.<p>
+     * 
+     * If enabled, the cell strings are indexed by their trigrams on the first 
+     * search and kept current by listening to the target. Literal patterns, that is 
+     * the contains, startsWith, endsWith and equals rules of PatternModel, are 
+     * answered by the index without querying the target for every cell. Other 
+     * regular expressions are searched cell by cell as usual. <p>
+     * 
+     * Note: the index holds the strings of all cells. Changes of the string 
+     * representation which are not notified by the target (like changing a 
+     * renderer's StringValue) require a call to invalidateIndex.
+     * 
+     * @param indexed true to search literal patterns with an index
+     * 
+     * @see #invalidateIndex()
+     */
+    public void setIndexed(boolean indexed) {
+        if (isIndexed() == indexed) return;
+        if (indexed) {
+            setFetchListening(false);
+            searchIndex = new SearchIndex(this);
+            installIndexListeners();
+        } else {
+            uninstallIndexListeners();
+            searchIndex = null;
+        }
+    }
+    
+    /**
+     * Returns a boolean indicating whether literal patterns are searched with 
+     * an index.
+     * 
+     * @return true if literal patterns are searched with an index
+     * 
+     * @see #setIndexed(boolean)
+     */
+    public boolean isIndexed() {
+        return searchIndex != null;
+    }
+    
+    /**
+     * Drops the search index, if any. It is rebuilt on the next search.
+     * 
+     * @see #setIndexed(boolean)
+     */
+    public void invalidateIndex() {
+        if (searchIndex != null) {
+            searchIndex.invalidate();
+            scheduleFindAll();
+        } else {
+            restartFetchingFindAll();
+        }
+    }
+    
+    /**
+     * Marks the given model rows as updated, they are re-indexed on the next search.
+     * 
+     * @param firstRow the first updated row in model coordinates
+     * @param lastRow the last updated row in model coordinates, inclusive
+     */
+    protected void updateIndex(int firstRow, int lastRow) {
+        if (searchIndex != null) {
+            searchIndex.rowsUpdated(firstRow, lastRow);
+            scheduleFindAll();
+        } else {
+            restartFetchingFindAll();
+        }
+    }
+    
+    /**
+     * Marks the given model rows as inserted, the following rows are shifted 
+     * in the index and the inserted rows are indexed on the next search.
+     * 
+     * @param firstRow the first inserted row in model coordinates
+     * @param lastRow the last inserted row in model coordinates, inclusive
+     */
+    protected void insertIndexRows(int firstRow, int lastRow) {
+        if (searchIndex != null) {
+            searchIndex.rowsInserted(firstRow, lastRow);
+            scheduleFindAll();
+        } else {
+            restartFetchingFindAll();
+        }
+    }
+    
+    /**
+     * Marks the given model rows as removed, the following rows are shifted 
+     * in the index.
+     * 
+     * @param firstRow the first removed row in model coordinates
+     * @param lastRow the last removed row in model coordinates, inclusive
+     */
+    protected void removeIndexRows(int firstRow, int lastRow) {
+        if (searchIndex != null) {
+            searchIndex.rowsDeleted(firstRow, lastRow);
+            scheduleFindAll();
+        } else {
+            restartFetchingFindAll();
+        }
+    }
+    
+    /**
+     * Marks the view as changed without changes of the model, like on sorting 
+     * or filtering. The index is kept, rows which become visible are indexed 
+     * on the next search.
+     */
+    protected void reorderIndex() {
+        if (searchIndex != null) {
+            searchIndex.viewChanged();
+            scheduleFindAll();
+        } else {
+            restartFetchingFindAll();
+        }
+    }
+    
+    /**
+     * Returns the cells matching the pattern, as looked up in the index. The cell 
+     * at row/column in view coordinates is represented by the bit
+     * <code>row * getColumnCount() + column</code>.
+     * 
+     * @param pattern the pattern to match
+     * @return the matching cells or null if not indexed or the pattern is not
+     *   literal
+     */
+    protected BitSet getIndexedMatches(Pattern pattern) {
+        return searchIndex != null ? searchIndex.getMatches(pattern) : null;
+    }
+    
+    /**
+     * Installs the listeners which keep the index current. Called when indexing 
+     * is enabled and, if not indexed, while a findAll fetches the cell strings
+     * from the target.<p>
+     * 
+     * This implementation does nothing.
+     */
+    protected void installIndexListeners() {
+    }
+    
+    /**
+     * Uninstalls the listeners installed by installIndexListeners. Called when 
+     * indexing is disabled and, if not indexed, when a findAll which fetches 
+     * the cell strings is done.<p>
+     * 
+     * This implementation does nothing.
+     */
+    protected void uninstallIndexListeners() {
+    }
+    
+    /**
+     * Returns the number of searched columns.<p>
+     * 
+     * This implementation returns 1.
+     * 
+     * @return the number of searched columns.
+     */
+    protected int getColumnCount() {
+        return 1;
+    }
+    
+    /**
+     * Returns the string representation of the cell, as searched. Used to 
+     * build the index and to find all matches.<p>
+     * 
+     * This implementation returns the complete cell content as matched by 
+     * findExtendedMatch, which is appropriate for a single column only. 
+     * Subclasses with more columns or a direct access to the string 
+     * representation should override.
+     * 
+     * @param row the row index in view coordinates
+     * @param column the column index in view coordinates
+     * @return the string representation of the cell
+     */
+    protected String getStringAt(int row, int column) {
+        SearchResult result = findExtendedMatch(WHOLE_CELL, row);
+        return result != null && result.getMatchResult() != null 
+                ? result.getMatchResult().group() : null;
+    }
+    
+    /**
+     * Converts and returns the given row index from model coordinates to view
+     * coordinates.
+     * <p>
+     * This implementation returns the model coordinate, that is assumes
+     * that both coordinate systems are the same. 
+     * 
+     * @param modelRow the row index in model coordinates
+     * @return the row index in view coordinates or -1 if not visible.
+     */
+    protected int convertRowIndexToView(int modelRow) {
+        return modelRow;
+    }
+    
+    /**
+     * Converts and returns the given row index from view coordinates to model
+     * coordinates.
+     * <p>
+     * This implementation returns the view coordinate, that is assumes
+     * that both coordinate systems are the same. 
+     * 
+     * @param viewRow the row index in view coordinates
+     * @return the row index in model coordinates
+     */
+    protected int convertRowIndexToModel(int viewRow) {
+        return viewRow;
+    }
+    
+//----------------------- find all
+    
+    /**
+     * Finds all cells matching the pattern, to be marked by the predicate 
+     * returned by getAllMatchesPredicate. A null pattern clears the matches.<p>
+     * 
+     * The cell strings are matched in parallel chunks in the background. If 
+     * indexed, they are taken from the index, which converts only the cells 
+     * changed since the last search. Otherwise the worker fetches them from 
+     * getStringAt chunk by chunk on the EDT, so events are processed between 
+     * the chunks, but every findAll converts all cells again: searchables 
+     * which find all repeatedly should be indexed. Changes of the target 
+     * while fetching, as notified to the index listeners, restart the findAll. 
+     * The match count 
+     * is reported progressively by the bound property "matchCount", the 
+     * bound property "findingAll" is true until all matches are found and 
+     * the target repainted. A findAll while another is running cancels the former. 
+     * Literal patterns are answered immediately if indexed. <p>
+     * 
+     * The matches are not updated on changes of the target unless indexed,
+     * otherwise findAll must be called again.
+     * 
+     * @param pattern the pattern to match, may be null
+     * 
+     * @see #getAllMatchesPredicate()
+     * @see #getMatchCount()
+     * @see #setIndexed(boolean)
+     */
+    public void findAll(Pattern pattern) {
+        boolean wasFinding = cancelFindAll();
+        allMatchesPattern = pattern;
+        BitSet matches = pattern != null ? getIndexedMatches(pattern) : new BitSet();
+        if (matches != null) {
+            setFetchListening(false);
+            setAllMatches((BitSet) matches.clone(), getColumnCount());
+            if (wasFinding) {
+                firePropertyChange("findingAll", true, false);
+            }
+            return;
+        }
+        String[] strings = searchIndex != null ? searchIndex.getStrings() : null;
+        // listen before creating the worker: installing notifies a change 
+        setFetchListening(strings == null);
+        setMatchCount(0);
+        findAllWorker = new FindAllWorker(pattern, strings, getSize(), getColumnCount());
+        findAllWorker.execute();
+        if (!wasFinding) {
+            firePropertyChange("findingAll", false, true);
+        }
+    }
+    
+    /**
+     * Returns the number of cells found by the last findAll. While still 
+     * finding, returns the number of matches found so far.
+     * 
+     * @return the number of cells matching the last findAll's pattern
+     * 
+     * @see #findAll(Pattern)
+     */
+    public int getMatchCount() {
+        return matchCount;
+    }
+    
+    /**
+     * Returns a boolean indicating whether a findAll is running.
+     * 
+     * @return true if finding all matches in the background
+     * 
+     * @see #findAll(Pattern)
+     */
+    public boolean isFindingAll() {
+        return findAllWorker != null;
+    }
+    
+    /**
+     * Returns a boolean indicating whether the cell was found by the last 
+     * findAll.
+     * 
+     * @param row the row index in view coordinates
+     * @param column the column index in view coordinates
+     * @return true if the cell matches the pattern of the last findAll
+     * 
+     * @see #findAll(Pattern)
+     */
+    public boolean isMatch(int row, int column) {
+        return row >= 0 && column >= 0 && column < allMatchesColumnCount
+                && allMatches.get(row * allMatchesColumnCount + column);
+    }
+    
+    /**
+     * Returns a HighlightPredicate which is true for the cells found by the last 
+     * findAll. Unlike a SearchPredicate, the predicate does a lookup instead of 
+     * matching the cell content on each rendering. 
+     * 
+     * @return a predicate for highlighting all matches.
+     * 
+     * @see #findAll(Pattern)
+     */
+    public HighlightPredicate getAllMatchesPredicate() {
+        if (allMatchesPredicate == null) {
+            allMatchesPredicate = new HighlightPredicate() {
+                @Override
+                public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+                    return isMatch(adapter.row, adapter.column);
+                }
+            };
+        }
+        return allMatchesPredicate;
+    }
+    
+    /**
+     * Adds a PropertyChangeListener, notified about changes of the matchCount and
+     * findingAll properties.
+     * 
+     * @param listener the listener to add
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        getChangeSupport().addPropertyChangeListener(listener);
+    }
+    
+    /**
+     * Removes a PropertyChangeListener.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        getChangeSupport().removePropertyChangeListener(listener);
+    }
+    
+    private PropertyChangeSupport getChangeSupport() {
+        if (changeSupport == null) {
+            changeSupport = new PropertyChangeSupport(this);
+        }
+        return changeSupport;
+    }
+    
+    /**
+     * Notifies registered PropertyChangeListeners about a change of the
+     * given bound property.
+     * 
+     * @param property the name of the property
+     * @param oldValue the old value
+     * @param newValue the new value
+     */
+    protected void firePropertyChange(String property, Object oldValue, Object newValue) {
+        if (changeSupport != null) {
+            changeSupport.firePropertyChange(property, oldValue, newValue);
+        }
+    }
+    
+    private void setMatchCount(int matchCount) {
+        int old = this.matchCount;
+        this.matchCount = matchCount;
+        firePropertyChange("matchCount", old, matchCount);
+    }
+    
+    private void setAllMatches(BitSet matches, int columnCount) {
+        allMatches = matches;
+        allMatchesColumnCount = columnCount;
+        setMatchCount(matches.cardinality());
+        getTarget().repaint();
+    }
+    
+    /**
+     * Cancels the running findAll, if any.
+     * 
+     * @return true if a findAll was running
+     */
+    private boolean cancelFindAll() {
+        if (findAllWorker == null) return false;
+        findAllWorker.cancel(true);
+        findAllWorker = null;
+        return true;
+    }
+    
+    /**
+     * Restarts a findAll which fetches the cell strings from the target. The 
+     * strings fetched so far are stale after a change of the target's rows.
+     */
+    private void restartFetchingFindAll() {
+        if (findAllWorker == null || !findAllWorker.fetch) return;
+        // keep the worker until the restart, so findingAll stays true
+        findAllWorker.cancel(true);
+        scheduleFindAll();
+    }
+    
+    /**
+     * Installs or uninstalls the index listeners for a findAll which fetches
+     * the cell strings. Does nothing if indexed, the listeners are installed
+     * anyway.
+     */
+    private void setFetchListening(boolean listening) {
+        if (fetchListening == listening || isIndexed()) return;
+        fetchListening = listening;
+        if (listening) {
+            installIndexListeners();
+        } else {
+            uninstallIndexListeners();
+        }
+    }
+    
+    /**
+     * Re-runs the last findAll after the current event, if any.
+     */
+    private void scheduleFindAll() {
+        if (allMatchesPattern == null || findAllScheduled) return;
+        findAllScheduled = true;
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                findAllScheduled = false;
+                if (allMatchesPattern != null) {
+                    findAll(allMatchesPattern);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Matches the cell strings in parallel chunks, publishing the match count 
+     * after each chunk. Fetches the strings chunk by chunk on the EDT if not
+     * given a snapshot.
+     */
+    private class FindAllWorker extends SwingWorker<BitSet, Integer> {
+        private final Pattern pattern;
+        private final String[] strings;
+        private final int columnCount;
+        private final boolean fetch;
+        private final int chunkSize;
+        private final List<Future<BitSet>> chunks = new ArrayList<Future<BitSet>>();
+        private final BitSet matches;
+        /** the number of chunks merged into matches. */
+        private int merged;
+        private int count;
+
+        FindAllWorker(Pattern pattern, String[] strings, int rowCount, int columnCount) {
+            this.pattern = pattern;
+            this.fetch = strings == null;
+            this.strings = fetch ? new String[rowCount * columnCount] : strings;
+            this.columnCount = columnCount;
+            this.chunkSize = Math.max(1, FIND_ALL_CHUNK_SIZE / columnCount) * columnCount;
+            this.matches = new BitSet(this.strings.length);
+        }
+        
+        /**
+         * Fetches the strings of the given rows, called on the EDT.
+         */
+        private void fetch(int firstRow, int endRow) {
+            if (findAllWorker != this) return;
+            endRow = Math.min(endRow, getSize());
+            for (int row = firstRow; row < endRow; row++) {
+                for (int column = 0; column < columnCount; column++) {
+                    strings[row * columnCount + column] = getStringAt(row, column);
+                }
+            }
+        }
+
+        @Override
+        protected BitSet doInBackground() throws Exception {
+            try {
+                for (int start = 0; start < strings.length && !isCancelled(); start += chunkSize) {
+                    final int first = start;
+                    final int end = Math.min(strings.length, start + chunkSize);
+                    if (fetch) {
+                        SwingUtilities.invokeAndWait(new Runnable() {
+                            @Override
+                            public void run() {
+                                fetch(first / columnCount, end / columnCount);
+                            }
+                        });
+                    }
+                    chunks.add(ForkJoinPool.commonPool().submit(new Callable<BitSet>() {
+                        @Override
+                        public BitSet call() {
+                            BitSet matches = new BitSet(end - first);
+                            for (int cell = first; cell < end && !isCancelled(); cell++) {
+                                String text = strings[cell];
+                                if (text != null && text.length() > 0
+                                        && pattern.matcher(text).find()) {
+                                    matches.set(cell - first);
+                                }
+                            }
+                            return matches;
+                        }
+                    }));
+                    merge(false);
+                }
+                merge(true);
+            } finally {
+                for (Future<BitSet> chunk : chunks) {
+                    chunk.cancel(false);
+                }
+            }
+            return matches;
+        }
+        
+        /**
+         * Merges the matched chunks in order and publishes the match count 
+         * after each. Waits for all chunks if all is true, otherwise stops 
+         * at the first chunk which is still matching.
+         */
+        private void merge(boolean all) throws InterruptedException, ExecutionException {
+            while (merged < chunks.size() && !isCancelled() 
+                    && (all || chunks.get(merged).isDone())) {
+                BitSet chunk = chunks.get(merged).get();
+                int offset = merged * chunkSize;
+                for (int bit = chunk.nextSetBit(0); bit >= 0; bit = chunk.nextSetBit(bit + 1)) {
+                    matches.set(offset + bit);
+                }
+                count += chunk.cardinality();
+                merged++;
+                publish(count);
+            }
+        }
+
+        @Override
+        protected void process(List<Integer> counts) {
+            if (findAllWorker != this) return;
+            setMatchCount(counts.get(counts.size() - 1));
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || findAllWorker != this) return;
+            findAllWorker = null;
+            setFetchListening(false);
+            try {
+                setAllMatches(get(), columnCount);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOG.log(Level.WARNING, "finding all matches failed", e.getCause());
+            }
+            firePropertyChange("findingAll", true, false);
+        }
+    }
+    
     /**
      * 
      * @param result
@@ -20,9 +20,19 @@
  */
 package org.jdesktop.swingx.search;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.BitSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.swing.ListModel;
+import javax.swing.RowSorter;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+
 import org.jdesktop.swingx.JXList;
 import org.jdesktop.swingx.decorator.AbstractHighlighter;
 import org.jdesktop.swingx.decorator.Highlighter;
@@ -31,12 +41,34 @@ public class ListSearchable extends AbstractSearchable {
 
         protected JXList list;
 
+        /** keeps the search index current, lazily created. */
+        private IndexListener indexListener;
+
         public ListSearchable(JXList list) {
            this.list = list; 
         }
         
         @Override
         protected void findMatchAndUpdateState(Pattern pattern, int startRow, boolean backwards) {
+            BitSet matches = getIndexedMatches(pattern);
+            if (matches != null) {
+                int index = backwards ? matches.previousSetBit(
+                        Math.max(-1, Math.min(startRow, getSize() - 1)))
+                        : matches.nextSetBit(Math.max(startRow, 0));
+                SearchResult searchResult = null;
+                if (index >= 0 && index < getSize()) {
+                    searchResult = findMatchAt(pattern, index);
+                    if (searchResult == null) {
+                        // out of synch
+                        invalidateIndex();
+                        matches = null;
+                    }
+                }
+                if (matches != null) {
+                    updateState(searchResult);
+                    return;
+                }
+            }
             SearchResult searchResult = null;
             if (backwards) {
                 for (int index = startRow; index >= 0 && searchResult == null; index--) {
@@ -83,6 +115,54 @@ public class ListSearchable extends AbstractSearchable {
             return list.getElementCount();
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected String getStringAt(int row, int column) {
+            return list.getStringAt(row);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected int convertRowIndexToView(int modelRow) {
+            return list.convertIndexToView(modelRow);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected int convertRowIndexToModel(int viewRow) {
+            return list.convertIndexToModel(viewRow);
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * 
+         * Implemented to listen to the list, its model and row sorter.
+         */
+        @Override
+        protected void installIndexListeners() {
+            if (indexListener == null) {
+                indexListener = new IndexListener();
+            }
+            list.addPropertyChangeListener(indexListener);
+            indexListener.install();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void uninstallIndexListeners() {
+            list.removePropertyChangeListener(indexListener);
+            indexListener.uninstall();
+        }
+
         
         /**
          * {@inheritDoc}
@@ -159,4 +239,77 @@ public class ListSearchable extends AbstractSearchable {
             list.addHighlighter(highlighter);
         }
 
-    }
\ No newline at end of file
+    
+        /**
+         * Updates the search index on changes of the list's data or order.
+         */
+        private class IndexListener implements ListDataListener, RowSorterListener,
+                PropertyChangeListener {
+            private ListModel<?> model;
+            private RowSorter<?> rowSorter;
+
+            void install() {
+                model = list.getModel();
+                model.addListDataListener(this);
+                rowSorter = list.getRowSorter();
+                if (rowSorter != null) {
+                    rowSorter.addRowSorterListener(this);
+                }
+                invalidateIndex();
+            }
+
+            void uninstall() {
+                model.removeListDataListener(this);
+                if (rowSorter != null) {
+                    rowSorter.removeRowSorterListener(this);
+                }
+                model = null;
+                rowSorter = null;
+            }
+
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                if ("model".equals(evt.getPropertyName())
+                        || "rowSorter".equals(evt.getPropertyName())
+                        || "cellRenderer".equals(evt.getPropertyName())) {
+                    uninstall();
+                    install();
+                }
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                if (e.getIndex0() < 0 || e.getIndex1() < 0) {
+                    invalidateIndex();
+                } else {
+                    updateIndex(Math.min(e.getIndex0(), e.getIndex1()), 
+                            Math.max(e.getIndex0(), e.getIndex1()));
+                }
+            }
+
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                if (e.getIndex0() < 0 || e.getIndex1() < 0) {
+                    invalidateIndex();
+                } else {
+                    insertIndexRows(Math.min(e.getIndex0(), e.getIndex1()), 
+                            Math.max(e.getIndex0(), e.getIndex1()));
+                }
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                if (e.getIndex0() < 0 || e.getIndex1() < 0) {
+                    invalidateIndex();
+                } else {
+                    removeIndexRows(Math.min(e.getIndex0(), e.getIndex1()), 
+                            Math.max(e.getIndex0(), e.getIndex1()));
+                }
+            }
+
+            @Override
+            public void sorterChanged(RowSorterEvent e) {
+                reorderIndex();
+            }
+        }
+}
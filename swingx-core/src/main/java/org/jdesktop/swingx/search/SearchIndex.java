@@ -0,0 +1,477 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram index over the cell strings of an AbstractSearchable, used to answer
+ * literal patterns (contains, startsWith, endsWith, equals as created by
+ * PatternModel) without querying the target for every cell.<p>
+ *
+ * Cells are stored by model row, identified by <code>modelRow * columnCount + 
+ * column</code>, and converted to the searchable's view rows when queried. The 
+ * strings are stored as returned by the searchable, the trigrams of their 
+ * case-folded form are mapped to the cells containing them. Each candidate found
+ * by the index is verified against the actual pattern, so stale entries in the 
+ * trigram lists are harmless: updated cells simply add their new trigrams.<p>
+ *
+ * The index is built lazily on the first query. Changes are applied 
+ * incrementally: re-ordering the view costs no string conversion at all, 
+ * inserted and deleted model rows shift the stored cells, inserted, updated 
+ * and newly visible rows are converted on the next query. The index is rebuilt 
+ * only if invalidated or the number of columns changes.
+ */
+class SearchIndex {
+
+    /** the length of the indexed substrings. */
+    private static final int GRAM = 3;
+
+    /** the flags a pattern may have to be answered by the index. */
+    private static final int SUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE
+        | Pattern.UNICODE_CASE | Pattern.LITERAL;
+
+    private final AbstractSearchable searchable;
+
+    /** the number of model rows covered by cells. */
+    private int rowCount;
+    private int columnCount;
+    private String[] cells;
+    private Map<Long, Postings> postings;
+    
+    /** the model rows whose strings are current. */
+    private BitSet indexedRows;
+    
+    /** flag indicating whether all rows in the view are indexed. */
+    private boolean viewIndexed;
+
+    /** the number of rows updated since the last build. */
+    private int updatedRowCount;
+
+    /** cache of the last query, the matches in model cells. */
+    private Pattern lastPattern;
+    private String lastLiteral;
+    private BitSet lastMatches;
+    
+    /** the last matches in view cells, null if the view changed. */
+    private BitSet lastViewMatches;
+
+    /**
+     * Instantiates an index for the given searchable.
+     *
+     * @param searchable the searchable to index
+     */
+    public SearchIndex(AbstractSearchable searchable) {
+        this.searchable = searchable;
+    }
+
+    /**
+     * Returns the cells in view coordinates matching the pattern or null if 
+     * the pattern can't be answered by the index.
+     *
+     * @param pattern the pattern to match
+     * @return the matching cells or null if the pattern is not literal
+     */
+    public BitSet getMatches(Pattern pattern) {
+        String literal = getLiteral(pattern);
+        if (literal == null) return null;
+        validate();
+        if (lastPattern != null && lastPattern.pattern().equals(pattern.pattern())
+                && lastPattern.flags() == pattern.flags()) {
+            if (lastViewMatches == null) {
+                lastViewMatches = toView(lastMatches);
+            }
+            return lastViewMatches;
+        }
+        String folded = fold(literal);
+        BitSet matches = new BitSet(rowCount * columnCount);
+        if (isNarrowing(pattern, literal)) {
+            // narrowing: re-test the previous matches only
+            for (int cell = lastMatches.nextSetBit(0); cell >= 0;
+                    cell = lastMatches.nextSetBit(cell + 1)) {
+                test(pattern, cell, matches);
+            }
+        } else if (folded.length() < GRAM) {
+            for (int cell = 0; cell < rowCount * columnCount; cell++) {
+                test(pattern, cell, matches);
+            }
+        } else {
+            Postings candidates = null;
+            for (int i = 0; i + GRAM <= folded.length(); i++) {
+                Postings gram = postings.get(gramAt(folded, i));
+                if (gram == null) {
+                    candidates = null;
+                    break;
+                }
+                if (candidates == null || gram.size < candidates.size) {
+                    candidates = gram;
+                }
+            }
+            if (candidates != null) {
+                for (int i = 0; i < candidates.size; i++) {
+                    test(pattern, candidates.cells[i], matches);
+                }
+            }
+        }
+        lastPattern = pattern;
+        lastLiteral = literal;
+        lastMatches = matches;
+        lastViewMatches = toView(matches);
+        return lastViewMatches;
+    }
+
+    /**
+     * Returns a boolean indicating whether all matches of the pattern
+     * are matches of the last pattern.
+     */
+    private boolean isNarrowing(Pattern pattern, String literal) {
+        if (lastMatches == null || lastPattern.flags() != pattern.flags()) return false;
+        boolean lastStart = isAnchored(lastPattern, true);
+        boolean lastEnd = isAnchored(lastPattern, false);
+        if (lastStart && lastEnd) return false;
+        if (lastStart) {
+            return isAnchored(pattern, true) && literal.startsWith(lastLiteral);
+        }
+        if (lastEnd) {
+            return isAnchored(pattern, false) && literal.endsWith(lastLiteral);
+        }
+        return literal.contains(lastLiteral);
+    }
+    
+    /**
+     * Converts the given model cells to view cells, dropping those not
+     * visible.
+     */
+    private BitSet toView(BitSet modelCells) {
+        BitSet viewCells = new BitSet();
+        for (int cell = modelCells.nextSetBit(0); cell >= 0; 
+                cell = modelCells.nextSetBit(cell + 1)) {
+            int row = searchable.convertRowIndexToView(cell / columnCount);
+            if (row >= 0) {
+                viewCells.set(row * columnCount + cell % columnCount);
+            }
+        }
+        return viewCells;
+    }
+
+    /**
+     * Returns a copy of the indexed strings, indexed by cell in view 
+     * coordinates.
+     *
+     * @return the indexed strings
+     */
+    public String[] getStrings() {
+        validate();
+        int size = searchable.getSize();
+        String[] strings = new String[size * columnCount];
+        for (int row = 0; row < size; row++) {
+            int modelRow = searchable.convertRowIndexToModel(row);
+            if (modelRow < 0 || modelRow >= rowCount) continue;
+            System.arraycopy(cells, modelRow * columnCount, strings, row * columnCount, 
+                    columnCount);
+        }
+        return strings;
+    }
+
+    /**
+     * Drops the index, it's rebuilt on the next query.
+     */
+    public void invalidate() {
+        rowCount = 0;
+        cells = null;
+        postings = null;
+        indexedRows = null;
+        viewIndexed = false;
+        updatedRowCount = 0;
+        clearMatches();
+    }
+
+    /**
+     * Marks the given model rows as updated. They are re-indexed on the
+     * next query.
+     *
+     * @param firstRow the first updated row in model coordinates
+     * @param lastRow the last updated row in model coordinates, inclusive
+     */
+    public void rowsUpdated(int firstRow, int lastRow) {
+        if (cells == null) return;
+        updatedRowCount += lastRow - firstRow + 1;
+        if (updatedRowCount > rowCount / 8) {
+            // cheaper to rebuild than to keep the stale trigrams
+            invalidate();
+            return;
+        }
+        indexedRows.clear(firstRow, lastRow + 1);
+        viewIndexed = false;
+        clearMatches();
+    }
+    
+    /**
+     * Inserts the given model rows, shifting the following rows. The 
+     * inserted rows are indexed on the next query.
+     * 
+     * @param firstRow the first inserted row in model coordinates
+     * @param lastRow the last inserted row in model coordinates, inclusive
+     */
+    public void rowsInserted(int firstRow, int lastRow) {
+        if (cells == null) return;
+        viewIndexed = false;
+        clearMatches();
+        if (firstRow >= rowCount) return;
+        int count = lastRow - firstRow + 1;
+        int first = firstRow * columnCount;
+        int delta = count * columnCount;
+        ensureRowCount(rowCount + count);
+        System.arraycopy(cells, first, cells, first + delta, 
+                (rowCount - count) * columnCount - first);
+        Arrays.fill(cells, first, first + delta, null);
+        indexedRows = shift(indexedRows, firstRow, count);
+        for (Postings gramCells : postings.values()) {
+            gramCells.shift(first, delta);
+        }
+    }
+    
+    /**
+     * Removes the given model rows, shifting the following rows.
+     * 
+     * @param firstRow the first removed row in model coordinates
+     * @param lastRow the last removed row in model coordinates, inclusive
+     */
+    public void rowsDeleted(int firstRow, int lastRow) {
+        if (cells == null) return;
+        viewIndexed = false;
+        clearMatches();
+        if (firstRow >= rowCount) return;
+        lastRow = Math.min(lastRow, rowCount - 1);
+        int count = lastRow - firstRow + 1;
+        int first = firstRow * columnCount;
+        int delta = count * columnCount;
+        System.arraycopy(cells, first + delta, cells, first, 
+                rowCount * columnCount - first - delta);
+        Arrays.fill(cells, (rowCount - count) * columnCount, rowCount * columnCount, null);
+        rowCount -= count;
+        indexedRows = shift(indexedRows, firstRow, -count);
+        for (Postings gramCells : postings.values()) {
+            gramCells.remove(first, delta);
+        }
+    }
+    
+    /**
+     * Notifies the index that the view rows changed without changing the model,
+     * like on sorting or filtering. Rows which become visible are indexed on 
+     * the next query.
+     */
+    public void viewChanged() {
+        viewIndexed = false;
+        lastViewMatches = null;
+    }
+    
+    private void clearMatches() {
+        lastPattern = null;
+        lastMatches = null;
+        lastViewMatches = null;
+    }
+
+    private void validate() {
+        if (cells == null || columnCount != searchable.getColumnCount()) {
+            invalidate();
+            columnCount = searchable.getColumnCount();
+            cells = new String[searchable.getSize() * columnCount];
+            postings = new HashMap<Long, Postings>();
+            indexedRows = new BitSet();
+        }
+        if (viewIndexed) return;
+        boolean indexed = false;
+        int size = searchable.getSize();
+        for (int row = 0; row < size; row++) {
+            int modelRow = searchable.convertRowIndexToModel(row);
+            if (modelRow < 0 || indexedRows.get(modelRow)) continue;
+            ensureRowCount(modelRow + 1);
+            for (int column = 0; column < columnCount; column++) {
+                int cell = modelRow * columnCount + column;
+                String text = searchable.getStringAt(row, column);
+                if (text != null && !text.equals(cells[cell])) {
+                    index(cell, text);
+                } else {
+                    cells[cell] = text;
+                }
+            }
+            indexedRows.set(modelRow);
+            indexed = true;
+        }
+        viewIndexed = true;
+        if (indexed) {
+            // the previous matches don't cover the new rows
+            clearMatches();
+        }
+    }
+    
+    private void ensureRowCount(int count) {
+        if (count <= rowCount) return;
+        if (count * columnCount > cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(count, rowCount + rowCount / 2) * columnCount);
+        }
+        rowCount = count;
+    }
+    
+    /**
+     * Returns a copy of the bits, the bits from index on shifted by delta.
+     */
+    private static BitSet shift(BitSet bits, int index, int delta) {
+        BitSet shifted = bits.get(0, index);
+        for (int bit = bits.nextSetBit(delta < 0 ? index - delta : index); bit >= 0; 
+                bit = bits.nextSetBit(bit + 1)) {
+            shifted.set(bit + delta);
+        }
+        return shifted;
+    }
+
+    private void index(int cell, String text) {
+        cells[cell] = text;
+        if (text == null) return;
+        String folded = fold(text);
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            Long gram = gramAt(folded, i);
+            Postings gramCells = postings.get(gram);
+            if (gramCells == null) {
+                gramCells = new Postings();
+                postings.put(gram, gramCells);
+            }
+            gramCells.add(cell);
+        }
+    }
+
+    private void test(Pattern pattern, int cell, BitSet matches) {
+        String text = cells[cell];
+        if (text != null && text.length() > 0 && pattern.matcher(text).find()) {
+            matches.set(cell);
+        }
+    }
+
+    private static long gramAt(String folded, int index) {
+        return ((long) folded.charAt(index) << 32)
+            | ((long) folded.charAt(index + 1) << 16)
+            | folded.charAt(index + 2);
+    }
+
+    /**
+     * Folds each char such that chars which match case-insensitively are equal.
+     */
+    private static String fold(String text) {
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(text.charAt(i)));
+        }
+        return new String(chars);
+    }
+
+    private static boolean isAnchored(Pattern pattern, boolean start) {
+        if ((pattern.flags() & Pattern.LITERAL) != 0) return false;
+        String regex = pattern.pattern();
+        return start ? regex.startsWith("^") 
+                : regex.endsWith("$") && !regex.endsWith("\\$");
+    }
+
+    /**
+     * Returns the literal which is contained in all strings matching the
+     * pattern or null if the pattern is not literal. Recognizes the
+     * optionally anchored, quoted regex created by PatternModel and
+     * unquoted regex without meta characters.
+     *
+     * @param pattern the pattern to analyze
+     * @return the literal contained in all matches, or null
+     */
+    static String getLiteral(Pattern pattern) {
+        if (pattern == null || (pattern.flags() & ~SUPPORTED_FLAGS) != 0) return null;
+        String regex = pattern.pattern();
+        if ((pattern.flags() & Pattern.LITERAL) != 0) {
+            return regex.length() > 0 ? regex : null;
+        }
+        if (regex.startsWith("^")) {
+            regex = regex.substring(1);
+        }
+        if (regex.endsWith("$") && !regex.endsWith("\\$")) {
+            regex = regex.substring(0, regex.length() - 1);
+        }
+        String literal;
+        if (regex.startsWith("\\Q") && regex.endsWith("\\E")) {
+            literal = regex.substring(2, regex.length() - 2);
+            if (literal.contains("\\E")) return null;
+        } else {
+            for (int i = 0; i < regex.length(); i++) {
+                if ("\\^$.|?*+()[]{}".indexOf(regex.charAt(i)) >= 0) return null;
+            }
+            literal = regex;
+        }
+        return literal.length() > 0 ? literal : null;
+    }
+
+    /**
+     * Growable list of cell ids.
+     */
+    private static class Postings {
+        int[] cells = new int[4];
+        int size;
+
+        void add(int cell) {
+            // a cell's grams are added in sequence
+            if (size > 0 && cells[size - 1] == cell) return;
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+
+        /**
+         * Adds delta to all cells from first on.
+         */
+        void shift(int first, int delta) {
+            for (int i = 0; i < size; i++) {
+                if (cells[i] >= first) {
+                    cells[i] += delta;
+                }
+            }
+        }
+
+        /**
+         * Removes the count cells from first on, moving the following cells down.
+         */
+        void remove(int first, int count) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int cell = cells[i];
+                if (cell < first) {
+                    cells[kept++] = cell;
+                } else if (cell >= first + count) {
+                    cells[kept++] = cell - count;
+                }
+            }
+            size = kept;
+        }
+    }
+}
@@ -21,9 +21,24 @@
 package org.jdesktop.swingx.search;
 
 import java.awt.Rectangle;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.BitSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.swing.RowSorter;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
+import javax.swing.event.TableColumnModelEvent;
+import javax.swing.event.TableColumnModelListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableColumnModel;
+import javax.swing.table.TableModel;
+
 import org.jdesktop.swingx.JXTable;
 import org.jdesktop.swingx.decorator.AbstractHighlighter;
 import org.jdesktop.swingx.decorator.Highlighter;
@@ -38,6 +53,9 @@ public class TableSearchable extends AbstractSearchable {
     /** The target JXTable. */
     protected JXTable table;
 
+    /** keeps the search index current, lazily created. */
+    private IndexListener indexListener;
+
     /**
      * Instantiates a TableSearchable with the given table as target.
      * 
@@ -56,6 +74,11 @@ public class TableSearchable extends AbstractSearchable {
     @Override
     protected void findMatchAndUpdateState(Pattern pattern, int startRow,
             boolean backwards) {
+        BitSet matches = getIndexedMatches(pattern);
+        if (matches != null && findIndexedMatchAndUpdateState(pattern, matches, 
+                startRow, backwards)) {
+            return;
+        }
         SearchResult matchRow = null;
         if (backwards) {
             // CHECK: off-one end still needed?
@@ -80,6 +103,52 @@ public class TableSearchable extends AbstractSearchable {
 
     }
 
+    /**
+     * Looks up the next matching cell in the given matches, starting at startRow 
+     * and the last found column. Updates internal search state.
+     * 
+     * @param pattern <code>Pattern</code> that we will try to locate
+     * @param matches the cells matching the pattern
+     * @param startRow the row to start at
+     * @param backwards <code>true</code> if we should perform search towards the beginning
+     * @return false if the index is out of synch and the table must be searched
+     *   cell by cell, true otherwise
+     */
+    private boolean findIndexedMatchAndUpdateState(Pattern pattern, BitSet matches,
+            int startRow, boolean backwards) {
+        int columnCount = getColumnCount();
+        int cellCount = getSize() * columnCount;
+        int cell = -1;
+        if (backwards) {
+            if (startRow >= getSize()) {
+                cell = matches.previousSetBit(cellCount - 1);
+            } else if (startRow >= 0) {
+                int startColumn = (lastSearchResult.foundColumn < 0) ? columnCount - 1
+                        : lastSearchResult.foundColumn;
+                cell = matches.previousSetBit(startRow * columnCount + startColumn);
+            }
+        } else if (startRow < getSize()) {
+            int startColumn = (lastSearchResult.foundColumn < 0) ? 0
+                    : lastSearchResult.foundColumn;
+            cell = startRow < 0 ? matches.nextSetBit(0) 
+                    : matches.nextSetBit(startRow * columnCount + startColumn);
+            if (cell >= cellCount) {
+                cell = -1;
+            }
+        }
+        if (cell < 0) {
+            updateState(null);
+            return true;
+        }
+        SearchResult result = findMatchAt(pattern, cell / columnCount, cell % columnCount);
+        if (result == null) {
+            invalidateIndex();
+            return false;
+        }
+        updateState(result);
+        return true;
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -226,6 +295,63 @@ public class TableSearchable extends AbstractSearchable {
         return table.getRowCount();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getColumnCount() {
+        return table.getColumnCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getStringAt(int row, int column) {
+        return table.getStringAt(row, column);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int convertRowIndexToView(int modelRow) {
+        return table.convertRowIndexToView(modelRow);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int convertRowIndexToModel(int viewRow) {
+        return table.convertRowIndexToModel(viewRow);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 
+     * Implemented to listen to the table, its model, column model and 
+     * row sorter.
+     */
+    @Override
+    protected void installIndexListeners() {
+        if (indexListener == null) {
+            indexListener = new IndexListener();
+        }
+        table.addPropertyChangeListener(indexListener);
+        indexListener.install();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void uninstallIndexListeners() {
+        table.removePropertyChangeListener(indexListener);
+        indexListener.uninstall();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -332,4 +458,97 @@ public class TableSearchable extends AbstractSearchable {
         table.addHighlighter(highlighter);
     }
 
-}
\ No newline at end of file
+
+    /**
+     * Updates the search index on changes of the table's data or layout.
+     */
+    private class IndexListener implements TableModelListener, RowSorterListener,
+            TableColumnModelListener, PropertyChangeListener {
+        private RowSorter<?> rowSorter;
+
+        void install() {
+            table.getModel().addTableModelListener(this);
+            table.getColumnModel().addColumnModelListener(this);
+            rowSorter = table.getRowSorter();
+            if (rowSorter != null) {
+                rowSorter.addRowSorterListener(this);
+            }
+            invalidateIndex();
+        }
+
+        void uninstall() {
+            table.getModel().removeTableModelListener(this);
+            table.getColumnModel().removeColumnModelListener(this);
+            if (rowSorter != null) {
+                rowSorter.removeRowSorterListener(this);
+                rowSorter = null;
+            }
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            if ("model".equals(evt.getPropertyName())) {
+                ((TableModel) evt.getOldValue()).removeTableModelListener(this);
+                table.getModel().addTableModelListener(this);
+                invalidateIndex();
+            } else if ("columnModel".equals(evt.getPropertyName())) {
+                ((TableColumnModel) evt.getOldValue()).removeColumnModelListener(this);
+                table.getColumnModel().addColumnModelListener(this);
+                invalidateIndex();
+            } else if ("rowSorter".equals(evt.getPropertyName())) {
+                if (rowSorter != null) {
+                    rowSorter.removeRowSorterListener(this);
+                }
+                rowSorter = table.getRowSorter();
+                if (rowSorter != null) {
+                    rowSorter.addRowSorterListener(this);
+                }
+                invalidateIndex();
+            }
+        }
+
+        @Override
+        public void tableChanged(TableModelEvent e) {
+            if (e.getFirstRow() == TableModelEvent.HEADER_ROW
+                    || e.getLastRow() == Integer.MAX_VALUE) {
+                invalidateIndex();
+            } else if (e.getType() == TableModelEvent.INSERT) {
+                insertIndexRows(e.getFirstRow(), e.getLastRow());
+            } else if (e.getType() == TableModelEvent.DELETE) {
+                removeIndexRows(e.getFirstRow(), e.getLastRow());
+            } else {
+                updateIndex(e.getFirstRow(), e.getLastRow());
+            }
+        }
+
+        @Override
+        public void sorterChanged(RowSorterEvent e) {
+            reorderIndex();
+        }
+
+        @Override
+        public void columnAdded(TableColumnModelEvent e) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void columnRemoved(TableColumnModelEvent e) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void columnMoved(TableColumnModelEvent e) {
+            if (e.getFromIndex() != e.getToIndex()) {
+                invalidateIndex();
+            }
+        }
+
+        @Override
+        public void columnMarginChanged(ChangeEvent e) {
+        }
+
+        @Override
+        public void columnSelectionChanged(ListSelectionEvent e) {
+        }
+    }
+}
@@ -20,23 +20,64 @@
  */
 package org.jdesktop.swingx.search;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.swing.JTree;
+import javax.swing.SwingWorker;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeCellRenderer;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+
 import org.jdesktop.swingx.JXTree;
 import org.jdesktop.swingx.decorator.AbstractHighlighter;
 import org.jdesktop.swingx.decorator.Highlighter;
+import org.jdesktop.swingx.renderer.StringValue;
+import org.jdesktop.swingx.renderer.StringValues;
+import org.jdesktop.swingx.tree.TreeUtilities.PreorderModelPathEnumeration;
 import org.jdesktop.swingx.util.Contract;
 
 /**
- * A searchable targetting the visible rows of a JXTree.
+ * A searchable targetting the visible rows of a JXTree. <p>
  * 
+ * Optionally, nodes hidden in collapsed subtrees are found by a search of 
+ * the complete TreeModel in the background, see searchModel.
  * 
  */
 public class TreeSearchable extends AbstractSearchable {
+    private static final Logger LOG = Logger.getLogger(TreeSearchable.class
+            .getName());
 
     protected JXTree tree;
 
+    /** keeps the search index current, lazily created. */
+    private IndexListener indexListener;
+
+    private boolean modelSearchEnabled;
+
+    private ModelSearchWorker modelSearchWorker;
+
+    /** the pattern of the last model search, null if none or invalid. */
+    private Pattern modelSearchPattern;
+
+    private List<TreePath> modelMatches = Collections.emptyList();
+
+    /** cancels a running model search on changes of the model. */
+    private ModelSearchListener modelSearchListener;
+
     /**
      * Instantiates a Searchable for the given JTree.
      * 
@@ -49,6 +90,26 @@ public class TreeSearchable extends AbstractSearchable {
     @Override
     protected void findMatchAndUpdateState(Pattern pattern, int startRow,
             boolean backwards) {
+        BitSet matches = getIndexedMatches(pattern);
+        if (matches != null) {
+            int index = backwards ? matches.previousSetBit(
+                    Math.max(-1, Math.min(startRow, getSize() - 1)))
+                    : matches.nextSetBit(Math.max(startRow, 0));
+            SearchResult searchResult = null;
+            if (index >= 0 && index < getSize()) {
+                searchResult = findMatchAt(pattern, index);
+                if (searchResult == null) {
+                    // out of synch
+                    invalidateIndex();
+                    matches = null;
+                }
+            }
+            if (matches != null) {
+                updateState(searchResult);
+                maybeSearchModel(pattern, backwards);
+                return;
+            }
+        }
         SearchResult searchResult = null;
         if (backwards) {
             for (int index = startRow; index >= 0 && searchResult == null; index--) {
@@ -61,7 +122,7 @@ public class TreeSearchable extends AbstractSearchable {
             }
         }
         updateState(searchResult);
-
+        maybeSearchModel(pattern, backwards);
     }
 
     @Override
@@ -95,6 +156,41 @@ public class TreeSearchable extends AbstractSearchable {
         return tree.getRowCount();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getStringAt(int row, int column) {
+        return tree.getStringAt(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * 
+     * Implemented to listen to the tree and its model. As the searched rows
+     * are the visible nodes, any change invalidates the index.
+     */
+    @Override
+    protected void installIndexListeners() {
+        if (indexListener == null) {
+            indexListener = new IndexListener();
+        }
+        tree.addPropertyChangeListener(indexListener);
+        tree.addTreeExpansionListener(indexListener);
+        indexListener.install();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void uninstallIndexListeners() {
+        tree.removePropertyChangeListener(indexListener);
+        tree.removeTreeExpansionListener(indexListener);
+        indexListener.uninstall();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -164,4 +260,382 @@ public class TreeSearchable extends AbstractSearchable {
         tree.addHighlighter(highlighter);
     }
 
-}
\ No newline at end of file
+
+//----------------------- model search
+
+    /**
+     * Sets the property to enable/disable searching the complete model if a 
+     * search doesn't find a match in the visible rows. If enabled, a search 
+     * without match starts a model search with the same pattern, which 
+     * expands and marks the first hit as soon as it is found. <p>
+     * 
+     * Default value is disabled.
+     * 
+     * @param enabled a boolean indicating whether or not to search the model
+     *   if no visible row matches.
+     *   
+     * @see #searchModel(Pattern)
+     */
+    public void setModelSearchEnabled(boolean enabled) {
+        boolean old = isModelSearchEnabled();
+        this.modelSearchEnabled = enabled;
+        firePropertyChange("modelSearchEnabled", old, isModelSearchEnabled());
+    }
+
+    /**
+     * Returns a boolean indicating whether or not the complete model is 
+     * searched if no visible row matches.
+     * 
+     * @return a boolean indicating whether or not to search the model
+     *   if no visible row matches.
+     *   
+     * @see #setModelSearchEnabled(boolean)
+     */
+    public boolean isModelSearchEnabled() {
+        return modelSearchEnabled;
+    }
+
+    /**
+     * Searches all nodes of the tree's model, including nodes in collapsed
+     * subtrees, for the pattern. A null pattern cancels the search and
+     * clears the matches. <p>
+     * 
+     * The model is walked in preorder in the background, nodes are matched
+     * against their string representation as returned by the tree's 
+     * StringValue. Hits are streamed back: the path to the first hit is expanded
+     * as soon as it is found and the hit is marked as the current match. The 
+     * other hits are expanded one by one when navigated to, that is by a search 
+     * for an equal pattern which doesn't find a match in the visible rows.
+     * The number of hits is reported progressively by the bound property
+     * "modelMatchCount", the bound property "searchingModel" is true until the 
+     * walk is completed. A search while another is running cancels the former, 
+     * as does any change of the model or replacing the tree's model.<p>
+     * 
+     * <b>Note</b>: the model is accessed off the EDT. This is safe if the model
+     * is not modified during the search or if it supports concurrent reads.
+     * 
+     * @param pattern the pattern to match, may be null
+     * 
+     * @see #getModelMatches()
+     * @see #cancelModelSearch()
+     */
+    public void searchModel(Pattern pattern) {
+        boolean wasSearching = cancelModelSearch();
+        getModelSearchListener().uninstall();
+        modelSearchPattern = pattern;
+        setModelMatches(new ArrayList<TreePath>());
+        TreeModel model = tree.getModel();
+        if (pattern == null || model == null || model.getRoot() == null) {
+            modelSearchPattern = null;
+            if (wasSearching) {
+                firePropertyChange("searchingModel", true, false);
+            }
+            return;
+        }
+        modelSearchWorker = new ModelSearchWorker(pattern, model, getStringValue(), 
+                tree.isRootVisible());
+        getModelSearchListener().install(model);
+        modelSearchWorker.execute();
+        if (!wasSearching) {
+            firePropertyChange("searchingModel", false, true);
+        }
+    }
+
+    /**
+     * Cancels the running model search, if any. The hits found so far are
+     * kept.
+     * 
+     * @return true if a model search was running
+     */
+    public boolean cancelModelSearch() {
+        if (modelSearchWorker == null) return false;
+        modelSearchWorker.cancel(true);
+        modelSearchWorker = null;
+        return true;
+    }
+
+    /**
+     * Returns a boolean indicating whether a model search is running.
+     * 
+     * @return true if searching the model in the background
+     * 
+     * @see #searchModel(Pattern)
+     */
+    public boolean isSearchingModel() {
+        return modelSearchWorker != null;
+    }
+
+    /**
+     * Returns the paths of the nodes found by the last model search in
+     * preorder. While still searching, returns the hits found so far.
+     * 
+     * @return an unmodifiable list of the paths matching the last model 
+     *   search's pattern
+     *   
+     * @see #searchModel(Pattern)
+     */
+    public List<TreePath> getModelMatches() {
+        return Collections.unmodifiableList(modelMatches);
+    }
+
+    /**
+     * Starts a model search with the given pattern if enabled, there's no 
+     * match in the visible rows and the model has not yet been searched
+     * for an equal pattern. Otherwise expands and marks the next hit of the 
+     * model search which is not yet visible, if any.
+     * 
+     * @param pattern the pattern which failed to match a visible row
+     * @param backwards the direction of the search
+     */
+    private void maybeSearchModel(Pattern pattern, boolean backwards) {
+        if (!isModelSearchEnabled() || hasMatch() || pattern == null) return;
+        if (modelSearchPattern != null 
+                && modelSearchPattern.pattern().equals(pattern.pattern())
+                && modelSearchPattern.flags() == pattern.flags()
+                && getModelSearchListener().model == tree.getModel()) {
+            showHiddenModelMatch(pattern, backwards);
+            return;
+        }
+        searchModel(pattern);
+    }
+    
+    /**
+     * Expands the path to the first (or last, if backwards) hit of the model 
+     * search which is not visible and marks it as the current match.
+     * 
+     * @return true if a hidden hit was found
+     */
+    private boolean showHiddenModelMatch(Pattern pattern, boolean backwards) {
+        for (int i = 0; i < modelMatches.size(); i++) {
+            TreePath path = modelMatches.get(backwards ? modelMatches.size() - 1 - i : i);
+            if (tree.isVisible(path)) continue;
+            tree.makeVisible(path);
+            int row = tree.getRowForPath(path);
+            SearchResult searchResult = row >= 0 ? findMatchAt(pattern, row) : null;
+            if (searchResult != null) {
+                updateState(searchResult);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the StringValue used by the tree to represent nodes.
+     * 
+     * @return the StringValue used by the tree
+     */
+    protected StringValue getStringValue() {
+        TreeCellRenderer renderer = tree.getWrappedCellRenderer();
+        return renderer instanceof StringValue ? (StringValue) renderer : StringValues.TO_STRING;
+    }
+
+    private void setModelMatches(List<TreePath> matches) {
+        int old = modelMatches.size();
+        modelMatches = matches;
+        firePropertyChange("modelMatchCount", old, matches.size());
+    }
+
+    /**
+     * Adds the given hits of the running model search. Expands the path to the 
+     * first hit and marks it as the current match, the others are expanded 
+     * when navigated to.
+     */
+    private void addModelMatches(Pattern pattern, List<TreePath> paths) {
+        int old = modelMatches.size();
+        modelMatches.addAll(paths);
+        if (old == 0 && !paths.isEmpty()) {
+            TreePath path = paths.get(0);
+            tree.makeVisible(path);
+            int row = tree.getRowForPath(path);
+            SearchResult searchResult = row >= 0 ? findMatchAt(pattern, row) : null;
+            if (searchResult != null) {
+                updateState(searchResult);
+                moveMatchMarker();
+            }
+        }
+        firePropertyChange("modelMatchCount", old, modelMatches.size());
+    }
+
+    private ModelSearchListener getModelSearchListener() {
+        if (modelSearchListener == null) {
+            modelSearchListener = new ModelSearchListener();
+        }
+        return modelSearchListener;
+    }
+
+    /**
+     * Walks the model in preorder, publishing the paths of matching nodes.
+     */
+    private class ModelSearchWorker extends SwingWorker<Void, TreePath> {
+        private final Pattern pattern;
+        private final TreeModel model;
+        private final StringValue stringValue;
+        private final boolean rootVisible;
+
+        ModelSearchWorker(Pattern pattern, TreeModel model, StringValue stringValue, 
+                boolean rootVisible) {
+            this.pattern = pattern;
+            this.model = model;
+            this.stringValue = stringValue;
+            this.rootVisible = rootVisible;
+        }
+
+        @Override
+        protected Void doInBackground() throws Exception {
+            Object root = model.getRoot();
+            PreorderModelPathEnumeration nodes = new PreorderModelPathEnumeration(model);
+            while (nodes.hasMoreElements() && !isCancelled()) {
+                Object node = nodes.nextElement();
+                if (node == root && !rootVisible) continue;
+                String text = stringValue.getString(node);
+                if (text != null && text.length() > 0 && pattern.matcher(text).find()) {
+                    publish(nodes.getPath());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        protected void process(List<TreePath> paths) {
+            if (modelSearchWorker != this) return;
+            addModelMatches(pattern, paths);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || modelSearchWorker != this) return;
+            modelSearchWorker = null;
+            try {
+                get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOG.log(Level.WARNING, "searching the model failed", e.getCause());
+            }
+            firePropertyChange("searchingModel", true, false);
+        }
+    }
+
+    /**
+     * Cancels a running model search on changes of the model or replacing the 
+     * tree's model and invalidates the last model search's pattern. Installed 
+     * as long as the last model search's pattern is valid.
+     */
+    private class ModelSearchListener implements TreeModelListener, 
+            PropertyChangeListener {
+        private TreeModel model;
+
+        void install(TreeModel model) {
+            this.model = model;
+            model.addTreeModelListener(this);
+            tree.addPropertyChangeListener(JTree.TREE_MODEL_PROPERTY, this);
+        }
+
+        void uninstall() {
+            if (model != null) {
+                model.removeTreeModelListener(this);
+                tree.removePropertyChangeListener(JTree.TREE_MODEL_PROPERTY, this);
+                model = null;
+            }
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            modelChanged();
+        }
+
+        private void modelChanged() {
+            uninstall();
+            modelSearchPattern = null;
+            if (cancelModelSearch()) {
+                firePropertyChange("searchingModel", true, false);
+            }
+        }
+
+        @Override
+        public void treeNodesChanged(TreeModelEvent e) {
+            modelChanged();
+        }
+
+        @Override
+        public void treeNodesInserted(TreeModelEvent e) {
+            modelChanged();
+        }
+
+        @Override
+        public void treeNodesRemoved(TreeModelEvent e) {
+            modelChanged();
+        }
+
+        @Override
+        public void treeStructureChanged(TreeModelEvent e) {
+            modelChanged();
+        }
+    }
+
+    /**
+     * Invalidates the search index on changes of the tree's data or
+     * expansion state.
+     */
+    private class IndexListener implements TreeModelListener, TreeExpansionListener,
+            PropertyChangeListener {
+        private TreeModel model;
+
+        void install() {
+            model = tree.getModel();
+            if (model != null) {
+                model.addTreeModelListener(this);
+            }
+            invalidateIndex();
+        }
+
+        void uninstall() {
+            if (model != null) {
+                model.removeTreeModelListener(this);
+                model = null;
+            }
+        }
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            if (JTree.TREE_MODEL_PROPERTY.equals(evt.getPropertyName())) {
+                uninstall();
+                install();
+            } else if (JTree.CELL_RENDERER_PROPERTY.equals(evt.getPropertyName())
+                    || JTree.ROOT_VISIBLE_PROPERTY.equals(evt.getPropertyName())) {
+                invalidateIndex();
+            }
+        }
+
+        @Override
+        public void treeExpanded(TreeExpansionEvent event) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void treeCollapsed(TreeExpansionEvent event) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void treeNodesChanged(TreeModelEvent e) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void treeNodesInserted(TreeModelEvent e) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void treeNodesRemoved(TreeModelEvent e) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void treeStructureChanged(TreeModelEvent e) {
+            invalidateIndex();
+        }
+    }
+}
@@ -21,13 +21,25 @@
  */
 package org.jdesktop.swingx.sort;
 
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.DefaultRowSorter;
+import javax.swing.RowFilter;
 import javax.swing.SortOrder;
+import javax.swing.SwingWorker;
 
 import org.jdesktop.swingx.renderer.StringValue;
 import org.jdesktop.swingx.renderer.StringValues;
@@ -49,6 +61,11 @@ import org.jdesktop.swingx.util.Contract;
  */
 public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integer> implements
         SortController<M> {
+    /** the minimal number of rows per chunk when filtering in the background. */
+    private static final int FILTER_CHUNK_SIZE = 4096;
+    
+    private static final Logger LOG = Logger.getLogger(DefaultSortController.class
+            .getName());
 
     /**
      * Comparator that uses compareTo on the contents.
@@ -59,14 +76,56 @@ public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integ
 
     private final static SortOrder[] DEFAULT_CYCLE = new SortOrder[] {SortOrder.ASCENDING, SortOrder.DESCENDING};
 
+    /**
+     * The maximal number of updated rows which are checked for keeping their
+     * position before falling back to super's update handling.
+     */
+    private final static int MAX_IN_PLACE_UPDATE = 64;
+
     private List<SortOrder> sortCycle;
     
     private boolean sortable;
 
     private StringValueProvider stringValueProvider;
 
+    private final StringValueCache stringValueCache = new StringValueCache();
+
     protected int cachedModelRowCount;
     
+    private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+    
+    /** flag to sort off the EDT. */
+    private boolean backgroundSorting;
+    
+    /** the mapping installed by background sorting, null for identity. */
+    private int[] viewToModel;
+    
+    private int[] modelToView;
+    
+    /** the running background sort, if any. */
+    private SortWorker sortWorker;
+    
+    /** 
+     * true if rows were updated without re-sorting since the last sort, 
+     * mirrors super's private dirty state. 
+     */
+    private boolean unsortedUpdates;
+    
+    /** 
+     * marks the threads working for a background sort: they convert strings 
+     * but must not cache them, the model might have changed already. 
+     */
+    private final ThreadLocal<Boolean> inBackground = new ThreadLocal<Boolean>();
+    
+    /** the rows included by the last completed background filter. */
+    private int[] filteredRows;
+    
+    /** the filter which produced the filteredRows. */
+    private RowFilter<? super M, ? super Integer> filteredBy;
+    
+    /** flag to let super reset its internal mapping. */
+    private boolean resettingSuper;
+    
     public DefaultSortController() {
         super();
         setSortable(true);
@@ -253,6 +312,8 @@ public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integ
     @Override
     public void setStringValueProvider(StringValueProvider registry) {
         this.stringValueProvider = registry;
+        stringValueCache.clear();
+        filteredRows = null;
 //        updateStringConverter();
     }
     
@@ -269,6 +330,78 @@ public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integ
         return stringValueProvider;
     }
 
+    /**
+     * Sets a boolean indicating whether the string representation of the given
+     * column's values should be cached. If enabled, each cell is converted by the 
+     * StringValueProvider only once and the result reused in sorting and filtering 
+     * until the cell is updated or the provider is changed. The default value is 
+     * false.<p>
+     * 
+     * Note: the cache is kept in synch with the model by the usual notification
+     * methods, so enable only if the model reliably fires fine-grained events.
+     * The cache is dropped when the StringValueProvider is set, client code which 
+     * changes the mapping of the provider must re-set it to update the cached 
+     * representations.
+     * 
+     * @param column the column index in model coordinates
+     * @param cached true to cache the column's string representation
+     * @throws IndexOutOfBoundsException if the column is not valid
+     *    (in coordinate space of the model)
+     * 
+     * @see #isStringValueCached(int)
+     * @see #getStringAt(int, int)
+     */
+    public void setStringValueCached(int column, boolean cached) {
+        checkColumn(column);
+        stringValueCache.setCached(column, cached);
+    }
+    
+    /**
+     * Returns a boolean indicating whether the string representation of the given
+     * column's values are cached.
+     * 
+     * @param column the column index in model coordinates
+     * @return true if the column's string representation is cached
+     * 
+     * @see #setStringValueCached(int, boolean)
+     */
+    public boolean isStringValueCached(int column) {
+        return stringValueCache.isCached(column);
+    }
+    
+    /**
+     * Returns the string representation of the model value at the given position,
+     * as converted by the StringValue returned from the StringValueProvider. 
+     * The ModelWrapper implementations of subclasses are expected to use this method.<p>
+     * 
+     * This implementation uses the cached string, if caching is enabled for 
+     * the column.
+     * 
+     * @param row the row index in model coordinates
+     * @param column the column index in model coordinates
+     * @return the string representation of the value at the given position
+     * 
+     * @see #setStringValueCached(int, boolean)
+     */
+    protected String getStringAt(int row, int column) {
+        if (!stringValueCache.isCached(column)) {
+            return convertToString(row, column);
+        }
+        String value = stringValueCache.get(row, column);
+        if (value == null) {
+            value = convertToString(row, column);
+            if (inBackground.get() == null) {
+                stringValueCache.put(row, column, value, getModelRowCount());
+            }
+        }
+        return value;
+    }
+    
+    private String convertToString(int row, int column) {
+        return getStringValueProvider().getStringValue(row, column)
+                .getString(getModelWrapper().getValueAt(row, column));
+    }
+    
     /**
      * Returns the default cycle.
      * 
@@ -311,6 +444,9 @@ public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integ
             throw new IndexOutOfBoundsException("valid viewIndex: 0 <= index < " 
                     + getViewRowCount() 
                     + " but was: " + viewIndex);
+        if (isBackgroundSorting()) {
+            return viewToModel != null ? viewToModel[viewIndex] : viewIndex;
+        }
         try {
              return super.convertRowIndexToModel(viewIndex);
         } catch (Exception e) {
@@ -335,6 +471,9 @@ public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integ
             throw new IndexOutOfBoundsException("valid modelIndex: 0 <= index < " 
                     + getModelRowCount() 
                     + " but was: " + modelIndex);
+        if (isBackgroundSorting()) {
+            return modelToView != null ? modelToView[modelIndex] : modelIndex;
+        }
         try {
             return super.convertRowIndexToView(modelIndex);
         } catch (Exception e) {
@@ -370,6 +509,8 @@ public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integ
      */
     @Override
     public int getViewRowCount() {
+        if (isBackgroundSorting()) 
+            return viewToModel != null ? viewToModel.length : getModelRowCount();
         if (hasRowFilter())
             return super.getViewRowCount();
         return getModelRowCount();
@@ -382,26 +523,738 @@ public abstract class DefaultSortController<M> extends DefaultRowSorter<M, Integ
         return getRowFilter() != null;
     }
     
-//------------------ overridden notification methods: cache model row count    
+//------------------ overridden notification methods: cache model row count, 
+//------------------ keep string value cache in synch    
     @Override
     public void allRowsChanged() {
         cachedModelRowCount = getModelWrapper().getRowCount();
+        stringValueCache.clear();
+        filteredRows = null;
+        if (isBackgroundSorting()) {
+            // keep a valid mapping until the re-sort is done
+            repairMapping();
+        }
         super.allRowsChanged();
     }
     @Override
     public void modelStructureChanged() {
+        stringValueCache.clear();
+        filteredRows = null;
+        if (isBackgroundSorting()) {
+            cachedModelRowCount = getModelWrapper().getRowCount();
+            repairMapping();
+        }
         super.modelStructureChanged();
         cachedModelRowCount = getModelWrapper().getRowCount();
     }
     @Override
     public void rowsDeleted(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, cachedModelRowCount - 1, cachedModelRowCount - 1);
         cachedModelRowCount = getModelWrapper().getRowCount();
+        stringValueCache.rowsDeleted(firstRow, endRow);
+        if (isBackgroundSorting()) {
+            backgroundRowsDeleted(firstRow, endRow);
+            return;
+        }
         super.rowsDeleted(firstRow, endRow);
     }
     @Override
     public void rowsInserted(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, cachedModelRowCount, getModelWrapper().getRowCount() - 1);
         cachedModelRowCount = getModelWrapper().getRowCount();
+        stringValueCache.rowsInserted(firstRow, endRow);
+        if (isBackgroundSorting()) {
+            backgroundRowsInserted(firstRow, endRow);
+            return;
+        }
         super.rowsInserted(firstRow, endRow);
     }
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to do nothing if the updated rows keep their view position and 
+     * filter state. Super would rebuild both index mappings and fire a 
+     * RowSorterEvent, which triggers a full repaint of the table.
+     */
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        checkRange(firstRow, endRow, cachedModelRowCount - 1, cachedModelRowCount - 1);
+        stringValueCache.rowsUpdated(firstRow, endRow);
+        if (isBackgroundSorting()) {
+            backgroundRowsUpdated(firstRow, endRow, -1);
+            return;
+        }
+        if (isMappingUnchanged(firstRow, endRow, -1)) return;
+        super.rowsUpdated(firstRow, endRow);
+    }
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to do nothing if the updated rows keep their view position and 
+     * filter state. If there is no filter, an update of a column which is
+     * not sorted never changes the mapping.
+     */
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        checkColumn(column);
+        checkRange(firstRow, endRow, cachedModelRowCount - 1, cachedModelRowCount - 1);
+        stringValueCache.rowsUpdated(firstRow, endRow, column);
+        if (isBackgroundSorting()) {
+            backgroundRowsUpdated(firstRow, endRow, column);
+            return;
+        }
+        if (isMappingUnchanged(firstRow, endRow, column)) return;
+        // super would route back to rowsUpdated(int, int), dropping cached 
+        // strings of all columns
+        super.rowsUpdated(firstRow, endRow);
+    }
+
+    /**
+     * Throws the IndexOutOfBoundsException super throws for an invalid range 
+     * of a notification. Called before the string value cache or the 
+     * mapping are changed, so they stay in synch with the model.
+     * 
+     * @param firstRow the first row of the range in model coordinates
+     * @param endRow the last row of the range in model coordinates, inclusive
+     * @param maxFirstRow the maximal valid first row
+     * @param maxEndRow the maximal valid last row
+     */
+    private void checkRange(int firstRow, int endRow, int maxFirstRow, int maxEndRow) {
+        if (firstRow < 0 || firstRow > endRow || firstRow > maxFirstRow || endRow > maxEndRow) {
+            throw new IndexOutOfBoundsException("Invalid range");
+        }
+    }
+
+    /**
+     * Returns a boolean indicating whether the update of the given rows leaves
+     * the view-to-model mapping unchanged. Returns false if in doubt, that is 
+     * if the rows are out of range, too many rows are updated, the
+     * sorter doesn't sort on updates or rows were updated without re-sorting 
+     * before. In all these cases super has to validate the range and re-sort 
+     * if needed.<p>
+     * 
+     * Marks the mapping as unsorted if the sorter doesn't sort on updates.
+     * 
+     * @param firstRow the first updated row in model coordinates
+     * @param endRow the last updated row in model coordinates, inclusive
+     * @param column the updated column in model coordinates, or -1 for all
+     * @return true if the update leaves the mapping unchanged, false otherwise
+     */
+    private boolean isMappingUnchanged(int firstRow, int endRow, int column) {
+        if (!getSortsOnUpdates()) {
+            // super marks itself as unsorted
+            unsortedUpdates = true;
+            return false;
+        }
+        if (unsortedUpdates || firstRow < 0 || firstRow > endRow
+                || endRow >= getModelRowCount() 
+                || getModelWrapper().getRowCount() != getModelRowCount()
+                || endRow - firstRow >= MAX_IN_PLACE_UPDATE) 
+            return false;
+        List<? extends SortKey> keys = getSortKeys();
+        boolean sorted = !keys.isEmpty() && keys.get(0).getSortOrder() != SortOrder.UNSORTED;
+        RowFilter<? super M, ? super Integer> filter = getRowFilter();
+        // not transformed: super does nothing
+        if (!sorted && filter == null) return false;
+        if (filter == null && column >= 0 && !isSortedColumn(keys, column)) 
+            return true;
+        ModelRowEntry entry = new ModelRowEntry();
+        for (int row = firstRow; row <= endRow; row++) {
+            int viewIndex = convertRowIndexToView(row);
+            if (filter != null) {
+                entry.row = row;
+                if (filter.include(entry) != (viewIndex >= 0)) return false;
+            }
+            if (!sorted || viewIndex < 0) continue;
+            if (viewIndex > 0 
+                    && compareRows(convertRowIndexToModel(viewIndex - 1), row, keys) > 0) 
+                return false;
+            if (viewIndex < getViewRowCount() - 1 
+                    && compareRows(row, convertRowIndexToModel(viewIndex + 1), keys) > 0) 
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns a boolean indicating whether the column is sorted by any of the keys.
+     */
+    private boolean isSortedColumn(List<? extends SortKey> keys, int column) {
+        for (SortKey sortKey : keys) {
+            if (sortKey.getColumn() == column && sortKey.getSortOrder() != SortOrder.UNSORTED) 
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Compares the given model rows by the sort keys, same as super does in sort.
+     * Equal rows are ordered by model index.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private int compareRows(int model1, int model2, List<? extends SortKey> keys) {
+        for (SortKey sortKey : keys) {
+            if (sortKey.getSortOrder() == SortOrder.UNSORTED) {
+                return model1 - model2;
+            }
+            int column = sortKey.getColumn();
+            Object v1, v2;
+            if (useToString(column)) {
+                v1 = getModelWrapper().getStringValueAt(model1, column);
+                v2 = getModelWrapper().getStringValueAt(model2, column);
+            } else {
+                v1 = getModelWrapper().getValueAt(model1, column);
+                v2 = getModelWrapper().getValueAt(model2, column);
+            }
+            int result;
+            if (v1 == null) {
+                result = v2 == null ? 0 : -1;
+            } else if (v2 == null) {
+                result = 1;
+            } else {
+                Comparator comparator = getComparator(column);
+                if (comparator == null) {
+                    comparator = Collator.getInstance();
+                }
+                result = comparator.compare(v1, v2);
+            }
+            if (sortKey.getSortOrder() == SortOrder.DESCENDING) {
+                result *= -1;
+            }
+            if (result != 0) return result;
+        }
+        return model1 - model2;
+    }
+
+//------------------ background sorting
+
+    /**
+     * Sets a boolean indicating whether sorting should be done off the EDT. 
+     * The default value is false.<p>
+     * 
+     * If enabled, a sort (triggered by changing the sort keys, the row filter, or 
+     * model changes which require a re-sort) evaluates the row filter in parallel
+     * chunks, snapshots the keys of the sorted columns for the included rows, 
+     * sorts them using all available cores and installs the resulting mapping 
+     * on the EDT in one step, firing a RowSorterEvent. Until then, the previous 
+     * mapping is kept, repaired for inserted and deleted rows, and the sorting 
+     * property is true. A sort started while another is running cancels the former,
+     * so setting a filter per keystroke evaluates only the latest. If the new 
+     * filter narrows the previous, only the rows passing the previous are 
+     * re-tested. String columns compared by a <code>Collator</code> are sorted 
+     * by <code>CollationKey</code>s.<p>
+     * 
+     * Note: the model is read off the EDT, changes must be notified on the EDT 
+     * as usual. Row filters and the comparators of sorted columns are called 
+     * from multiple threads, custom implementations must be thread-safe.
+     * 
+     * @param backgroundSorting true to sort off the EDT
+     * 
+     * @see #isBackgroundSorting()
+     * @see #isSorting()
+     * @see #isNarrowingFilter(RowFilter, RowFilter)
+     */
+    public void setBackgroundSorting(boolean backgroundSorting) {
+        if (isBackgroundSorting() == backgroundSorting) return;
+        if (backgroundSorting) {
+            boolean transformed = isSorted() || hasRowFilter();
+            int[] current = null;
+            if (transformed) {
+                current = new int[getViewRowCount()];
+                for (int i = 0; i < current.length; i++) {
+                    current[i] = convertRowIndexToModel(i);
+                }
+            }
+            this.backgroundSorting = true;
+            setMapping(current);
+            if (transformed) {
+                // super's mapping must be null, otherwise it would re-use it 
+                // on changing the sort keys 
+                resettingSuper = true;
+                try {
+                    super.sort();
+                } finally {
+                    resettingSuper = false;
+                }
+            }
+        } else {
+            cancelSort();
+            filteredRows = null;
+            this.backgroundSorting = false;
+            setMapping(null);
+            allRowsChanged();
+        }
+    }
+    
+    /**
+     * Returns a boolean indicating whether sorting is done off the EDT.
+     * 
+     * @return true if sorting is done off the EDT.
+     * 
+     * @see #setBackgroundSorting(boolean)
+     */
+    public boolean isBackgroundSorting() {
+        return backgroundSorting;
+    }
+    
+    /**
+     * Returns a boolean indicating whether a background sort is running. Fires
+     * a PropertyChangeEvent with name "sorting" on change. 
+     * 
+     * @return true if a background sort is running.
+     * 
+     * @see #setBackgroundSorting(boolean)
+     * @see #addPropertyChangeListener(PropertyChangeListener)
+     */
+    public boolean isSorting() {
+        return sortWorker != null;
+    }
+    
+    /**
+     * Adds a PropertyChangeListener, notified about changes of the sorting property.
+     * 
+     * @param listener the listener to add
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.addPropertyChangeListener(listener);
+    }
+    
+    /**
+     * Removes a PropertyChangeListener.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.removePropertyChangeListener(listener);
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to start a background sort if background sorting is enabled.
+     * 
+     * @see #setBackgroundSorting(boolean)
+     */
+    @Override
+    public void sort() {
+        unsortedUpdates = false;
+        if (!isBackgroundSorting() || resettingSuper) {
+            super.sort();
+            return;
+        }
+        startBackgroundSort();
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to report no sort keys while super resets its mapping.
+     */
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        if (resettingSuper) return Collections.emptyList();
+        return super.getSortKeys();
+    }
+    
+    /**
+     * {@inheritDoc} <p>
+     * 
+     * Overridden to report no filter while super resets its mapping.
+     */
+    @Override
+    public RowFilter<? super M, ? super Integer> getRowFilter() {
+        if (resettingSuper) return null;
+        return super.getRowFilter();
+    }
+    
+    private boolean isSorted() {
+        List<? extends SortKey> keys = getSortKeys();
+        return !keys.isEmpty() && keys.get(0).getSortOrder() != SortOrder.UNSORTED;
+    }
+    
+    /**
+     * Starts the background filter and sort. Installs the mapping immediately 
+     * if neither filtered nor sorted.
+     */
+    private void startBackgroundSort() {
+        boolean wasSorting = cancelSort();
+        RowFilter<? super M, ? super Integer> filter = getRowFilter();
+        if (filter == null && !isSorted()) {
+            installMapping(null);
+            if (wasSorting) {
+                changeSupport.firePropertyChange("sorting", true, false);
+            }
+            return;
+        }
+        int[] candidates = null;
+        if (filter != null && filteredRows != null 
+                && isNarrowingFilter(filteredBy, filter)) {
+            candidates = filteredRows;
+        }
+        List<SortKey> keys = new ArrayList<SortKey>();
+        if (isSorted()) {
+            for (SortKey key : getSortKeys()) {
+                // JW: same as in super, keys after an unsorted key have no effect 
+                if (key.getSortOrder() == SortOrder.UNSORTED) break;
+                keys.add(key);
+            }
+        }
+        Comparator<?>[] comparators = new Comparator<?>[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            comparators[i] = getComparator(keys.get(i).getColumn());
+            if (comparators[i] == null) {
+                comparators[i] = Collator.getInstance();
+            }
+        }
+        sortWorker = new SortWorker(filter, candidates, keys, comparators);
+        sortWorker.execute();
+        if (!wasSorting) {
+            changeSupport.firePropertyChange("sorting", false, true);
+        }
+    }
+    
+    /**
+     * Returns a boolean indicating whether the next filter includes only rows 
+     * which are included by the previous filter. If so, the background filter
+     * re-tests only the rows which passed the previous filter.<p>
+     * 
+     * This implementation returns true for regex filters created by 
+     * <code>RowFilters</code> on the same columns with literal patterns, where 
+     * the next contains the previous (or extends it, if anchored at the start).
+     * 
+     * @param previous the filter which produced the current filtered rows, 
+     *   may be null
+     * @param next the new filter
+     * @return true if the next filter narrows the previous
+     * 
+     * @see RowFilters#regexFilter(String, int...)
+     */
+    protected boolean isNarrowingFilter(RowFilter<? super M, ? super Integer> previous, 
+            RowFilter<? super M, ? super Integer> next) {
+        return RowFilters.isNarrowing(previous, next);
+    }
+    
+    /**
+     * Returns the rows included by the filter, testing the candidates in parallel 
+     * chunks. Called off the EDT. 
+     * 
+     * @param filter the filter to apply
+     * @param candidates the rows to test, null for all
+     * @param worker the worker to check for cancellation
+     * @return the included rows in model coordinates, ascending
+     */
+    private int[] filterRows(final RowFilter<? super M, ? super Integer> filter, 
+            final int[] candidates, final SortWorker worker) throws Exception {
+        final int rowCount = candidates != null ? candidates.length : worker.rowCount;
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4,
+                rowCount / FILTER_CHUNK_SIZE));
+        List<Callable<int[]>> tasks = new ArrayList<Callable<int[]>>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final int start = (int) ((long) rowCount * i / chunks);
+            final int end = (int) ((long) rowCount * (i + 1) / chunks);
+            tasks.add(new Callable<int[]>() {
+                @Override
+                public int[] call() {
+                    Boolean previous = inBackground.get();
+                    inBackground.set(Boolean.TRUE);
+                    try {
+                        ModelRowEntry entry = new ModelRowEntry();
+                        int[] included = new int[end - start];
+                        int count = 0;
+                        for (int r = start; r < end; r++) {
+                            if ((r & 1023) == 0 && worker.isCancelled()) break;
+                            entry.row = candidates != null ? candidates[r] : r;
+                            if (filter.include(entry)) {
+                                included[count++] = entry.row;
+                            }
+                        }
+                        return Arrays.copyOf(included, count);
+                    } finally {
+                        inBackground.set(previous);
+                    }
+                }
+            });
+        }
+        List<int[]> parts = new ArrayList<int[]>(chunks);
+        int count = 0;
+        for (Future<int[]> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            int[] part = future.get();
+            parts.add(part);
+            count += part.length;
+        }
+        int[] included = new int[count];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, included, offset, part.length);
+            offset += part.length;
+        }
+        return included;
+    }
+    
+    /**
+     * Cancels the running background sort, if any.
+     * 
+     * @return true if a sort was running
+     */
+    private boolean cancelSort() {
+        if (sortWorker == null) return false;
+        sortWorker.cancel(true);
+        sortWorker = null;
+        return true;
+    }
+    
+    private void backgroundRowsInserted(int firstRow, int endRow) {
+        filteredRows = null;
+        if (viewToModel != null) {
+            int delta = endRow - firstRow + 1;
+            int[] last = viewToModel;
+            int[] mapping = new int[last.length + delta];
+            for (int i = 0; i < last.length; i++) {
+                mapping[i] = last[i] >= firstRow ? last[i] + delta : last[i];
+            }
+            // show the new rows at the end until sorted/filtered
+            for (int i = 0; i < delta; i++) {
+                mapping[last.length + i] = firstRow + i;
+            }
+            installMapping(mapping);
+            sort();
+        } else if (isSorting()) {
+            sort();
+        }
+    }
+    
+    private void backgroundRowsDeleted(int firstRow, int endRow) {
+        filteredRows = null;
+        if (viewToModel != null) {
+            int delta = endRow - firstRow + 1;
+            int[] mapping = new int[viewToModel.length];
+            int count = 0;
+            for (int modelIndex : viewToModel) {
+                if (modelIndex < firstRow) {
+                    mapping[count++] = modelIndex;
+                } else if (modelIndex > endRow) {
+                    mapping[count++] = modelIndex - delta;
+                }
+            }
+            installMapping(Arrays.copyOf(mapping, count));
+        }
+        if (isSorting()) {
+            sort();
+        }
+    }
+    
+    private void backgroundRowsUpdated(int firstRow, int endRow, int column) {
+        filteredRows = null;
+        if (isSorting()) {
+            // the snapshot is stale
+            sort();
+        } else if (!getSortsOnUpdates()) {
+            unsortedUpdates = true;
+        } else if (viewToModel != null && !isMappingUnchanged(firstRow, endRow, column)) {
+            sort();
+        }
+    }
+    
+    /**
+     * Removes mapped rows beyond the model row count and appends unmapped 
+     * rows, without notification.
+     */
+    private void repairMapping() {
+        if (viewToModel == null) return;
+        int rowCount = getModelRowCount();
+        int[] mapping = new int[rowCount];
+        int count = 0;
+        int max = -1;
+        for (int modelIndex : viewToModel) {
+            if (modelIndex < rowCount) {
+                mapping[count++] = modelIndex;
+                max = Math.max(max, modelIndex);
+            }
+        }
+        for (int row = max + 1; row < rowCount && count < rowCount; row++) {
+            mapping[count++] = row;
+        }
+        setMapping(Arrays.copyOf(mapping, count));
+    }
+    
+    /**
+     * Sets the mapping and notifies listeners.
+     * 
+     * @param mapping the view-to-model mapping, null for identity
+     */
+    private void installMapping(int[] mapping) {
+        int[] last = viewToModel != null ? viewToModel : new int[0];
+        setMapping(mapping);
+        fireRowSorterChanged(last);
+    }
+    
+    /**
+     * Sets the mapping without notification.
+     * 
+     * @param mapping the view-to-model mapping, null for identity
+     */
+    private void setMapping(int[] mapping) {
+        viewToModel = mapping;
+        if (mapping == null) {
+            modelToView = null;
+            return;
+        }
+        modelToView = new int[getModelRowCount()];
+        Arrays.fill(modelToView, -1);
+        for (int i = 0; i < mapping.length; i++) {
+            modelToView[mapping[i]] = i;
+        }
+    }
+    
+    /**
+     * Filters and sorts in the background and installs the result on the EDT, if
+     * still current.
+     */
+    private class SortWorker extends SwingWorker<int[], Void> {
+        private final RowFilter<? super M, ? super Integer> filter;
+        private final int[] candidates;
+        private final int rowCount;
+        private final int[] columns;
+        private final boolean[] useToString;
+        private final Comparator<?>[] comparators;
+        private final SortOrder[] sortOrders;
+        /** the cache's modification count when the worker was created. */
+        private final int modCount;
+        /** the rows included by the filter, set in the background. */
+        private int[] included;
+        /** the converted strings per sort key, set in the background. */
+        private String[][] strings;
+
+        SortWorker(RowFilter<? super M, ? super Integer> filter, int[] candidates, 
+                List<SortKey> keys, Comparator<?>[] comparators) {
+            this.filter = filter;
+            this.candidates = candidates;
+            this.rowCount = getModelRowCount();
+            this.comparators = comparators;
+            this.modCount = stringValueCache.getModCount();
+            columns = new int[keys.size()];
+            useToString = new boolean[keys.size()];
+            sortOrders = new SortOrder[keys.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = keys.get(i).getColumn();
+                useToString[i] = useToString(columns[i]);
+                sortOrders[i] = keys.get(i).getSortOrder();
+            }
+        }
+
+        @Override
+        protected int[] doInBackground() throws Exception {
+            inBackground.set(Boolean.TRUE);
+            try {
+                return sortInBackground();
+            } finally {
+                inBackground.remove();
+            }
+        }
+
+        private int[] sortInBackground() throws Exception {
+            int[] rows;
+            if (filter != null) {
+                rows = filterRows(filter, candidates, this);
+                included = rows;
+            } else {
+                rows = new int[rowCount];
+                for (int row = 0; row < rowCount; row++) {
+                    rows[row] = row;
+                }
+            }
+            if (columns.length == 0 || isCancelled()) return rows;
+            Object[][] snapshot = new Object[columns.length][];
+            String[][] converted = new String[columns.length][];
+            for (int i = 0; i < columns.length; i++) {
+                if (useToString[i]) {
+                    converted[i] = new String[rowCount];
+                    for (int j = 0; j < rows.length; j++) {
+                        if ((j & 1023) == 0 && isCancelled()) return rows;
+                        converted[i][rows[j]] = getModelWrapper().getStringValueAt(rows[j], columns[i]);
+                    }
+                    snapshot[i] = converted[i];
+                } else {
+                    snapshot[i] = new Object[rowCount];
+                    for (int j = 0; j < rows.length; j++) {
+                        if ((j & 1023) == 0 && isCancelled()) return rows;
+                        snapshot[i][rows[j]] = getModelWrapper().getValueAt(rows[j], columns[i]);
+                    }
+                }
+            }
+            // the sort may replace the snapshot's columns by collation keys
+            strings = converted;
+            return new ParallelRowSort(snapshot, comparators, sortOrders).sort(rows);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() || sortWorker != this) return;
+            sortWorker = null;
+            try {
+                int[] mapping = get();
+                filteredRows = included;
+                filteredBy = included != null ? filter : null;
+                installMapping(mapping);
+                cacheStrings(mapping);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOG.log(Level.WARNING, "background sort failed, keeping the previous order", 
+                        e.getCause());
+            }
+            changeSupport.firePropertyChange("sorting", true, false);
+        }
+
+        /**
+         * Puts the strings converted in the background into the cache. Called on 
+         * the EDT, does nothing if the cache changed since the worker was created: 
+         * the strings might belong to other rows by now.
+         */
+        private void cacheStrings(int[] mapping) {
+            if (strings == null || stringValueCache.getModCount() != modCount) return;
+            int modelRowCount = getModelRowCount();
+            for (int i = 0; i < columns.length; i++) {
+                if (strings[i] == null || !stringValueCache.isCached(columns[i])) continue;
+                for (int row : mapping) {
+                    if (strings[i][row] != null && stringValueCache.get(row, columns[i]) == null) {
+                        stringValueCache.put(row, columns[i], strings[i][row], modelRowCount);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * RowFilter.Entry for a model row, reading the values from the ModelWrapper.
+     */
+    private class ModelRowEntry extends RowFilter.Entry<M, Integer> {
+        int row;
+
+        @Override
+        public M getModel() {
+            return getModelWrapper().getModel();
+        }
+
+        @Override
+        public int getValueCount() {
+            return getModelWrapper().getColumnCount();
+        }
+
+        @Override
+        public Object getValue(int index) {
+            return getModelWrapper().getValueAt(row, index);
+        }
+
+        @Override
+        public String getStringValue(int index) {
+            return getModelWrapper().getStringValueAt(row, index);
+        }
+
+        @Override
+        public Integer getIdentifier() {
+            return getModelWrapper().getIdentifier(row);
+        }
+    }
     
 }
@@ -0,0 +1,183 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.sort;
+
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import javax.swing.SortOrder;
+
+/**
+ * Sorts model rows by a snapshot of their sort keys, using all available cores.
+ * Used by DefaultSortController to sort off the EDT.<p>
+ *
+ * The keys are compared with the same semantics as DefaultRowSorter: nulls are
+ * smaller than non-null values, equal rows are ordered by model index. String
+ * keys of columns compared by a <code>Collator</code> are converted to
+ * <code>CollationKey</code>s before sorting.<p>
+ *
+ * Note: custom comparators are called concurrently, they must be thread-safe.
+ */
+class ParallelRowSort {
+
+    /** the minimal number of keys per chunk when converting to CollationKeys. */
+    private static final int CHUNK_SIZE = 4096;
+
+    private final Object[][] keys;
+    private final Comparator<?>[] comparators;
+    private final boolean[] descending;
+
+    /**
+     * Instantiates a sort for the given key snapshot.
+     *
+     * @param keys the keys per sort key, each indexed by model row
+     * @param comparators the comparators per sort key
+     * @param sortOrders the sort orders per sort key, must not be UNSORTED
+     */
+    ParallelRowSort(Object[][] keys, Comparator<?>[] comparators, SortOrder[] sortOrders) {
+        this.keys = keys;
+        this.comparators = comparators.clone();
+        this.descending = new boolean[sortOrders.length];
+        for (int i = 0; i < sortOrders.length; i++) {
+            descending[i] = sortOrders[i] == SortOrder.DESCENDING;
+        }
+    }
+
+    /**
+     * Returns the given model rows sorted by the keys.
+     *
+     * @param rows the model rows to sort
+     * @return the sorted rows, that is the view-to-model mapping
+     * @throws CancellationException if the current thread is interrupted
+     */
+    public int[] sort(int[] rows) {
+        for (int i = 0; i < keys.length; i++) {
+            if (comparators[i] instanceof Collator) {
+                Object[] collated = toCollationKeys(keys[i], rows, (Collator) comparators[i]);
+                if (collated != null) {
+                    keys[i] = collated;
+                    comparators[i] = null;
+                }
+            }
+        }
+        checkInterrupted();
+        Integer[] boxed = new Integer[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            boxed[i] = rows[i];
+        }
+        Arrays.parallelSort(boxed, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return compareRows(o1, o2);
+            }
+        });
+        checkInterrupted();
+        int[] sorted = new int[boxed.length];
+        for (int i = 0; i < boxed.length; i++) {
+            sorted[i] = boxed[i];
+        }
+        return sorted;
+    }
+
+    private int compareRows(int model1, int model2) {
+        for (int i = 0; i < keys.length; i++) {
+            Object v1 = keys[i][model1];
+            Object v2 = keys[i][model2];
+            int result;
+            if (v1 == null) {
+                result = v2 == null ? 0 : -1;
+            } else if (v2 == null) {
+                result = 1;
+            } else if (comparators[i] == null) {
+                @SuppressWarnings("unchecked")
+                Comparable<Object> comparable = (Comparable<Object>) v1;
+                result = comparable.compareTo(v2);
+            } else {
+                @SuppressWarnings("unchecked")
+                Comparator<Object> comparator = (Comparator<Object>) comparators[i];
+                result = comparator.compare(v1, v2);
+            }
+            if (descending[i]) {
+                result *= -1;
+            }
+            if (result != 0) return result;
+        }
+        return model1 - model2;
+    }
+
+    /**
+     * Converts the string keys of the given rows into CollationKeys, in
+     * parallel chunks with a collator clone per chunk. Returns null if not
+     * all keys are strings.
+     */
+    private Object[] toCollationKeys(final Object[] column, final int[] rows, final Collator collator) {
+        for (int row : rows) {
+            if (column[row] != null && !(column[row] instanceof String)) return null;
+        }
+        final Object[] collated = new Object[column.length];
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4,
+                rows.length / CHUNK_SIZE));
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            final int start = (int) ((long) rows.length * i / chunks);
+            final int end = (int) ((long) rows.length * (i + 1) / chunks);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    // Collator is not thread-safe
+                    Collator clone = (Collator) collator.clone();
+                    for (int r = start; r < end; r++) {
+                        int row = rows[r];
+                        String value = (String) column[row];
+                        collated[row] = value != null ? clone.getCollationKey(value) : null;
+                    }
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Void> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return collated;
+    }
+
+    private void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+}
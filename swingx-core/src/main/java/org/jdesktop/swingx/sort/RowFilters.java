@@ -21,7 +21,7 @@
  */
 package org.jdesktop.swingx.sort;
 
-import java.util.regex.Matcher;
+import java.util.Arrays;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -189,10 +189,57 @@ public class RowFilters {
     }
 
     /**
-     * C&amp;P from core to allow richer factory methods.
+     * Returns a boolean indicating whether the next filter includes only entries 
+     * included by the previous filter. This implementation is conservative: it 
+     * returns true only for regex filters created by this factory on the same 
+     * columns with the same flags and literal patterns, where the next pattern 
+     * contains the previous or, if anchored at the start, extends it.
+     * 
+     * @param previous the previous filter, may be null
+     * @param next the next filter, may be null
+     * @return true if next is known to narrow previous
+     */
+    static boolean isNarrowing(RowFilter<?, ?> previous, RowFilter<?, ?> next) {
+        if (!(previous instanceof RegexFilter) || !(next instanceof RegexFilter)) 
+            return false;
+        RegexFilter old = (RegexFilter) previous;
+        RegexFilter filter = (RegexFilter) next;
+        int flags = old.pattern.flags();
+        if (flags != filter.pattern.flags() || (flags & Pattern.COMMENTS) != 0
+                || !Arrays.equals(((GeneralFilter) old).columns, ((GeneralFilter) filter).columns)) 
+            return false;
+        String oldRegex = old.pattern.pattern();
+        String regex = filter.pattern.pattern();
+        if ((flags & Pattern.LITERAL) != 0) {
+            return regex.contains(oldRegex);
+        }
+        boolean anchored = oldRegex.startsWith("^");
+        if (anchored) {
+            if (!regex.startsWith("^")) return false;
+            oldRegex = oldRegex.substring(1);
+        }
+        if (regex.startsWith("^")) {
+            regex = regex.substring(1);
+        }
+        if (!isLiteral(oldRegex) || !isLiteral(regex)) return false;
+        return anchored ? regex.startsWith(oldRegex) : regex.contains(oldRegex);
+    }
+    
+    private static boolean isLiteral(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(regex.charAt(i)) >= 0) return false;
+        }
+        return true;
+    }
+    
+    /**
+     * C&amp;P from core to allow richer factory methods. <p>
+     * 
+     * Changed to not share a Matcher, so the filter can be evaluated 
+     * concurrently.
      */
     private static class RegexFilter extends GeneralFilter {
-        private Matcher matcher;
+        private Pattern pattern;
 
         RegexFilter(Pattern regex, int[] columns) {
             super(columns);
@@ -201,14 +248,13 @@ public class RowFilters {
                 Contract.asNotNull(regex, "Pattern must be non-null");
 //                throw new IllegalArgumentException("Pattern must be non-null");
             }
-            matcher = regex.matcher("");
+            pattern = regex;
         }
 
         @Override
         protected boolean include(
                 Entry<? extends Object,? extends Object> value, int index) {
-            matcher.reset(value.getStringValue(index));
-            return matcher.find();
+            return pattern.matcher(value.getStringValue(index)).find();
         }
     }
     
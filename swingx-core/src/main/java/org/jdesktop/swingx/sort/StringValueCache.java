@@ -0,0 +1,214 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.sort;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Per-column store of the string representation of model values, indexed by
+ * model row. Used by DefaultSortController to convert each cell only once for
+ * sorting and filtering. <p>
+ *
+ * Cached entries are filled lazily by the controller and must be kept in synch
+ * with the model by passing all model notifications on. A null entry means
+ * "not yet converted". <p>
+ *
+ * The modification count is incremented on every change which invalidates
+ * entries or moves them to other rows. A thread which converted values
+ * without holding the notifying thread back must not cache them if the count
+ * changed in between. <p>
+ *
+ * Note: access is synchronized, so background sorts can read the cache while
+ * the notifying thread (usually the EDT) changes it. Background threads must
+ * not put into the cache: the model might have changed before the notification
+ * reached the cache, see DefaultSortController.
+ */
+class StringValueCache {
+
+    /** the columns for which caching is enabled. */
+    private final BitSet cachedColumns = new BitSet();
+
+    /** the stores per column, lazily created. */
+    private String[][] strings = new String[0][];
+
+    /** incremented on every change which invalidates or moves entries. */
+    private int modCount;
+
+    /**
+     * Returns the modification count, incremented on every change which
+     * invalidates or moves cached entries.
+     *
+     * @return the modification count
+     */
+    public synchronized int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Returns a boolean indicating whether the column's strings are cached.
+     *
+     * @param column the column index in model coordinates
+     * @return true if caching is enabled for the column
+     */
+    public synchronized boolean isCached(int column) {
+        return column >= 0 && cachedColumns.get(column);
+    }
+
+    /**
+     * Enables or disables caching for the column. Disabling drops the
+     * column's store.
+     *
+     * @param column the column index in model coordinates
+     * @param cached true to enable caching
+     */
+    public synchronized void setCached(int column, boolean cached) {
+        cachedColumns.set(column, cached);
+        modCount++;
+        if (!cached && column < strings.length) {
+            strings[column] = null;
+        }
+    }
+
+    /**
+     * Returns the cached string at the given position or null if not
+     * available.
+     *
+     * @param row the row index in model coordinates
+     * @param column the column index in model coordinates
+     * @return the cached string or null
+     */
+    public synchronized String get(int row, int column) {
+        String[][] stores = strings;
+        if (column >= stores.length) return null;
+        String[] store = stores[column];
+        return (store != null && row < store.length) ? store[row] : null;
+    }
+
+    /**
+     * Caches the string at the given position. Does nothing if caching is
+     * not enabled for the column or the row is outside the store's range.
+     *
+     * @param row the row index in model coordinates
+     * @param column the column index in model coordinates
+     * @param value the string to cache
+     * @param rowCount the model row count used to create a new store
+     */
+    public synchronized void put(int row, int column, String value, int rowCount) {
+        if (!isCached(column)) return;
+        String[][] stores = strings;
+        if (column >= stores.length) {
+            stores = Arrays.copyOf(stores, column + 1);
+            strings = stores;
+        }
+        String[] store = stores[column];
+        if (store == null) {
+            store = new String[rowCount];
+            stores[column] = store;
+        }
+        if (row < store.length) {
+            store[row] = value;
+        }
+    }
+
+    /**
+     * Drops all cached strings, the cached columns are unchanged.
+     */
+    public synchronized void clear() {
+        modCount++;
+        strings = new String[0][];
+    }
+
+    /**
+     * Opens empty entries for the inserted rows.
+     *
+     * @param firstRow the first inserted row in model coordinates
+     * @param endRow the last inserted row in model coordinates, inclusive
+     */
+    public synchronized void rowsInserted(int firstRow, int endRow) {
+        modCount++;
+        int count = endRow - firstRow + 1;
+        for (int column = 0; column < strings.length; column++) {
+            String[] store = strings[column];
+            if (store == null) continue;
+            if (firstRow > store.length) {
+                strings[column] = null;
+                continue;
+            }
+            String[] inserted = new String[store.length + count];
+            System.arraycopy(store, 0, inserted, 0, firstRow);
+            System.arraycopy(store, firstRow, inserted, endRow + 1, store.length - firstRow);
+            strings[column] = inserted;
+        }
+    }
+
+    /**
+     * Removes the entries of the deleted rows.
+     *
+     * @param firstRow the first deleted row in model coordinates
+     * @param endRow the last deleted row in model coordinates, inclusive
+     */
+    public synchronized void rowsDeleted(int firstRow, int endRow) {
+        modCount++;
+        for (int column = 0; column < strings.length; column++) {
+            String[] store = strings[column];
+            if (store == null) continue;
+            if (endRow >= store.length) {
+                strings[column] = null;
+                continue;
+            }
+            String[] deleted = new String[store.length - (endRow - firstRow + 1)];
+            System.arraycopy(store, 0, deleted, 0, firstRow);
+            System.arraycopy(store, endRow + 1, deleted, firstRow, store.length - endRow - 1);
+            strings[column] = deleted;
+        }
+    }
+
+    /**
+     * Empties the entries of the updated rows in all columns.
+     *
+     * @param firstRow the first updated row in model coordinates
+     * @param endRow the last updated row in model coordinates, inclusive
+     */
+    public synchronized void rowsUpdated(int firstRow, int endRow) {
+        modCount++;
+        for (int column = 0; column < strings.length; column++) {
+            rowsUpdated(firstRow, endRow, column);
+        }
+    }
+
+    /**
+     * Empties the entries of the updated rows in the given column.
+     *
+     * @param firstRow the first updated row in model coordinates
+     * @param endRow the last updated row in model coordinates, inclusive
+     * @param column the updated column in model coordinates
+     */
+    public synchronized void rowsUpdated(int firstRow, int endRow, int column) {
+        modCount++;
+        if (column >= strings.length) return;
+        String[] store = strings[column];
+        if (store == null) return;
+        Arrays.fill(store, Math.min(firstRow, store.length),
+                Math.min(endRow + 1, store.length), null);
+    }
+}
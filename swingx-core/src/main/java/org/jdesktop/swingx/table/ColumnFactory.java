@@ -21,6 +21,18 @@
 package org.jdesktop.swingx.table;
 
 import java.awt.Component;
+import java.awt.FontMetrics;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableCellRenderer;
@@ -83,10 +95,19 @@ import org.jdesktop.swingx.JXTable;
  */
 public class ColumnFactory {
     
+    private static final Logger LOG = Logger.getLogger(ColumnFactory.class
+            .getName());
+    
     /** the shared instance. */
     private static ColumnFactory columnFactory;
     /** the default margin to use in pack. */
     private int packMargin = 4;
+    /** the maximal number of rows to measure in pack, -1 for all. */
+    private int packSampleSize = -1;
+    /** flag to scan string widths concurrently in sampled pack. */
+    private boolean packConcurrently;
+    /** the minimal number of rows per concurrently scanned chunk. */
+    private static final int PACK_CHUNK_SIZE = 10000;
     
     /**
      * Returns the shared default factory. 
@@ -357,6 +378,8 @@ public class ColumnFactory {
      * 
      * This implementation loops through all rows of the given column and
      * measures the renderers pref width (it's a potential performance sink).
+     * If a pack sample size is set and the table has more rows, only the 
+     * sampled rows are measured.
      * Subclasses can override to implement a different strategy.
      * <p>
      * 
@@ -377,6 +400,7 @@ public class ColumnFactory {
      * @throws IllegalStateException if column is not visible
      * 
      * @see #setDefaultPackMargin(int)
+     * @see #setPackSampleSize(int)
      * @see org.jdesktop.swingx.JXTable#packTable(int)
      * @see org.jdesktop.swingx.JXTable#packColumn(int, int)
      * 
@@ -398,12 +422,20 @@ public class ColumnFactory {
         // returns a (guessed) renderer for invisible columns which must not
         // be used in the loop. For now that's okay, as we back out early anyway
         TableCellRenderer renderer = getCellRenderer(table, columnExt);
-        for (int r = 0; r < getRowCount(table); r++) {
-            // JW: fix for #1215-swing as suggested by the reporter adrienclerc
-            Component comp = table.prepareRenderer(renderer, r, column);
-//            Component comp = renderer.getTableCellRendererComponent(table, table
-//                    .getValueAt(r, column), false, false, r, column);
-            width = Math.max(width, comp.getPreferredSize().width);
+        if (isSampledPack(table)) {
+            int[] rows = getPackSampleRows(table, column);
+            for (int r : rows) {
+                Component comp = table.prepareRenderer(renderer, r, column);
+                width = Math.max(width, comp.getPreferredSize().width);
+            }
+        } else {
+            for (int r = 0; r < getRowCount(table); r++) {
+                // JW: fix for #1215-swing as suggested by the reporter adrienclerc
+                Component comp = table.prepareRenderer(renderer, r, column);
+//                Component comp = renderer.getTableCellRendererComponent(table, table
+//                        .getValueAt(r, column), false, false, r, column);
+                width = Math.max(width, comp.getPreferredSize().width);
+            }
         }
         if (margin < 0) {
             margin = getDefaultPackMargin();
@@ -437,6 +469,170 @@ public class ColumnFactory {
     protected int getRowCount(JXTable table) {
         return table.getRowCount();
     }
+
+    /**
+     * Returns a boolean indicating whether packColumn should measure a sample
+     * of rows instead of all rows.
+     * <p>
+     * 
+     * Here: returns true if the pack sample size is positive and less than the
+     * number of accessible rows.
+     * 
+     * @param table the table to access
+     * @return true if pack should measure a sample of rows only
+     * 
+     * @see #setPackSampleSize(int)
+     * @see #getRowCount(JXTable)
+     */
+    protected boolean isSampledPack(JXTable table) {
+        return getPackSampleSize() > 0 && getPackSampleSize() < getRowCount(table);
+    }
+
+    /**
+     * Returns the view rows to measure with the real renderer in a sampled
+     * pack. All rows are in the range <code>0 &lt;= row &lt; getRowCount(JXTable)</code>.
+     * <p>
+     * 
+     * This implementation collects (up to) the sample size of rows, taking
+     * a quarter each from
+     * <ol>
+     * <li>the first rows</li>
+     * <li>the last rows</li>
+     * <li>one random row from each of equally sized strata in between</li>
+     * <li>the rows with the widest string representation, measured with the
+     * table's font metrics</li>
+     * </ol>
+     * The remainder of the division by four is taken from the widest rows, 
+     * so a sample size below four measures the widest rows only.
+     * 
+     * Subclasses can override to implement a different sampling strategy.
+     * 
+     * @param table the table to access
+     * @param column the column index in view coordinates
+     * @return the rows to measure, in ascending order
+     * 
+     * @see #setPackSampleSize(int)
+     * @see #getWidestStringRows(JXTable, int, int)
+     */
+    protected int[] getPackSampleRows(JXTable table, int column) {
+        int rowCount = getRowCount(table);
+        int quarter = getPackSampleSize() / 4;
+        BitSet rows = new BitSet(rowCount);
+        int edge = Math.min(quarter, rowCount);
+        rows.set(0, edge);
+        rows.set(Math.max(0, rowCount - edge), rowCount);
+        int inner = rowCount - 2 * edge;
+        if (inner > 0) {
+            int strata = Math.min(quarter, inner);
+            // fixed seed: repeated packs of unchanged data yield the same width
+            Random random = new Random(rowCount);
+            for (int i = 0; i < strata; i++) {
+                int start = edge + (int) ((long) inner * i / strata);
+                int end = edge + (int) ((long) inner * (i + 1) / strata);
+                rows.set(start + random.nextInt(end - start));
+            }
+        }
+        int widest = getPackSampleSize() - 3 * quarter;
+        for (int r : getWidestStringRows(table, column, widest)) {
+            rows.set(r);
+        }
+        int[] result = new int[rows.cardinality()];
+        int index = 0;
+        for (int r = rows.nextSetBit(0); r >= 0; r = rows.nextSetBit(r + 1)) {
+            result[index++] = r;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the view rows with the widest string representation in the
+     * given column. The widths are measured as the table's font metrics'
+     * width of the table's string representation of the cell value, which is
+     * much cheaper than preparing the renderer. 
+     * <p>
+     * 
+     * If packConcurrently is enabled, the rows are scanned in chunks on the
+     * common fork/join pool while the calling thread waits for the result.
+     * 
+     * @param table the table to access
+     * @param column the column index in view coordinates
+     * @param count the maximal number of rows to return
+     * @return the rows with the widest strings, in no particular order
+     * 
+     * @see #setPackConcurrently(boolean)
+     * @see JXTable#getStringAt(int, int)
+     */
+    protected int[] getWidestStringRows(final JXTable table, final int column, final int count) {
+        final int rowCount = getRowCount(table);
+        final FontMetrics metrics = table.getFontMetrics(table.getFont());
+        PriorityQueue<Long> widest;
+        if (isPackConcurrently() && rowCount > PACK_CHUNK_SIZE) {
+            int chunks = Math.min(ForkJoinPool.getCommonPoolParallelism() * 4,
+                    (rowCount + PACK_CHUNK_SIZE - 1) / PACK_CHUNK_SIZE);
+            List<Callable<PriorityQueue<Long>>> tasks = new ArrayList<Callable<PriorityQueue<Long>>>(chunks);
+            for (int i = 0; i < chunks; i++) {
+                final int start = (int) ((long) rowCount * i / chunks);
+                final int end = (int) ((long) rowCount * (i + 1) / chunks);
+                tasks.add(new Callable<PriorityQueue<Long>>() {
+                    @Override
+                    public PriorityQueue<Long> call() {
+                        return scanStringWidths(table, column, metrics, start, end, count);
+                    }
+                });
+            }
+            widest = new PriorityQueue<Long>(count + 1);
+            try {
+                for (Future<PriorityQueue<Long>> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                    for (Long candidate : future.get()) {
+                        offerCandidate(widest, candidate, count);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                widest = scanStringWidths(table, column, metrics, 0, rowCount, count);
+            } catch (ExecutionException e) {
+                // f.i. a model which doesn't support concurrent access
+                LOG.log(Level.WARNING, "concurrent scan of string widths failed, "
+                        + "falling back to a sequential scan", e.getCause());
+                widest = scanStringWidths(table, column, metrics, 0, rowCount, count);
+            }
+        } else {
+            widest = scanStringWidths(table, column, metrics, 0, rowCount, count);
+        }
+        int[] result = new int[widest.size()];
+        int index = 0;
+        for (Long candidate : widest) {
+            result[index++] = (int) (candidate & 0xFFFFFFFFL);
+        }
+        return result;
+    }
+
+    /**
+     * Measures the string widths of the given row range and returns the 
+     * count widest as width/row-encoded longs.
+     */
+    private PriorityQueue<Long> scanStringWidths(JXTable table, int column,
+            FontMetrics metrics, int start, int end, int count) {
+        PriorityQueue<Long> widest = new PriorityQueue<Long>(count + 1);
+        for (int r = start; r < end; r++) {
+            String text = table.getStringAt(r, column);
+            int width = text != null ? metrics.stringWidth(text) : 0;
+            offerCandidate(widest, ((long) width << 32) | r, count);
+        }
+        return widest;
+    }
+
+    /**
+     * Adds the candidate to the min-heap of widest, keeping at most count elements.
+     */
+    private void offerCandidate(PriorityQueue<Long> widest, long candidate, int count) {
+        if (widest.size() < count) {
+            widest.add(candidate);
+        } else if (widest.peek() < candidate) {
+            widest.poll();
+            widest.add(candidate);
+        }
+    }
     
 // ------------------------ default state
     
@@ -467,5 +663,66 @@ public class ColumnFactory {
         this.packMargin = margin;
     }
 
+    /**
+     * Returns the maximal number of rows measured by the renderer in packColumn.
+     * 
+     * @return the pack sample size, or -1 if all rows are measured.
+     * 
+     * @see #setPackSampleSize(int)
+     */
+    public int getPackSampleSize() {
+        return packSampleSize;
+    }
+
+    /**
+     * Sets the maximal number of rows measured by the renderer in packColumn.
+     * If the table has more rows, only a sample of them is measured. The default
+     * value -1 measures all rows.<p>
+     * 
+     * Note: sampling trades accuracy for speed - the packed width might be
+     * smaller than the real width of some unsampled cell, f.i. if a 
+     * highlighter widens the renderer for a few rows only.
+     * 
+     * @param sampleSize the maximal number of rows to measure, a value &lt;= 0
+     *   measures all rows
+     * 
+     * @see #getPackSampleSize()
+     * @see #getPackSampleRows(JXTable, int)
+     * @see #packColumn(JXTable, TableColumnExt, int, int)
+     */
+    public void setPackSampleSize(int sampleSize) {
+        this.packSampleSize = sampleSize > 0 ? sampleSize : -1;
+    }
+
+    /**
+     * Returns a boolean indicating whether the string widths of a sampled pack
+     * are scanned concurrently.
+     * 
+     * @return true if string widths are scanned concurrently.
+     * 
+     * @see #setPackConcurrently(boolean)
+     */
+    public boolean isPackConcurrently() {
+        return packConcurrently;
+    }
+
+    /**
+     * Sets a boolean indicating whether the string widths of a sampled pack
+     * are scanned concurrently. The default value is false.<p>
+     * 
+     * Note: enable only if the table's model and string values
+     * support concurrent read access, the scan calls 
+     * <code>table.getStringAt(row, column)</code> from pooled threads. 
+     * Renderers are always prepared on the calling thread.
+     * 
+     * @param concurrently true to scan string widths concurrently
+     * 
+     * @see #isPackConcurrently()
+     * @see #getWidestStringRows(JXTable, int, int)
+     */
+    public void setPackConcurrently(boolean concurrently) {
+        this.packConcurrently = concurrently;
+    }
+
     
 }
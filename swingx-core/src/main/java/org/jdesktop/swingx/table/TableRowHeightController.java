@@ -21,14 +21,21 @@
  */
 package org.jdesktop.swingx.table;
 
+import static org.jdesktop.swingx.table.TableUtilities.getPreferredRowHeight;
 import static org.jdesktop.swingx.table.TableUtilities.isDataChanged;
+import static org.jdesktop.swingx.table.TableUtilities.isDelete;
 import static org.jdesktop.swingx.table.TableUtilities.isInsert;
 import static org.jdesktop.swingx.table.TableUtilities.isStructureChanged;
 import static org.jdesktop.swingx.table.TableUtilities.isUpdate;
-import static org.jdesktop.swingx.table.TableUtilities.setPreferredRowHeight;
+import static org.jdesktop.swingx.table.TableUtilities.setRowHeights;
 
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import javax.swing.JTable;
@@ -39,15 +46,30 @@ import javax.swing.table.TableModel;
 
 /**
  * A controller to adjust JTable rowHeight based on sizing requirements of its renderers.
+ * <p>
+ * 
+ * Small numbers of changed rows are adjusted immediately. For larger numbers,
+ * the rows in the table's visible rectangle are adjusted immediately, the
+ * others are adjusted lazily in time slices on the EDT. The heights
+ * computed in one go are set to the table at once.
  * 
  * @author Jeanette Winzenburg, Berlin
  */
 public class TableRowHeightController {
 
+    /** the maximal number of rows which are adjusted immediately. */
+    private static final int MAX_IMMEDIATE_ROWS = 500;
+    /** the maximal duration of a lazy adjustment on the EDT. */
+    private static final long TIME_SLICE = TimeUnit.MILLISECONDS.toNanos(15);
+
     private JTable table;
     private TableModelListener tableModelListener;
     private PropertyChangeListener tablePropertyListener;
 
+    /** the rows which need adjustment, in model coordinates. */
+    private final BitSet pendingRows = new BitSet();
+    private boolean updateScheduled;
+
     /**
      * Instantiates an unbound TableRowHeightController.
      */
@@ -87,9 +109,20 @@ public class TableRowHeightController {
         if (table == null)
             return;
         uninstallListeners();
+        pendingRows.clear();
         table = null;
     }
 
+    /**
+     * Returns a boolean indicating whether there are rows waiting for lazy 
+     * adjustment.
+     * 
+     * @return true if not all rows are adjusted
+     */
+    public boolean hasPendingRows() {
+        return !pendingRows.isEmpty();
+    }
+
     /**
      * Sets the row heights of the rows in the range of first- to lastRow, inclusive.
      * The coordinates are model indices.
@@ -98,20 +131,108 @@ public class TableRowHeightController {
      * @param lastRow the last row in model coordinates
      */
     protected void updatePreferredRowHeights(int firstRow, int lastRow) {
-        for (int row = firstRow; row <= lastRow; row++) {
-            int viewRow = table.convertRowIndexToView(row);
-            if (viewRow >= 0) {
-//                int oldHeight = table.getRowHeight(viewRow);
-//                LOG.info("in viewRow/old/new: " + viewRow + " / " + oldHeight + " / " + table.getRowHeight(viewRow));
-                setPreferredRowHeight(table, viewRow);
+        lastRow = Math.min(lastRow, table.getModel().getRowCount() - 1);
+        if (firstRow > lastRow) return;
+        pendingRows.set(firstRow, lastRow + 1);
+        if (pendingRows.cardinality() <= MAX_IMMEDIATE_ROWS) {
+            updatePendingRows(Long.MAX_VALUE);
+        } else {
+            updatePendingRows(System.nanoTime());
+            scheduleUpdate();
+        }
+    }
+
+    /**
+     * Adjusts the pending rows in the visible rectangle and then other pending
+     * rows until the deadline is reached. Sets the heights at once.
+     * 
+     * @param deadline the nanoTime to stop at, the visible rows are 
+     *    adjusted always
+     */
+    private void updatePendingRows(long deadline) {
+        int modelRowCount = table.getModel().getRowCount();
+        // stale rows after deletes which are not yet notified
+        pendingRows.clear(modelRowCount, Math.max(modelRowCount, pendingRows.length()));
+        int[] rows = new int[64];
+        int[] heights = new int[rows.length];
+        int count = 0;
+        Rectangle visible = table.getVisibleRect();
+        if (!visible.isEmpty() && table.getRowCount() > 0) {
+            int first = Math.max(0, table.rowAtPoint(visible.getLocation()));
+            int last = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+            if (last < 0) {
+                last = table.getRowCount() - 1;
+            }
+            for (int viewRow = first; viewRow <= last; viewRow++) {
+                int modelRow = table.convertRowIndexToModel(viewRow);
+                if (!pendingRows.get(modelRow)) continue;
+                pendingRows.clear(modelRow);
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                    heights = Arrays.copyOf(heights, count * 2);
+                }
+                rows[count] = viewRow;
+                heights[count++] = getPreferredRowHeight(table, viewRow);
             }
         }
+        for (int modelRow = pendingRows.nextSetBit(0); modelRow >= 0; 
+                modelRow = pendingRows.nextSetBit(modelRow + 1)) {
+            if (System.nanoTime() >= deadline) break;
+            pendingRows.clear(modelRow);
+            int viewRow = table.convertRowIndexToView(modelRow);
+            if (viewRow < 0) continue;
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+                heights = Arrays.copyOf(heights, count * 2);
+            }
+            rows[count] = viewRow;
+            heights[count++] = getPreferredRowHeight(table, viewRow);
+        }
+        if (count > 0) {
+            setRowHeights(table, Arrays.copyOf(rows, count), Arrays.copyOf(heights, count));
+        }
+    }
+
+    /**
+     * Schedules the lazy adjustment of the pending rows.
+     */
+    private void scheduleUpdate() {
+        if (updateScheduled || pendingRows.isEmpty()) return;
+        updateScheduled = true;
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                updateScheduled = false;
+                if (table == null) return;
+                updatePendingRows(System.nanoTime() + TIME_SLICE);
+                scheduleUpdate();
+            }
+        });
+    }
+
+    /**
+     * Adjusts the pending rows to rows inserted or deleted in the model.
+     * 
+     * @param firstRow the first inserted/deleted row in model coordinates
+     * @param count the number of inserted rows, negative for deleted rows
+     */
+    private void shiftPendingRows(int firstRow, int count) {
+        if (pendingRows.length() <= firstRow) return;
+        BitSet shifted = pendingRows.get(0, firstRow);
+        int start = count < 0 ? firstRow - count : firstRow;
+        for (int row = pendingRows.nextSetBit(start); row >= 0; 
+                row = pendingRows.nextSetBit(row + 1)) {
+            shifted.set(row + count);
+        }
+        pendingRows.clear();
+        pendingRows.or(shifted);
     }
 
     /**
      * Sets the row heights of all rows.
      */
     protected void updatePreferredRowHeights() {
+        pendingRows.clear();
         if (table.getRowCount() == 0) return;
         updatePreferredRowHeights(0, table.getModel().getRowCount() - 1);
     }
@@ -170,12 +291,18 @@ public class TableRowHeightController {
             }
 
             private void invokedTableChanged(TableModelEvent e) {
+                if (table == null) return;
                 if (isStructureChanged(e) || isDataChanged(e)) {
                     updatePreferredRowHeights();
-                } else  if (isUpdate(e) || isInsert(e)) {
+                } else  if (isUpdate(e)) {
+                    updatePreferredRowHeights(e.getFirstRow(), e.getLastRow());
+                } else if (isInsert(e)) {
+                    shiftPendingRows(e.getFirstRow(), e.getLastRow() - e.getFirstRow() + 1);
                     updatePreferredRowHeights(e.getFirstRow(), e.getLastRow());
-                } 
-                // do nothing on delete
+                } else if (isDelete(e)) {
+                    // nothing to adjust but the pending rows
+                    shiftPendingRows(e.getFirstRow(), e.getFirstRow() - e.getLastRow() - 1);
+                }
             }
         };
         return l;
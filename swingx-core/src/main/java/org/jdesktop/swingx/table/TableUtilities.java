@@ -14,6 +14,8 @@ import javax.swing.table.TableCellRenderer;
 import javax.swing.table.TableColumn;
 import javax.swing.table.TableColumnModel;
 
+import org.jdesktop.swingx.JXTable;
+
 /**
  * Collection of utility methods for J/X/Table.
  * 
@@ -133,8 +135,38 @@ public class TableUtilities {
      */
     public static void setPreferredRowHeights(JTable table) {
         // care about visible rows only
-        for (int row = 0; row < table.getRowCount(); row++) {
-            setPreferredRowHeight(table, row);
+        int[] rows = new int[table.getRowCount()];
+        int[] heights = new int[rows.length];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = row;
+            heights[row] = getPreferredRowHeight(table, row);
+        }
+        setRowHeights(table, rows, heights);
+    }
+    
+    /**
+     * Sets the heights of the given rows. Rows which already have the 
+     * requested height are skipped. A JXTable is resized and repainted once
+     * for all rows.
+     * 
+     * @param table the table to set row heights to
+     * @param rows the rows in view coordinates
+     * @param heights the new heights, aligned with the rows
+     * @throws NullPointerException if table is null.
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @see JXTable#setRowHeights(int[], int[])
+     */
+    public static void setRowHeights(JTable table, int[] rows, int[] heights) {
+        if (table instanceof JXTable) {
+            ((JXTable) table).setRowHeights(rows, heights);
+            return;
+        }
+        if (rows.length != heights.length) 
+            throw new IllegalArgumentException("rows and heights must have the same length");
+        for (int i = 0; i < rows.length; i++) {
+            if (table.getRowHeight(rows[i]) != heights[i]) {
+                table.setRowHeight(rows[i], heights[i]);
+            }
         }
     }
     
@@ -0,0 +1,56 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx.tree;
+
+import javax.swing.tree.TreePath;
+
+/**
+ * A controller which decides whether or not a node should be expanded by a
+ * bulk expansion of a JXTree or JXTreeTable.
+ * 
+ * @see org.jdesktop.swingx.JXTree#expandAll(TreePath, int, ExpansionPredicate)
+ */
+public interface ExpansionPredicate {
+
+    /**
+     * Returns a boolean to indicate whether the node at the given path should
+     * be expanded. If not, the subtree below the node is not traversed.
+     * 
+     * @param path the path of a node which is not a leaf, never null
+     * @return a boolean to indicate whether the node should be expanded
+     */
+    boolean shouldExpand(TreePath path);
+
+    /**
+     * Unconditional true.
+     */
+    public static final ExpansionPredicate ALWAYS = new ExpansionPredicate() {
+
+        /**
+         * {@inheritDoc} <p>
+         * Implemented to return true always.
+         */
+        @Override
+        public boolean shouldExpand(TreePath path) {
+            return true;
+        }
+    };
+}
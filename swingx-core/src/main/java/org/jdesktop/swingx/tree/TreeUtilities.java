@@ -3,6 +3,7 @@ package org.jdesktop.swingx.tree;
 import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Enumeration;
+import java.util.LinkedList;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Vector;
@@ -141,6 +142,72 @@ public class TreeUtilities {
 
     }  // End of class PreorderEnumeration
 
+    /**
+     * Implementation of a preorder traversal of a TreeModel which keeps track
+     * of the TreePath of the node returned last.
+     */
+    public static class PreorderModelPathEnumeration extends PreorderModelEnumeration {
+        // the parent paths of the enumerations on the stack, null for the start node
+        private Deque<TreePath> parentPaths;
+        private TreePath lastPath;
+
+        /**
+         * Instantiates a preorder traversal starting from the root of the 
+         * TreeModel.
+         * 
+         * @param model the TreeModel to travers.
+         */
+        public PreorderModelPathEnumeration(TreeModel model) {
+            this(model, new TreePath(model.getRoot()));
+        }
+
+        /**
+         * Instantiates a preorder traversal of the TreeModel which
+         * starts at the last path component of the given TreePath. It iterates 
+         * over all nodes of the subtree, only. The returned paths are
+         * children of the given path.
+         * 
+         * @param model the TreeModel to travers.
+         * @param path the TreePath to start
+         */
+        public PreorderModelPathEnumeration(TreeModel model, TreePath path) {
+            super(model, path.getLastPathComponent());
+            parentPaths = new LinkedList<TreePath>();
+            parentPaths.push(path.getParentPath());
+        }
+
+        @Override
+        public Object nextElement() {
+            Enumeration enumer = stack.peek();
+            TreePath parentPath = parentPaths.peek();
+            Object node = enumer.nextElement();
+            lastPath = parentPath != null ? parentPath.pathByAddingChild(node) 
+                    : new TreePath(node);
+            Enumeration children = children(model, node);
+
+            if (!enumer.hasMoreElements()) {
+                stack.pop();
+                parentPaths.pop();
+            }
+            if (children.hasMoreElements()) {
+                stack.push(children);
+                parentPaths.push(lastPath);
+            }
+            return node;
+        }
+
+        /**
+         * Returns the path of the node returned by the last call to nextElement.
+         * 
+         * @return the path of the last node or null if nextElement has not yet
+         *    been called.
+         */
+        public TreePath getPath() {
+            return lastPath;
+        }
+        
+    }  // End of class PreorderModelPathEnumeration
+
     
     /**
      * Implementation of a breadthFirst traversal of a subtree in a TreeModel.
@@ -22,8 +22,37 @@
 package org.jdesktop.swingx.treetable;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.tree.TreePath;
+
+import org.jdesktop.swingx.plaf.LookAndFeelAddons;
+import org.jdesktop.swingx.plaf.UIManagerExt;
 
 /**
  * A tree table model to simulate a file system.
@@ -41,14 +70,56 @@ import java.util.Date;
  * deletion of files, and the movement of files. This simple implementation does
  * not intend to tackle such problems, but this implementation may be extended
  * to handle such details.
+ * <p>
+ * Each directory is listed once, its children are sorted and their attributes
+ * are cached along with the listing. The number of cached listings is limited
+ * by the cache size, the least recently used listing is evicted first and
+ * re-read on the next access.
+ * <p>
+ * Optionally, directories are listed in the background: until the listing
+ * is available, a directory has a single placeholder child. Optionally, the
+ * listed directories are watched for changes, which are reported as
+ * children added/removed/changed.
+ * <p>
+ * Note: like all Swing models, this model must be accessed on the EDT only.
  * 
  * @author Ramesh Gupta
  * @author Karl Schaefer
  */
 public class FileSystemModel extends AbstractTreeTableModel {
+    private static final Logger LOG = Logger.getLogger(FileSystemModel.class
+            .getName());
+
     // The the returned file length for directories.
     private static final Long DIRECTORY = 0L;
 
+    /** the default maximal number of cached directory listings. */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    static {
+        // enforce loading of SwingX framework ResourceBundle for the placeholder
+        LookAndFeelAddons.getAddon();
+    }
+
+    private final Map<File, Listing> listings = new LinkedHashMap<File, Listing>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, Listing> eldest) {
+            if (size() <= cacheSize) return false;
+            unwatch(eldest.getValue());
+            return true;
+        }
+    };
+
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+
+    /** the directories which have been listed since the last setRoot. */
+    private final Set<File> listed = new HashSet<File>();
+
+    private boolean loadingInBackground;
+
+    private WatchService watchService;
+    private final Map<WatchKey, File> watchedDirectories = new ConcurrentHashMap<WatchKey, File>();
+
     /**
      * Creates a file system model using the root directory as the model root.
      */
@@ -92,11 +163,10 @@ public class FileSystemModel extends AbstractTreeTableModel {
             throw new IllegalArgumentException("parent is not a file governed by this model");
         }
         
-        File parentFile = (File) parent;
-        String[] children = parentFile.list();
+        Listing listing = getListing((File) parent);
         
-        if (children != null) {
-            return new File(parentFile, children[index]);
+        if (listing != null) {
+            return listing.files[index];
         }
         
         return null;
@@ -108,10 +178,10 @@ public class FileSystemModel extends AbstractTreeTableModel {
     @Override
     public int getChildCount(Object parent) {
         if (parent instanceof File) {
-            String[] children = ((File) parent).list();
+            Listing listing = getListing((File) parent);
             
-            if (children != null) {
-                return children.length;
+            if (listing != null) {
+                return listing.files.length;
             }
         }
 
@@ -160,17 +230,35 @@ public class FileSystemModel extends AbstractTreeTableModel {
 
     @Override
     public Object getValueAt(Object node, int column) {
+        if (node instanceof PendingFile) {
+            return column == 0 ? UIManagerExt.getString("FileSystemModel.loading") : null;
+        }
         if (node instanceof File) {
             File file = (File) node;
-            switch (column) {
-            case 0:
-                return file.getName();
-            case 1:
-                return isLeaf(node) ? file.length() : DIRECTORY;
-            case 2:
-                return file.isDirectory();
-            case 3:
-                return new Date(file.lastModified());
+            BasicFileAttributes attributes = getAttributes(file);
+            if (attributes == null) {
+                // not accessible
+                switch (column) {
+                case 0:
+                    return file.getName();
+                case 1:
+                    return isLeaf(node) ? file.length() : DIRECTORY;
+                case 2:
+                    return file.isDirectory();
+                case 3:
+                    return new Date(file.lastModified());
+                }
+            } else {
+                switch (column) {
+                case 0:
+                    return file.getName();
+                case 1:
+                    return attributes.isDirectory() ? DIRECTORY : attributes.size();
+                case 2:
+                    return attributes.isDirectory();
+                case 3:
+                    return new Date(attributes.lastModifiedTime().toMillis());
+                }
             }
         }
 
@@ -183,14 +271,13 @@ public class FileSystemModel extends AbstractTreeTableModel {
     @Override
     public int getIndexOfChild(Object parent, Object child) {
         if (parent instanceof File && child instanceof File) {
-            File parentFile = (File) parent;
-            File[] files = parentFile.listFiles();
+            Listing listing = getListing((File) parent);
             
-            Arrays.sort(files);
+            if (listing != null) {
+                int index = listing.indexOf((File) child);
             
-            for (int i = 0, len = files.length; i < len; i++) {
-                if (files[i].equals(child)) {
-                    return i;
+                if (index >= 0) {
+                    return index;
                 }
             }
         }
@@ -215,6 +302,7 @@ public class FileSystemModel extends AbstractTreeTableModel {
      */
     public void setRoot(File root) {
         this.root = root;
+        clearCache();
         
         modelSupport.fireNewRoot();
     }
@@ -224,11 +312,438 @@ public class FileSystemModel extends AbstractTreeTableModel {
      */
     @Override
     public boolean isLeaf(Object node) {
+        if (node instanceof PendingFile) {
+            return true;
+        }
         if (node instanceof File) {
+            BasicFileAttributes attributes = getAttributes((File) node);
+            if (attributes != null) {
+                return !attributes.isDirectory();
+            }
             //do not use isFile(); some system files return false
             return ((File) node).list() == null;
         }
         
         return true;
     }
+
+    /**
+     * Sets the maximal number of cached directory listings.
+     *
+     * @param cacheSize the maximal number of cached listings, must be positive
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public void setCacheSize(int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("cache size must be positive, was " + cacheSize);
+        }
+        this.cacheSize = cacheSize;
+        while (listings.size() > cacheSize) {
+            File eldest = listings.keySet().iterator().next();
+            unwatch(listings.remove(eldest));
+        }
+    }
+
+    /**
+     * Returns the maximal number of cached directory listings.
+     *
+     * @return the maximal number of cached directory listings
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Drops all cached listings and attributes, they are re-read on the next
+     * access. Does not fire any events.
+     */
+    public void clearCache() {
+        for (Listing listing : listings.values()) {
+            unwatch(listing);
+        }
+        listings.clear();
+        listed.clear();
+    }
+
+    /**
+     * Sets the property to list directories in the background. If enabled, a
+     * directory which is accessed for the first time has a single placeholder
+     * child until its listing is available. Then the placeholder is removed
+     * and the children are added, with the corresponding notifications.
+     * The default is false.
+     *
+     * @param loadingInBackground true to list directories in the background
+     */
+    public void setLoadingInBackground(boolean loadingInBackground) {
+        this.loadingInBackground = loadingInBackground;
+    }
+
+    /**
+     * Returns the property to list directories in the background.
+     *
+     * @return true if directories are listed in the background
+     * @see #setLoadingInBackground(boolean)
+     */
+    public boolean isLoadingInBackground() {
+        return loadingInBackground;
+    }
+
+    /**
+     * Sets the property to watch the listed directories for changes. If
+     * enabled, changes of the cached directories are reported as children
+     * added/removed/changed. The default is false.
+     *
+     * @param watching true to watch the listed directories
+     * @throws IllegalStateException if the file system doesn't support
+     *    watching
+     */
+    public void setWatching(boolean watching) {
+        if (watching == isWatching()) return;
+        if (watching) {
+            try {
+                watchService = FileSystems.getDefault().newWatchService();
+            } catch (IOException e) {
+                throw new IllegalStateException("watching not supported", e);
+            }
+            for (Listing listing : listings.values()) {
+                watch(listing);
+            }
+            Thread watcher = new Thread(new Watcher(watchService), "FileSystemModel watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } else {
+            for (Listing listing : listings.values()) {
+                unwatch(listing);
+            }
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "closing watch service", e);
+            }
+            watchService = null;
+        }
+    }
+
+    /**
+     * Returns the property to watch the listed directories for changes.
+     *
+     * @return true if the listed directories are watched
+     * @see #setWatching(boolean)
+     */
+    public boolean isWatching() {
+        return watchService != null;
+    }
+
+    /**
+     * Returns the cached listing of the given directory, reading it if
+     * necessary. Returns null if the file is not a directory.
+     */
+    private Listing getListing(File directory) {
+        Listing listing = listings.get(directory);
+        if (listing != null) return listing;
+        if (directory instanceof PendingFile || !isDirectory(directory)) return null;
+        if (loadingInBackground && listed.add(directory)) {
+            listing = new Listing(directory, new File[] { new PendingFile(directory) },
+                    new BasicFileAttributes[1]);
+            new LoadWorker(listing).execute();
+        } else {
+            listed.add(directory);
+            listing = readListing(directory);
+        }
+        listings.put(directory, listing);
+        watch(listing);
+        return listing;
+    }
+
+    private boolean isDirectory(File file) {
+        BasicFileAttributes attributes = getAttributes(file);
+        return attributes != null ? attributes.isDirectory() : file.isDirectory();
+    }
+
+    /**
+     * Returns the attributes of the given file, looked up in the parent's
+     * listing if cached. Returns null if the attributes can't be read.
+     */
+    private BasicFileAttributes getAttributes(File file) {
+        File parent = file.getParentFile();
+        Listing listing = parent != null ? listings.get(parent) : null;
+        if (listing != null) {
+            int index = listing.indexOf(file);
+            if (index >= 0) return listing.attributes[index];
+        }
+        return readAttributes(file.toPath());
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        } catch (SecurityException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lists the directory and reads the attributes of its children. May be
+     * called on any thread.
+     */
+    private static Listing readListing(File directory) {
+        List<Path> paths = new ArrayList<Path>();
+        try {
+            DirectoryStream<Path> stream = Files.newDirectoryStream(directory.toPath());
+            try {
+                for (Path path : stream) {
+                    paths.add(path);
+                }
+            } finally {
+                stream.close();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "listing " + directory, e);
+        } catch (DirectoryIteratorException e) {
+            LOG.log(Level.FINE, "listing " + directory, e);
+        } catch (SecurityException e) {
+            LOG.log(Level.FINE, "listing " + directory, e);
+        }
+        final File[] files = new File[paths.size()];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = new File(directory, paths.get(i).getFileName().toString());
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return files[o1].compareTo(files[o2]);
+            }
+        });
+        File[] sorted = new File[files.length];
+        BasicFileAttributes[] attributes = new BasicFileAttributes[files.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = files[order[i]];
+            attributes[i] = readAttributes(paths.get(order[i]));
+        }
+        return new Listing(directory, sorted, attributes);
+    }
+
+    /**
+     * Replaces the cached listing of the directory by the given listing and
+     * notifies listeners about removed, added and changed children. Does
+     * nothing if the directory is not cached.
+     */
+    private void updateListing(Listing old, Listing listing) {
+        File directory = listing.directory;
+        if (listings.get(directory) != old || !isValidFileNode(directory)) return;
+        TreePath path = getPathToRoot(directory);
+        // merge the sorted children
+        List<Integer> removed = new ArrayList<Integer>();
+        List<Integer> added = new ArrayList<Integer>();
+        List<Integer> changed = new ArrayList<Integer>();
+        int i = 0;
+        int j = 0;
+        while (i < old.files.length || j < listing.files.length) {
+            int comparison = i == old.files.length ? 1 : j == listing.files.length ? -1
+                    : old.files[i].compareTo(listing.files[j]);
+            if (comparison < 0) {
+                removed.add(i++);
+            } else if (comparison > 0) {
+                added.add(j++);
+            } else {
+                if (isChanged(old.attributes[i], listing.attributes[j])) {
+                    changed.add(j);
+                }
+                // keep the instances known by the listeners
+                listing.files[j++] = old.files[i++];
+            }
+        }
+        if (!removed.isEmpty()) {
+            // the intermediate state: the old listing without the removed
+            Listing retained = old.without(removed);
+            listings.put(directory, retained);
+            listing.watchKey = old.watchKey;
+            modelSupport.fireChildrenRemoved(path, toArray(removed), old.getFiles(removed));
+            if (listings.get(directory) != retained) return;
+        }
+        listing.watchKey = old.watchKey;
+        listings.put(directory, listing);
+        if (!added.isEmpty()) {
+            modelSupport.fireChildrenAdded(path, toArray(added), listing.getFiles(added));
+        }
+        if (!changed.isEmpty() && listings.get(directory) == listing) {
+            modelSupport.fireChildrenChanged(path, toArray(changed), listing.getFiles(changed));
+        }
+    }
+
+    private static boolean isChanged(BasicFileAttributes old, BasicFileAttributes attributes) {
+        if (old == null || attributes == null) return old != attributes;
+        return old.size() != attributes.size()
+                || !old.lastModifiedTime().equals(attributes.lastModifiedTime())
+                || old.isDirectory() != attributes.isDirectory();
+    }
+
+    private TreePath getPathToRoot(File file) {
+        List<File> files = new ArrayList<File>();
+        for (File f = file; !f.equals(root); f = f.getParentFile()) {
+            files.add(0, f);
+        }
+        files.add(0, getRoot());
+        return new TreePath(files.toArray());
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    private void watch(Listing listing) {
+        if (watchService == null || listing.watchKey != null) return;
+        try {
+            listing.watchKey = listing.directory.toPath().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(listing.watchKey, listing.directory);
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "watching " + listing.directory, e);
+        } catch (ClosedWatchServiceException e) {
+            // ignore
+        }
+    }
+
+    private void unwatch(Listing listing) {
+        if (listing == null || listing.watchKey == null) return;
+        watchedDirectories.remove(listing.watchKey);
+        listing.watchKey.cancel();
+        listing.watchKey = null;
+    }
+
+    /**
+     * The sorted children of a directory and their attributes.
+     */
+    private static class Listing {
+        final File directory;
+        final File[] files;
+        final BasicFileAttributes[] attributes;
+        WatchKey watchKey;
+
+        Listing(File directory, File[] files, BasicFileAttributes[] attributes) {
+            this.directory = directory;
+            this.files = files;
+            this.attributes = attributes;
+        }
+
+        int indexOf(File file) {
+            int index = Arrays.binarySearch(files, file);
+            return index >= 0 && files[index].equals(file) ? index : -1;
+        }
+
+        File[] getFiles(List<Integer> indices) {
+            File[] result = new File[indices.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = files[indices.get(i)];
+            }
+            return result;
+        }
+
+        Listing without(List<Integer> removed) {
+            int size = files.length - removed.size();
+            File[] retainedFiles = new File[size];
+            BasicFileAttributes[] retainedAttributes = new BasicFileAttributes[size];
+            int next = 0;
+            int r = 0;
+            for (int i = 0; i < files.length; i++) {
+                if (r < removed.size() && removed.get(r) == i) {
+                    r++;
+                } else {
+                    retainedFiles[next] = files[i];
+                    retainedAttributes[next++] = attributes[i];
+                }
+            }
+            return new Listing(directory, retainedFiles, retainedAttributes);
+        }
+    }
+
+    /**
+     * The placeholder child of a directory which is listed in the background.
+     * Its name can't be the name of a file, so it equals neither the 
+     * directory nor any of its children.
+     */
+    private static class PendingFile extends File {
+        private static final long serialVersionUID = -3017412963478209134L;
+
+        PendingFile(File directory) {
+            super(directory, "\u0000pending");
+        }
+    }
+
+    /**
+     * Lists a directory in the background and replaces the placeholder.
+     */
+    private class LoadWorker extends SwingWorker<Listing, Void> {
+        private final Listing pending;
+
+        LoadWorker(Listing pending) {
+            this.pending = pending;
+        }
+
+        @Override
+        protected Listing doInBackground() {
+            return readListing(pending.directory);
+        }
+
+        @Override
+        protected void done() {
+            try {
+                updateListing(pending, get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOG.log(Level.WARNING, "listing " + pending.directory, e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Takes the changed directories from the watch service, lists them and
+     * updates the model on the EDT.
+     */
+    private class Watcher implements Runnable {
+        private final WatchService service;
+
+        Watcher(WatchService service) {
+            this.service = service;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    WatchKey key = service.take();
+                    // the events are not needed: the directory is re-listed
+                    key.pollEvents();
+                    final File directory = watchedDirectories.get(key);
+                    key.reset();
+                    if (directory == null) continue;
+                    final Listing listing = readListing(directory);
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            Listing old = listings.get(directory);
+                            if (old != null && !(old.files.length == 1
+                                    && old.files[0] instanceof PendingFile)) {
+                                updateListing(old, listing);
+                            }
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                // done
+            } catch (ClosedWatchServiceException e) {
+                // done
+            }
+        }
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * $Id$
+ *
+ * Copyright 2004 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.lang.reflect.InvocationTargetException;
+
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>AnimationClock</code>.
+ */
+@RunWith(JUnit4.class)
+public class AnimationClockTest extends TestCase {
+
+    /**
+     * An animation is notified on the first pulse, then after its delay only.
+     */
+    @Test
+    public void testPulseNotifiesDueAnimations() throws Exception {
+        onEDT(new Runnable() {
+            @Override
+            public void run() {
+                AnimationClock clock = new AnimationClock();
+                CountingAnimation animation = new CountingAnimation();
+                clock.start(new ShowingLabel(true), 10000, animation);
+                assertTrue(clock.isRunning(animation));
+                assertTrue(clock.isTimerRunning());
+                clock.pulse();
+                assertEquals(1, animation.count);
+                clock.pulse();
+                assertEquals("animation must not be notified before its delay", 1, animation.count);
+                assertEquals(1, clock.getFrameCount());
+                clock.stop(animation);
+                assertFalse(clock.isRunning(animation));
+                assertFalse(clock.isTimerRunning());
+            }
+        });
+    }
+
+    /**
+     * Animations of components which are not showing are paused and don't
+     * keep the timer running.
+     */
+    @Test
+    public void testPausedWhenNotShowing() throws Exception {
+        onEDT(new Runnable() {
+            @Override
+            public void run() {
+                AnimationClock clock = new AnimationClock();
+                CountingAnimation animation = new CountingAnimation();
+                ShowingLabel label = new ShowingLabel(false);
+                clock.start(label, 10, animation);
+                assertFalse(clock.isTimerRunning());
+                clock.pulse();
+                assertEquals(0, animation.count);
+                assertEquals(0, clock.getFrameCount());
+                assertTrue("paused animation must be running", clock.isRunning(animation));
+                label.showing = true;
+                clock.pulse();
+                assertEquals(1, animation.count);
+                assertTrue(clock.isTimerRunning());
+                clock.stop(animation);
+            }
+        });
+    }
+
+    /**
+     * An animation stopped by another one in the same pulse must not be
+     * notified.
+     */
+    @Test
+    public void testStopDuringPulse() throws Exception {
+        onEDT(new Runnable() {
+            @Override
+            public void run() {
+                final AnimationClock clock = new AnimationClock();
+                final CountingAnimation second = new CountingAnimation();
+                ActionListener first = new ActionListener() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        clock.stop(second);
+                    }
+                };
+                clock.start(new ShowingLabel(true), 10000, first);
+                clock.start(new ShowingLabel(true), 10000, second);
+                clock.pulse();
+                assertEquals(0, second.count);
+                assertEquals(1, clock.getAnimationCount());
+                clock.stop(first);
+            }
+        });
+    }
+
+    /**
+     * Stopping an animation must remove the listener from its component.
+     */
+    @Test
+    public void testStopRemovesListener() throws Exception {
+        onEDT(new Runnable() {
+            @Override
+            public void run() {
+                AnimationClock clock = new AnimationClock();
+                CountingAnimation animation = new CountingAnimation();
+                ShowingLabel label = new ShowingLabel(false);
+                int listeners = label.getHierarchyListeners().length;
+                clock.start(label, 10, animation);
+                assertEquals(listeners + 1, label.getHierarchyListeners().length);
+                clock.stop(animation);
+                assertEquals(listeners, label.getHierarchyListeners().length);
+            }
+        });
+    }
+
+    /**
+     * Resetting the metrics must clear the frame count and times.
+     */
+    @Test
+    public void testResetMetrics() throws Exception {
+        onEDT(new Runnable() {
+            @Override
+            public void run() {
+                AnimationClock clock = new AnimationClock();
+                CountingAnimation animation = new CountingAnimation();
+                clock.start(new ShowingLabel(true), 10000, animation);
+                clock.pulse();
+                assertEquals(1, clock.getFrameCount());
+                assertTrue(clock.getMaxFrameTime() >= clock.getAverageFrameTime());
+                clock.resetMetrics();
+                assertEquals(0, clock.getFrameCount());
+                assertEquals(0, clock.getAverageFrameTime());
+                assertEquals(0, clock.getMaxFrameTime());
+                clock.stop(animation);
+            }
+        });
+    }
+
+    /**
+     * A busy label is animated by the shared clock.
+     */
+    @Test
+    public void testBusyLabelUsesSharedClock() throws Exception {
+        onEDT(new Runnable() {
+            @Override
+            public void run() {
+                JXBusyLabel label = new JXBusyLabel();
+                int count = AnimationClock.getInstance().getAnimationCount();
+                label.setBusy(true);
+                assertEquals(count + 1, AnimationClock.getInstance().getAnimationCount());
+                label.setBusy(false);
+                assertEquals(count, AnimationClock.getInstance().getAnimationCount());
+            }
+        });
+    }
+
+    private void onEDT(Runnable runnable) throws Exception {
+        try {
+            SwingUtilities.invokeAndWait(runnable);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class ShowingLabel extends JLabel {
+        private boolean showing;
+
+        ShowingLabel(boolean showing) {
+            this.showing = showing;
+        }
+
+        @Override
+        public boolean isShowing() {
+            return showing;
+        }
+    }
+
+    private static class CountingAnimation implements ActionListener {
+        private int count;
+
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            count++;
+        }
+    }
+}
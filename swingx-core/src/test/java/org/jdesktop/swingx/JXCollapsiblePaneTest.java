@@ -24,10 +24,13 @@ package org.jdesktop.swingx;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.jdesktop.test.matchers.Matchers.property;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
+import java.awt.event.HierarchyEvent;
 import java.beans.PropertyChangeListener;
 
 import javax.swing.JLabel;
@@ -63,4 +66,54 @@ public class JXCollapsiblePaneTest {
         // will enqueue on the EDT after this check
         verify(pcl).propertyChange(argThat(is(property("collapsed", false, true))));
     }
+    
+    /**
+     * A pane hidden during an animation must not leave the animation in the
+     * shared clock: collapsing it immediately stops the animation.
+     */
+    @Test
+    public void testCollapsingHiddenDuringAnimation() {
+        ShowingPane pane = new ShowingPane();
+        pane.add(new JLabel("some content"));
+        int count = AnimationClock.getInstance().getAnimationCount();
+        
+        pane.setCollapsed(true);
+        assertEquals(count + 1, AnimationClock.getInstance().getAnimationCount());
+        
+        pane.showing = false;
+        pane.setCollapsed(false);
+        assertEquals(count, AnimationClock.getInstance().getAnimationCount());
+        // throws if still animating
+        pane.setDirection(JXCollapsiblePane.Direction.LEFT);
+    }
+    
+    /**
+     * An animation is finished when the pane stops showing.
+     */
+    @Test
+    public void testAnimationFinishedWhenHidden() {
+        ShowingPane pane = new ShowingPane();
+        pane.add(new JLabel("some content"));
+        int count = AnimationClock.getInstance().getAnimationCount();
+        PropertyChangeListener pcl = mock(PropertyChangeListener.class);
+        pane.addPropertyChangeListener("collapsed", pcl);
+        
+        pane.setCollapsed(true);
+        pane.showing = false;
+        pane.dispatchEvent(new HierarchyEvent(pane, HierarchyEvent.HIERARCHY_CHANGED, pane, null,
+                HierarchyEvent.SHOWING_CHANGED));
+        
+        assertEquals(count, AnimationClock.getInstance().getAnimationCount());
+        assertFalse(pane.getContentPane().isVisible());
+        verify(pcl).propertyChange(argThat(is(property("collapsed", false, true))));
+    }
+    
+    private static class ShowingPane extends JXCollapsiblePane {
+        private boolean showing = true;
+        
+        @Override
+        public boolean isShowing() {
+            return showing;
+        }
+    }
  }
@@ -0,0 +1,285 @@
+/*
+ * $Id$
+ *
+ * Copyright 2006 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>JXGraph</code>: cached sampling of plots and
+ * <code>JXGraph.DataPlot</code>.
+ */
+@RunWith(JUnit4.class)
+public class JXGraphTest extends TestCase {
+
+    /**
+     * Repainting the same view must not compute the plot again.
+     */
+    @Test
+    public void testRepaintUsesCachedSamples() {
+        CountingPlot plot = new CountingPlot();
+        JXGraph graph = createGraph(plot);
+        paint(graph);
+        assertTrue("plot must be computed", plot.count > 0);
+        plot.count = 0;
+        paint(graph);
+        assertEquals("repaint must not compute the plot", 0, plot.count);
+    }
+
+    /**
+     * Panning must compute the newly exposed part of the plot only.
+     */
+    @Test
+    public void testPanComputesExposedStrip() {
+        CountingPlot plot = new CountingPlot();
+        JXGraph graph = createGraph(plot);
+        paint(graph);
+        int full = plot.count;
+        plot.count = 0;
+        Rectangle2D view = graph.getView();
+        double pixel = view.getWidth() / graph.getWidth();
+        graph.setView(new Rectangle2D.Double(view.getX() + 10 * pixel, view.getY(),
+                view.getWidth(), view.getHeight()));
+        paint(graph);
+        assertTrue("pan must compute the exposed strip only, but was " + plot.count + " of " + full,
+                plot.count > 0 && plot.count < full / 10);
+    }
+
+    /**
+     * A property change of the plot must discard the cached samples.
+     */
+    @Test
+    public void testPlotChangeDiscardsSamples() {
+        CountingPlot plot = new CountingPlot();
+        JXGraph graph = createGraph(plot);
+        paint(graph);
+        plot.count = 0;
+        plot.setFactor(2.0);
+        paint(graph);
+        assertTrue("changed plot must be computed again", plot.count > 0);
+    }
+
+    /**
+     * Smooth parts of a plot are computed less densely than steep ones, the
+     * linear interpolation must stay within the tolerance.
+     */
+    @Test
+    public void testAdaptiveSampling() {
+        CountingPlot plot = new CountingPlot();
+        double pixelWidth = 2.0 / 400;
+        double yScale = 400 / 2.0;
+        PlotSamples samples = PlotSamples.sample(plot, pixelWidth, yScale, -1.0, 1.0, null, null);
+        assertTrue("smooth plot must be computed less than once per pixel", samples.size() < 400);
+        int index = 0;
+        for (double x = -1.0; x < 1.0; x += pixelWidth / 10) {
+            while (samples.getX(index + 1) < x) {
+                index++;
+            }
+            double fraction = (x - samples.getX(index)) / (samples.getX(index + 1) - samples.getX(index));
+            double y = samples.getY(index) + fraction * (samples.getY(index + 1) - samples.getY(index));
+            assertEquals("deviation at " + x, plot.compute(x), y, 2 * PlotSamples.TOLERANCE / yScale);
+        }
+    }
+
+    /**
+     * Background sampling computes the plots off the EDT and installs them.
+     */
+    @Test
+    public void testBackgroundSampling() throws Exception {
+        CountingPlot plot = new CountingPlot();
+        JXGraph graph = createGraph(plot);
+        graph.setBackgroundSampling(true);
+        assertTrue(graph.isBackgroundSampling());
+        paint(graph);
+        long timeout = System.currentTimeMillis() + 5000;
+        while (plot.count == 0 || !isSampled(graph, plot)) {
+            assertTrue("background sampling must complete", System.currentTimeMillis() < timeout);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A plot failing to compute in the background is logged and not sampled 
+     * again until it changes.
+     */
+    @Test
+    public void testBackgroundSamplingFailure() throws Exception {
+        Logger logger = Logger.getLogger(JXGraph.class.getName());
+        final CountDownLatch logged = new CountDownLatch(1);
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel() == Level.WARNING) {
+                    logged.countDown();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        boolean useParentHandlers = logger.getUseParentHandlers();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        try {
+            CountingPlot plot = new CountingPlot();
+            plot.failing = true;
+            JXGraph graph = createGraph(plot);
+            graph.setBackgroundSampling(true);
+            paint(graph);
+            assertTrue("failure must be logged", logged.await(5, TimeUnit.SECONDS));
+            // give the worker time to complete on the EDT
+            Thread.sleep(200);
+            assertTrue("failed plot must not be sampled again", isSampled(graph, plot));
+            Thread.sleep(200);
+            assertTrue("failed plot must not be sampled again", isSampled(graph, plot));
+            plot.failing = false;
+            plot.setFactor(2.0);
+            paint(graph);
+            long timeout = System.currentTimeMillis() + 5000;
+            while (plot.count == 0 || !isSampled(graph, plot)) {
+                assertTrue("changed plot must be sampled", System.currentTimeMillis() < timeout);
+                Thread.sleep(10);
+            }
+        } finally {
+            logger.removeHandler(handler);
+            logger.setUseParentHandlers(useParentHandlers);
+        }
+    }
+
+    /**
+     * Minimum and maximum of ranges must equal the brute force results,
+     * NaN values are ignored.
+     */
+    @Test
+    public void testDataPlotMinMax() {
+        Random random = new Random(1);
+        double[] values = new double[300000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 1000 == 0 ? Double.NaN : random.nextDouble();
+        }
+        JXGraph.DataPlot plot = new JXGraph.DataPlot(0.0, 1.0, values);
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(values.length);
+            int to = from + random.nextInt(values.length - from + 1);
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int j = from; j < to; j++) {
+                min = values[j] < min ? values[j] : min;
+                max = values[j] > max ? values[j] : max;
+            }
+            assertEquals(min, plot.getMin(from, to), 0.0);
+            assertEquals(max, plot.getMax(from, to), 0.0);
+        }
+    }
+
+    /**
+     * DataPlot interpolates linearly and is undefined outside of the series.
+     */
+    @Test
+    public void testDataPlotCompute() {
+        JXGraph.DataPlot plot = new JXGraph.DataPlot(new double[] {0.0, 1.0, 3.0},
+                new double[] {0.0, 1.0, 3.0});
+        assertEquals(0.5, plot.compute(0.5), 0.0);
+        assertEquals(2.0, plot.compute(2.0), 0.0);
+        assertEquals(3.0, plot.compute(3.0), 0.0);
+        assertTrue(Double.isNaN(plot.compute(-0.5)));
+        assertTrue(Double.isNaN(plot.compute(3.5)));
+    }
+
+    /**
+     * DataPlot rejects positions not in ascending order.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDataPlotUnsortedPositions() {
+        new JXGraph.DataPlot(new double[] {1.0, 0.0}, new double[] {0.0, 1.0});
+    }
+
+    private boolean isSampled(final JXGraph graph, final CountingPlot plot) throws Exception {
+        final boolean[] sampled = new boolean[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                plot.count = 0;
+                paint(graph);
+                sampled[0] = plot.count == 0;
+            }
+        });
+        return sampled[0];
+    }
+
+    private JXGraph createGraph(JXGraph.Plot plot) {
+        JXGraph graph = new JXGraph();
+        graph.setSize(400, 300);
+        graph.addPlots(Color.BLUE, plot);
+        return graph;
+    }
+
+    private void paint(JXGraph graph) {
+        BufferedImage image = new BufferedImage(graph.getWidth(), graph.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.createGraphics();
+        graph.paint(g);
+        g.dispose();
+    }
+
+    private static class CountingPlot extends JXGraph.Plot {
+        private volatile int count;
+        private volatile boolean failing;
+        private double factor = 1.0;
+
+        public void setFactor(double factor) {
+            double old = this.factor;
+            this.factor = factor;
+            firePropertyChange("factor", old, factor);
+        }
+
+        @Override
+        public double compute(double value) {
+            count++;
+            if (failing) {
+                throw new IllegalStateException("failing plot");
+            }
+            return Math.sin(value * 3.0 * factor);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx;
+
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import javax.swing.AbstractListModel;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+import javax.swing.SwingUtilities;
+
+/**
+ * Simple benchmark for the layout of a JXList with variable cell heights.
+ * Reports the time for the layout after a model change (including painting
+ * a viewport of cells) with completely measured and with estimated cell
+ * heights.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class JXListCellHeightBenchmark {
+
+    private static final int[] SIZES = {10000, 100000, 1000000};
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println("elements\tmeasured(ms)\testimated(ms)");
+                for (int size : SIZES) {
+                    // warm up
+                    time(size, false);
+                    time(size, true);
+                    System.out.println(size + "\t" + time(size, false) / 1000000
+                            + "\t" + time(size, true) / 1000000);
+                }
+            }
+        });
+        System.exit(0);
+    }
+
+    /**
+     * Invalidates the cell sizes, lays out and paints the list, returns the
+     * time in nanos.
+     */
+    private static long time(int size, boolean estimated) {
+        JXList list = new JXList(new SizedListModel(size));
+        list.setCellRenderer(new VariableHeightRenderer());
+        list.setEstimatedCellHeights(estimated);
+        list.setSize(200, 600);
+        BufferedImage image = new BufferedImage(200, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.createGraphics();
+        list.getPreferredSize();
+        long start = System.nanoTime();
+        list.invalidateCellSizeCache();
+        list.getPreferredSize();
+        list.paint(g);
+        long time = System.nanoTime() - start;
+        g.dispose();
+        return time;
+    }
+
+    private static class SizedListModel extends AbstractListModel {
+        private final int size;
+
+        SizedListModel(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public Object getElementAt(int index) {
+            return index;
+        }
+    }
+
+    private static class VariableHeightRenderer extends DefaultListCellRenderer {
+        @Override
+        public Component getListCellRendererComponent(JList list, Object value,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, "value " + value, index, isSelected,
+                    cellHasFocus);
+            setText(index % 5 == 0 ? "<html>value " + value + "<br>second line" : "value " + value);
+            return this;
+        }
+    }
+}
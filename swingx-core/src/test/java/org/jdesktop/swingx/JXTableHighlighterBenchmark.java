@@ -0,0 +1,184 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
+
+import org.jdesktop.swingx.decorator.ColorHighlighter;
+import org.jdesktop.swingx.decorator.ComponentAdapter;
+import org.jdesktop.swingx.decorator.CompoundHighlighter;
+import org.jdesktop.swingx.decorator.FontHighlighter;
+import org.jdesktop.swingx.decorator.HighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.AndHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.ColumnHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.ColumnTypeHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.EqualsHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.IdentifierHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.NotHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.RowGroupHighlightPredicate;
+import org.jdesktop.swingx.decorator.Highlighter;
+import org.jdesktop.swingx.decorator.HighlighterPipeline;
+import org.jdesktop.swingx.decorator.PatternPredicate;
+
+/**
+ * Simple benchmark for the cost of highlighting a full viewport of a JXTable
+ * with a growing number of highlighters. Reports the time per viewport for
+ * applying the CompoundHighlighter cell by cell, for applying the
+ * compiled HighlighterPipeline in one pass and for painting the table
+ * (which uses the pipeline).
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class JXTableHighlighterBenchmark {
+
+    private static final int ROWS = 40;
+    private static final int COLUMNS = 10;
+    private static final int[] HIGHLIGHTER_COUNTS = {0, 5, 10, 15, 20};
+    private static final int PASSES = 2000;
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println("highlighters\tcompound(us)\tpipeline(us)\tpaint(us)");
+                for (int count : HIGHLIGHTER_COUNTS) {
+                    JXTable table = createTable();
+                    table.setHighlighters(createHighlighters(count));
+                    // warm up
+                    timeCompound(table, PASSES);
+                    timePipeline(table, PASSES);
+                    timePaint(table, PASSES / 10);
+                    System.out.println(count + "\t" + timeCompound(table, PASSES) / PASSES / 1000
+                            + "\t" + timePipeline(table, PASSES) / PASSES / 1000
+                            + "\t" + timePaint(table, PASSES / 10) / (PASSES / 10) / 1000);
+                }
+            }
+        });
+        System.exit(0);
+    }
+
+    /**
+     * Highlights all cells with the table's CompoundHighlighter, returns the
+     * time in nanos.
+     */
+    private static long timeCompound(JXTable table, int passes) {
+        CompoundHighlighter compound = table.getCompoundHighlighter();
+        long start = System.nanoTime();
+        for (int i = 0; i < passes; i++) {
+            for (int row = 0; row < ROWS; row++) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    compound.highlight(getStamp(table, row, column),
+                            table.getComponentAdapter(row, column));
+                }
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Highlights all cells with a pipeline compiled from the table's
+     * CompoundHighlighter, one pass per viewport, returns the time in nanos.
+     */
+    private static long timePipeline(JXTable table, int passes) {
+        HighlighterPipeline pipeline = new HighlighterPipeline(table.getCompoundHighlighter());
+        long start = System.nanoTime();
+        for (int i = 0; i < passes; i++) {
+            pipeline.beginPass();
+            for (int row = 0; row < ROWS; row++) {
+                for (int column = 0; column < COLUMNS; column++) {
+                    pipeline.highlight(getStamp(table, row, column),
+                            table.getComponentAdapter(row, column));
+                }
+            }
+            pipeline.endPass();
+        }
+        long time = System.nanoTime() - start;
+        pipeline.dispose();
+        return time;
+    }
+
+    /**
+     * Paints the table, returns the time in nanos.
+     */
+    private static long timePaint(JXTable table, int passes) {
+        BufferedImage image = new BufferedImage(table.getWidth(), table.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.createGraphics();
+        long start = System.nanoTime();
+        for (int i = 0; i < passes; i++) {
+            table.paint(g);
+        }
+        long time = System.nanoTime() - start;
+        g.dispose();
+        return time;
+    }
+
+    /**
+     * Returns the undecorated renderer component.
+     */
+    private static Component getStamp(JXTable table, int row, int column) {
+        TableCellRenderer renderer = table.getCellRenderer(row, column);
+        return renderer.getTableCellRendererComponent(table, table.getValueAt(row, column),
+                false, false, row, column);
+    }
+
+    /**
+     * Creates the given number of highlighters, a mix of row, column,
+     * value and constant predicates.
+     */
+    private static Highlighter[] createHighlighters(int count) {
+        Font bold = new Font("Dialog", Font.BOLD, 12);
+        Highlighter[] all = {
+            new ColorHighlighter(HighlightPredicate.EVEN, Color.WHITE, null),
+            new ColorHighlighter(HighlightPredicate.ODD, Color.LIGHT_GRAY, null),
+            new ColorHighlighter(new RowGroupHighlightPredicate(3), null, Color.DARK_GRAY),
+            new ColorHighlighter(HighlightPredicate.ROLLOVER_ROW, Color.YELLOW, null),
+            new FontHighlighter(new ColumnHighlightPredicate(0), bold),
+            new ColorHighlighter(new AndHighlightPredicate(new ColumnHighlightPredicate(2),
+                    new EqualsHighlightPredicate("value 2/7")), Color.RED, null),
+            new ColorHighlighter(new IdentifierHighlightPredicate("C"), null, Color.BLUE),
+            new ColorHighlighter(new ColumnTypeHighlightPredicate(Number.class), null, Color.GREEN),
+            new ColorHighlighter(HighlightPredicate.NEVER, Color.ORANGE, null),
+            new ColorHighlighter(new PatternPredicate("7"), null, Color.MAGENTA),
+            new ColorHighlighter(new NotHighlightPredicate(HighlightPredicate.ROLLOVER_COLUMN),
+                    null, Color.BLACK),
+            new FontHighlighter(new AndHighlightPredicate(HighlightPredicate.EVEN,
+                    new ColumnHighlightPredicate(5)), bold),
+            new ColorHighlighter(new ColumnHighlightPredicate(3, 4), Color.CYAN, null),
+            new ColorHighlighter(HighlightPredicate.ALWAYS, null, Color.BLACK),
+            new ColorHighlighter(new RowGroupHighlightPredicate(5), Color.PINK, null),
+            new ColorHighlighter(new AndHighlightPredicate(HighlightPredicate.ODD,
+                    new ColumnHighlightPredicate(7)), Color.RED, null),
+            new ColorHighlighter(HighlightPredicate.IS_SELECTED, Color.BLUE, Color.WHITE),
+            new FontHighlighter(new IdentifierHighlightPredicate("A", "B"), bold),
+            new ColorHighlighter(new ColumnHighlightPredicate(9), null, Color.GRAY),
+            new ColorHighlighter(HighlightPredicate.ROLLOVER_CELL, Color.YELLOW, null),
+        };
+        Highlighter[] result = new Highlighter[count];
+        System.arraycopy(all, 0, result, 0, count);
+        return result;
+    }
+
+    private static JXTable createTable() {
+        DefaultTableModel model = new DefaultTableModel(ROWS, COLUMNS);
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                model.setValueAt("value " + column + "/" + row, row, column);
+            }
+        }
+        JXTable table = new JXTable(model);
+        table.setSize(table.getPreferredSize());
+        return table;
+    }
+}
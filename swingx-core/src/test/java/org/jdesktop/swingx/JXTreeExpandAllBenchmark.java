@@ -0,0 +1,130 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx;
+
+import java.util.Arrays;
+
+import javax.swing.SwingUtilities;
+import javax.swing.tree.TreePath;
+
+import org.jdesktop.swingx.treetable.DefaultMutableTreeTableNode;
+import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
+
+/**
+ * Simple benchmark for expanding and collapsing a complete JXTree and 
+ * JXTreeTable for growing node counts. Reports the time of the bulk 
+ * expandAll/collapseAll and of the row by row loop they replaced. Painting
+ * is not included.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class JXTreeExpandAllBenchmark {
+
+    /** pairs of child count per node and levels below the root. */
+    private static final int[][] SHAPES = {{10, 3}, {10, 4}, {30, 3}, {50, 3}};
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println("rows\ttree loop(ms)\ttree bulk(ms)"
+                        + "\ttreetable loop(ms)\ttreetable bulk(ms)"
+                        + "\ttreetable collapse loop(ms)\ttreetable collapse bulk(ms)");
+                for (int[] shape : SHAPES) {
+                    DefaultTreeTableModel model = createModel(shape[0], shape[1]);
+                    // warm up
+                    time(model);
+                    long[] result = time(model);
+                    StringBuilder line = new StringBuilder();
+                    for (long value : result) {
+                        line.append(line.length() == 0 ? "" : "\t").append(value);
+                    }
+                    System.out.println(line);
+                }
+            }
+        });
+        System.exit(0);
+    }
+
+    /**
+     * Returns the row count and the times in millis.
+     */
+    private static long[] time(DefaultTreeTableModel model) {
+        long[] result = new long[7];
+        JXTree tree = new JXTree(model);
+        long start = System.nanoTime();
+        if (tree.getRowCount() == 0) {
+            tree.expandPath(new TreePath(model.getRoot()));
+        }
+        for (int i = 0; i < tree.getRowCount(); i++) {
+            tree.expandRow(i);
+        }
+        result[1] = millis(start);
+        result[0] = tree.getRowCount();
+
+        tree = new JXTree(model);
+        start = System.nanoTime();
+        tree.expandAll();
+        result[2] = millis(start);
+        assertRowCount(result[0], tree.getRowCount());
+
+        JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        start = System.nanoTime();
+        if (table.getRowCount() == 0) {
+            table.expandPath(new TreePath(model.getRoot()));
+        }
+        for (int i = 0; i < table.getRowCount(); i++) {
+            table.expandRow(i);
+        }
+        result[3] = millis(start);
+        assertRowCount(result[0], table.getRowCount());
+        start = System.nanoTime();
+        for (int i = table.getRowCount() - 1; i >= 0 ; i--) {
+            table.collapseRow(i);
+        }
+        result[5] = millis(start);
+
+        table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        start = System.nanoTime();
+        table.expandAll();
+        result[4] = millis(start);
+        assertRowCount(result[0], table.getRowCount());
+        start = System.nanoTime();
+        table.collapseAll();
+        result[6] = millis(start);
+        return result;
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static void assertRowCount(long expected, int rowCount) {
+        if (expected != rowCount) {
+            throw new IllegalStateException("row count " + rowCount 
+                    + ", expected " + expected);
+        }
+    }
+
+    private static DefaultTreeTableModel createModel(int childCount, int levels) {
+        DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        addChildren(root, childCount, levels);
+        return new DefaultTreeTableModel(root, Arrays.asList("Name"));
+    }
+
+    private static void addChildren(DefaultMutableTreeTableNode parent, int childCount, 
+            int levels) {
+        if (levels == 0) return;
+        for (int i = 0; i < childCount; i++) {
+            DefaultMutableTreeTableNode child = new DefaultMutableTreeTableNode(
+                    parent.getUserObject() + "/" + i);
+            parent.add(child);
+            addChildren(child, childCount, levels - 1);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx;
+
+import java.util.Arrays;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+
+import org.jdesktop.swingx.treetable.DefaultMutableTreeTableNode;
+import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
+
+/**
+ * Simple benchmark for expanding and collapsing a single node of a
+ * JXTreeTable for growing visible row counts. Reports the average latency
+ * of an expand/collapse pair and the number of table rows announced as 
+ * changed by the table model events. Painting is not included.<p>
+ * 
+ * The tree's default layout cache maps paths to rows in linear time, 
+ * the large model layout cache scales with the depth.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class JXTreeTableExpansionBenchmark {
+
+    private static final int[] ROW_COUNTS = {1000, 10000, 100000, 500000};
+    private static final int CHILD_COUNT = 3;
+    private static final int TOGGLES = 500;
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println("visible rows\ttoggle(us)\tlarge model toggle(us)"
+                        + "\tannounced rows/toggle");
+                for (int rowCount : ROW_COUNTS) {
+                    JXTreeTable table = createTreeTable(rowCount);
+                    // warm up
+                    timeToggles(table, TOGGLES);
+                    long[] result = timeToggles(table, TOGGLES);
+                    table.setLargeModel(true);
+                    timeToggles(table, TOGGLES);
+                    long[] large = timeToggles(table, TOGGLES);
+                    System.out.println(rowCount + "\t" + result[0] / TOGGLES / 1000
+                            + "\t" + large[0] / TOGGLES / 1000
+                            + "\t" + result[1] / TOGGLES);
+                }
+            }
+        });
+        System.exit(0);
+    }
+
+    /**
+     * Expands and collapses the middle node, returns the time in nanos and
+     * the number of rows announced by the events.
+     */
+    private static long[] timeToggles(JXTreeTable table, int toggles) {
+        final long[] announced = new long[1];
+        final TableModelListener counter = new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                if (e.getLastRow() == Integer.MAX_VALUE) {
+                    announced[0] += ((TableModel) e.getSource()).getRowCount();
+                } else {
+                    announced[0] += e.getLastRow() - e.getFirstRow() + 1;
+                }
+            }
+        };
+        table.getModel().addTableModelListener(counter);
+        int row = table.getRowCount() / 2;
+        long start = System.nanoTime();
+        for (int i = 0; i < toggles; i++) {
+            table.expandRow(row);
+            table.collapseRow(row);
+        }
+        long time = System.nanoTime() - start;
+        table.getModel().removeTableModelListener(counter);
+        return new long[] {time, announced[0]};
+    }
+
+    private static JXTreeTable createTreeTable(int rowCount) {
+        DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        for (int i = 0; i < rowCount; i++) {
+            DefaultMutableTreeTableNode node = new DefaultMutableTreeTableNode("node " + i);
+            for (int j = 0; j < CHILD_COUNT; j++) {
+                node.add(new DefaultMutableTreeTableNode("child " + i + "/" + j));
+            }
+            root.add(node);
+        }
+        JXTreeTable table = new JXTreeTable(new DefaultTreeTableModel(root,
+                Arrays.asList("Name")));
+        return table;
+    }
+}
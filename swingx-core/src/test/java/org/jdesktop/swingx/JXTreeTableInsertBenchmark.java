@@ -0,0 +1,98 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import org.jdesktop.swingx.treetable.DefaultMutableTreeTableNode;
+import org.jdesktop.swingx.treetable.DefaultTreeTableModel;
+import org.jdesktop.swingx.treetable.MutableTreeTableNode;
+
+/**
+ * Simple benchmark for bulk inserts into the model of a JXTreeTable:
+ * inserts children one by one within one EDT cycle into an expanded and
+ * into a collapsed node. Reports the time until the table events are
+ * fired and the number of table events.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class JXTreeTableInsertBenchmark {
+
+    private static final int[] INSERT_COUNTS = {1000, 10000, 50000};
+    private static final int ROW_COUNT = 10000;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("inserts\texpanded(ms)\tevents\tcollapsed(ms)\tevents");
+        for (int insertCount : INSERT_COUNTS) {
+            // warm up
+            timeInserts(insertCount, true);
+            long[] expanded = timeInserts(insertCount, true);
+            long[] collapsed = timeInserts(insertCount, false);
+            System.out.println(insertCount + "\t" + expanded[0] + "\t" + expanded[1]
+                    + "\t" + collapsed[0] + "\t" + collapsed[1]);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Inserts the children and waits for the table events, returns the
+     * time in millis and the number of table events.
+     */
+    private static long[] timeInserts(final int insertCount, final boolean expanded)
+            throws Exception {
+        final long[] result = new long[2];
+        final DefaultTreeTableModel model = createModel();
+        final MutableTreeTableNode parent = (MutableTreeTableNode)
+                model.getRoot().getChildAt(ROW_COUNT / 2);
+        final JXTreeTable[] table = new JXTreeTable[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                table[0] = new JXTreeTable(model);
+                if (expanded) {
+                    table[0].expandRow(ROW_COUNT / 2);
+                }
+                table[0].getModel().addTableModelListener(new TableModelListener() {
+                    @Override
+                    public void tableChanged(TableModelEvent e) {
+                        result[1]++;
+                    }
+                });
+            }
+        });
+        final long start = System.nanoTime();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < insertCount; i++) {
+                    model.insertNodeInto(new DefaultMutableTreeTableNode("added " + i),
+                            parent, parent.getChildCount());
+                }
+            }
+        });
+        // the table events are fired after the pending events
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = (System.nanoTime() - start) / 1000000;
+            }
+        });
+        return result;
+    }
+
+    private static DefaultTreeTableModel createModel() {
+        DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            DefaultMutableTreeTableNode node = new DefaultMutableTreeTableNode("node " + i);
+            // one child to make the node expandable
+            node.add(new DefaultMutableTreeTableNode("child " + i));
+            root.add(node);
+        }
+        return new DefaultTreeTableModel(root);
+    }
+}
@@ -253,7 +253,7 @@ public class JXTreeTableUnitTest extends InteractiveTestCase {
     public void testExpansionListenerSourceExpanded() {
         JXTreeTable table = new JXTreeTable(new FileSystemModel());
         TreeExpansionReport report = new TreeExpansionReport(table);
-        table.expandRow(0);
+        table.expandRow(getFirstExpandableRow(table));
         assertEquals(1, report.getEventCount());
         assertEquals(table, report.getLastExpandedEvent().getSource());
     }
@@ -263,12 +263,28 @@ public class JXTreeTableUnitTest extends InteractiveTestCase {
     @Test
     public void testExpansionListenerSourceCollapsed() {
         JXTreeTable table = new JXTreeTable(new FileSystemModel());
-        table.expandRow(0);
+        int row = getFirstExpandableRow(table);
+        table.expandRow(row);
         TreeExpansionReport report = new TreeExpansionReport(table);
-        table.collapseRow(0);
+        table.collapseRow(row);
         assertEquals(1, report.getEventCount());
         assertEquals(table, report.getLastCollapsedEvent().getSource());
     }
+
+    /**
+     * Returns the first row which is not a leaf. The children of the 
+     * FileSystemModel are sorted, so the first row might be a file. 
+     */
+    private int getFirstExpandableRow(JXTreeTable table) {
+        for (int row = 0; row < table.getRowCount(); row++) {
+            if (!table.getTreeTableModel().isLeaf(
+                    table.getPathForRow(row).getLastPathComponent())) {
+                return row;
+            }
+        }
+        fail("no expandable row");
+        return -1;
+    }
     
     /**
      * Part of issue ??-swingx: tree width must be same as hierarchical column width
@@ -688,6 +704,313 @@ public class JXTreeTableUnitTest extends InteractiveTestCase {
         
     }
 
+    /**
+     * Expanding a node must fire rowsInserted for the rows of its subtree 
+     * and rowsUpdated for the node's row, instead of dataChanged.
+     */
+    @Test
+    public void testTableEventOnExpand() {
+        TreeTableModel model = createCustomTreeTableModelFromDefault();
+        JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        int lastRow = table.getRowCount() - 1;
+        table.setRowSelectionInterval(lastRow, lastRow);
+        TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        table.expandRow(1);
+        int inserted = table.getRowCount() - 1 - lastRow;
+        assertTrue("sanity: expanded node has children", inserted > 0);
+        assertEquals(1, report.getInsertEventCount());
+        assertEquals(2, report.getLastInsertEvent().getFirstRow());
+        assertEquals(1 + inserted, report.getLastInsertEvent().getLastRow());
+        assertEquals(1, report.getUpdateEventCount());
+        assertEquals(1, report.getLastUpdateEvent().getFirstRow());
+        assertEquals(2, report.getEventCount());
+        assertEquals("selection must be moved once", lastRow + inserted, table.getSelectedRow());
+        assertEquals(1, table.getSelectedRowCount());
+    }
+
+    /**
+     * Collapsing a node must fire rowsDeleted for the rows of its subtree,
+     * including those of expanded descendants.
+     */
+    @Test
+    public void testTableEventOnCollapse() {
+        TreeTableModel model = createCustomTreeTableModelFromDefault();
+        JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        table.expandAll();
+        int rowCount = table.getRowCount();
+        table.setRowSelectionInterval(rowCount - 1, rowCount - 1);
+        TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        table.collapseRow(1);
+        int deleted = rowCount - table.getRowCount();
+        assertTrue("sanity: collapsed node had children", deleted > 0);
+        assertEquals(1, report.getDeleteEventCount());
+        assertEquals(2, report.getLastDeleteEvent().getFirstRow());
+        assertEquals(1 + deleted, report.getLastDeleteEvent().getLastRow());
+        assertEquals(rowCount - 1 - deleted, table.getSelectedRow());
+        report.clear();
+        // collapse the root: deletes everything but the root
+        table.clearSelection();
+        table.collapseRow(0);
+        assertEquals(1, table.getRowCount());
+        assertEquals(1, report.getDeleteEventCount());
+        assertEquals(1, report.getLastDeleteEvent().getFirstRow());
+        assertEquals(rowCount - 1 - deleted, report.getLastDeleteEvent().getLastRow());
+    }
+
+    /**
+     * Bulk expand of a subtree fires a single dataChanged, the rows are the 
+     * same as expanding row by row.
+     */
+    @Test
+    public void testTableEventOnExpandAllPath() {
+        TreeTableModel model = createCustomTreeTableModelFromDefault();
+        JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        JXTreeTable other = new JXTreeTable(model);
+        other.setRootVisible(true);
+        for (int i = 0; i < other.getRowCount(); i++) {
+            other.expandRow(i);
+        }
+        TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        table.expandAll(table.getPathForRow(0), -1, null);
+        assertEquals(1, report.getEventCount());
+        assertTrue(report.isDataChanged(report.getLastEvent()));
+        assertEquals(other.getRowCount(), table.getRowCount());
+    }
+
+    /**
+     * Bulk collapse of a subtree fires a single dataChanged.
+     */
+    @Test
+    public void testTableEventOnCollapseAllPath() {
+        TreeTableModel model = createCustomTreeTableModelFromDefault();
+        JXTreeTable table = new JXTreeTable(model);
+        table.setRootVisible(true);
+        table.expandAll();
+        TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        table.collapseAll(table.getPathForRow(0));
+        assertEquals(1, table.getRowCount());
+        assertEquals(1, report.getEventCount());
+        assertTrue(report.isDataChanged(report.getLastEvent()));
+    }
+
+    /**
+     * Expanding the hidden root inserts all its children starting at row 0.
+     */
+    @Test
+    public void testTableEventOnExpandHiddenRoot() {
+        TreeTableModel model = createCustomTreeTableModelFromDefault();
+        JXTreeTable table = new JXTreeTable(model);
+        table.collapsePath(new TreePath(model.getRoot()));
+        assertEquals(0, table.getRowCount());
+        TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        table.expandPath(new TreePath(model.getRoot()));
+        assertEquals(1, report.getEventCount());
+        assertEquals(0, report.getLastInsertEvent().getFirstRow());
+        assertEquals(table.getRowCount() - 1, report.getLastInsertEvent().getLastRow());
+    }
+
+    /**
+     * Tree events of one EDT cycle must be coalesced: appending children 
+     * one by one fires a single rowsInserted.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testTableEventCoalescedInsert() throws InterruptedException, InvocationTargetException {
+        final DefaultTreeTableModel model = createFolderModel(3, 5);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.expandAll();
+        final int rowCount = table.getRowCount();
+        final TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        // the last folder
+        final MutableTreeTableNode folder = (MutableTreeTableNode) model.getRoot().getChildAt(2);
+        final int firstRow = rowCount;
+        // insert on the EDT, the flush must not happen in between
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    model.insertNodeInto(new DefaultMutableTreeTableNode("added " + i), folder,
+                            folder.getChildCount());
+                }
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals("tableModel must have fired exactly one event", 1, report.getEventCount());
+                assertEquals(1, report.getInsertEventCount());
+                assertEquals(firstRow, report.getLastInsertEvent().getFirstRow());
+                assertEquals(firstRow + 99, report.getLastInsertEvent().getLastRow());
+                assertEquals(rowCount + 100, table.getRowCount());
+            }
+        });        
+    }
+    
+    /**
+     * Tree events of one EDT cycle must be coalesced: removing the first child
+     * repeatedly fires a single rowsDeleted, including the rows of expanded 
+     * descendants.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testTableEventCoalescedDelete() throws InterruptedException, InvocationTargetException {
+        final DefaultTreeTableModel model = createFolderModel(3, 5);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.expandAll();
+        final int rowCount = table.getRowCount();
+        final TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        final TreeTableNode root = model.getRoot();
+        // remove the first two folders with their children
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.removeNodeFromParent((MutableTreeTableNode) root.getChildAt(0));
+                model.removeNodeFromParent((MutableTreeTableNode) root.getChildAt(0));
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals("tableModel must have fired exactly one event", 1, report.getEventCount());
+                assertEquals(1, report.getDeleteEventCount());
+                assertEquals(0, report.getLastDeleteEvent().getFirstRow());
+                assertEquals(11, report.getLastDeleteEvent().getLastRow());
+                assertEquals(rowCount - 12, table.getRowCount());
+            }
+        });        
+    }
+    
+    /**
+     * Tree events of one EDT cycle must be coalesced: changes are fired 
+     * as one rowsUpdated, changes of invisible nodes are skipped.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testTableEventCoalescedUpdate() throws InterruptedException, InvocationTargetException {
+        final DefaultTreeTableModel model = createFolderModel(3, 5);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.expandAll();
+        table.collapseRow(0);
+        final TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        final TreeTableNode root = model.getRoot();
+        // children of the collapsed first folder
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.setValueAt("changed", root.getChildAt(0).getChildAt(1), 0);
+                model.setValueAt("changed", root.getChildAt(0).getChildAt(2), 0);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals("changes of invisible nodes must not fire", 0, report.getEventCount());
+            }
+        });
+        // children of the expanded second folder
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.setValueAt("changed", root.getChildAt(1).getChildAt(3), 0);
+                model.setValueAt("changed", root.getChildAt(1).getChildAt(1), 0);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals("tableModel must have fired exactly one event", 1, report.getEventCount());
+                assertEquals(1, report.getUpdateEventCount());
+                assertEquals(3, report.getLastUpdateEvent().getFirstRow());
+                assertEquals(5, report.getLastUpdateEvent().getLastRow());
+            }
+        });
+    }
+    
+    /**
+     * Tree events of one EDT cycle must be coalesced: inserts into different
+     * parents are fired as one dataChanged, inserts into a collapsed parent 
+     * update the parent's row only.
+     * 
+     * @throws InvocationTargetException 
+     * @throws InterruptedException 
+     */
+    @Test
+    public void testTableEventCoalescedInsertDifferentParents() throws InterruptedException, InvocationTargetException {
+        final DefaultTreeTableModel model = createFolderModel(3, 5);
+        final JXTreeTable table = new JXTreeTable(model);
+        table.expandAll();
+        table.collapseRow(0);
+        final TableModelReport report = new TableModelReport();
+        table.getModel().addTableModelListener(report);
+        final MutableTreeTableNode root = (MutableTreeTableNode) model.getRoot();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.insertNodeInto(new DefaultMutableTreeTableNode("added"), 
+                        (MutableTreeTableNode) root.getChildAt(0), 0);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, report.getEventCount());
+                assertEquals(1, report.getUpdateEventCount());
+                assertEquals(0, report.getLastUpdateEvent().getFirstRow());
+                assertEquals(0, report.getLastUpdateEvent().getLastRow());
+            }
+        });
+        report.clear();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                model.insertNodeInto(new DefaultMutableTreeTableNode("added"), 
+                        (MutableTreeTableNode) root.getChildAt(1), 0);
+                model.insertNodeInto(new DefaultMutableTreeTableNode("added"), 
+                        (MutableTreeTableNode) root.getChildAt(2), 0);
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(1, report.getEventCount());
+                assertTrue(report.isDataChanged(report.getLastEvent()));
+            }
+        });
+    }
+
+    /**
+     * Creates a model with a root and the given number of folders with
+     * leaf children.
+     */
+    private DefaultTreeTableModel createFolderModel(int folderCount, int childCount) {
+        DefaultMutableTreeTableNode root = new DefaultMutableTreeTableNode("root");
+        for (int i = 0; i < folderCount; i++) {
+            DefaultMutableTreeTableNode folder = new DefaultMutableTreeTableNode("folder " + i);
+            for (int j = 0; j < childCount; j++) {
+                folder.add(new DefaultMutableTreeTableNode("child " + i + "/" + j));
+            }
+            root.add(folder);
+        }
+        return new DefaultTreeTableModel(root);
+    }
+
 
     /**
      * Issue #531-swingx: IllegalArgumentException on setModel.
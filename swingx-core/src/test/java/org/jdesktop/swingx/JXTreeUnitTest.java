@@ -8,11 +8,15 @@ package org.jdesktop.swingx;
 
 import java.awt.Color;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Vector;
 
 import javax.swing.JTree;
 import javax.swing.UIManager;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
 import javax.swing.text.Position.Bias;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeCellEditor;
@@ -33,6 +37,7 @@ import org.jdesktop.swingx.renderer.StringValue;
 import org.jdesktop.swingx.renderer.StringValues;
 import org.jdesktop.swingx.tree.DefaultXTreeCellEditor;
 import org.jdesktop.swingx.tree.DefaultXTreeCellRenderer;
+import org.jdesktop.swingx.tree.ExpansionPredicate;
 import org.jdesktop.swingx.treetable.DefaultMutableTreeTableNode;
 import org.jdesktop.swingx.treetable.FileSystemModel;
 import org.jdesktop.swingx.treetable.TreeTableModel;
@@ -725,6 +730,146 @@ public class JXTreeUnitTest extends InteractiveTestCase {
         
     }
 
+    /**
+     * Bulk expand: expands the complete subtree with a single event, 
+     * same rows as expanding row by row.
+     */
+    @Test
+    public void testExpandAllSingleEvent() {
+        JXTree tree = new JXTree(createLevelModel(3, 3));
+        tree.collapseAll();
+        final int[] expanded = new int[1];
+        tree.addTreeExpansionListener(new TreeExpansionListener() {
+            @Override
+            public void treeExpanded(TreeExpansionEvent event) {
+                expanded[0]++;
+            }
+            @Override
+            public void treeCollapsed(TreeExpansionEvent event) {
+            }
+        });
+        PropertyChangeReport report = new PropertyChangeReport(tree);
+        tree.expandAll();
+        assertEquals(1, expanded[0]);
+        assertEquals(2, report.getEventCount("expansionAdjusting"));
+        assertFalse(tree.isExpansionAdjusting());
+        assertEquals(1 + 3 + 9 + 27, tree.getRowCount());
+        JXTree other = new JXTree(createLevelModel(3, 3));
+        for (int i = 0; i < other.getRowCount(); i++) {
+            other.expandRow(i);
+        }
+        assertEquals(other.getRowCount(), tree.getRowCount());
+        for (int i = 0; i < tree.getRowCount(); i++) {
+            assertEquals(other.getPathForRow(i).toString(), tree.getPathForRow(i).toString());
+        }
+    }
+
+    /**
+     * Bulk expand: respects the depth limit.
+     */
+    @Test
+    public void testExpandAllDepth() {
+        JXTree tree = new JXTree(createLevelModel(3, 3));
+        tree.collapseAll();
+        TreePath root = tree.getPathForRow(0);
+        tree.expandAll(root, 2, null);
+        assertEquals(1 + 3 + 9, tree.getRowCount());
+        assertFalse(tree.isExpanded(tree.getPathForRow(2)));
+        tree.expandAll(root, -1, null);
+        assertEquals(1 + 3 + 9 + 27, tree.getRowCount());
+    }
+
+    /**
+     * Bulk expand: skips the subtrees of nodes not accepted by the predicate.
+     */
+    @Test
+    public void testExpandAllPredicate() {
+        JXTree tree = new JXTree(createLevelModel(3, 3));
+        tree.collapseAll();
+        final Object first = tree.getModel().getChild(tree.getModel().getRoot(), 0);
+        tree.expandAll(tree.getPathForRow(0), -1, new ExpansionPredicate() {
+            @Override
+            public boolean shouldExpand(TreePath path) {
+                return path.getLastPathComponent() != first;
+            }
+        });
+        assertEquals(1 + 3 + 6 + 18, tree.getRowCount());
+        assertFalse(tree.isExpanded(tree.getPathForRow(1)));
+    }
+
+    /**
+     * Bulk expand: expansion of unrelated paths during the walk is still
+     * notified.
+     */
+    @Test
+    public void testExpandAllNotifiesUnrelatedExpansion() {
+        final JXTree tree = new JXTree(createLevelModel(3, 3));
+        tree.collapseAll();
+        tree.expandRow(0);
+        final TreePath first = tree.getPathForRow(1);
+        final TreePath second = tree.getPathForRow(2);
+        final List<TreePath> expanded = new ArrayList<TreePath>();
+        tree.addTreeExpansionListener(new TreeExpansionListener() {
+            @Override
+            public void treeExpanded(TreeExpansionEvent event) {
+                expanded.add(event.getPath());
+            }
+            @Override
+            public void treeCollapsed(TreeExpansionEvent event) {
+            }
+        });
+        tree.expandAll(first, -1, new ExpansionPredicate() {
+            @Override
+            public boolean shouldExpand(TreePath path) {
+                if (path.equals(first)) {
+                    tree.expandPath(second);
+                }
+                return true;
+            }
+        });
+        assertEquals(2, expanded.size());
+        assertTrue(expanded.contains(second));
+        assertTrue(expanded.contains(first));
+    }
+
+    /**
+     * Bulk collapse: collapses the visible descendants, the layout is 
+     * in synch on re-expanding the path.
+     */
+    @Test
+    public void testCollapseAllPath() {
+        JXTree tree = new JXTree(createLevelModel(3, 3));
+        tree.expandAll();
+        TreePath path = tree.getPathForRow(1);
+        PropertyChangeReport report = new PropertyChangeReport(tree);
+        tree.collapseAll(path);
+        assertEquals(2, report.getEventCount("expansionAdjusting"));
+        assertEquals(1 + 3 + 6 + 18, tree.getRowCount());
+        tree.expandPath(path);
+        assertEquals(1 + 3 + 3 + 6 + 18, tree.getRowCount());
+        assertFalse(tree.isExpanded(tree.getPathForRow(2)));
+    }
+
+    /**
+     * Creates a model with the given number of levels below the root, each
+     * node with the given number of children.
+     */
+    private DefaultTreeModel createLevelModel(int levels, int childCount) {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        addChildren(root, levels, childCount);
+        return new DefaultTreeModel(root);
+    }
+
+    private void addChildren(DefaultMutableTreeNode parent, int levels, int childCount) {
+        if (levels == 0) return;
+        for (int i = 0; i < childCount; i++) {
+            DefaultMutableTreeNode child = new DefaultMutableTreeNode(parent.getUserObject() + "/" + i);
+            parent.add(child);
+            addChildren(child, levels - 1, childCount);
+        }
+    }
+
+
     /**
      * test enhanced getSelectedRows contract: returned 
      * array != null
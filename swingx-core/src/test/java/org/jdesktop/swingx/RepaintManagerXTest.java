@@ -0,0 +1,183 @@
+/*
+ * $Id$
+ *
+ * Copyright 2004 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.jdesktop.swingx;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.RepaintManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit test for <code>RepaintManagerX</code>: redirection of dirty regions to
+ * translucent ancestors, with and without ancestor caching.
+ */
+@RunWith(JUnit4.class)
+public class RepaintManagerXTest extends TestCase {
+
+    private RecordingRepaintManager delegate;
+    private RepaintManagerX manager;
+    private JXPanel outer;
+    private JXPanel inner;
+    private JLabel label;
+
+    @Before
+    public void setUpJ4() throws Exception {
+        setUp();
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        delegate = new RecordingRepaintManager();
+        manager = new RepaintManagerX(delegate);
+        outer = new JXPanel(null);
+        outer.setBounds(0, 0, 200, 200);
+        inner = new JXPanel(null);
+        inner.setBounds(10, 20, 100, 100);
+        label = new JLabel("label");
+        label.setBounds(5, 5, 50, 20);
+        outer.add(inner);
+        inner.add(label);
+        outer.setAlpha(0.5f);
+        inner.setAlpha(0.5f);
+    }
+
+    /**
+     * Without caching, dirty regions are redirected to the outermost
+     * translucent ancestor.
+     */
+    @Test
+    public void testRedirectToTranslucentRoot() throws Exception {
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        assertEquals(1, delegate.components.size());
+        assertSame(outer, delegate.components.get(0));
+        assertEquals(new Rectangle(16, 27, 3, 4), delegate.regions.get(0));
+    }
+
+    /**
+     * With caching, dirty regions are forwarded to the translucent root
+     * immediately, to be painted in the same cycle as other components.
+     */
+    @Test
+    public void testCachedRegionsForwardedImmediately() throws Exception {
+        manager.setAncestorCachingEnabled(true);
+        assertTrue(manager.isAncestorCachingEnabled());
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        manager.addDirtyRegion(label, 10, 10, 5, 5);
+        assertEquals(2, delegate.components.size());
+        assertSame(outer, delegate.components.get(0));
+        assertEquals(new Rectangle(16, 27, 3, 4), delegate.regions.get(0));
+        assertSame(outer, delegate.components.get(1));
+        assertEquals(new Rectangle(25, 35, 5, 5), delegate.regions.get(1));
+    }
+
+    /**
+     * Components without a translucent ancestor are cached as such, until
+     * an ancestor becomes translucent or the hierarchy changes.
+     */
+    @Test
+    public void testCachedWithoutTranslucentRoot() {
+        JLabel opaqueLabel = new JLabel("opaque");
+        JXPanel opaque = new JXPanel(null);
+        opaque.add(opaqueLabel);
+        int listeners = opaqueLabel.getHierarchyListeners().length;
+        manager.setAncestorCachingEnabled(true);
+        manager.addDirtyRegion(opaqueLabel, 1, 2, 3, 4);
+        assertSame(opaqueLabel, delegate.components.get(0));
+        assertEquals(listeners + 1, opaqueLabel.getHierarchyListeners().length);
+        opaque.setAlpha(0.5f);
+        manager.addDirtyRegion(opaqueLabel, 1, 2, 3, 4);
+        assertSame(opaque, delegate.components.get(1));
+        opaque.setAlpha(1f);
+        manager.addDirtyRegion(opaqueLabel, 1, 2, 3, 4);
+        assertSame(opaqueLabel, delegate.components.get(2));
+        opaque.remove(opaqueLabel);
+        label.add(opaqueLabel);
+        manager.addDirtyRegion(opaqueLabel, 1, 2, 3, 4);
+        assertSame(outer, delegate.components.get(3));
+    }
+
+    /**
+     * A change of the alpha to opaque must invalidate the cached root.
+     */
+    @Test
+    public void testCachedRootAlphaChanged() throws Exception {
+        manager.setAncestorCachingEnabled(true);
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        inner.setAlpha(1f);
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        assertEquals(2, delegate.components.size());
+        assertSame("opaque ancestor must end the lookup", label, delegate.components.get(1));
+        inner.setAlpha(0.3f);
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        assertSame(outer, delegate.components.get(2));
+    }
+
+    /**
+     * A change of the parent of an ancestor must invalidate the cached root
+     * and remove the listener.
+     */
+    @Test
+    public void testCachedRootHierarchyChanged() throws Exception {
+        manager.setAncestorCachingEnabled(true);
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        int listeners = label.getHierarchyListeners().length;
+        outer.remove(inner);
+        assertEquals(listeners - 1, label.getHierarchyListeners().length);
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        assertSame(inner, delegate.components.get(1));
+        assertEquals(new Rectangle(6, 7, 3, 4), delegate.regions.get(1));
+    }
+
+    /**
+     * Disabling caching must remove the listeners from the components.
+     */
+    @Test
+    public void testDisableCachingRemovesListeners() throws Exception {
+        int hierarchyListeners = label.getHierarchyListeners().length;
+        int alphaListeners = inner.getPropertyChangeListeners("alpha").length;
+        manager.setAncestorCachingEnabled(true);
+        manager.addDirtyRegion(label, 1, 2, 3, 4);
+        manager.setAncestorCachingEnabled(false);
+        assertEquals(hierarchyListeners, label.getHierarchyListeners().length);
+        assertEquals(alphaListeners, inner.getPropertyChangeListeners("alpha").length);
+    }
+
+    private static class RecordingRepaintManager extends RepaintManager {
+        private final List<JComponent> components = new ArrayList<JComponent>();
+        private final List<Rectangle> regions = new ArrayList<Rectangle>();
+
+        @Override
+        public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+            components.add(c);
+            regions.add(new Rectangle(x, y, w, h));
+        }
+    }
+}
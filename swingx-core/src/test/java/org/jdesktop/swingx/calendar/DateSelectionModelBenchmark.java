@@ -0,0 +1,73 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.calendar;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import org.jdesktop.swingx.calendar.DateSelectionModel.SelectionMode;
+
+/**
+ * Simple benchmark comparing DaySelectionModel and IntervalDateSelectionModel
+ * on a selection of ten years. Reports the time to select the range and the
+ * time to query isSelected/isUnselectableDate for all days of a year, as 
+ * done by painting a month view.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class DateSelectionModelBenchmark {
+
+    private static final int PASSES = 50;
+
+    public static void main(String[] args) {
+        System.out.println("model\tselect(us)\tquery year(us)");
+        for (int i = 0; i < 2; i++) {
+            // first round is warm up
+            run(new DaySelectionModel());
+            run(new IntervalDateSelectionModel());
+        }
+    }
+
+    private static void run(DateSelectionModel model) {
+        model.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
+        Calendar calendar = model.getCalendar();
+        calendar.setTime(new Date());
+        Date start = calendar.getTime();
+        calendar.add(Calendar.YEAR, 10);
+        Date end = calendar.getTime();
+
+        long select = 0;
+        for (int i = 0; i < PASSES; i++) {
+            model.clearSelection();
+            long time = System.nanoTime();
+            model.setSelectionInterval(start, end);
+            select += System.nanoTime() - time;
+        }
+
+        Date[] year = new Date[365];
+        calendar.setTime(start);
+        calendar.add(Calendar.YEAR, 5);
+        for (int i = 0; i < year.length; i++) {
+            year[i] = calendar.getTime();
+            calendar.add(Calendar.DATE, 1);
+        }
+        int selected = 0;
+        long time = System.nanoTime();
+        for (int i = 0; i < PASSES; i++) {
+            for (Date date : year) {
+                if (model.isSelected(date) && !model.isUnselectableDate(date)) {
+                    selected++;
+                }
+            }
+        }
+        long query = System.nanoTime() - time;
+        if (selected != PASSES * year.length) {
+            throw new IllegalStateException("unexpected selection");
+        }
+        System.out.println(model.getClass().getSimpleName() + "\t" + select / PASSES / 1000 
+                + "\t" + query / PASSES / 1000);
+    }
+}
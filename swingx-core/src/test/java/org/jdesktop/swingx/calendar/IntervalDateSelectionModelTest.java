@@ -0,0 +1,182 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.calendar;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+import org.jdesktop.swingx.calendar.DateSelectionModel.SelectionMode;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test IntervalDateSelectionModel. Inherits the tests of DaySelectionModel, 
+ * the semantics are the same.
+ */
+@RunWith(JUnit4.class)
+public class IntervalDateSelectionModelTest extends DaySelectionModelTest {
+
+    /**
+     * A range of ten years is selected completely.
+     */
+    @Test
+    public void testSelectDecade() {
+        model.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
+        calendar.setTime(today);
+        calendar.add(Calendar.YEAR, 10);
+        Date end = calendar.getTime();
+        model.setSelectionInterval(today, end);
+        int days = 0;
+        calendar.setTime(today);
+        while (!calendar.getTime().after(end)) {
+            assertTrue(model.isSelected(calendar.getTime()));
+            calendar.add(Calendar.DATE, 1);
+            days++;
+        }
+        assertFalse(model.isSelected(calendar.getTime()));
+        assertEquals(days, model.getSelection().size());
+        assertEquals(startOfDay(end), model.getLastSelectionDate());
+        assertEquals(1, ((IntervalDateSelectionModel) model).getSelectionIntervals().size());
+    }
+
+    /**
+     * Unselectable days split the selected interval.
+     */
+    @Test
+    public void testUnselectableSplitsInterval() {
+        model.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
+        SortedSet<Date> unselectables = new TreeSet<Date>();
+        unselectables.add(today);
+        model.setUnselectableDates(unselectables);
+        model.setSelectionInterval(yesterday, afterTomorrow);
+        assertEquals(3, model.getSelection().size());
+        assertFalse(model.isSelected(today));
+        List<DateSpan> intervals = ((IntervalDateSelectionModel) model).getSelectionIntervals();
+        assertEquals(2, intervals.size());
+        assertEquals(startOfDay(yesterday), intervals.get(0).getStartAsDate());
+        assertEquals(endOfDay(yesterday), intervals.get(0).getEndAsDate());
+        assertEquals(startOfDay(tomorrow), intervals.get(1).getStartAsDate());
+        assertEquals(endOfDay(afterTomorrow), intervals.get(1).getEndAsDate());
+    }
+
+    /**
+     * The selection is an unmodifiable snapshot.
+     */
+    @Test
+    public void testSelectionSnapshot() {
+        model.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
+        model.setSelectionInterval(yesterday, tomorrow);
+        SortedSet<Date> selection = model.getSelection();
+        model.removeSelectionInterval(today, today);
+        assertEquals(3, selection.size());
+        assertTrue(selection.contains(startOfDay(today)));
+        assertFalse(selection.contains(today));
+        try {
+            selection.add(afterTomorrow);
+            fail("selection must not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * The range views of the selection are the same as those of a TreeSet.
+     */
+    @Test
+    public void testSelectionRangeViews() {
+        model.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
+        model.setSelectionInterval(yesterday, yesterday);
+        model.addSelectionInterval(tomorrow, afterTomorrow);
+        SortedSet<Date> selection = model.getSelection();
+        SortedSet<Date> expected = new TreeSet<Date>(selection);
+        assertEquals(3, expected.size());
+        for (Date date : new Date[] {yesterday, startOfDay(today), today, startOfDay(tomorrow), 
+                afterTomorrow, endOfDay(afterTomorrow)}) {
+            assertEquals(expected.headSet(date), selection.headSet(date));
+            assertEquals(expected.tailSet(date), selection.tailSet(date));
+            assertEquals(expected.subSet(startOfDay(yesterday), date), 
+                    selection.subSet(startOfDay(yesterday), date));
+        }
+        assertEquals(startOfDay(tomorrow), selection.tailSet(today).first());
+        assertEquals(startOfDay(yesterday), selection.headSet(today).last());
+        assertTrue(selection.subSet(today, startOfDay(tomorrow)).isEmpty());
+    }
+
+    /**
+     * Random operations have the same effect as on DaySelectionModel, also
+     * in a time zone with daylight saving.
+     */
+    @Test
+    public void testSameAsDaySelectionModel() {
+        for (String id : new String[] {"UTC", "Europe/Berlin", "America/Sao_Paulo"}) {
+            TimeZone timeZone = TimeZone.getTimeZone(id);
+            DateSelectionModel days = new DaySelectionModel();
+            days.setTimeZone(timeZone);
+            days.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
+            model.setTimeZone(timeZone);
+            model.setSelectionMode(SelectionMode.MULTIPLE_INTERVAL_SELECTION);
+            Random random = new Random(id.hashCode());
+            long base = today.getTime();
+            long range = 400L * CalendarUtils.ONE_DAY;
+            for (int i = 0; i < 500; i++) {
+                Date start = new Date(base + (long) (random.nextDouble() * range));
+                Date end = new Date(start.getTime() + (long) (random.nextDouble() * range / 8));
+                switch (random.nextInt(4)) {
+                    case 0:
+                        days.addSelectionInterval(start, end);
+                        model.addSelectionInterval(start, end);
+                        break;
+                    case 1:
+                        days.removeSelectionInterval(start, end);
+                        model.removeSelectionInterval(start, end);
+                        break;
+                    case 2:
+                        SortedSet<Date> unselectables = new TreeSet<Date>();
+                        unselectables.add(start);
+                        unselectables.add(end);
+                        days.setUnselectableDates(unselectables);
+                        model.setUnselectableDates(unselectables);
+                        break;
+                    default:
+                        assertEquals(days.isSelected(start), model.isSelected(start));
+                        assertEquals(days.isUnselectableDate(end), model.isUnselectableDate(end));
+                        break;
+                }
+                assertEquals(days.getSelection(), model.getSelection());
+            }
+            assertEquals(new TreeSet<Date>(days.getSelection()), new TreeSet<Date>(model.getSelection()));
+            assertEquals(days.getUnselectableDates(), model.getUnselectableDates());
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        setUpCalendar();
+        model = new IntervalDateSelectionModel();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.decorator;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import javax.swing.table.DefaultTableModel;
+
+import org.jdesktop.swingx.InteractiveTestCase;
+import org.jdesktop.swingx.JXTable;
+import org.jdesktop.swingx.decorator.HighlightPredicate.AndHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.ColumnHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.NotHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.OrHighlightPredicate;
+import org.jdesktop.swingx.decorator.HighlightPredicate.Scope;
+import org.jdesktop.swingx.decorator.HighlightPredicate.ScopedHighlightPredicate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test HighlighterPipeline and its usage in JXTable.
+ */
+@RunWith(JUnit4.class)
+public class HighlighterPipelineTest extends InteractiveTestCase {
+
+    private static final int ROWS = 10;
+    private static final int COLUMNS = 4;
+
+    /**
+     * Row scoped predicates are evaluated once per row on painting.
+     */
+    @Test
+    public void testRowScopeOncePerRow() {
+        CountingPredicate row = new CountingPredicate(Scope.ROW);
+        CountingPredicate cell = new CountingPredicate(Scope.CELL);
+        JXTable table = createTable();
+        table.setHighlighters(new ColorHighlighter(row, Color.RED, null),
+                new ColorHighlighter(cell, Color.BLUE, null));
+        paint(table);
+        assertEquals(ROWS, row.count);
+        assertEquals(ROWS * COLUMNS, cell.count);
+    }
+
+    /**
+     * Column scoped predicates are evaluated once per column on painting.
+     */
+    @Test
+    public void testColumnScopeOncePerColumn() {
+        CountingPredicate column = new CountingPredicate(Scope.COLUMN);
+        JXTable table = createTable();
+        table.setHighlighters(new ColorHighlighter(column, Color.RED, null));
+        paint(table);
+        assertEquals(COLUMNS, column.count);
+    }
+
+    /**
+     * Predicates shared by several highlighters share the memoized result.
+     */
+    @Test
+    public void testSharedPredicate() {
+        CountingPredicate row = new CountingPredicate(Scope.ROW);
+        JXTable table = createTable();
+        table.setHighlighters(new ColorHighlighter(row, Color.RED, null),
+                new ColorHighlighter(row, null, Color.BLUE));
+        paint(table);
+        assertEquals(ROWS, row.count);
+    }
+
+    /**
+     * Scoped predicates are evaluated per cell outside of a pass.
+     */
+    @Test
+    public void testNoMemoOutsidePass() {
+        CountingPredicate row = new CountingPredicate(Scope.ROW);
+        JXTable table = createTable();
+        table.setHighlighters(new ColorHighlighter(row, Color.RED, null));
+        for (int column = 0; column < COLUMNS; column++) {
+            table.prepareRenderer(0, column);
+        }
+        assertEquals(COLUMNS, row.count);
+    }
+
+    /**
+     * Highlighters with a NEVER predicate are dropped, constant operands
+     * are folded.
+     */
+    @Test
+    public void testConstantFolding() {
+        CountingPredicate cell = new CountingPredicate(Scope.CELL);
+        CountingHighlighter never = new CountingHighlighter(HighlightPredicate.NEVER);
+        CountingHighlighter and = new CountingHighlighter(
+                new AndHighlightPredicate(cell, HighlightPredicate.NEVER));
+        CountingHighlighter or = new CountingHighlighter(
+                new OrHighlightPredicate(cell, new NotHighlightPredicate(HighlightPredicate.NEVER)));
+        JXTable table = createTable();
+        table.setHighlighters(never, and, or);
+        paint(table);
+        assertEquals(0, never.count);
+        assertEquals(0, and.count);
+        assertEquals(ROWS * COLUMNS, or.count);
+        assertEquals(0, cell.count);
+    }
+
+    /**
+     * The operands of an And are evaluated in their original order.
+     */
+    @Test
+    public void testAndOperandOrder() {
+        CountingPredicate cell = new CountingPredicate(Scope.CELL);
+        CountingHighlighter hl = new CountingHighlighter(
+                new AndHighlightPredicate(cell, new ColumnHighlightPredicate(1)));
+        JXTable table = createTable();
+        table.setHighlighters(hl);
+        paint(table);
+        assertEquals(ROWS * COLUMNS, cell.count);
+        assertEquals(ROWS, hl.count);
+        CountingPredicate second = new CountingPredicate(Scope.CELL);
+        table.setHighlighters(new CountingHighlighter(
+                new AndHighlightPredicate(new ColumnHighlightPredicate(1), second)));
+        paint(table);
+        assertEquals(ROWS, second.count);
+    }
+
+    /**
+     * A subclass of a scoped predicate which overrides isHighlighted 
+     * only is evaluated per cell.
+     */
+    @Test
+    public void testOverriddenScopeIgnored() {
+        final int[] count = new int[1];
+        ColumnHighlightPredicate column = new ColumnHighlightPredicate(1) {
+            @Override
+            public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+                count[0]++;
+                return super.isHighlighted(renderer, adapter);
+            }
+        };
+        JXTable table = createTable();
+        table.setHighlighters(new ColorHighlighter(column, Color.RED, null));
+        paint(table);
+        assertEquals(ROWS * COLUMNS, count[0]);
+    }
+
+    /**
+     * The pipeline is re-compiled on changes of the highlighters.
+     */
+    @Test
+    public void testRecompileOnChange() {
+        CountingHighlighter hl = new CountingHighlighter(HighlightPredicate.NEVER);
+        JXTable table = createTable();
+        table.setHighlighters(hl);
+        paint(table);
+        assertEquals(0, hl.count);
+        hl.setHighlightPredicate(HighlightPredicate.EVEN);
+        paint(table);
+        assertEquals(ROWS / 2 * COLUMNS, hl.count);
+    }
+
+    /**
+     * The pipeline has the same effect as the highlighter.
+     */
+    @Test
+    public void testSameEffect() {
+        CompoundHighlighter compound = new CompoundHighlighter(
+                new ColorHighlighter(HighlightPredicate.ODD, Color.RED, null),
+                new CompoundHighlighter(new ColumnHighlightPredicate(2),
+                        new ColorHighlighter(HighlightPredicate.EVEN, null, Color.BLUE)));
+        HighlighterPipeline pipeline = new HighlighterPipeline(compound);
+        ComponentAdapterTest.JXTableT table = new ComponentAdapterTest.JXTableT(
+                new DefaultTableModel(ROWS, COLUMNS));
+        ComponentAdapter adapter = table.getComponentAdapter(0, 0);
+        pipeline.beginPass();
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                adapter.row = row;
+                adapter.column = column;
+                Component expected = compound.highlight(
+                        table.prepareRenderer(row, column), adapter);
+                Color background = expected.getBackground();
+                Color foreground = expected.getForeground();
+                Component actual = pipeline.highlight(
+                        table.prepareRenderer(row, column), adapter);
+                assertEquals(background, actual.getBackground());
+                assertEquals(foreground, actual.getForeground());
+            }
+        }
+        pipeline.endPass();
+    }
+
+    /**
+     * Sanity: predefined scoped predicates.
+     */
+    @Test
+    public void testPredefinedScopes() {
+        assertEquals(Scope.ROW, ((ScopedHighlightPredicate) HighlightPredicate.EVEN).getScope());
+        assertEquals(Scope.ROW, ((ScopedHighlightPredicate) HighlightPredicate.ODD).getScope());
+        assertEquals(Scope.ROW, ((ScopedHighlightPredicate) HighlightPredicate.ROLLOVER_ROW).getScope());
+        assertEquals(Scope.COLUMN, ((ScopedHighlightPredicate) HighlightPredicate.ROLLOVER_COLUMN).getScope());
+        assertEquals(Scope.COLUMN, new ColumnHighlightPredicate(1).getScope());
+    }
+
+    private JXTable createTable() {
+        JXTable table = new JXTable(new DefaultTableModel(ROWS, COLUMNS));
+        table.setSize(table.getPreferredSize());
+        return table;
+    }
+
+    private void paint(JXTable table) {
+        BufferedImage image = new BufferedImage(table.getWidth(), table.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.createGraphics();
+        table.paint(g);
+        g.dispose();
+    }
+
+    private static class CountingPredicate implements ScopedHighlightPredicate {
+        private final Scope scope;
+        int count;
+
+        CountingPredicate(Scope scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        public boolean isHighlighted(Component renderer, ComponentAdapter adapter) {
+            count++;
+            return true;
+        }
+
+        @Override
+        public Scope getScope() {
+            return scope;
+        }
+    }
+
+    private static class CountingHighlighter extends AbstractHighlighter {
+        int count;
+
+        CountingHighlighter(HighlightPredicate predicate) {
+            super(predicate);
+        }
+
+        @Override
+        protected Component doHighlight(Component component, ComponentAdapter adapter) {
+            count++;
+            return component;
+        }
+    }
+}
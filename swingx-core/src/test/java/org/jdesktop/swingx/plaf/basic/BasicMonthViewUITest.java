@@ -32,6 +32,7 @@ import java.text.DateFormatSymbols;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.logging.Logger;
 
 import javax.swing.CellRendererPane;
@@ -474,6 +475,47 @@ public class BasicMonthViewUITest extends InteractiveTestCase {
         
      }
 
+    /**
+     * Test getDayInMonth(Date, int, int) - all days in the grid must be 
+     * the start of the day, even after a day without midnight.
+     * Here: daylight saving started at midnight of 26 September 2010 in Apia.
+     */
+    @Test
+    public void testDayInMonthStartOfDayAfterDaylightSavingGap() {
+        JXMonthView monthView = new JXMonthView(Locale.US);
+        monthView.setTimeZone(TimeZone.getTimeZone("Pacific/Apia"));
+        monthView.setShowingLeadingDays(true);
+        monthView.setShowingTrailingDays(true);
+        BasicMonthViewUI ui = (BasicMonthViewUI) monthView.getUI();
+        Calendar calendar = monthView.getCalendar();
+        calendar.set(2010, Calendar.OCTOBER, 1);
+        CalendarUtils.startOfMonth(calendar);
+        Date month = calendar.getTime();
+        for (int row = BasicMonthViewUI.FIRST_WEEK_ROW; row <= BasicMonthViewUI.LAST_WEEK_ROW; row++) {
+            for (int column = BasicMonthViewUI.FIRST_DAY_COLUMN; column <= BasicMonthViewUI.LAST_DAY_COLUMN; column++) {
+                calendar.setTime(ui.getDayInMonth(month, row, column));
+                assertTrue("day must be start of day at " + row + "/" + column, 
+                        CalendarUtils.isStartOfDay(calendar));
+            }
+        }
+    }
+
+    /**
+     * Test getDayGridPosition(Date) - the cached day grid must be updated 
+     * after changing the first day of the week.
+     */
+    @Test
+    public void testDateToGridPositionFirstDayOfWeekChanged() {
+        JXMonthView monthView = new JXMonthView(Locale.US);
+        BasicMonthViewUI ui = (BasicMonthViewUI) monthView.getUI();
+        Calendar calendar = monthView.getCalendar();
+        calendar.set(2008, Calendar.APRIL, 6);
+        monthView.setFirstDisplayedDay(calendar.getTime());
+        assertEquals(BasicMonthViewUI.FIRST_DAY_COLUMN, ui.getDayGridPosition(calendar.getTime()).x);
+        monthView.setFirstDayOfWeek(Calendar.MONDAY);
+        assertEquals(BasicMonthViewUI.LAST_DAY_COLUMN, ui.getDayGridPosition(calendar.getTime()).x);
+    }
+
     /**
     * Test getDayGridPosition(Date) - first complete row
     */
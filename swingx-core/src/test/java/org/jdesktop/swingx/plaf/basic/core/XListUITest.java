@@ -21,12 +21,17 @@
  */
 package org.jdesktop.swingx.plaf.basic.core;
 
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Point;
 import java.util.Arrays;
 import java.util.logging.Logger;
 
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.DefaultListModel;
 import javax.swing.JList;
 import javax.swing.LookAndFeel;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
 import org.jdesktop.swingx.InteractiveTestCase;
@@ -149,6 +154,147 @@ public class XListUITest extends InteractiveTestCase {
         assertNotSame("core has different action", list.getActionMap().get(key), core.getActionMap().get(key));
     }
     
+    /**
+     * Estimated cell heights: only a sample and the realized cells are measured.
+     */
+    @Test
+    public void testEstimatedCellHeightsMeasureRealizedOnly() {
+        JXList list = new JXList(createListModel(100000));
+        CountingRenderer renderer = new CountingRenderer();
+        list.setCellRenderer(renderer);
+        list.setEstimatedCellHeights(true);
+        renderer.count = 0;
+        list.getPreferredSize();
+        assertTrue("expected sample and last cell measured only, but was: " + renderer.count, 
+                renderer.count < 20);
+        renderer.count = 0;
+        list.getCellBounds(500, 500);
+        assertEquals(1, renderer.count);
+        list.getCellBounds(500, 500);
+        assertEquals(1, renderer.count);
+    }
+
+    /**
+     * Estimated cell heights: measured cells have the same bounds as 
+     * with completely measured heights, location mapping is the same.
+     */
+    @Test
+    public void testEstimatedCellHeightsSameBounds() {
+        DefaultListModel model = createListModel(200);
+        JXList estimated = new JXList(model);
+        estimated.setCellRenderer(new CountingRenderer());
+        estimated.setEstimatedCellHeights(true);
+        JXList measured = new JXList(model);
+        measured.setCellRenderer(new CountingRenderer());
+        for (int i = 0; i < model.getSize(); i++) {
+            assertEquals(measured.getCellBounds(i, i), estimated.getCellBounds(i, i));
+        }
+        assertEquals(measured.getPreferredSize(), estimated.getPreferredSize());
+        for (int y = -2; y < measured.getPreferredSize().height + 5; y += 3) {
+            Point p = new Point(5, y);
+            assertEquals("index at " + y, measured.locationToIndex(p), estimated.locationToIndex(p));
+        }
+    }
+
+    /**
+     * Estimated cell heights: model changes are applied incrementally, 
+     * measured heights are kept.
+     */
+    @Test
+    public void testEstimatedCellHeightsIncrementalUpdate() {
+        DefaultListModel model = createListModel(200);
+        JXList estimated = new JXList(model);
+        CountingRenderer renderer = new CountingRenderer();
+        estimated.setCellRenderer(renderer);
+        estimated.setEstimatedCellHeights(true);
+        JXList measured = new JXList(model);
+        measured.setCellRenderer(new CountingRenderer());
+        for (int i = 0; i < model.getSize(); i++) {
+            estimated.getCellBounds(i, i);
+        }
+        model.add(10, 1);
+        model.remove(50);
+        model.set(100, 2);
+        renderer.count = 0;
+        for (int i = 0; i < model.getSize(); i++) {
+            estimated.getCellBounds(i, i);
+        }
+        assertEquals("expected inserted and changed cell measured only", 2, renderer.count);
+        int last = model.getSize() - 1;
+        assertEquals(measured.getCellBounds(last, last), estimated.getCellBounds(last, last));
+    }
+
+    /**
+     * Estimated cell heights: measuring a cell while asked for its bounds
+     * repaints the list after the call, not from inside the getter.
+     */
+    @Test
+    public void testEstimatedCellHeightsRedrawDeferred() throws Exception {
+        final int[] repaints = new int[1];
+        JXList list = new JXList(createListModel(100000)) {
+            @Override
+            public void repaint(long tm, int x, int y, int width, int height) {
+                repaints[0]++;
+                super.repaint(tm, x, y, width, height);
+            }
+        };
+        list.setCellRenderer(new CountingRenderer());
+        list.setEstimatedCellHeights(true);
+        list.getPreferredSize();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        repaints[0] = 0;
+        list.getCellBounds(501, 501);
+        list.getCellBounds(502, 502);
+        assertEquals("getter must not repaint", 0, repaints[0]);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertEquals("measured cells must be redrawn once", 1, repaints[0]);
+    }
+
+    /**
+     * Estimated cell heights: not used for fixed cell height.
+     */
+    @Test
+    public void testEstimatedCellHeightsIgnoredForFixedHeight() {
+        JXList list = new JXList(createListModel(100));
+        list.setCellRenderer(new CountingRenderer());
+        list.setEstimatedCellHeights(true);
+        list.setFixedCellHeight(7);
+        assertEquals(7 * 99, list.getCellBounds(99, 99).y);
+    }
+
+    private DefaultListModel createListModel(int size) {
+        DefaultListModel model = new DefaultListModel();
+        for (int i = 0; i < size; i++) {
+            model.addElement(i);
+        }
+        return model;
+    }
+
+    /**
+     * Renderer with value dependent height which counts its usage.
+     */
+    private static class CountingRenderer extends DefaultListCellRenderer {
+        int count;
+
+        @Override
+        public Component getListCellRendererComponent(JList list, Object value,
+                int index, boolean isSelected, boolean cellHasFocus) {
+            count++;
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            int number = ((Integer) value).intValue();
+            setPreferredSize(new Dimension(20 + number % 7, 10 + (number % 3) * 5));
+            return this;
+        }
+    }
+
     /**
      * Test that ui-installed ActionMaps shared by different instances of JXList.
      */
@@ -13,13 +13,16 @@ import java.awt.Container;
 import java.awt.GraphicsEnvironment;
 import java.awt.Window;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.swing.AbstractListModel;
 import javax.swing.JComponent;
 import javax.swing.JLabel;
+import javax.swing.SortOrder;
 import javax.swing.SwingUtilities;
 import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
 import javax.swing.text.BadLocationException;
 
 import org.jdesktop.swingx.InteractiveTestCase;
@@ -32,6 +35,7 @@ import org.jdesktop.swingx.JXList;
 import org.jdesktop.swingx.JXSearchPanel;
 import org.jdesktop.swingx.JXTable;
 import org.jdesktop.swingx.JXTree;
+import org.jdesktop.swingx.decorator.Highlighter;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -749,6 +753,353 @@ public class FindTest extends InteractiveTestCase {
         }
     }
 
+    /**
+     * Indexed search must find the same cells as the cell by cell search,
+     * forward and backwards, for literal and regex patterns.
+     */
+    @Test
+    public void testTableIndexedSameAsScan() {
+        JXTable table = new JXTable(new TestTableModel());
+        TableSearchable scan = new TableSearchable(table);
+        TableSearchable indexed = new TableSearchable(table);
+        indexed.setIndexed(true);
+        PatternModel model = new PatternModel();
+        String[] texts = {"One", "ne1", "e", "ive9", "Three99", "Six"};
+        String[] rules = {PatternModel.MATCH_RULE_CONTAINS, PatternModel.MATCH_RULE_STARTSWITH,
+                PatternModel.MATCH_RULE_ENDSWITH, PatternModel.MATCH_RULE_EQUALS};
+        for (String rule : rules) {
+            model.setMatchRule(rule);
+            for (String text : texts) {
+                model.setRawText(text);
+                assertSameSearch(scan, indexed, model.getPattern(), false);
+                assertSameSearch(scan, indexed, model.getPattern(), true);
+            }
+        }
+        assertSameSearch(scan, indexed, Pattern.compile("T.o"), false);
+    }
+
+    private void assertSameSearch(TableSearchable scan, TableSearchable indexed, 
+            Pattern pattern, boolean backwards) {
+        int scanIndex = -1;
+        int index = -1;
+        do {
+            scanIndex = scan.search(pattern, scanIndex, backwards);
+            index = indexed.search(pattern, index, backwards);
+            assertEquals(pattern.pattern(), scanIndex, index);
+            assertEquals(pattern.pattern(), scan.lastSearchResult.foundColumn, 
+                    indexed.lastSearchResult.foundColumn);
+        } while (scanIndex >= 0);
+    }
+
+    /**
+     * Indexed search must be updated on model changes.
+     */
+    @Test
+    public void testTableIndexedUpdate() {
+        DefaultTableModel model = new DefaultTableModel(10, 2);
+        JXTable table = new JXTable(model);
+        TableSearchable searchable = new TableSearchable(table);
+        searchable.setIndexed(true);
+        assertEquals(-1, searchable.search("needle"));
+        model.setValueAt("haystack with needle", 5, 1);
+        assertEquals(5, searchable.search("needle"));
+        model.removeRow(0);
+        assertEquals(4, searchable.search("needle"));
+        table.setSortOrder(1, SortOrder.DESCENDING);
+        assertEquals(0, searchable.search("needle"));
+        model.setValueAt("hay", 4, 1);
+        assertEquals(-1, searchable.search("needle"));
+    }
+
+    /**
+     * Indexed search must re-order, insert and remove rows without converting
+     * the unchanged cells again.
+     */
+    @Test
+    public void testTableIndexedIncremental() {
+        DefaultTableModel model = new DefaultTableModel(10, 2);
+        for (int row = 0; row < model.getRowCount(); row++) {
+            model.setValueAt("cell" + row, row, 0);
+        }
+        JXTable table = new JXTable(model);
+        final int[] conversions = new int[1];
+        TableSearchable searchable = new TableSearchable(table) {
+            @Override
+            protected String getStringAt(int row, int column) {
+                conversions[0]++;
+                return super.getStringAt(row, column);
+            }
+        };
+        searchable.setIndexed(true);
+        assertEquals(5, searchable.search("cell5"));
+        assertEquals(20, conversions[0]);
+        table.setSortOrder(0, SortOrder.DESCENDING);
+        assertEquals(4, searchable.search("cell5"));
+        assertEquals("sorting must not convert", 20, conversions[0]);
+        model.addRow(new Object[] {"needle", null});
+        assertEquals(0, searchable.search("needle"));
+        assertEquals("inserting must convert the inserted row only", 22, conversions[0]);
+        model.removeRow(5);
+        assertEquals(-1, searchable.search("cell5"));
+        assertEquals(4, searchable.search("cell6"));
+        assertEquals("removing must not convert", 22, conversions[0]);
+    }
+
+    /**
+     * Indexed search in list and tree.
+     */
+    @Test
+    public void testListAndTreeIndexed() {
+        JXList list = new JXList(new TestListModel());
+        ListSearchable listSearchable = new ListSearchable(list);
+        listSearchable.setIndexed(true);
+        assertEquals(12, listSearchable.search("Three12"));
+        assertEquals(-1, listSearchable.search("Three13"));
+        assertEquals(97, listSearchable.search("Three", -1, true));
+        JXTree tree = new JXTree();
+        TreeSearchable treeSearchable = new TreeSearchable(tree);
+        treeSearchable.setIndexed(true);
+        int row = tree.getRowCount() - 1;
+        assertEquals(row, treeSearchable.search(tree.getStringAt(row)));
+        tree.expandRow(row);
+        assertEquals(row + 1, treeSearchable.search(tree.getStringAt(row + 1)));
+    }
+
+    /**
+     * Indexed backwards search in list and tree: a start row before the
+     * first row doesn't match, as in the unindexed search.
+     */
+    @Test
+    public void testListAndTreeIndexedBackwardsBeforeFirst() {
+        Pattern pattern = Pattern.compile("Three");
+        ListSearchable listSearchable = new ListSearchable(new JXList(new TestListModel()));
+        listSearchable.setIndexed(true);
+        listSearchable.findMatchAndUpdateState(pattern, -5, true);
+        assertEquals(-1, listSearchable.lastSearchResult.foundRow);
+        JXTree tree = new JXTree();
+        TreeSearchable treeSearchable = new TreeSearchable(tree);
+        treeSearchable.setIndexed(true);
+        treeSearchable.findMatchAndUpdateState(
+                Pattern.compile(tree.getStringAt(0)), -5, true);
+        assertEquals(-1, treeSearchable.lastSearchResult.foundRow);
+    }
+
+    /**
+     * FindAll finds the matching cells in the background and reports
+     * the match count.
+     */
+    @Test
+    public void testTableFindAll() throws Exception {
+        JXTable table = new JXTable(new TestTableModel());
+        final TableSearchable searchable = new TableSearchable(table);
+        searchable.findAll(Pattern.compile("T.o"));
+        final boolean[] finding = new boolean[1];
+        do {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    finding[0] = searchable.isFindingAll();
+                }
+            });
+        } while (finding[0]);
+        assertEquals(100, searchable.getMatchCount());
+        assertTrue(searchable.isMatch(50, 1));
+        assertFalse(searchable.isMatch(50, 2));
+        searchable.findAll(null);
+        assertEquals(0, searchable.getMatchCount());
+        assertFalse(searchable.isMatch(50, 1));
+    }
+
+    /**
+     * FindAll fetches the cell strings from the worker, not while called.
+     */
+    @Test
+    public void testTableFindAllFetchesInWorker() throws Exception {
+        JXTable table = new JXTable(new TestTableModel());
+        final int[] conversions = new int[1];
+        final TableSearchable searchable = new TableSearchable(table) {
+            @Override
+            protected String getStringAt(int row, int column) {
+                conversions[0]++;
+                return super.getStringAt(row, column);
+            }
+        };
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                searchable.findAll(Pattern.compile("T.o"));
+                assertEquals(0, conversions[0]);
+            }
+        });
+        waitForFindAll(searchable);
+        assertEquals(500, conversions[0]);
+        assertEquals(100, searchable.getMatchCount());
+    }
+
+    /**
+     * A change of the rows while an unindexed findAll fetches the strings 
+     * restarts the findAll: the matches don't mix row orders.
+     */
+    @Test
+    public void testTableFindAllRestartsOnSort() throws Exception {
+        final int rows = 40000;
+        DefaultTableModel model = new DefaultTableModel(rows, 1);
+        for (int row = 0; row < rows; row++) {
+            model.setValueAt(row, row, 0);
+        }
+        final JXTable table = new JXTable(model);
+        final boolean[] sorted = new boolean[1];
+        final TableSearchable searchable = new TableSearchable(table) {
+            @Override
+            protected String getStringAt(int row, int column) {
+                if (row == rows / 2 && !sorted[0]) {
+                    sorted[0] = true;
+                    // sort between the fetched chunks
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            table.setSortOrder(0, SortOrder.DESCENDING);
+                        }
+                    });
+                }
+                return super.getStringAt(row, column);
+            }
+        };
+        final Pattern pattern = Pattern.compile("7");
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                searchable.findAll(pattern);
+            }
+        });
+        waitForFindAll(searchable);
+        assertTrue(sorted[0]);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                int count = 0;
+                for (int row = 0; row < rows; row++) {
+                    boolean expected = pattern.matcher(table.getStringAt(row, 0)).find();
+                    assertEquals("row " + row, expected, searchable.isMatch(row, 0));
+                    if (expected) count++;
+                }
+                assertEquals(count, searchable.getMatchCount());
+            }
+        });
+    }
+
+    /**
+     * FindAll of a literal pattern is answered immediately if indexed, and
+     * refreshed on changes.
+     */
+    @Test
+    public void testTableFindAllIndexed() throws Exception {
+        DefaultTableModel model = new DefaultTableModel(10, 2);
+        JXTable table = new JXTable(model);
+        TableSearchable searchable = new TableSearchable(table);
+        searchable.setIndexed(true);
+        model.setValueAt("needle", 2, 0);
+        model.setValueAt("needle", 3, 1);
+        searchable.findAll(Pattern.compile(Pattern.quote("needle")));
+        assertFalse(searchable.isFindingAll());
+        assertEquals(2, searchable.getMatchCount());
+        assertTrue(searchable.isMatch(3, 1));
+        model.setValueAt("hay", 3, 1);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        assertEquals(1, searchable.getMatchCount());
+        assertFalse(searchable.isMatch(3, 1));
+    }
+
+    /**
+     * FindAll and the index must work for searchables not overriding getStringAt.
+     */
+    @Test
+    public void testFindAllDefaultStringAt() throws Exception {
+        ArraySearchable searchable = new ArraySearchable("one", "two", "three");
+        searchable.findAll(Pattern.compile("t.o"));
+        waitForFindAll(searchable);
+        assertEquals(1, searchable.getMatchCount());
+        assertTrue(searchable.isMatch(1, 0));
+        searchable.setIndexed(true);
+        searchable.findAll(Pattern.compile(Pattern.quote("e")));
+        assertFalse(searchable.isFindingAll());
+        assertEquals(2, searchable.getMatchCount());
+        assertTrue(searchable.isMatch(2, 0));
+    }
+    
+    private void waitForFindAll(final AbstractSearchable searchable) throws Exception {
+        final boolean[] finding = new boolean[1];
+        do {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    finding[0] = searchable.isFindingAll();
+                }
+            });
+        } while (finding[0]);
+    }
+    
+    /**
+     * Searchable over an array of strings, relying on the default getStringAt.
+     */
+    private static class ArraySearchable extends AbstractSearchable {
+        private final String[] strings;
+        private final JLabel target = new JLabel();
+        
+        ArraySearchable(String... strings) {
+            this.strings = strings;
+        }
+
+        @Override
+        protected void findMatchAndUpdateState(Pattern pattern, int startRow, boolean backwards) {
+            for (int row = startRow; row >= 0 && row < getSize(); row += backwards ? -1 : 1) {
+                SearchResult result = findExtendedMatch(pattern, row);
+                if (result != null) {
+                    updateState(result);
+                    return;
+                }
+            }
+            updateState(null);
+        }
+
+        @Override
+        protected SearchResult findExtendedMatch(Pattern pattern, int row) {
+            Matcher matcher = pattern.matcher(strings[row]);
+            return matcher.find() ? createSearchResult(matcher, row, 0) : null;
+        }
+
+        @Override
+        protected int getSize() {
+            return strings.length;
+        }
+
+        @Override
+        protected void moveMatchMarker() {
+        }
+
+        @Override
+        public JComponent getTarget() {
+            return target;
+        }
+
+        @Override
+        protected void removeHighlighter(Highlighter searchHighlighter) {
+        }
+
+        @Override
+        protected Highlighter[] getHighlighters() {
+            return new Highlighter[0];
+        }
+
+        @Override
+        protected void addHighlighter(Highlighter highlighter) {
+        }
+    }
+
     @Test
     public void testNullSearchable() {
         // This test will not work in a headless configuration.
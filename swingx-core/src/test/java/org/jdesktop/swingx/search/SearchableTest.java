@@ -22,6 +22,12 @@
 package org.jdesktop.swingx.search;
 
 import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import javax.swing.SwingUtilities;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
 
 import junit.framework.TestCase;
 
@@ -184,6 +190,126 @@ public class SearchableTest extends TestCase {
         assertSame("get target same as table", table, searchable.getTarget());
     }
 
+    /**
+     * Model search finds nodes in collapsed subtrees and expands their paths.
+     */
+    @Test
+    public void testTreeSearchModel() throws Exception {
+        JXTree tree = new JXTree(createCollapsedModel());
+        TreeSearchable searchable = (TreeSearchable) tree.getSearchable();
+        searchable.searchModel(Pattern.compile("leaf 2/"));
+        waitForModelSearch(searchable);
+        assertEquals(5, searchable.getModelMatches().size());
+        for (TreePath path : searchable.getModelMatches()) {
+            assertTrue("hit must be visible " + path, tree.isVisible(path));
+            assertTrue(path.getLastPathComponent().toString().startsWith("leaf 2/"));
+        }
+        assertEquals("first hit must be selected", searchable.getModelMatches().get(0), 
+                tree.getSelectionPath());
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) tree.getModel().getRoot();
+        assertFalse("node without hits must not be expanded", 
+                tree.isExpanded(new TreePath(new Object[] {root, root.getChildAt(0)})));
+    }
+
+    /**
+     * Model search is started if a search doesn't find a visible match.
+     */
+    @Test
+    public void testTreeSearchModelFallback() throws Exception {
+        JXTree tree = new JXTree(createCollapsedModel());
+        TreeSearchable searchable = (TreeSearchable) tree.getSearchable();
+        Pattern pattern = Pattern.compile("leaf 3/4");
+        assertEquals(-1, searchable.search(pattern));
+        assertFalse(searchable.isSearchingModel());
+        searchable.setModelSearchEnabled(true);
+        assertEquals(-1, searchable.search(pattern));
+        waitForModelSearch(searchable);
+        assertEquals(1, searchable.getModelMatches().size());
+        assertEquals("leaf 3/4", tree.getSelectionPath().getLastPathComponent().toString());
+        assertTrue("match must be visible now", searchable.search(pattern) >= 0);
+    }
+
+    /**
+     * Model search expands the first hit only, the others when navigated to.
+     */
+    @Test
+    public void testTreeSearchModelExpandsOnNavigation() throws Exception {
+        JXTree tree = new JXTree(createCollapsedModel());
+        TreeSearchable searchable = (TreeSearchable) tree.getSearchable();
+        searchable.setModelSearchEnabled(true);
+        Pattern pattern = Pattern.compile("leaf \\d/2");
+        assertEquals(-1, searchable.search(pattern));
+        waitForModelSearch(searchable);
+        assertEquals(5, searchable.getModelMatches().size());
+        assertEquals("leaf 0/2", tree.getSelectionPath().getLastPathComponent().toString());
+        assertFalse("hit not navigated to must not be expanded", 
+                tree.isVisible(searchable.getModelMatches().get(1)));
+        int row = searchable.search(pattern, tree.getRowForPath(tree.getSelectionPath()));
+        assertEquals(row, tree.getRowForPath(searchable.getModelMatches().get(1)));
+        assertEquals("leaf 1/2", tree.getSelectionPath().getLastPathComponent().toString());
+        assertFalse("hit not navigated to must not be expanded", 
+                tree.isVisible(searchable.getModelMatches().get(2)));
+    }
+
+    /**
+     * Model search is cancelled by replacing the tree's model.
+     */
+    @Test
+    public void testTreeSearchModelCancelOnSetModel() throws Exception {
+        final JXTree tree = new JXTree(createCollapsedModel());
+        final TreeSearchable searchable = (TreeSearchable) tree.getSearchable();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                searchable.searchModel(Pattern.compile("leaf"));
+                assertTrue(searchable.isSearchingModel());
+                tree.setModel(createCollapsedModel());
+                assertFalse(searchable.isSearchingModel());
+            }
+        });
+    }
+
+    /**
+     * Model search is cancelled by a null pattern.
+     */
+    @Test
+    public void testTreeSearchModelCancel() throws Exception {
+        JXTree tree = new JXTree(createCollapsedModel());
+        TreeSearchable searchable = (TreeSearchable) tree.getSearchable();
+        searchable.searchModel(Pattern.compile("leaf"));
+        searchable.searchModel(null);
+        assertFalse(searchable.isSearchingModel());
+        assertEquals(0, searchable.getModelMatches().size());
+    }
+
+    /**
+     * Creates a model with collapsed nodes "node i" containing leafs "leaf i/j".
+     */
+    private DefaultTreeModel createCollapsedModel() {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode("root");
+        for (int i = 0; i < 5; i++) {
+            DefaultMutableTreeNode node = new DefaultMutableTreeNode("node " + i);
+            root.add(node);
+            for (int j = 0; j < 5; j++) {
+                node.add(new DefaultMutableTreeNode("leaf " + i + "/" + j));
+            }
+        }
+        return new DefaultTreeModel(root);
+    }
+
+    private void waitForModelSearch(final TreeSearchable searchable) throws Exception {
+        final boolean[] searching = {true};
+        long end = System.currentTimeMillis() + 10000;
+        while (searching[0] && System.currentTimeMillis() < end) {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    searching[0] = searchable.isSearchingModel();
+                }
+            });
+        }
+        assertFalse("model search must be completed", searching[0]);
+    }
     
     @Override
     protected void setUp() throws Exception {
@@ -21,15 +21,25 @@
  */
 package org.jdesktop.swingx.sort;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.JTable;
 import javax.swing.RowFilter;
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.event.RowSorterEvent;
+import javax.swing.event.RowSorterListener;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableModel;
 
 import org.jdesktop.swingx.InteractiveTestCase;
 import org.jdesktop.swingx.JXList;
 import org.jdesktop.swingx.JXTable;
+import org.jdesktop.swingx.renderer.StringValue;
+import org.jdesktop.swingx.renderer.StringValues;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -457,6 +467,428 @@ public class DefaultSortControllerTest extends InteractiveTestCase {
         return model;
     }
     
+    /**
+     * Update which keeps the row's position must not fire a RowSorterEvent.
+     */
+    @Test
+    public void testUpdateInPlaceNoEvent() {
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        RowSorterReport report = new RowSorterReport();
+        sorter.addRowSorterListener(report);
+        model.setValueAt(5, 5, 0);
+        sorter.rowsUpdated(5, 5, 0);
+        assertEquals(0, report.count);
+        assertEquals(rows - 1 - 5, sorter.convertRowIndexToView(5));
+    }
+    
+    /**
+     * Update which changes the value but keeps the row's position must not 
+     * fire a RowSorterEvent.
+     */
+    @Test
+    public void testUpdateChangedValueInPlaceNoEvent() {
+        for (int i = 0; i < rows; i++) {
+            model.setValueAt(i * 10, i, 0);
+        }
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        RowSorterReport report = new RowSorterReport();
+        sorter.addRowSorterListener(report);
+        model.setValueAt(51, 5, 0);
+        sorter.rowsUpdated(5, 5, 0);
+        assertEquals(0, report.count);
+        assertEquals(rows - 1 - 5, sorter.convertRowIndexToView(5));
+    }
+    
+    /**
+     * Update in place after updates which were not sorted must re-sort.
+     */
+    @Test
+    public void testUpdateInPlaceAfterUnsortedUpdates() {
+        sorter.setSortOrder(0, SortOrder.ASCENDING);
+        sorter.setSortsOnUpdates(false);
+        model.setValueAt(rows + 10, 2, 0);
+        sorter.rowsUpdated(2, 2, 0);
+        assertEquals(2, sorter.convertRowIndexToView(2));
+        sorter.setSortsOnUpdates(true);
+        RowSorterReport report = new RowSorterReport();
+        sorter.addRowSorterListener(report);
+        sorter.rowsUpdated(5, 5, 0);
+        assertEquals(1, report.count);
+        assertEquals(rows - 1, sorter.convertRowIndexToView(2));
+    }
+    
+    /**
+     * Update of a column which is not sorted must not fire a RowSorterEvent.
+     */
+    @Test
+    public void testUpdateUnsortedColumnNoEvent() {
+        DefaultTableModel model = new DefaultTableModel(rows, 2);
+        for (int i = 0; i < rows; i++) {
+            model.setValueAt(String.valueOf(i), i, 0);
+        }
+        sorter = new TableSortController<TableModel>(model);
+        sorter.setSortOrder(0, SortOrder.ASCENDING);
+        RowSorterReport report = new RowSorterReport();
+        sorter.addRowSorterListener(report);
+        model.setValueAt("whatever", 3, 1);
+        sorter.rowsUpdated(3, 3, 1);
+        assertEquals(0, report.count);
+    }
+    
+    /**
+     * Update which moves the row must re-sort.
+     */
+    @Test
+    public void testUpdateMovedRow() {
+        sorter.setSortOrder(0, SortOrder.ASCENDING);
+        RowSorterReport report = new RowSorterReport();
+        sorter.addRowSorterListener(report);
+        model.setValueAt(rows + 10, 2, 0);
+        sorter.rowsUpdated(2, 2, 0);
+        assertEquals(1, report.count);
+        assertEquals(rows - 1, sorter.convertRowIndexToView(2));
+    }
+    
+    /**
+     * Update which changes the filter state must re-filter.
+     */
+    @Test
+    public void testUpdateFilteredRow() {
+        sorter.setRowFilter(RowFilter.regexFilter("^[0-4]$", 0));
+        assertEquals(5, sorter.getViewRowCount());
+        RowSorterReport report = new RowSorterReport();
+        sorter.addRowSorterListener(report);
+        model.setValueAt(3, 7, 0);
+        sorter.rowsUpdated(7, 7);
+        assertEquals(1, report.count);
+        assertEquals(6, sorter.getViewRowCount());
+        // still included, no change
+        model.setValueAt(4, 7, 0);
+        sorter.rowsUpdated(7, 7);
+        assertEquals(1, report.count);
+    }
+    
+    /**
+     * Background sort installs the sorted mapping when done, fires a
+     * RowSorterEvent and toggles the sorting property.
+     */
+    @Test
+    public void testBackgroundSort() throws Exception {
+        sorter.setBackgroundSorting(true);
+        RowSorterReport report = new RowSorterReport();
+        sorter.addRowSorterListener(report);
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        waitForSort();
+        assertFalse(sorter.isSorting());
+        // sort order changed and sorted
+        assertEquals(2, report.count);
+        for (int i = 0; i < rows; i++) {
+            assertEquals(rows - 1 - i, sorter.convertRowIndexToModel(i));
+            assertEquals(rows - 1 - i, sorter.convertRowIndexToView(i));
+        }
+    }
+    
+    /**
+     * Background sort keeps a valid mapping for inserted rows and 
+     * re-sorts them.
+     */
+    @Test
+    public void testBackgroundSortInsert() throws Exception {
+        sorter.setBackgroundSorting(true);
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        waitForSort();
+        model.addRow(new Object[] {rows});
+        sorter.rowsInserted(rows, rows);
+        assertEquals(rows + 1, sorter.getViewRowCount());
+        assertEquals(rows, sorter.convertRowIndexToView(rows));
+        waitForSort();
+        assertEquals(0, sorter.convertRowIndexToView(rows));
+    }
+    
+    /**
+     * Enabling background sorting keeps the current mapping, disabling it 
+     * re-sorts synchronously.
+     */
+    @Test
+    public void testBackgroundSortToggle() throws Exception {
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        sorter.setRowFilter(RowFilter.regexFilter("^[0-4]$", 0));
+        sorter.setBackgroundSorting(true);
+        assertEquals(5, sorter.getViewRowCount());
+        assertEquals(4, sorter.convertRowIndexToModel(0));
+        sorter.setSortOrder(0, SortOrder.ASCENDING);
+        waitForSort();
+        assertEquals(0, sorter.convertRowIndexToModel(0));
+        sorter.setBackgroundSorting(false);
+        assertEquals(5, sorter.getViewRowCount());
+        assertEquals(0, sorter.convertRowIndexToModel(0));
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        assertEquals(4, sorter.convertRowIndexToModel(0));
+    }
+    
+    /**
+     * Background filter evaluates the latest filter only.
+     */
+    @Test
+    public void testBackgroundFilter() throws Exception {
+        sorter.setBackgroundSorting(true);
+        sorter.setRowFilter(RowFilter.regexFilter("^[0-4]$", 0));
+        sorter.setRowFilter(RowFilter.regexFilter("^[0-2]$", 0));
+        assertTrue(sorter.isSorting());
+        waitForSort();
+        assertEquals(3, sorter.getViewRowCount());
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        waitForSort();
+        assertEquals(3, sorter.getViewRowCount());
+        assertEquals(2, sorter.convertRowIndexToModel(0));
+    }
+    
+    /**
+     * Narrowing filter re-tests only the rows passing the previous.
+     */
+    @Test
+    public void testBackgroundFilterNarrowing() throws Exception {
+        sorter = new TableSortController<TableModel>(model) {
+            @Override
+            protected boolean isNarrowingFilter(RowFilter<? super TableModel, ? super Integer> previous,
+                    RowFilter<? super TableModel, ? super Integer> next) {
+                return previous != null;
+            }
+        };
+        sorter.setBackgroundSorting(true);
+        CountingFilter first = new CountingFilter(5);
+        sorter.setRowFilter(first);
+        waitForSort();
+        assertEquals(rows, first.count.get());
+        CountingFilter second = new CountingFilter(3);
+        sorter.setRowFilter(second);
+        waitForSort();
+        assertEquals(5, second.count.get());
+        assertEquals(3, sorter.getViewRowCount());
+    }
+    
+    /**
+     * Background sort by string: the strings converted in the background are 
+     * cached when done.
+     */
+    @Test
+    public void testBackgroundSortCachesStrings() throws Exception {
+        CountingStringValueProvider provider = prepareStringSort();
+        sorter.setSortOrder(0, SortOrder.DESCENDING);
+        waitForSort();
+        assertEquals(rows, provider.count.get());
+        for (int row = 0; row < rows; row++) {
+            assertEquals(String.valueOf(row), sorter.getStringAt(row, 0));
+        }
+        assertEquals("converted strings must be cached", rows, provider.count.get());
+    }
+    
+    /**
+     * Background sort by string: the strings converted in the background are 
+     * dropped if the cache changed while sorting.
+     */
+    @Test
+    public void testBackgroundSortDropsStaleStrings() throws Exception {
+        final CountingStringValueProvider provider = prepareStringSort();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                sorter.setSortOrder(0, SortOrder.DESCENDING);
+                // the worker can't be done before this returns
+                sorter.setStringValueCached(0, false);
+                sorter.setStringValueCached(0, true);
+            }
+        });
+        waitForSort();
+        assertEquals(rows - 1, sorter.convertRowIndexToView(0));
+        int conversions = provider.count.get();
+        for (int row = 0; row < rows; row++) {
+            assertEquals(String.valueOf(row), sorter.getStringAt(row, 0));
+        }
+        assertEquals("stale strings must not be cached", conversions + rows, 
+                provider.count.get());
+    }
+    
+    /**
+     * Background sort by string: a cancelled sort stops converting the 
+     * key snapshot.
+     */
+    @Test
+    public void testBackgroundSortCancelStopsSnapshot() throws Exception {
+        rows = 100000;
+        prepareStringSort();
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        sorter.setStringValueProvider(new StringValueProvider() {
+            @Override
+            public StringValue getStringValue(int row, int column) {
+                return new StringValue() {
+                    @Override
+                    public String getString(Object value) {
+                        if (count.incrementAndGet() == 1) {
+                            started.countDown();
+                            try {
+                                // released by the interrupt of the cancel
+                                Thread.sleep(10000);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        return StringValues.TO_STRING.getString(value);
+                    }
+                };
+            }
+        });
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                sorter.setSortOrder(0, SortOrder.DESCENDING);
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                sorter.setSortKeys(null);
+            }
+        });
+        // wait until the cancelled worker stops converting
+        int last;
+        do {
+            last = count.get();
+            Thread.sleep(200);
+        } while (last != count.get());
+        assertTrue("cancelled sort must stop converting: " + last, last < rows / 2);
+    }
+    
+    /**
+     * Notifications with an invalid range throw an IndexOutOfBoundsException
+     * without changing the cached strings, with and without background sorting.
+     */
+    @Test
+    public void testInvalidRangeKeepsCachedStrings() throws Exception {
+        for (boolean background : new boolean[] {false, true}) {
+            CountingStringValueProvider provider = prepareStringSort();
+            sorter.setBackgroundSorting(background);
+            for (int row = 0; row < rows; row++) {
+                sorter.getStringAt(row, 0);
+            }
+            int conversions = provider.count.get();
+            assertInvalidRange(3, 2, -1, false);
+            assertInvalidRange(-1, 2, -1, false);
+            assertInvalidRange(3, 2, -1, true);
+            assertInvalidRange(3, 2, 0, true);
+            assertInvalidRange(rows - 1, rows, 0, true);
+            try {
+                sorter.rowsDeleted(rows, rows);
+                fail("invalid range must throw");
+            } catch (IndexOutOfBoundsException e) {
+                // expected
+            }
+            for (int row = 0; row < rows; row++) {
+                assertEquals(String.valueOf(row), sorter.getStringAt(row, 0));
+            }
+            assertEquals("cached strings must be kept", conversions, provider.count.get());
+        }
+    }
+    
+    private void assertInvalidRange(int firstRow, int endRow, int column, boolean update) {
+        try {
+            if (!update) {
+                sorter.rowsInserted(firstRow, endRow);
+            } else if (column < 0) {
+                sorter.rowsUpdated(firstRow, endRow);
+            } else {
+                sorter.rowsUpdated(firstRow, endRow, column);
+            }
+            fail("invalid range must throw: " + firstRow + ", " + endRow);
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+    
+    /**
+     * Installs a model sorted by string, with cached strings and background
+     * sorting.
+     */
+    private CountingStringValueProvider prepareStringSort() {
+        DefaultTableModel objects = new DefaultTableModel(rows, 1);
+        for (int i = 0; i < rows; i++) {
+            objects.setValueAt(i, i, 0);
+        }
+        model = objects;
+        sorter = new TableSortController<TableModel>(model);
+        CountingStringValueProvider provider = new CountingStringValueProvider();
+        sorter.setStringValueProvider(provider);
+        sorter.setStringValueCached(0, true);
+        sorter.setBackgroundSorting(true);
+        return provider;
+    }
+    
+    /**
+     * Thread-safe StringValueProvider which counts the conversions.
+     */
+    private static class CountingStringValueProvider implements StringValueProvider {
+        final AtomicInteger count = new AtomicInteger();
+        
+        @Override
+        public StringValue getStringValue(int row, int column) {
+            return new StringValue() {
+                @Override
+                public String getString(Object value) {
+                    count.incrementAndGet();
+                    return StringValues.TO_STRING.getString(value);
+                }
+            };
+        }
+    }
+    
+    /**
+     * Thread-safe filter including rows below a max, counting the tests.
+     */
+    private static class CountingFilter extends RowFilter<TableModel, Integer> {
+        final AtomicInteger count = new AtomicInteger();
+        private final int max;
+        
+        CountingFilter(int max) {
+            this.max = max;
+        }
+        
+        @Override
+        public boolean include(Entry<? extends TableModel, ? extends Integer> entry) {
+            count.incrementAndGet();
+            return entry.getIdentifier() < max;
+        }
+    }
+    
+    /**
+     * Waits until the background sort is installed.
+     */
+    private void waitForSort() throws Exception {
+        final boolean[] sorting = new boolean[1];
+        long timeout = System.currentTimeMillis() + 10000;
+        do {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    sorting[0] = sorter.isSorting();
+                }
+            });
+        } while (sorting[0] && System.currentTimeMillis() < timeout);
+    }
+    
+    /**
+     * Counts RowSorterEvents.
+     */
+    private static class RowSorterReport implements RowSorterListener {
+        int count;
+        
+        @Override
+        public void sorterChanged(RowSorterEvent e) {
+            count++;
+        }
+    }
+    
     @Override
     @Before
     public void setUp() throws Exception {
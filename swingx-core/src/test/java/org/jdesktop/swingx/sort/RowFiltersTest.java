@@ -76,6 +76,29 @@ public class RowFiltersTest extends InteractiveTestCase {
         RowFilters.regexFilter((Pattern) null);
     }
     
+    /**
+     * Literal regex filters which contain or extend the previous pattern
+     * are narrowing.
+     */
+    @Test
+    public void testNarrowing() {
+        assertTrue(RowFilters.isNarrowing(RowFilters.regexFilter("je", 0), 
+                RowFilters.regexFilter("jef", 0)));
+        assertTrue(RowFilters.isNarrowing(RowFilters.regexFilter("ef", 0), 
+                RowFilters.regexFilter("jeff", 0)));
+        assertTrue(RowFilters.isNarrowing(RowFilters.regexFilter("^je"), 
+                RowFilters.regexFilter("^jef")));
+        assertFalse(RowFilters.isNarrowing(RowFilters.regexFilter("^ef"), 
+                RowFilters.regexFilter("jef")));
+        assertFalse(RowFilters.isNarrowing(RowFilters.regexFilter("je"), 
+                RowFilters.regexFilter("je|x")));
+        assertFalse(RowFilters.isNarrowing(RowFilters.regexFilter("je", 0), 
+                RowFilters.regexFilter("jef", 1)));
+        assertFalse(RowFilters.isNarrowing(RowFilters.regexFilter("je"), 
+                RowFilters.regexFilter(Pattern.CASE_INSENSITIVE, "jef")));
+        assertFalse(RowFilters.isNarrowing(null, RowFilters.regexFilter("je")));
+    }
+    
     @Test
     public void testCaseFlagAndColumn() {
         RowFilter<TableModel, Integer> filter = RowFilters.regexFilter(Pattern.CASE_INSENSITIVE, "jeff", 0);
@@ -0,0 +1,102 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.sort;
+
+import javax.swing.SortOrder;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * Simple benchmark for sorting a TableSortController, comparing the 
+ * synchronous sort with the background sort for growing row counts. 
+ * For the background sort, both the time the EDT is blocked and the 
+ * time until the sorted mapping is installed are reported.
+ * <p>
+ *
+ * Not a unit test - run the main method (5M rows need about -Xmx2g).
+ */
+public class TableSortControllerBenchmark {
+
+    private static final int[] ROW_COUNTS = {100000, 1000000, 5000000};
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("rows\tsync(ms)\tbackground edt(ms)\tbackground total(ms)");
+        for (int rowCount : ROW_COUNTS) {
+            TableModel model = createModel(rowCount);
+            // warm up
+            timeSync(model);
+            long sync = timeSync(model);
+            long[] background = timeBackground(model);
+            System.out.println(rowCount + "\t" + sync + "\t" + background[0]
+                    + "\t" + background[1]);
+        }
+        System.exit(0);
+    }
+
+    private static long timeSync(final TableModel model) throws Exception {
+        final long[] time = new long[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                TableSortController<TableModel> controller = new TableSortController<TableModel>(model);
+                long start = System.nanoTime();
+                controller.setSortOrder(0, SortOrder.ASCENDING);
+                time[0] = (System.nanoTime() - start) / 1000000;
+            }
+        });
+        return time[0];
+    }
+
+    private static long[] timeBackground(final TableModel model) throws Exception {
+        final long[] time = new long[2];
+        final boolean[] sorting = new boolean[1];
+        final TableSortController<TableModel> controller = new TableSortController<TableModel>(model);
+        controller.setBackgroundSorting(true);
+        final long start = System.nanoTime();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                controller.setSortOrder(0, SortOrder.ASCENDING);
+                time[0] = (System.nanoTime() - start) / 1000000;
+            }
+        });
+        do {
+            Thread.sleep(1);
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    sorting[0] = controller.isSorting();
+                }
+            });
+        } while (sorting[0]);
+        time[1] = (System.nanoTime() - start) / 1000000;
+        return time;
+    }
+
+    private static TableModel createModel(final int rowCount) {
+        final String[] values = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            values[i] = "item " + ((i * 7919L) % rowCount);
+        }
+        return new AbstractTableModel() {
+
+            @Override
+            public int getRowCount() {
+                return rowCount;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return 1;
+            }
+
+            @Override
+            public Object getValueAt(int rowIndex, int columnIndex) {
+                return values[rowIndex];
+            }
+        };
+    }
+}
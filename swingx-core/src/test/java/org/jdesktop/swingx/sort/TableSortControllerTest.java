@@ -31,6 +31,8 @@ import javax.swing.SortOrder;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableModel;
 
+import org.jdesktop.swingx.renderer.StringValue;
+import org.jdesktop.swingx.renderer.StringValues;
 import org.jdesktop.test.AncientSwingTeam;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -172,6 +174,90 @@ public class TableSortControllerTest extends
                 controller.getViewRowCount() > 0);
     }
 
+    /**
+     * String value cache: each cell is converted only once for repeated filtering.
+     */
+    @Test
+    public void testStringValueCachedConvertsOnce() {
+        CountingStringValueProvider provider = new CountingStringValueProvider();
+        controller.setStringValueProvider(provider);
+        controller.setStringValueCached(0, true);
+        assertTrue(controller.isStringValueCached(0));
+        controller.setRowFilter(RowFilter.regexFilter("a", 0));
+        int conversions = provider.count;
+        assertEquals(controller.getModelRowCount(), conversions);
+        controller.setRowFilter(RowFilter.regexFilter("e", 0));
+        assertEquals("cached column must not be converted again", conversions, provider.count);
+    }
+    
+    /**
+     * String value cache: updated rows must be converted again.
+     */
+    @Test
+    public void testStringValueCachedRowsUpdated() {
+        DefaultTableModel model = new DefaultTableModel(new Object[][] {{"a"}, {"b"}, {"c"}}, new Object[] {"name"});
+        controller.setModel(model);
+        controller.setStringValueCached(0, true);
+        controller.setRowFilter(RowFilter.regexFilter("b", 0));
+        assertEquals(1, controller.getViewRowCount());
+        model.setValueAt("x", 1, 0);
+        controller.rowsUpdated(1, 1, 0);
+        assertEquals(0, controller.getViewRowCount());
+    }
+    
+    /**
+     * String value cache: inserted/deleted rows must shift the cached strings.
+     */
+    @Test
+    public void testStringValueCachedRowsInsertedDeleted() {
+        DefaultTableModel model = new DefaultTableModel(new Object[][] {{"a"}, {"b"}, {"c"}}, new Object[] {"name"});
+        controller.setModel(model);
+        controller.setStringValueCached(0, true);
+        controller.setRowFilter(RowFilter.regexFilter("c", 0));
+        assertEquals(2, controller.convertRowIndexToModel(0));
+        model.insertRow(0, new Object[] {"c2"});
+        controller.rowsInserted(0, 0);
+        assertEquals(2, controller.getViewRowCount());
+        assertEquals(3, controller.convertRowIndexToModel(1));
+        model.removeRow(1);
+        controller.rowsDeleted(1, 1);
+        controller.setRowFilter(RowFilter.regexFilter("b", 0));
+        assertEquals(1, controller.getViewRowCount());
+        assertEquals(1, controller.convertRowIndexToModel(0));
+    }
+    
+    /**
+     * String value cache: setting the provider drops the cached strings.
+     */
+    @Test
+    public void testStringValueCachedDroppedOnSetProvider() {
+        controller.setStringValueCached(2, true);
+        controller.setRowFilter(RowFilter.regexFilter("R/G/B: -2", 2));
+        assertEquals(0, controller.getViewRowCount());
+        registry.setStringValue(sv, Color.class);
+        controller.setStringValueProvider(registry);
+        controller.setRowFilter(RowFilter.regexFilter("R/G/B: -2", 2));
+        assertTrue(controller.getViewRowCount() > 0);
+    }
+    
+    /**
+     * StringValueProvider which counts the conversions.
+     */
+    private static class CountingStringValueProvider implements StringValueProvider {
+        int count;
+        
+        @Override
+        public StringValue getStringValue(int row, int column) {
+            return new StringValue() {
+                @Override
+                public String getString(Object value) {
+                    count++;
+                    return StringValues.TO_STRING.getString(value);
+                }
+            };
+        }
+    }
+
     @Override
     protected int getColumnCount() {
         return ((TableModel) controller.getModel()).getColumnCount();
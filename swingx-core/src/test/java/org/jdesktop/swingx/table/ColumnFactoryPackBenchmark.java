@@ -0,0 +1,74 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.table;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import org.jdesktop.swingx.JXTable;
+
+/**
+ * Simple benchmark for <code>JXTable.packAll</code>, comparing the full
+ * pack with sampled and concurrently sampled packs for growing row counts.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class ColumnFactoryPackBenchmark {
+
+    private static final int[] ROW_COUNTS = {1000, 10000, 100000, 500000};
+    private static final int COLUMN_COUNT = 10;
+    private static final int SAMPLE_SIZE = 200;
+
+    public static void main(String[] args) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                System.out.println("rows\tfull(ms)\tsampled(ms)\tconcurrent(ms)");
+                for (int rowCount : ROW_COUNTS) {
+                    long full = timePackAll(rowCount, -1, false);
+                    long sampled = timePackAll(rowCount, SAMPLE_SIZE, false);
+                    long concurrent = timePackAll(rowCount, SAMPLE_SIZE, true);
+                    System.out.println(rowCount + "\t" + full + "\t" + sampled
+                            + "\t" + concurrent);
+                }
+            }
+        });
+    }
+
+    private static long timePackAll(int rowCount, int sampleSize, boolean concurrently) {
+        JXTable table = new JXTable(createModel(rowCount));
+        ColumnFactory factory = new ColumnFactory();
+        factory.setPackSampleSize(sampleSize);
+        factory.setPackConcurrently(concurrently);
+        table.setColumnFactory(factory);
+        // warm up
+        table.packAll();
+        long start = System.nanoTime();
+        table.packAll();
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static AbstractTableModel createModel(final int rowCount) {
+        return new AbstractTableModel() {
+
+            @Override
+            public int getRowCount() {
+                return rowCount;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return COLUMN_COUNT;
+            }
+
+            @Override
+            public Object getValueAt(int rowIndex, int columnIndex) {
+                return "cell " + rowIndex + "/" + columnIndex
+                        + ((rowIndex * 31 + columnIndex) % 97 == 0 ? " with a longer text" : "");
+            }
+        };
+    }
+}
@@ -5,6 +5,7 @@
 package org.jdesktop.swingx.table;
 
 import java.awt.Component;
+import java.util.Arrays;
 
 import javax.swing.BorderFactory;
 import javax.swing.JTable;
@@ -308,4 +309,122 @@ public class ColumnFactoryTest extends InteractiveTestCase {
         
     }
 
+    /**
+     * Sampled pack: measures at most the sample size of rows with the renderer.
+     */
+    @Test
+    public void testPackSampleSizeBoundsRendererCalls() {
+        final int[] prepared = new int[1];
+        JXTable table = new JXTable(1000, 1) {
+
+            @Override
+            public Component prepareRenderer(TableCellRenderer renderer,
+                    int row, int column) {
+                prepared[0]++;
+                return super.prepareRenderer(renderer, row, column);
+            }
+            
+        };
+        ColumnFactory factory = new ColumnFactory();
+        factory.setPackSampleSize(20);
+        table.setColumnFactory(factory);
+        table.packColumn(0, 0);
+        assertTrue("sampled pack must not measure more than sample size, was: " + prepared[0],
+                prepared[0] <= factory.getPackSampleSize());
+        assertTrue("sampled pack must measure some rows", prepared[0] > 0);
+    }
+    
+    /**
+     * Sampled pack: the row with the widest string must be included.
+     */
+    @Test
+    public void testPackSampleIncludesWidestString() {
+        JXTable table = new JXTable(1000, 1);
+        for (int row = 0; row < table.getRowCount(); row++) {
+            table.setValueAt("x", row, 0);
+        }
+        int widest = 517;
+        table.setValueAt("just a long string something utterly meaningless", widest, 0);
+        ColumnFactory factory = new ColumnFactory();
+        factory.setPackSampleSize(8);
+        table.setColumnFactory(factory);
+        table.packColumn(0, 0);
+        assertEquals(table.prepareRenderer(table.getCellRenderer(widest, 0), widest, 0)
+                .getPreferredSize().width, table.getColumn(0).getPreferredWidth());
+    }
+    
+    /**
+     * Sampled pack: concurrent scan must find the same rows as the sequential.
+     */
+    @Test
+    public void testPackConcurrentlySameAsSequential() {
+        JXTable table = new JXTable(50000, 1);
+        for (int row = 0; row < table.getRowCount(); row++) {
+            table.setValueAt(String.valueOf(row), row, 0);
+        }
+        table.setValueAt("just a long string something utterly meaningless", 31234, 0);
+        ColumnFactory factory = new ColumnFactory();
+        factory.setPackSampleSize(40);
+        int[] sequential = factory.getPackSampleRows(table, 0);
+        factory.setPackConcurrently(true);
+        int[] concurrent = factory.getPackSampleRows(table, 0);
+        assertTrue(Arrays.equals(sequential, concurrent));
+        assertTrue(Arrays.binarySearch(concurrent, 31234) >= 0);
+    }
+    
+    /**
+     * Sampled pack: a sample size below four measures at most the sample 
+     * size of rows, the widest first.
+     */
+    @Test
+    public void testPackSampleSizeBelowFour() {
+        JXTable table = new JXTable(1000, 1);
+        for (int row = 0; row < table.getRowCount(); row++) {
+            table.setValueAt("x", row, 0);
+        }
+        table.setValueAt("just a long string something utterly meaningless", 517, 0);
+        ColumnFactory factory = new ColumnFactory();
+        factory.setPackSampleSize(1);
+        assertTrue(Arrays.equals(new int[] {517}, factory.getPackSampleRows(table, 0)));
+        factory.setPackSampleSize(3);
+        assertEquals(3, factory.getPackSampleRows(table, 0).length);
+    }
+    
+    /**
+     * Sampled pack: a failing concurrent scan falls back to the sequential.
+     */
+    @Test
+    public void testPackConcurrentlyFallback() {
+        final Thread owner = Thread.currentThread();
+        JXTable table = new JXTable(50000, 1) {
+            @Override
+            public String getStringAt(int row, int column) {
+                if (Thread.currentThread() != owner) {
+                    throw new IllegalStateException("single-threaded model");
+                }
+                return super.getStringAt(row, column);
+            }
+        };
+        for (int row = 0; row < table.getRowCount(); row++) {
+            table.setValueAt(String.valueOf(row), row, 0);
+        }
+        ColumnFactory factory = new ColumnFactory();
+        factory.setPackSampleSize(40);
+        int[] sequential = factory.getPackSampleRows(table, 0);
+        factory.setPackConcurrently(true);
+        assertTrue(Arrays.equals(sequential, factory.getPackSampleRows(table, 0)));
+    }
+    
+    /**
+     * Sampled pack: sample size &lt;= 0 is normalized to measure all.
+     */
+    @Test
+    public void testPackSampleSizeDefault() {
+        ColumnFactory factory = new ColumnFactory();
+        assertEquals(-1, factory.getPackSampleSize());
+        factory.setPackSampleSize(0);
+        assertEquals(-1, factory.getPackSampleSize());
+        assertFalse(factory.isSampledPack(new JXTable(10, 1)));
+    }
+    
 }
@@ -0,0 +1,90 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.table;
+
+import java.awt.Point;
+
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+
+import org.jdesktop.swingx.JXTable;
+
+/**
+ * Simple benchmark for TableRowHeightController on a large table in a
+ * viewport. Reports the time the EDT is blocked by installing the controller
+ * (adjusts the visible rows only), the time until all rows are adjusted
+ * lazily and the longest single EDT block in between.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class TableRowHeightBenchmark {
+
+    private static final int[] ROW_COUNTS = {10000, 100000};
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("rows\tinstall(ms)\tall rows(ms)\tmax EDT block(ms)");
+        for (int rowCount : ROW_COUNTS) {
+            // warm up
+            run(rowCount);
+            long[] result = run(rowCount);
+            System.out.println(rowCount + "\t" + result[0] + "\t" + result[1] + "\t" + result[2]);
+        }
+        System.exit(0);
+    }
+
+    private static long[] run(final int rowCount) throws Exception {
+        final long[] result = new long[3];
+        final TableRowHeightController controller = new TableRowHeightController();
+        final JXTable[] table = new JXTable[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                table[0] = createTable(rowCount);
+            }
+        });
+        final long start = System.nanoTime();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                controller.install(table[0]);
+                result[0] = (System.nanoTime() - start) / 1000000;
+            }
+        });
+        final boolean[] pending = {true};
+        long last = System.nanoTime();
+        while (pending[0]) {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    pending[0] = controller.hasPendingRows();
+                }
+            });
+            long now = System.nanoTime();
+            result[2] = Math.max(result[2], (now - last) / 1000000);
+            last = now;
+        }
+        result[1] = (System.nanoTime() - start) / 1000000;
+        controller.release();
+        return result;
+    }
+
+    private static JXTable createTable(int rowCount) {
+        DefaultTableModel model = new DefaultTableModel(rowCount, 4);
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < 4; column++) {
+                model.setValueAt("value " + row + "/" + column, row, column);
+            }
+        }
+        JXTable table = new JXTable(model);
+        JViewport viewport = new JViewport();
+        viewport.setView(table);
+        viewport.setSize(400, 600);
+        table.setSize(table.getPreferredSize());
+        viewport.setViewPosition(new Point(0, table.getRowHeight() * rowCount / 2));
+        return table;
+    }
+}
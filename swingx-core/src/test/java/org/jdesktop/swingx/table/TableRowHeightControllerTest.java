@@ -23,6 +23,7 @@ package org.jdesktop.swingx.table;
 
 import java.awt.Component;
 import java.awt.Font;
+import java.awt.Point;
 import java.awt.event.ActionEvent;
 import java.lang.reflect.InvocationTargetException;
 import java.util.logging.Logger;
@@ -30,6 +31,7 @@ import java.util.logging.Logger;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.JTable;
+import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
 import javax.swing.event.TableModelListener;
 import javax.swing.table.AbstractTableModel;
@@ -190,8 +192,20 @@ public class TableRowHeightControllerTest extends InteractiveTestCase {
      * @return a DefaultTableModel with alternating SMALL/BIG values in first column.
      */
     private DefaultTableModel createTableModel(boolean evenBig) {
+        return createTableModel(evenBig, 10);
+    }
+    
+    /**
+     * Creates and returns a table model with the given number of rows and
+     * value in first column alternating between SMALL and BIG.
+     * 
+     * @param evenBig starts with BIG if true, starts with SMALL otherwise
+     * @param rowCount the number of rows
+     * @return a DefaultTableModel with alternating SMALL/BIG values in first column.
+     */
+    private DefaultTableModel createTableModel(boolean evenBig, int rowCount) {
         int compare = evenBig ? 0 : 1;
-        DefaultTableModel model = new DefaultTableModel(10, 2) {
+        DefaultTableModel model = new DefaultTableModel(rowCount, 2) {
 
             @Override
             public Class<?> getColumnClass(int columnIndex) {
@@ -274,6 +288,46 @@ public class TableRowHeightControllerTest extends InteractiveTestCase {
         });
      }
     
+    /**
+     * Many rows: the visible rows are adjusted immediately, the others lazily.
+     */
+    @Test
+    public void testRowHeightAdjustedLazily() throws Exception {
+        controller.release();
+        final int smallRowHeight = table.getRowHeight(0);
+        final int bigRowHeight = table.getRowHeight(1);
+        final int rowCount = 2000;
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                table.setModel(createTableModel(false, rowCount));
+                JViewport viewport = new JViewport();
+                viewport.setView(table);
+                viewport.setSize(300, 400);
+                table.setSize(table.getPreferredSize());
+                viewport.setViewPosition(new Point(0, table.getRowHeight() * 1000));
+                int firstVisible = table.rowAtPoint(table.getVisibleRect().getLocation());
+                assertTrue("sanity: scrolled", firstVisible > 0);
+                controller.install(table);
+                assertTrue(controller.hasPendingRows());
+                assertEquals(firstVisible % 2 == 1 ? bigRowHeight : smallRowHeight,
+                        table.getRowHeight(firstVisible));
+            }
+        });
+        final boolean[] pending = {true};
+        for (int i = 0; i < 200 && pending[0]; i++) {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    pending[0] = controller.hasPendingRows();
+                }
+            });
+        }
+        assertFalse(pending[0]);
+        assertEquals(smallRowHeight, table.getRowHeight(rowCount - 2));
+        assertEquals(bigRowHeight, table.getRowHeight(rowCount - 1));
+    }
+    
     @Test
     public void testRowHeightAdjustedWithPrepare() {
         int rowHeight = table.getRowHeight(0);
@@ -100,6 +100,29 @@ public class TableUtilitiesTest extends InteractiveTestCase {
         assertEquals(table.getRowHeight(), TableUtilities.getPreferredRowHeight(table, -1));
     }
     
+    @Test
+    public void testSetRowHeights() {
+        JTable table = new JTable(10, 3);
+        TableUtilities.setRowHeights(table, new int[] {2, 5}, new int[] {30, 40});
+        assertEquals(30, table.getRowHeight(2));
+        assertEquals(40, table.getRowHeight(5));
+        assertEquals(table.getRowHeight(), table.getRowHeight(3));
+    }
+    
+    @Test
+    public void testSetRowHeightsXTable() {
+        JXTable table = new JXTable(10, 3);
+        TableUtilities.setRowHeights(table, new int[] {2, 5}, new int[] {30, 40});
+        assertEquals(30, table.getRowHeight(2));
+        assertEquals(40, table.getRowHeight(5));
+        assertEquals(table.getRowHeight(), table.getRowHeight(3));
+    }
+    
+    @Test (expected = IllegalArgumentException.class)
+    public void testSetRowHeightsDifferentLength() {
+        TableUtilities.setRowHeights(new JTable(10, 3), new int[] {2, 5}, new int[] {30});
+    }
+    
     @Test (expected = NullPointerException.class)
     public void testPrefRowHeightMustBarkOnNull() {
         TableUtilities.getPreferredRowHeight(null, -1);
@@ -24,6 +24,7 @@ import org.jdesktop.swingx.tree.TreeUtilities.BreadthFirstNodeEnumeration;
 import org.jdesktop.swingx.tree.TreeUtilities.PostorderModelEnumeration;
 import org.jdesktop.swingx.tree.TreeUtilities.PostorderNodeEnumeration;
 import org.jdesktop.swingx.tree.TreeUtilities.PreorderModelEnumeration;
+import org.jdesktop.swingx.tree.TreeUtilities.PreorderModelPathEnumeration;
 import org.jdesktop.swingx.tree.TreeUtilities.PreorderNodeEnumeration;
 import org.junit.Before;
 import org.junit.Test;
@@ -94,6 +95,33 @@ public class TreeUtilitiesTest extends InteractiveTestCase {
         assertSameEnumeration("PreorderModel", coreEnum, xEnum);
     }
     
+    @Test
+    public void testPreorderModelPath() {
+        Enumeration<?> coreEnum = root.preorderEnumeration();
+        PreorderModelPathEnumeration xEnum = new PreorderModelPathEnumeration(model);
+        assertNull(xEnum.getPath());
+        while (coreEnum.hasMoreElements()) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) coreEnum.nextElement();
+            assertSame(node, xEnum.nextElement());
+            assertEquals(new TreePath(node.getPath()), xEnum.getPath());
+        }
+        assertFalse(xEnum.hasMoreElements());
+    }
+    
+    @Test
+    public void testPreorderModelPathSubtree() {
+        DefaultMutableTreeNode child = (DefaultMutableTreeNode) root.getChildAt(0);
+        Enumeration<?> coreEnum = child.preorderEnumeration();
+        PreorderModelPathEnumeration xEnum = new PreorderModelPathEnumeration(model, 
+                new TreePath(child.getPath()));
+        while (coreEnum.hasMoreElements()) {
+            DefaultMutableTreeNode node = (DefaultMutableTreeNode) coreEnum.nextElement();
+            assertSame(node, xEnum.nextElement());
+            assertEquals(new TreePath(node.getPath()), xEnum.getPath());
+        }
+        assertFalse(xEnum.hasMoreElements());
+    }
+    
     @Test
     public void testPreorderModelWithRoot() {
         Enumeration<?> coreEnum = root.preorderEnumeration();
@@ -22,15 +22,22 @@
 package org.jdesktop.swingx.treetable;
 
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.logging.Logger;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.JTree;
+import javax.swing.SwingUtilities;
 import javax.swing.tree.TreeModel;
 
 import org.jdesktop.swingx.InteractiveTestCase;
 import org.jdesktop.swingx.JXFrame;
+import org.jdesktop.swingx.plaf.UIManagerExt;
+import org.jdesktop.test.TreeModelReport;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -97,6 +104,181 @@ public class TreeTableModelTest extends InteractiveTestCase {
         assertColumnClassAssignableFromValue(model);
     }
 
+    /**
+     * FileSystemModel: children are sorted, getChild and getIndexOfChild
+     * are consistent.
+     */
+    @Test
+    public void testFileSystemModelSortedChildren() throws Exception {
+        File root = createDirectory();
+        try {
+            FileSystemModel model = new FileSystemModel(root);
+            assertEquals(3, model.getChildCount(root));
+            assertEquals(new File(root, "a"), model.getChild(root, 0));
+            assertEquals(new File(root, "b"), model.getChild(root, 1));
+            assertEquals(new File(root, "c"), model.getChild(root, 2));
+            for (int i = 0; i < model.getChildCount(root); i++) {
+                assertEquals(i, model.getIndexOfChild(root, model.getChild(root, i)));
+            }
+            assertEquals(-1, model.getIndexOfChild(root, new File(root, "d")));
+            File directory = model.getChild(root, 1);
+            assertFalse(model.isLeaf(directory));
+            assertEquals(0L, model.getValueAt(directory, 1));
+            assertEquals(Boolean.TRUE, model.getValueAt(directory, 2));
+            File file = model.getChild(root, 0);
+            assertTrue(model.isLeaf(file));
+            assertEquals("a", model.getValueAt(file, 0));
+            assertEquals(file.length(), model.getValueAt(file, 1));
+            assertEquals(new File(directory, "child"), model.getChild(directory, 0));
+        } finally {
+            delete(root);
+        }
+    }
+
+    /**
+     * FileSystemModel: evicted listings are re-read.
+     */
+    @Test
+    public void testFileSystemModelCacheSize() throws Exception {
+        File root = createDirectory();
+        try {
+            FileSystemModel model = new FileSystemModel(root);
+            model.setCacheSize(1);
+            assertEquals(1, model.getCacheSize());
+            File directory = model.getChild(root, 1);
+            assertEquals(1, model.getChildCount(directory));
+            assertEquals(3, model.getChildCount(root));
+            assertEquals(1, model.getChildCount(directory));
+            assertEquals(1, model.getIndexOfChild(root, directory));
+        } finally {
+            delete(root);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFileSystemModelCacheSizeIllegal() {
+        new FileSystemModel().setCacheSize(0);
+    }
+
+    /**
+     * FileSystemModel: loading in background shows a placeholder which is
+     * replaced by the children.
+     */
+    @Test
+    public void testFileSystemModelLoadingInBackground() throws Exception {
+        final File root = createDirectory();
+        try {
+            final FileSystemModel model = new FileSystemModel(root);
+            model.setLoadingInBackground(true);
+            final TreeModelReport report = new TreeModelReport(model);
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    assertEquals(1, model.getChildCount(root));
+                    Object placeholder = model.getChild(root, 0);
+                    assertTrue(model.isLeaf(placeholder));
+                    assertNotNull(model.getValueAt(placeholder, 0));
+                    assertEquals(UIManagerExt.getString("FileSystemModel.loading"), 
+                            model.getValueAt(placeholder, 0));
+                    assertFalse(root.equals(placeholder));
+                    assertFalse(placeholder.equals(root));
+                    assertEquals(0, model.getIndexOfChild(root, placeholder));
+                }
+            });
+            waitForEvents(report, 2);
+            assertEquals(1, report.getDeleteEventCount());
+            assertEquals(1, report.getInsertEventCount());
+            assertEquals(3, report.getLastInsertEvent().getChildIndices().length);
+            assertEquals(3, model.getChildCount(root));
+            assertEquals(new File(root, "a"), model.getChild(root, 0));
+        } finally {
+            delete(root);
+        }
+    }
+
+    /**
+     * FileSystemModel: changes of watched directories are reported as 
+     * children added/removed.
+     */
+    @Test
+    public void testFileSystemModelWatching() throws Exception {
+        final File root = createDirectory();
+        final FileSystemModel model = new FileSystemModel(root);
+        try {
+            final TreeModelReport report = new TreeModelReport(model);
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    assertEquals(3, model.getChildCount(root));
+                    model.setWatching(true);
+                }
+            });
+            assertTrue(new File(root, "aa").createNewFile());
+            waitForEvents(report, 1);
+            assertEquals(1, report.getInsertEventCount());
+            assertEquals(1, report.getLastInsertEvent().getChildIndices()[0]);
+            assertEquals(new File(root, "aa"), model.getChild(root, 1));
+            report.clear();
+            assertTrue(new File(root, "c").delete());
+            waitForEvents(report, 1);
+            assertEquals(1, report.getDeleteEventCount());
+            assertEquals(3, report.getLastDeleteEvent().getChildIndices()[0]);
+            assertEquals(3, model.getChildCount(root));
+        } finally {
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    model.setWatching(false);
+                }
+            });
+            delete(root);
+        }
+    }
+
+    /**
+     * Waits on the EDT until the report has the expected number of events,
+     * fails after a generous timeout.
+     */
+    private void waitForEvents(final TreeModelReport report, int count) throws Exception {
+        final int[] events = new int[1];
+        for (int i = 0; i < 200 && events[0] < count; i++) {
+            Thread.sleep(50);
+            SwingUtilities.invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    events[0] = report.getEventCount();
+                }
+            });
+        }
+        assertEquals(count, events[0]);
+    }
+
+    /**
+     * Creates a temporary directory with the files "c", "a" and the 
+     * directory "b" containing the file "child".
+     */
+    private File createDirectory() throws IOException {
+        File root = Files.createTempDirectory("fsm").toFile();
+        FileWriter writer = new FileWriter(new File(root, "c"));
+        writer.write("content");
+        writer.close();
+        assertTrue(new File(root, "a").createNewFile());
+        File directory = new File(root, "b");
+        assertTrue(directory.mkdir());
+        assertTrue(new File(directory, "child").createNewFile());
+        return root;
+    }
+
+    private void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
     /**
      * loops through all model columns to test type contract.
      * 
@@ -39,10 +39,16 @@ import java.awt.CompositeContext;
 import java.awt.RenderingHints;
 import java.awt.image.ColorModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
 import java.awt.image.DirectColorModel;
 import java.awt.image.Raster;
 import java.awt.image.RasterFormatException;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.awt.image.WritableRaster;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * <p>A blend composite defines the rule according to which a drawing primitive
@@ -88,6 +94,11 @@ import java.awt.image.WritableRaster;
  * <ul>
  * <li>{@link BlendingMode#BLUE} and {@link BlendingMode#GREEN} have been swapped.</li>
  * </ul>
+ * <h2>Performance</h2>
+ * <p>Blending modes which blend each color channel independently use lookup
+ * tables, created once per composite. Large rasters are split into bands of 
+ * rows which are blended in parallel on the common fork-join pool. Rasters 
+ * backed by a {@code DataBufferInt} are accessed directly.</p>
  * <p>
  * 
  * @see org.jdesktop.swingx.graphics.BlendComposite.BlendingMode
@@ -711,9 +722,27 @@ public final class BlendComposite implements Composite {
     public static final BlendComposite Color = new BlendComposite(BlendingMode.COLOR);
     public static final BlendComposite Luminosity = new BlendComposite(BlendingMode.LUMINOSITY);
 
+    /**
+     * The modes which don't blend each color channel with the same function.
+     */
+    private static final Set<BlendingMode> NON_SEPARABLE_MODES = EnumSet.of(
+            BlendingMode.HUE, BlendingMode.SATURATION, BlendingMode.COLOR, 
+            BlendingMode.LUMINOSITY, BlendingMode.RED, BlendingMode.GREEN, BlendingMode.BLUE);
+
+    /**
+     * The minimal number of pixels of a band blended in parallel.
+     */
+    private static final int MIN_BAND_PIXELS = 1 << 14;
+
     private final float alpha;
     private final BlendingMode mode;
 
+    /**
+     * The lookup tables of a separable mode, {alpha, color}, indexed by 
+     * source << 8 | destination. Created lazily.
+     */
+    private volatile byte[][] tables;
+
     private BlendComposite(BlendingMode mode) {
         this(mode, 1.0f);
     }
@@ -825,6 +854,42 @@ public final class BlendComposite implements Composite {
         return mode == bc.mode && alpha == bc.alpha;
     }
 
+    /**
+     * Returns the lookup tables of the alpha channel and of the color 
+     * channels, including the opacity of this composite, or null if the 
+     * mode is not separable.
+     */
+    private byte[][] getTables() {
+        if (NON_SEPARABLE_MODES.contains(mode)) {
+            return null;
+        }
+        byte[][] result = tables;
+        if (result == null) {
+            result = createTables();
+            tables = result;
+        }
+        return result;
+    }
+
+    private byte[][] createTables() {
+        byte[] alphaTable = new byte[256 * 256];
+        byte[] colorTable = new byte[256 * 256];
+        int[] src = new int[4];
+        int[] dst = new int[4];
+        int[] result = new int[4];
+        for (int s = 0; s < 256; s++) {
+            for (int d = 0; d < 256; d++) {
+                src[0] = src[1] = src[2] = src[3] = s;
+                dst[0] = dst[1] = dst[2] = dst[3] = d;
+                mode.blend(src, dst, result);
+                // mixes the result with the opacity, like the pixel by pixel blending
+                alphaTable[s << 8 | d] = (byte) ((int) (d + (result[3] - d) * alpha) & 0xFF);
+                colorTable[s << 8 | d] = (byte) ((int) (d + (result[0] - d) * alpha) & 0xFF);
+            }
+        }
+        return new byte[][] {alphaTable, colorTable};
+    }
+
     private static boolean isRgbColorModel(ColorModel cm) {
         if (cm instanceof DirectColorModel &&
                 cm.getTransferType() == DataBuffer.TYPE_INT) {
@@ -878,56 +943,202 @@ public final class BlendComposite implements Composite {
             this.composite = composite;
         }
 
+        @Override
+        public void compose(Raster src, Raster dstIn, WritableRaster dstOut) {
+            int width = Math.min(src.getWidth(), dstIn.getWidth());
+            int height = Math.min(src.getHeight(), dstIn.getHeight());
+
+            int bands = (int) Math.min(height, (long) width * height / MIN_BAND_PIXELS);
+            bands = Math.min(bands, 4 * ForkJoinPool.getCommonPoolParallelism());
+            if (bands < 2 || ForkJoinPool.getCommonPoolParallelism() < 2) {
+                compose(src, dstIn, dstOut, width, 0, height);
+            } else {
+                ForkJoinPool.commonPool().invoke(new ComposeAction(this, src, dstIn, dstOut, 
+                        width, 0, height, (height + bands - 1) / bands));
+            }
+        }
+
+        /**
+         * Blends the rows from start, inclusive, to end, exclusive.
+         */
+        void compose(Raster src, Raster dstIn, WritableRaster dstOut, int width, int start, int end) {
+            byte[][] tables = composite.getTables();
+
+            int[] srcData = getData(src);
+            int[] dstInData = getData(dstIn);
+            int[] dstOutData = getData(dstOut);
+            int[] srcPixels = srcData == null ? new int[width] : null;
+            int[] dstPixels = dstInData == null || dstOutData == null ? new int[width] : null;
+
+            for (int y = start; y < end; y++) {
+                int[] srcRow = srcData;
+                int srcOffset = 0;
+                if (srcData == null) {
+                    src.getDataElements(0, y, width, 1, srcPixels);
+                    srcRow = srcPixels;
+                } else {
+                    srcOffset = getOffset(src, y);
+                }
+                int[] dstRow = dstInData;
+                int dstOffset = 0;
+                if (dstInData == null) {
+                    dstIn.getDataElements(0, y, width, 1, dstPixels);
+                    dstRow = dstPixels;
+                } else {
+                    dstOffset = getOffset(dstIn, y);
+                }
+                int[] outRow = dstOutData;
+                int outOffset = 0;
+                if (dstOutData == null) {
+                    outRow = dstPixels;
+                    if (dstInData != null) {
+                        System.arraycopy(dstInData, dstOffset, dstPixels, 0, width);
+                        dstRow = dstPixels;
+                        dstOffset = 0;
+                    }
+                } else {
+                    outOffset = getOffset(dstOut, y);
+                }
+
+                if (tables != null) {
+                    blend(tables[0], tables[1], srcRow, srcOffset, dstRow, dstOffset, 
+                            outRow, outOffset, width);
+                } else {
+                    blend(srcRow, srcOffset, dstRow, dstOffset, outRow, outOffset, width);
+                }
+
+                if (dstOutData == null) {
+                    dstOut.setDataElements(0, y, width, 1, outRow);
+                }
+            }
+        }
+
+        /**
+         * Blends a row of a separable mode with the lookup tables. The 
+         * position of the color channels doesn't matter.
+         */
+        private static void blend(byte[] alphaTable, byte[] colorTable, 
+                int[] src, int srcOffset, int[] dst, int dstOffset, 
+                int[] out, int outOffset, int width) {
+            for (int x = 0; x < width; x++) {
+                int srcPixel = src[srcOffset + x];
+                int dstPixel = dst[dstOffset + x];
+                out[outOffset + x] = 
+                    (alphaTable[(srcPixel >>> 16 & 0xFF00) | dstPixel >>> 24] & 0xFF) << 24 |
+                    (colorTable[(srcPixel >>  8 & 0xFF00) | (dstPixel >> 16 & 0xFF)] & 0xFF) << 16 |
+                    (colorTable[(srcPixel       & 0xFF00) | (dstPixel >>  8 & 0xFF)] & 0xFF) <<  8 |
+                    (colorTable[(srcPixel <<  8 & 0xFF00) | (dstPixel       & 0xFF)] & 0xFF);
+            }
+        }
+
+        /**
+         * Blends a row pixel by pixel with the mode of the composite.
+         */
+        abstract void blend(int[] src, int srcOffset, int[] dst, int dstOffset, 
+                int[] out, int outOffset, int width);
+
+        /**
+         * Returns the int array backing the given raster if its pixels are 
+         * packed into a single int, null otherwise.
+         */
+        private static int[] getData(Raster raster) {
+            if (raster.getDataBuffer() instanceof DataBufferInt 
+                    && raster.getSampleModel() instanceof SinglePixelPackedSampleModel
+                    && raster.getDataBuffer().getNumBanks() == 1) {
+                return ((DataBufferInt) raster.getDataBuffer()).getData();
+            }
+            return null;
+        }
+
+        /**
+         * Returns the index of the first pixel of the given row in the array
+         * returned by {@link #getData(Raster)}.
+         */
+        private static int getOffset(Raster raster, int y) {
+            SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+            return raster.getDataBuffer().getOffset() + sampleModel.getOffset(
+                    -raster.getSampleModelTranslateX(), y - raster.getSampleModelTranslateY());
+        }
+
         @Override
         public void dispose() {
         }
     }
 
+    /**
+     * Splits a range of rows in halves until it is small enough.
+     */
+    @SuppressWarnings("serial")
+    private static final class ComposeAction extends RecursiveAction {
+        private final BlendingContext context;
+        private final Raster src;
+        private final Raster dstIn;
+        private final WritableRaster dstOut;
+        private final int width;
+        private final int start;
+        private final int end;
+        private final int grain;
+
+        ComposeAction(BlendingContext context, Raster src, Raster dstIn, WritableRaster dstOut,
+                int width, int start, int end, int grain) {
+            this.context = context;
+            this.src = src;
+            this.dstIn = dstIn;
+            this.dstOut = dstOut;
+            this.width = width;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                context.compose(src, dstIn, dstOut, width, start, end);
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new ComposeAction(context, src, dstIn, dstOut, width, start, middle, grain),
+                          new ComposeAction(context, src, dstIn, dstOut, width, middle, end, grain));
+            }
+        }
+    }
+
     private static class BlendingRgbContext extends BlendingContext {
         private BlendingRgbContext(BlendComposite composite) {
             super(composite);
         }
 
         @Override
-        public void compose(Raster src, Raster dstIn, WritableRaster dstOut) {
-            int width = Math.min(src.getWidth(), dstIn.getWidth());
-            int height = Math.min(src.getHeight(), dstIn.getHeight());
-
+        void blend(int[] src, int srcOffset, int[] dst, int dstOffset, 
+                int[] out, int outOffset, int width) {
             float alpha = composite.getAlpha();
 
             int[] result = new int[4];
             int[] srcPixel = new int[4];
             int[] dstPixel = new int[4];
-            int[] srcPixels = new int[width];
-            int[] dstPixels = new int[width];
-
-            for (int y = 0; y < height; y++) {
-                src.getDataElements(0, y, width, 1, srcPixels);
-                dstIn.getDataElements(0, y, width, 1, dstPixels);
-                for (int x = 0; x < width; x++) {
-                    // pixels are stored as INT_ARGB
-                    // our arrays are [R, G, B, A]
-                    int pixel = srcPixels[x];
-                    srcPixel[0] = (pixel >> 16) & 0xFF;
-                    srcPixel[1] = (pixel >>  8) & 0xFF;
-                    srcPixel[2] = (pixel      ) & 0xFF;
-                    srcPixel[3] = (pixel >> 24) & 0xFF;
-
-                    pixel = dstPixels[x];
-                    dstPixel[0] = (pixel >> 16) & 0xFF;
-                    dstPixel[1] = (pixel >>  8) & 0xFF;
-                    dstPixel[2] = (pixel      ) & 0xFF;
-                    dstPixel[3] = (pixel >> 24) & 0xFF;
-
-                    composite.getMode().blend(srcPixel, dstPixel, result);
-
-                    // mixes the result with the opacity
-                    dstPixels[x] = ((int) (dstPixel[3] + (result[3] - dstPixel[3]) * alpha) & 0xFF) << 24 |
-                                   ((int) (dstPixel[0] + (result[0] - dstPixel[0]) * alpha) & 0xFF) << 16 |
-                                   ((int) (dstPixel[1] + (result[1] - dstPixel[1]) * alpha) & 0xFF) <<  8 |
-                                    (int) (dstPixel[2] + (result[2] - dstPixel[2]) * alpha) & 0xFF;
-                }
-                dstOut.setDataElements(0, y, width, 1, dstPixels);
+
+            for (int x = 0; x < width; x++) {
+                // pixels are stored as INT_ARGB
+                // our arrays are [R, G, B, A]
+                int pixel = src[srcOffset + x];
+                srcPixel[0] = (pixel >> 16) & 0xFF;
+                srcPixel[1] = (pixel >>  8) & 0xFF;
+                srcPixel[2] = (pixel      ) & 0xFF;
+                srcPixel[3] = (pixel >> 24) & 0xFF;
+
+                pixel = dst[dstOffset + x];
+                dstPixel[0] = (pixel >> 16) & 0xFF;
+                dstPixel[1] = (pixel >>  8) & 0xFF;
+                dstPixel[2] = (pixel      ) & 0xFF;
+                dstPixel[3] = (pixel >> 24) & 0xFF;
+
+                composite.getMode().blend(srcPixel, dstPixel, result);
+
+                // mixes the result with the opacity
+                out[outOffset + x] = ((int) (dstPixel[3] + (result[3] - dstPixel[3]) * alpha) & 0xFF) << 24 |
+                                     ((int) (dstPixel[0] + (result[0] - dstPixel[0]) * alpha) & 0xFF) << 16 |
+                                     ((int) (dstPixel[1] + (result[1] - dstPixel[1]) * alpha) & 0xFF) <<  8 |
+                                      (int) (dstPixel[2] + (result[2] - dstPixel[2]) * alpha) & 0xFF;
             }
         }
     }
@@ -938,45 +1149,36 @@ public final class BlendComposite implements Composite {
         }
 
         @Override
-        public void compose(Raster src, Raster dstIn, WritableRaster dstOut) {
-            int width = Math.min(src.getWidth(), dstIn.getWidth());
-            int height = Math.min(src.getHeight(), dstIn.getHeight());
-
+        void blend(int[] src, int srcOffset, int[] dst, int dstOffset, 
+                int[] out, int outOffset, int width) {
             float alpha = composite.getAlpha();
 
             int[] result = new int[4];
             int[] srcPixel = new int[4];
             int[] dstPixel = new int[4];
-            int[] srcPixels = new int[width];
-            int[] dstPixels = new int[width];
-
-            for (int y = 0; y < height; y++) {
-                src.getDataElements(0, y, width, 1, srcPixels);
-                dstIn.getDataElements(0, y, width, 1, dstPixels);
-                for (int x = 0; x < width; x++) {
-                    // pixels are stored as INT_ABGR
-                    // our arrays are [R, G, B, A]
-                    int pixel = srcPixels[x];
-                    srcPixel[0] = (pixel      ) & 0xFF;
-                    srcPixel[1] = (pixel >>  8) & 0xFF;
-                    srcPixel[2] = (pixel >> 16) & 0xFF;
-                    srcPixel[3] = (pixel >> 24) & 0xFF;
-
-                    pixel = dstPixels[x];
-                    dstPixel[0] = (pixel      ) & 0xFF;
-                    dstPixel[1] = (pixel >>  8) & 0xFF;
-                    dstPixel[2] = (pixel >> 16) & 0xFF;
-                    dstPixel[3] = (pixel >> 24) & 0xFF;
-
-                    composite.getMode().blend(srcPixel, dstPixel, result);
-
-                    // mixes the result with the opacity
-                    dstPixels[x] = ((int) (dstPixel[3] + (result[3] - dstPixel[3]) * alpha) & 0xFF) << 24 |
-                                   ((int) (dstPixel[0] + (result[0] - dstPixel[0]) * alpha) & 0xFF)       |
-                                   ((int) (dstPixel[1] + (result[1] - dstPixel[1]) * alpha) & 0xFF) <<  8 |
-                                   ((int) (dstPixel[2] + (result[2] - dstPixel[2]) * alpha) & 0xFF) << 16;
-                }
-                dstOut.setDataElements(0, y, width, 1, dstPixels);
+
+            for (int x = 0; x < width; x++) {
+                // pixels are stored as INT_ABGR
+                // our arrays are [R, G, B, A]
+                int pixel = src[srcOffset + x];
+                srcPixel[0] = (pixel      ) & 0xFF;
+                srcPixel[1] = (pixel >>  8) & 0xFF;
+                srcPixel[2] = (pixel >> 16) & 0xFF;
+                srcPixel[3] = (pixel >> 24) & 0xFF;
+
+                pixel = dst[dstOffset + x];
+                dstPixel[0] = (pixel      ) & 0xFF;
+                dstPixel[1] = (pixel >>  8) & 0xFF;
+                dstPixel[2] = (pixel >> 16) & 0xFF;
+                dstPixel[3] = (pixel >> 24) & 0xFF;
+
+                composite.getMode().blend(srcPixel, dstPixel, result);
+
+                // mixes the result with the opacity
+                out[outOffset + x] = ((int) (dstPixel[3] + (result[3] - dstPixel[3]) * alpha) & 0xFF) << 24 |
+                                     ((int) (dstPixel[0] + (result[0] - dstPixel[0]) * alpha) & 0xFF)       |
+                                     ((int) (dstPixel[1] + (result[1] - dstPixel[1]) * alpha) & 0xFF) <<  8 |
+                                     ((int) (dstPixel[2] + (result[2] - dstPixel[2]) * alpha) & 0xFF) << 16;
             }
         }
     }
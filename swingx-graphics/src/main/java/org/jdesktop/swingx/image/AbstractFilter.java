@@ -41,6 +41,8 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
 import java.awt.image.ColorModel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.jdesktop.beans.AbstractBean;
 
@@ -48,14 +50,113 @@ import org.jdesktop.beans.AbstractBean;
  * <p>Provides an abstract implementation of the <code>BufferedImageOp</code>
  * interface. This class can be used to created new image filters based
  * on <code>BufferedImageOp</code>.</p>
+ * 
+ * <p>Filters processing the pixels row by row can split the rows into bands
+ * with {@link #forEachBand(int, int, Band)}, the bands are processed on the
+ * common fork-join pool if the filter is {@link #setParallel(boolean) 
+ * parallel}. Scratch pixel arrays can be taken from a shared pool with
+ * {@link #acquireBuffer(int)}.</p>
  *
  * @author Romain Guy &lt;romain.guy@mac.com&gt;
  */
 
 public abstract class AbstractFilter extends AbstractBean implements BufferedImageOp {
+    /**
+     * <p>Processes a band of rows of an image.</p>
+     */
+    protected interface Band {
+        /**
+         * <p>Processes the rows from start, inclusive, to end, exclusive.</p>
+         *
+         * @param start the first row of the band
+         * @param end the row after the last row of the band
+         */
+        void process(int start, int end);
+    }
+
+    /**
+     * The minimal number of pixels of a band processed in parallel.
+     */
+    private static final int MIN_BAND_PIXELS = 1 << 14;
+
+    private static final PixelBufferPool BUFFER_POOL = new PixelBufferPool();
+
+    private boolean parallel;
+
     @Override
     public abstract BufferedImage filter(BufferedImage src, BufferedImage dest);
 
+    /**
+     * <p>Returns whether the rows of an image are processed in parallel 
+     * bands.</p>
+     *
+     * @return true if the filter runs in parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * <p>Sets whether the rows of an image are processed in parallel bands
+     * on the common fork-join pool. Small images are always processed on 
+     * the calling thread. The result does not depend on this property. The 
+     * default is false.</p>
+     *
+     * @param parallel true to run the filter in parallel
+     */
+    public void setParallel(boolean parallel) {
+        boolean old = isParallel();
+        this.parallel = parallel;
+        firePropertyChange("parallel", old, isParallel());
+    }
+
+    /**
+     * <p>Processes the given number of rows with the given band. If this
+     * filter is parallel, the rows are split into bands processed on the 
+     * common fork-join pool, otherwise all rows are processed as a single 
+     * band on the calling thread. The method returns when all rows are 
+     * processed.</p>
+     *
+     * <p>The bands must be independent: a band may read all rows of the 
+     * source, but must only write the pixels of its own rows.</p>
+     *
+     * @param rows the number of rows
+     * @param rowLength the number of pixels of a row
+     * @param band the processing of a band of rows
+     */
+    protected final void forEachBand(int rows, int rowLength, Band band) {
+        int bands = (int) Math.min(rows, (long) rows * rowLength / MIN_BAND_PIXELS);
+        bands = Math.min(bands, 4 * ForkJoinPool.getCommonPoolParallelism());
+        if (!isParallel() || bands < 2 || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            band.process(0, rows);
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new BandAction(band, 0, rows, (rows + bands - 1) / bands));
+    }
+
+    /**
+     * <p>Returns a scratch pixel array with at least the given length from 
+     * a pool shared by all filters. The content of the array is undefined.
+     * The array should be returned with {@link #releaseBuffer(int[])} when 
+     * it is no longer used.</p>
+     *
+     * @param length the minimal length of the array
+     * @return an array with at least the given length
+     */
+    protected static int[] acquireBuffer(int length) {
+        return BUFFER_POOL.acquire(length);
+    }
+
+    /**
+     * <p>Returns a scratch pixel array to the pool shared by all filters. The
+     * array must not be used after it has been released.</p>
+     *
+     * @param buffer the array to release
+     */
+    protected static void releaseBuffer(int[] buffer) {
+        BUFFER_POOL.release(buffer);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -95,4 +196,33 @@ public abstract class AbstractFilter extends AbstractBean implements BufferedIma
     public RenderingHints getRenderingHints() {
         return null;
     }
+
+    /**
+     * Splits a range of rows in halves until it is small enough.
+     */
+    @SuppressWarnings("serial")
+    private static final class BandAction extends RecursiveAction {
+        private final Band band;
+        private final int start;
+        private final int end;
+        private final int grain;
+
+        BandAction(Band band, int start, int end, int grain) {
+            this.band = band;
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                band.process(start, end);
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new BandAction(band, start, middle, grain),
+                          new BandAction(band, middle, end, grain));
+            }
+        }
+    }
 }
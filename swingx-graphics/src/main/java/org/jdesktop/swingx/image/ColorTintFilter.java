@@ -137,19 +137,28 @@ public class ColorTintFilter extends AbstractFilter {
             dst = createCompatibleDestImage(src, null);
         }
 
-        int width = src.getWidth();
+        final int width = src.getWidth();
         int height = src.getHeight();
 
-        int[] pixels = new int[width * height];
-        GraphicsUtilities.getPixels(src, 0, 0, width, height, pixels);
-        mixColor(pixels);
-        GraphicsUtilities.setPixels(dst, 0, 0, width, height, pixels);
+        final int[] pixels = acquireBuffer(width * height);
+        try {
+            GraphicsUtilities.getPixels(src, 0, 0, width, height, pixels);
+            forEachBand(height, width, new Band() {
+                @Override
+                public void process(int start, int end) {
+                    mixColor(pixels, start * width, end * width);
+                }
+            });
+            GraphicsUtilities.setPixels(dst, 0, 0, width, height, pixels);
+        } finally {
+            releaseBuffer(pixels);
+        }
 
         return dst;
     }
 
-    private void mixColor(int[] pixels) {
-        for (int i = 0; i < pixels.length; i++) {
+    private void mixColor(int[] pixels, int start, int end) {
+        for (int i = start; i < end; i++) {
             int argb = pixels[i];
             pixels[i] = (argb & 0xFF000000) |
                         preMultipliedRed[(argb >> 16)   & 0xFF] << 16 |
@@ -90,28 +90,61 @@ public class FastBlurFilter extends AbstractFilter {
      */
     @Override
     public BufferedImage filter(BufferedImage src, BufferedImage dst) {
-        int width = src.getWidth();
-        int height = src.getHeight();
+        final int width = src.getWidth();
+        final int height = src.getHeight();
 
         if (dst == null) {
             dst = createCompatibleDestImage(src, null);
         }
 
-        int[] srcPixels = new int[width * height];
-        int[] dstPixels = new int[width * height];
+        final int[] srcPixels = acquireBuffer(width * height);
+        final int[] dstPixels = acquireBuffer(width * height);
 
-        GraphicsUtilities.getPixels(src, 0, 0, width, height, srcPixels);
-        // horizontal pass
-        blur(srcPixels, dstPixels, width, height, radius);
-        // vertical pass
-        //noinspection SuspiciousNameCombination
-        blur(dstPixels, srcPixels, height, width, radius);
-        // the result is now stored in srcPixels due to the 2nd pass
-        GraphicsUtilities.setPixels(dst, 0, 0, width, height, srcPixels);
+        try {
+            GraphicsUtilities.getPixels(src, 0, 0, width, height, srcPixels);
+            blur(this, srcPixels, dstPixels, width, height, radius);
+            // the result is now stored in srcPixels due to the 2nd pass
+            GraphicsUtilities.setPixels(dst, 0, 0, width, height, srcPixels);
+        } finally {
+            releaseBuffer(srcPixels);
+            releaseBuffer(dstPixels);
+        }
 
         return dst;
     }
 
+    /**
+     * <p>Blurs the source pixels horizontally and vertically, in bands of 
+     * the given filter. After this method is executed, srcPixels contains 
+     * the blurred pixels.</p>
+     *
+     * @param filter the filter processing the bands
+     * @param srcPixels the source pixels
+     * @param dstPixels scratch pixels
+     * @param width the width of the source picture
+     * @param height the height of the source picture
+     * @param radius the radius of the blur effect
+     */
+    static void blur(AbstractFilter filter, final int[] srcPixels, final int[] dstPixels,
+                     final int width, final int height, final int radius) {
+        final int[] sumLookupTable = createSumLookupTable(radius);
+        // horizontal pass
+        filter.forEachBand(height, width, new Band() {
+            @Override
+            public void process(int start, int end) {
+                blur(srcPixels, dstPixels, width, height, radius, sumLookupTable, start, end);
+            }
+        });
+        // vertical pass
+        filter.forEachBand(width, height, new Band() {
+            @Override
+            public void process(int start, int end) {
+                //noinspection SuspiciousNameCombination
+                blur(dstPixels, srcPixels, height, width, radius, sumLookupTable, start, end);
+            }
+        });
+    }
+
     /**
      * <p>Blurs the source pixels into the destination pixels. The force of
      * the blur is specified by the radius which must be greater than 0.</p>
@@ -128,7 +161,43 @@ public class FastBlurFilter extends AbstractFilter {
      */
     static void blur(int[] srcPixels, int[] dstPixels,
                      int width, int height, int radius) {
+        blur(srcPixels, dstPixels, width, height, radius, 
+             createSumLookupTable(radius), 0, height);
+    }
+
+    /**
+     * <p>Returns the table mapping the sum of a channel over the window of 
+     * the given radius to the average.</p>
+     *
+     * @param radius the radius of the blur effect
+     * @return the lookup table
+     */
+    static int[] createSumLookupTable(int radius) {
         final int windowSize = radius * 2 + 1;
+        int[] sumLookupTable = new int[256 * windowSize];
+        for (int i = 0; i < sumLookupTable.length; i++) {
+            sumLookupTable[i] = i / windowSize;
+        }
+        return sumLookupTable;
+    }
+
+    /**
+     * <p>Blurs the rows from start, inclusive, to end, exclusive, of the 
+     * source pixels into the destination pixels.</p>
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width the width of the source picture
+     * @param height the height of the source picture
+     * @param radius the radius of the blur effect
+     * @param sumLookupTable the table created by {@link #createSumLookupTable(int)}
+     * @param start the first row to blur
+     * @param end the row after the last row to blur
+     * @see #blur(int[], int[], int, int, int)
+     */
+    static void blur(int[] srcPixels, int[] dstPixels,
+                     int width, int height, int radius,
+                     int[] sumLookupTable, int start, int end) {
         final int radiusPlusOne = radius + 1;
 
         int sumAlpha;
@@ -136,15 +205,10 @@ public class FastBlurFilter extends AbstractFilter {
         int sumGreen;
         int sumBlue;
 
-        int srcIndex = 0;
+        int srcIndex = start * width;
         int dstIndex;
         int pixel;
 
-        int[] sumLookupTable = new int[256 * windowSize];
-        for (int i = 0; i < sumLookupTable.length; i++) {
-            sumLookupTable[i] = i / windowSize;
-        }
-
         int[] indexLookupTable = new int[radiusPlusOne];
         if (radius < width) {
             for (int i = 0; i < indexLookupTable.length; i++) {
@@ -159,7 +223,7 @@ public class FastBlurFilter extends AbstractFilter {
             }
         }
 
-        for (int y = 0; y < height; y++) {
+        for (int y = start; y < end; y++) {
             sumAlpha = sumRed = sumGreen = sumBlue = 0;
             dstIndex = y;
 
@@ -76,25 +76,40 @@ public class GaussianBlurFilter extends AbstractFilter {
      */
     @Override
     public BufferedImage filter(BufferedImage src, BufferedImage dst) {
-        int width = src.getWidth();
-        int height = src.getHeight();
+        final int width = src.getWidth();
+        final int height = src.getHeight();
 
         if (dst == null) {
             dst = createCompatibleDestImage(src, null);
         }
 
-        int[] srcPixels = new int[width * height];
-        int[] dstPixels = new int[width * height];
+        final int[] srcPixels = acquireBuffer(width * height);
+        final int[] dstPixels = acquireBuffer(width * height);
 
-        float[] kernel = createGaussianKernel(radius);
+        final float[] kernel = createGaussianKernel(radius);
 
-        GraphicsUtilities.getPixels(src, 0, 0, width, height, srcPixels);
-        // horizontal pass
-        blur(srcPixels, dstPixels, width, height, kernel, radius);
-        // vertical pass
-        blur(dstPixels, srcPixels, height, width, kernel, radius);
-        // the result is now stored in srcPixels due to the 2nd pass
-        GraphicsUtilities.setPixels(dst, 0, 0, width, height, srcPixels);
+        try {
+            GraphicsUtilities.getPixels(src, 0, 0, width, height, srcPixels);
+            // horizontal pass
+            forEachBand(height, width, new Band() {
+                @Override
+                public void process(int start, int end) {
+                    blur(srcPixels, dstPixels, width, height, kernel, radius, start, end);
+                }
+            });
+            // vertical pass
+            forEachBand(width, height, new Band() {
+                @Override
+                public void process(int start, int end) {
+                    blur(dstPixels, srcPixels, height, width, kernel, radius, start, end);
+                }
+            });
+            // the result is now stored in srcPixels due to the 2nd pass
+            GraphicsUtilities.setPixels(dst, 0, 0, width, height, srcPixels);
+        } finally {
+            releaseBuffer(srcPixels);
+            releaseBuffer(dstPixels);
+        }
 
         return dst;
     }
@@ -117,6 +132,26 @@ public class GaussianBlurFilter extends AbstractFilter {
     static void blur(int[] srcPixels, int[] dstPixels,
                      int width, int height,
                      float[] kernel, int radius) {
+        blur(srcPixels, dstPixels, width, height, kernel, radius, 0, height);
+    }
+
+    /**
+     * <p>Blurs the rows from start, inclusive, to end, exclusive, of the 
+     * source pixels into the destination pixels.</p>
+     *
+     * @param srcPixels the source pixels
+     * @param dstPixels the destination pixels
+     * @param width the width of the source picture
+     * @param height the height of the source picture
+     * @param kernel the kernel of the blur effect
+     * @param radius the radius of the blur effect
+     * @param start the first row to blur
+     * @param end the row after the last row to blur
+     * @see #blur(int[], int[], int, int, float[], int)
+     */
+    static void blur(int[] srcPixels, int[] dstPixels,
+                     int width, int height,
+                     float[] kernel, int radius, int start, int end) {
         float a;
         float r;
         float g;
@@ -127,7 +162,7 @@ public class GaussianBlurFilter extends AbstractFilter {
         int cg;
         int cb;
 
-        for (int y = 0; y < height; y++) {
+        for (int y = start; y < end; y++) {
             int index = y;
             int offset = y * width;
 
@@ -0,0 +1,91 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.image;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A small pool of scratch pixel arrays shared by the filters, so repeated
+ * filtering of images does not allocate full size arrays on every call. The
+ * arrays are softly referenced.
+ */
+final class PixelBufferPool {
+
+    private static final int MAX_BUFFERS = 8;
+
+    private final List<SoftReference<int[]>> buffers = new ArrayList<SoftReference<int[]>>();
+
+    /**
+     * Returns the smallest pooled array with at least the given length, or
+     * a new array if there is none.
+     *
+     * @param length the minimal length
+     * @return an array with at least the given length
+     */
+    public synchronized int[] acquire(int length) {
+        SoftReference<int[]> best = null;
+        int[] bestBuffer = null;
+        for (Iterator<SoftReference<int[]>> it = buffers.iterator(); it.hasNext();) {
+            SoftReference<int[]> reference = it.next();
+            int[] buffer = reference.get();
+            if (buffer == null) {
+                it.remove();
+            } else if (buffer.length >= length 
+                    && (bestBuffer == null || buffer.length < bestBuffer.length)) {
+                best = reference;
+                bestBuffer = buffer;
+            }
+        }
+        if (bestBuffer == null) {
+            return new int[length];
+        }
+        buffers.remove(best);
+        return bestBuffer;
+    }
+
+    /**
+     * Returns the given array to the pool. If the pool is full, the smallest
+     * pooled array is dropped if it is smaller than the given array.
+     *
+     * @param buffer the array to return
+     */
+    public synchronized void release(int[] buffer) {
+        if (buffers.size() >= MAX_BUFFERS) {
+            int smallest = -1;
+            int smallestLength = buffer.length;
+            for (int i = 0; i < buffers.size(); i++) {
+                int[] pooled = buffers.get(i).get();
+                int length = pooled == null ? -1 : pooled.length;
+                if (length < smallestLength) {
+                    smallest = i;
+                    smallestLength = length;
+                }
+            }
+            if (smallest < 0) return;
+            buffers.remove(smallest);
+        }
+        buffers.add(new SoftReference<int[]>(buffer));
+    }
+}
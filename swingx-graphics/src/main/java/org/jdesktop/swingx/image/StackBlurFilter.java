@@ -136,18 +136,20 @@ public class StackBlurFilter extends AbstractFilter {
             dst = createCompatibleDestImage(src, null);
         }
 
-        int[] srcPixels = new int[width * height];
-        int[] dstPixels = new int[width * height];
-
-        GraphicsUtilities.getPixels(src, 0, 0, width, height, srcPixels);
-        for (int i = 0; i < iterations; i++) {
-            // horizontal pass
-            FastBlurFilter.blur(srcPixels, dstPixels, width, height, radius);
-            // vertical pass
-            FastBlurFilter.blur(dstPixels, srcPixels, height, width, radius);
+        int[] srcPixels = acquireBuffer(width * height);
+        int[] dstPixels = acquireBuffer(width * height);
+
+        try {
+            GraphicsUtilities.getPixels(src, 0, 0, width, height, srcPixels);
+            for (int i = 0; i < iterations; i++) {
+                FastBlurFilter.blur(this, srcPixels, dstPixels, width, height, radius);
+            }
+            // the result is now stored in srcPixels due to the 2nd pass
+            GraphicsUtilities.setPixels(dst, 0, 0, width, height, srcPixels);
+        } finally {
+            releaseBuffer(srcPixels);
+            releaseBuffer(dstPixels);
         }
-        // the result is now stored in srcPixels due to the 2nd pass
-        GraphicsUtilities.setPixels(dst, 0, 0, width, height, srcPixels);
 
         return dst;
     }
@@ -0,0 +1,74 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.graphics;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simple benchmark for the throughput of BlendComposite, drawing an image 
+ * with a couple of separable and non-separable modes onto an image of the 
+ * same size. Reports the time per drawn image.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class BlendCompositeBenchmark {
+
+    private static final int[][] SIZES = {{512, 512}, {1920, 1080}, {3840, 2160}};
+    private static final BlendComposite[] COMPOSITES = {
+        BlendComposite.Multiply, BlendComposite.Overlay, BlendComposite.SoftLight.derive(0.5f),
+        BlendComposite.Hue, BlendComposite.Luminosity,
+    };
+    /** The number of pixels blended per measurement. */
+    private static final long PIXELS = 50000000L;
+
+    public static void main(String[] args) {
+        System.out.println("parallelism " + ForkJoinPool.getCommonPoolParallelism());
+        System.out.println("mode\talpha\tsize\ttime(ms)");
+        for (int[] size : SIZES) {
+            BufferedImage src = createImage(size[0], size[1], 1);
+            BufferedImage dst = createImage(size[0], size[1], 2);
+            for (BlendComposite composite : COMPOSITES) {
+                int count = (int) Math.max(2, PIXELS / ((long) size[0] * size[1]));
+                // warm up
+                draw(composite, src, dst, count);
+                long time = draw(composite, src, dst, count);
+                System.out.println(composite.getMode() + "\t" + composite.getAlpha() + "\t" 
+                        + size[0] + "x" + size[1] + "\t" + String.format("%.2f", time / 1e6 / count));
+            }
+        }
+    }
+
+    /**
+     * Draws the source onto the destination, returns the time in nanos.
+     */
+    private static long draw(BlendComposite composite, BufferedImage src, BufferedImage dst, int count) {
+        Graphics2D g2 = dst.createGraphics();
+        g2.setComposite(composite);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            g2.drawImage(src, 0, 0, null);
+        }
+        long time = System.nanoTime() - start;
+        g2.dispose();
+        return time;
+    }
+
+    private static BufferedImage createImage(int width, int height, long seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(seed);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextInt();
+            }
+            image.getRaster().setDataElements(0, y, width, 1, row);
+        }
+        return image;
+    }
+}
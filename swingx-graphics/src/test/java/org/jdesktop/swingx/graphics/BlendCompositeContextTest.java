@@ -0,0 +1,227 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.graphics;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.awt.CompositeContext;
+import java.awt.Point;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+
+import org.jdesktop.swingx.graphics.BlendComposite.BlendingMode;
+import org.junit.Test;
+
+/**
+ * Compares the compositing contexts of BlendComposite to blending pixel by
+ * pixel, independent of the screen's color model.
+ */
+public class BlendCompositeContextTest {
+    private static final ColorModel RGB = ColorModel.getRGBdefault();
+    private static final ColorModel BGR = new DirectColorModel(32, 
+            0x000000FF, 0x0000FF00, 0x00FF0000, 0xFF000000);
+    private static final int[] RGB_MASKS = {0x00FF0000, 0x0000FF00, 0x000000FF, 0xFF000000};
+
+    /**
+     * All modes with and without opacity on INT_ARGB rasters.
+     */
+    @Test
+    public void testAllModes() {
+        for (BlendingMode mode : BlendingMode.values()) {
+            for (float alpha : new float[] {1f, 0.4f}) {
+                BlendComposite composite = BlendComposite.getInstance(mode, alpha);
+                int[] src = createPixels(64 * 32, mode.ordinal());
+                int[] dst = createPixels(64 * 32, -mode.ordinal());
+                WritableRaster srcRaster = createRaster(src, 64, 32);
+                WritableRaster dstRaster = createRaster(dst, 64, 32);
+
+                compose(composite, RGB, srcRaster, dstRaster);
+
+                assertArrayEquals(blend(composite, src, dst, false), getPixels(dstRaster));
+            }
+        }
+    }
+
+    /**
+     * All modes on rasters with the red and blue channels swapped.
+     */
+    @Test
+    public void testAllModesBgr() {
+        for (BlendingMode mode : BlendingMode.values()) {
+            BlendComposite composite = BlendComposite.getInstance(mode, 0.7f);
+            int[] src = createPixels(40 * 20, mode.ordinal());
+            int[] dst = createPixels(40 * 20, -mode.ordinal());
+            WritableRaster srcRaster = BGR.createCompatibleWritableRaster(40, 20);
+            WritableRaster dstRaster = BGR.createCompatibleWritableRaster(40, 20);
+            srcRaster.setDataElements(0, 0, 40, 20, src);
+            dstRaster.setDataElements(0, 0, 40, 20, dst);
+
+            compose(composite, BGR, srcRaster, dstRaster);
+
+            assertArrayEquals(blend(composite, src, dst, true), getPixels(dstRaster));
+        }
+    }
+
+    /**
+     * Child rasters are blended at their position in the parent, the
+     * surrounding pixels are unchanged.
+     */
+    @Test
+    public void testChildRasters() {
+        BlendComposite composite = BlendComposite.Overlay;
+        int[] src = createPixels(50 * 40, 1);
+        int[] dst = createPixels(50 * 40, 2);
+        WritableRaster srcRaster = createRaster(src, 50, 40)
+                .createWritableChild(3, 5, 20, 10, 0, 0, null);
+        WritableRaster dstParent = createRaster(dst, 50, 40);
+        WritableRaster dstRaster = dstParent.createWritableChild(17, 11, 20, 10, 0, 0, null);
+
+        compose(composite, RGB, srcRaster, dstRaster);
+
+        int[] expected = dst.clone();
+        for (int y = 0; y < 10; y++) {
+            for (int x = 0; x < 20; x++) {
+                expected[(y + 11) * 50 + x + 17] = blend(composite, 
+                        src[(y + 5) * 50 + x + 3], dst[(y + 11) * 50 + x + 17], false);
+            }
+        }
+        assertArrayEquals(expected, getPixels(dstParent));
+    }
+
+    /**
+     * Rasters which aren't backed by a DataBufferInt are blended.
+     */
+    @Test
+    public void testNonIntDataBuffer() {
+        for (BlendComposite composite : new BlendComposite[] {
+                BlendComposite.Multiply, BlendComposite.Hue}) {
+            int[] src = createPixels(30 * 30, 3);
+            int[] dst = createPixels(30 * 30, 4);
+            WritableRaster srcRaster = createRaster(src, 30, 30);
+            final int[] data = new int[30 * 30];
+            DataBuffer buffer = new DataBuffer(DataBuffer.TYPE_INT, data.length) {
+                @Override
+                public int getElem(int bank, int i) {
+                    return data[i];
+                }
+
+                @Override
+                public void setElem(int bank, int i, int val) {
+                    data[i] = val;
+                }
+            };
+            WritableRaster dstRaster = new WritableRaster(new SinglePixelPackedSampleModel(
+                    DataBuffer.TYPE_INT, 30, 30, RGB_MASKS), buffer, new Point()) { };
+            dstRaster.setDataElements(0, 0, 30, 30, dst);
+
+            compose(composite, RGB, srcRaster, dstRaster);
+
+            assertArrayEquals(blend(composite, src, dst, false), data);
+        }
+    }
+
+    /**
+     * Rasters large enough to be split into bands.
+     */
+    @Test
+    public void testLargeRaster() {
+        for (BlendComposite composite : new BlendComposite[] {
+                BlendComposite.Screen, BlendComposite.Luminosity.derive(0.5f)}) {
+            int[] src = createPixels(500 * 300, 7);
+            int[] dst = createPixels(500 * 300, 8);
+            WritableRaster srcRaster = createRaster(src, 500, 300);
+            WritableRaster dstRaster = createRaster(dst, 500, 300);
+
+            compose(composite, RGB, srcRaster, dstRaster);
+
+            assertArrayEquals(blend(composite, src, dst, false), getPixels(dstRaster));
+        }
+    }
+
+    private static void compose(BlendComposite composite, ColorModel cm, 
+            WritableRaster src, WritableRaster dst) {
+        CompositeContext context = composite.createContext(cm, cm, null);
+        context.compose(src, dst, dst);
+        context.dispose();
+    }
+
+    private static int[] createPixels(int length, long seed) {
+        Random random = new Random(seed);
+        int[] pixels = new int[length];
+        for (int i = 0; i < length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        // include the extremes of all channels
+        pixels[0] = 0;
+        pixels[1] = -1;
+        return pixels;
+    }
+
+    private static WritableRaster createRaster(int[] pixels, int width, int height) {
+        WritableRaster raster = RGB.createCompatibleWritableRaster(width, height);
+        raster.setDataElements(0, 0, width, height, pixels);
+        return raster;
+    }
+
+    private static int[] getPixels(Raster raster) {
+        return (int[]) raster.getDataElements(0, 0, raster.getWidth(), raster.getHeight(), null);
+    }
+
+    private static int[] blend(BlendComposite composite, int[] src, int[] dst, boolean bgr) {
+        int[] result = new int[src.length];
+        for (int i = 0; i < src.length; i++) {
+            result[i] = blend(composite, src[i], dst[i], bgr);
+        }
+        return result;
+    }
+
+    /**
+     * Blends a single pixel, the reference for all contexts.
+     */
+    private static int blend(BlendComposite composite, int src, int dst, boolean bgr) {
+        int[] srcPixel = split(src, bgr);
+        int[] dstPixel = split(dst, bgr);
+        int[] result = new int[4];
+        composite.getMode().blend(srcPixel, dstPixel, result);
+        float alpha = composite.getAlpha();
+        for (int i = 0; i < 4; i++) {
+            result[i] = (int) (dstPixel[i] + (result[i] - dstPixel[i]) * alpha) & 0xFF;
+        }
+        return bgr 
+            ? result[3] << 24 | result[2] << 16 | result[1] << 8 | result[0]
+            : result[3] << 24 | result[0] << 16 | result[1] << 8 | result[2];
+    }
+
+    /**
+     * Splits a pixel into [R, G, B, A].
+     */
+    private static int[] split(int pixel, boolean bgr) {
+        int red = bgr ? pixel & 0xFF : pixel >> 16 & 0xFF;
+        int blue = bgr ? pixel >> 16 & 0xFF : pixel & 0xFF;
+        return new int[] {red, pixel >> 8 & 0xFF, blue, pixel >> 24 & 0xFF};
+    }
+}
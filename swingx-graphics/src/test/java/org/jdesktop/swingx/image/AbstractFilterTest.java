@@ -0,0 +1,105 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.image;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+/**
+ * Test for the parallel execution of the filters.
+ */
+public class AbstractFilterTest {
+    /**
+     * All rows are processed exactly once.
+     */
+    @Test
+    public void testForEachBandCoversRows() {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(1000);
+        AbstractFilter filter = new FastBlurFilter();
+        filter.setParallel(true);
+        filter.forEachBand(counts.length(), 1000, new AbstractFilter.Band() {
+            @Override
+            public void process(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    counts.incrementAndGet(i);
+                }
+            }
+        });
+        for (int i = 0; i < counts.length(); i++) {
+            assertThat(counts.get(i), is(1));
+        }
+    }
+
+    /**
+     * The parallel filters have the same result as the sequential ones.
+     */
+    @Test
+    public void testParallelLikeSequential() {
+        BufferedImage image = createImage(300, 200, new Random(42));
+        AbstractFilter[] filters = {
+            new GaussianBlurFilter(5), new FastBlurFilter(4), new StackBlurFilter(2, 3),
+            new ColorTintFilter(Color.BLUE, 0.4f),
+        };
+        for (AbstractFilter filter : filters) {
+            int[] sequential = getPixels(filter.filter(image, null));
+            filter.setParallel(true);
+            assertArrayEquals(sequential, 
+                    getPixels(filter.filter(image, null)));
+        }
+    }
+
+    /**
+     * Pooled buffers of other sizes don't affect the result.
+     */
+    @Test
+    public void testPooledBuffers() {
+        Random random = new Random(7);
+        BufferedImage large = createImage(400, 300, random);
+        BufferedImage small = createImage(31, 17, random);
+        GaussianBlurFilter filter = new GaussianBlurFilter(3);
+        int[] expected = getPixels(filter.filter(small, null));
+        filter.filter(large, null);
+        assertArrayEquals(expected, getPixels(filter.filter(small, null)));
+    }
+
+    private BufferedImage createImage(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    private int[] getPixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+}
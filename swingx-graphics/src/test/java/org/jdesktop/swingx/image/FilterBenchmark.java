@@ -0,0 +1,82 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.image;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simple benchmark for the throughput of the blur and tint filters across
+ * radii and image sizes, run sequentially and in parallel bands. Reports 
+ * the time per filtered image.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class FilterBenchmark {
+
+    private static final int[][] SIZES = {{512, 512}, {1920, 1080}, {3840, 2160}};
+    private static final int[] RADII = {3, 10, 30};
+    /** The number of pixels filtered per measurement. */
+    private static final long PIXELS = 20000000L;
+
+    public static void main(String[] args) {
+        System.out.println("parallelism " + ForkJoinPool.getCommonPoolParallelism());
+        System.out.println("filter\tradius\tsize\tsequential(ms)\tparallel(ms)");
+        for (int[] size : SIZES) {
+            BufferedImage image = createImage(size[0], size[1]);
+            BufferedImage dst = new FastBlurFilter().createCompatibleDestImage(image, null);
+            for (int radius : RADII) {
+                run(new GaussianBlurFilter(radius), radius, image, dst);
+                run(new FastBlurFilter(radius), radius, image, dst);
+                run(new StackBlurFilter(radius), radius, image, dst);
+            }
+            run(new ColorTintFilter(Color.BLUE, 0.5f), 0, image, dst);
+        }
+    }
+
+    private static void run(AbstractFilter filter, int radius, BufferedImage image, BufferedImage dst) {
+        int repeats = (int) Math.max(2, PIXELS / (image.getWidth() * image.getHeight()));
+        if (filter instanceof GaussianBlurFilter) {
+            // the cost grows with the radius
+            repeats = Math.max(2, repeats / radius);
+        }
+        filter.setParallel(false);
+        double sequential = time(filter, image, dst, repeats);
+        filter.setParallel(true);
+        double parallel = time(filter, image, dst, repeats);
+        System.out.printf("%s\t%d\t%dx%d\t%.2f\t%.2f%n", filter.getClass().getSimpleName(), radius,
+                image.getWidth(), image.getHeight(), sequential, parallel);
+    }
+
+    /**
+     * Returns the time per image in millis, after a warm up.
+     */
+    private static double time(AbstractFilter filter, BufferedImage image, BufferedImage dst, int repeats) {
+        for (int i = 0; i < repeats / 2; i++) {
+            filter.filter(image, dst);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            filter.filter(image, dst);
+        }
+        return (System.nanoTime() - start) / 1e6 / repeats;
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Random random = new Random(42);
+        int[] pixels = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[x] = random.nextInt();
+            }
+            image.setRGB(0, y, width, 1, pixels, 0, width);
+        }
+        return image;
+    }
+}
@@ -21,13 +21,10 @@
 
 package org.jdesktop.swingx.painter;
 
-import java.awt.AlphaComposite;
-import java.awt.Composite;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
-import java.lang.ref.SoftReference;
 
 import org.jdesktop.beans.AbstractBean;
 import org.jdesktop.swingx.util.GraphicsUtilities;
@@ -91,11 +88,12 @@ public abstract class AbstractPainter<T> extends AbstractBean implements Painter
     }
 
     //--------------------------------------------------- Instance Variables
+    private boolean cacheCleared = true;
     /**
-     * The cached image, if shouldUseCache() returns true
+     * The weak reference keying the images of this painter in the
+     * PainterImageCache, created by the cache.
      */
-    private transient SoftReference<BufferedImage> cachedImage;
-    private boolean cacheCleared = true;
+    transient PainterImageCache.PainterRef imageCacheRef;
     private boolean cacheable = false;
     private boolean dirty = false;
     private BufferedImageOp[] filters = new BufferedImageOp[0];
@@ -238,6 +236,11 @@ public abstract class AbstractPainter<T> extends AbstractBean implements Painter
      *
      * <p>If set to false, then #clearCache is called to free system resources.</p>
      *
+     * <p>The cached images are kept in the {@link PainterImageCache}, one image
+     * per size (and {@link #getCacheKey(Object) cache key}) of the painted
+     * object. A painter shared by several components of different sizes is
+     * painted once per size, until the images are evicted.</p>
+     *
      * @param cacheable
      */
     public void setCacheable(boolean cacheable) {
@@ -259,14 +262,8 @@ public abstract class AbstractPainter<T> extends AbstractBean implements Painter
      * resources (such as an Image) may leak.</p>
      */
     public void clearCache() {
-        BufferedImage cache = cachedImage == null ? null : cachedImage.get();
-        if (cache != null) {
-            cache.flush();
-        }
+        PainterImageCache.getInstance().remove(this);
         cacheCleared = true;
-        if (!isCacheable()) {
-            cachedImage = null;
-        }
     }
 
     /**
@@ -287,6 +284,24 @@ public abstract class AbstractPainter<T> extends AbstractBean implements Painter
      */
     protected void validate(T object) { }
 
+    /**
+     * <p>Returns the key of the cached image for the given object. The cache 
+     * keeps an image per size and key, so a painter whose painting depends on 
+     * state of the object can return that state (for example a color or an
+     * enum constant) to cache an image per state instead of repainting on 
+     * every state change. The key is held by the cache, it should not be
+     * the object itself if that is a component.</p>
+     *
+     * <p>The default implementation returns null: the cached images are keyed
+     * by size only.</p>
+     *
+     * @param object the object to paint
+     * @return the key of the cached image, may be null
+     */
+    protected Object getCacheKey(T object) {
+        return null;
+    }
+
     /**
      * Ye olde dirty bit. If true, then the painter is considered dirty and in need of
      * being repainted. This is a bound property.
@@ -386,47 +401,39 @@ public abstract class AbstractPainter<T> extends AbstractBean implements Painter
         //paint to a temporary image if I'm caching, or if there are filters to apply
         if (shouldUseCache() || filters.length > 0) {
             validate(obj);
-            BufferedImage cache = cachedImage == null ? null : cachedImage.get();
-            boolean invalidCache = null == cache || 
-                                        cache.getWidth() != width || 
-                                        cache.getHeight() != height;
+            PainterImageCache imageCache = PainterImageCache.getInstance();
+            boolean useCache = shouldUseCache();
+            boolean filtered = !isInPaintContext() && filters.length > 0;
+            Object key = useCache ? getCacheKey(obj) : null;
+            if (useCache && isDirty()) {
+                //the cached images of all sizes are invalid
+                imageCache.remove(this);
+            }
+            BufferedImage cache = useCache ? imageCache.get(this, key, filtered, width, height) : null;
 
-            if (cacheCleared || invalidCache || isDirty()) {
+            if (cache == null) {
                 //rebuild the cacheable. I do this both if a cacheable is needed, and if any
                 //filters exist. I only *save* the resulting image if caching is turned on
-                if (invalidCache) {
-                    cache = GraphicsUtilities.createCompatibleTranslucentImage(width, height);
-                }
+                cache = GraphicsUtilities.createCompatibleTranslucentImage(width, height);
                 Graphics2D gfx = cache.createGraphics();
                 
                 try {
                     gfx.setClip(0, 0, width, height);
-
-                    if (!invalidCache) {
-                        // If we are doing a repaint, but we didn't have to
-                        // recreate the image, we need to clear it back
-                        // to a fully transparent background.
-                        Composite composite = gfx.getComposite();
-                        gfx.setComposite(AlphaComposite.Clear);
-                        gfx.fillRect(0, 0, width, height);
-                        gfx.setComposite(composite);
-                    }
-
                     configureGraphics(gfx);
                     doPaint(gfx, obj, width, height);
                 } finally {
                     gfx.dispose();
                 }
 
-                if (!isInPaintContext()) {
+                if (filtered) {
                     for (BufferedImageOp f : getFilters()) {
                         cache = f.filter(cache, null);
                     }
                 }
 
                 //only save the temporary image as the cacheable if I'm caching
-                if (shouldUseCache()) {
-                    cachedImage = new SoftReference<BufferedImage>(cache);
+                if (useCache) {
+                    imageCache.put(this, key, filtered, cache);
                     cacheCleared = false;
                 }
             }
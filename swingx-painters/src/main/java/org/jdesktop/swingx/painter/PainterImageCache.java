@@ -0,0 +1,345 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.painter;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The cache of the images painted by cacheable {@link AbstractPainter}s. The
+ * images are keyed by painter, size and (optionally) by the
+ * {@link AbstractPainter#getCacheKey(Object) cache key} of the painted object,
+ * so a painter shared by components of different sizes keeps an image per 
+ * size. All painters share a memory budget, the least recently used images
+ * are evicted when it is exceeded. The images are softly referenced, they 
+ * may also be reclaimed by the garbage collector. The painters are weakly
+ * referenced: the images of a painter are removed once the painter is
+ * garbage collected, the cache doesn't keep painters (and the components
+ * listening to them) alive.<p>
+ * 
+ * The hit and miss counts allow to check the effectiveness of the cache.
+ * 
+ * @see AbstractPainter#setCacheable(boolean)
+ */
+public final class PainterImageCache {
+
+    /**
+     * The default memory budget, 32 MB.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 32L * 1024 * 1024;
+
+    private static final PainterImageCache INSTANCE = new PainterImageCache();
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    /** the number of entries per painter, to skip removing painters without entries. */
+    private final Map<PainterRef, Integer> counts = new IdentityHashMap<PainterRef, Integer>();
+    /** the references of garbage collected painters, their entries are purged. */
+    private final ReferenceQueue<AbstractPainter<?>> queue = new ReferenceQueue<AbstractPainter<?>>();
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long memoryUsage;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * Returns the cache shared by all painters.
+     * 
+     * @return the shared cache
+     */
+    public static PainterImageCache getInstance() {
+        return INSTANCE;
+    }
+
+    PainterImageCache() { }
+
+    /**
+     * Returns the number of bytes the cached images may occupy.
+     * 
+     * @return the memory budget in bytes
+     */
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Sets the number of bytes the cached images may occupy. The least 
+     * recently used images are evicted if the new budget is exceeded. A 
+     * budget of 0 disables caching. The default is 
+     * {@link #DEFAULT_MEMORY_BUDGET}.
+     * 
+     * @param memoryBudget the memory budget in bytes, must not be negative
+     */
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 0) throw new IllegalArgumentException("memoryBudget must not be negative: " + memoryBudget);
+        this.memoryBudget = memoryBudget;
+        evict();
+    }
+
+    /**
+     * Returns the number of bytes occupied by the cached images.
+     * 
+     * @return the memory usage in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        purge();
+        return memoryUsage;
+    }
+
+    /**
+     * @return the number of cached images
+     */
+    public synchronized int getSize() {
+        purge();
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of lookups which found a cached image.
+     * 
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which found no cached image, that is the
+     * number of times a painter painted its image.
+     * 
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Resets the hit and miss counts to 0.
+     */
+    public synchronized void resetStatistics() {
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    /**
+     * Removes all cached images.
+     */
+    public synchronized void clear() {
+        for (Entry entry : entries.values()) {
+            entry.flush();
+        }
+        entries.clear();
+        counts.clear();
+        memoryUsage = 0;
+    }
+
+    /**
+     * Returns the cached image of the given painter, counts a hit or miss.
+     * 
+     * @param painter the painter
+     * @param object the cache key of the painted object, may be null
+     * @param filtered true if the image is filtered
+     * @param width the image width
+     * @param height the image height
+     * @return the cached image or null if none
+     */
+    synchronized BufferedImage get(AbstractPainter<?> painter, Object object, boolean filtered, 
+            int width, int height) {
+        purge();
+        Key key = new Key(ref(painter), object, filtered, width, height);
+        Entry entry = entries.get(key);
+        BufferedImage image = entry == null ? null : entry.image.get();
+        if (entry != null && image == null) {
+            // reclaimed by the garbage collector
+            remove(key);
+        }
+        if (image == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return image;
+    }
+
+    /**
+     * Caches the image of the given painter, evicts the least recently used
+     * images if the budget is exceeded. An image exceeding the budget on its 
+     * own is not cached.
+     * 
+     * @param painter the painter
+     * @param object the cache key of the painted object, may be null
+     * @param filtered true if the image is filtered
+     * @param image the image to cache
+     */
+    synchronized void put(AbstractPainter<?> painter, Object object, boolean filtered, BufferedImage image) {
+        purge();
+        PainterRef ref = ref(painter);
+        Key key = new Key(ref, object, filtered, image.getWidth(), image.getHeight());
+        remove(key);
+        long size = 4L * image.getWidth() * image.getHeight();
+        if (size > memoryBudget) return;
+        entries.put(key, new Entry(image, size));
+        Integer count = counts.get(ref);
+        counts.put(ref, count == null ? 1 : count + 1);
+        memoryUsage += size;
+        evict();
+    }
+
+    /**
+     * Removes all cached images of the given painter.
+     * 
+     * @param painter the painter
+     */
+    synchronized void remove(AbstractPainter<?> painter) {
+        purge();
+        PainterRef ref = painter.imageCacheRef;
+        if (ref != null) {
+            remove(ref);
+        }
+    }
+
+    private void remove(PainterRef ref) {
+        if (!counts.containsKey(ref)) return;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Key, Entry> next = it.next();
+            if (next.getKey().painter == ref) {
+                it.remove();
+                removed(next.getKey(), next.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes the entries of garbage collected painters.
+     */
+    private void purge() {
+        for (Object ref; (ref = queue.poll()) != null;) {
+            remove((PainterRef) ref);
+        }
+    }
+
+    /**
+     * Returns the reference keying the images of the given painter, one
+     * reference per painter.
+     */
+    private PainterRef ref(AbstractPainter<?> painter) {
+        if (painter.imageCacheRef == null) {
+            painter.imageCacheRef = new PainterRef(painter, queue);
+        }
+        return painter.imageCacheRef;
+    }
+
+    private void remove(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            removed(key, entry);
+        }
+    }
+
+    private void removed(Key key, Entry entry) {
+        entry.flush();
+        memoryUsage -= entry.size;
+        int count = counts.get(key.painter);
+        if (count == 1) {
+            counts.remove(key.painter);
+        } else {
+            counts.put(key.painter, count - 1);
+        }
+    }
+
+    private void evict() {
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); 
+                memoryUsage > memoryBudget && it.hasNext();) {
+            Map.Entry<Key, Entry> eldest = it.next();
+            it.remove();
+            removed(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    /**
+     * The weak reference to a painter. There is one reference per painter,
+     * it is compared by identity.
+     */
+    static final class PainterRef extends WeakReference<AbstractPainter<?>> {
+        final int hash;
+
+        PainterRef(AbstractPainter<?> painter, ReferenceQueue<AbstractPainter<?>> queue) {
+            super(painter, queue);
+            hash = System.identityHashCode(painter);
+        }
+    }
+
+    private static final class Key {
+        final PainterRef painter;
+        final Object object;
+        final boolean filtered;
+        final int width;
+        final int height;
+
+        Key(PainterRef painter, Object object, boolean filtered, int width, int height) {
+            this.painter = painter;
+            this.object = object;
+            this.filtered = filtered;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return painter == other.painter && filtered == other.filtered
+                    && width == other.width && height == other.height
+                    && (object == null ? other.object == null : object.equals(other.object));
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = painter.hash;
+            hash = 31 * hash + (object == null ? 0 : object.hashCode());
+            hash = 31 * hash + (filtered ? 1 : 0);
+            hash = 31 * hash + width;
+            return 31 * hash + height;
+        }
+    }
+
+    private static final class Entry {
+        final SoftReference<BufferedImage> image;
+        final long size;
+
+        Entry(BufferedImage image, long size) {
+            this.image = new SoftReference<BufferedImage>(image);
+            this.size = size;
+        }
+
+        void flush() {
+            BufferedImage cached = image.get();
+            if (cached != null) {
+                cached.flush();
+            }
+        }
+    }
+}
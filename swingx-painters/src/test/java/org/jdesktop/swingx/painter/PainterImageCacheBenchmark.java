@@ -0,0 +1,72 @@
+/*
+ * Created on 18.10.2026
+ *
+ */
+package org.jdesktop.swingx.painter;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.LinearGradientPaint;
+import java.awt.image.BufferedImage;
+
+/**
+ * Simple benchmark for a cacheable painter shared by table cells of
+ * different column widths, like a PainterHighlighter does. Reports the time
+ * per cell and the cache statistics with a budget for a single image (the 
+ * behaviour of the former single image cache) and with the default budget.
+ * <p>
+ *
+ * Not a unit test - run the main method.
+ */
+public class PainterImageCacheBenchmark {
+
+    private static final int[] COLUMN_WIDTHS = {60, 80, 120, 200, 75};
+    private static final int ROW_HEIGHT = 20;
+    private static final int ROWS = 20000;
+
+    public static void main(String[] args) {
+        long single = 4L * 200 * ROW_HEIGHT;
+        System.out.println("budget\tcell(us)\thits\tmisses");
+        for (long budget : new long[] {single, PainterImageCache.DEFAULT_MEMORY_BUDGET}) {
+            // warm up
+            run(budget);
+            PainterImageCache cache = PainterImageCache.getInstance();
+            cache.resetStatistics();
+            long time = run(budget);
+            System.out.println(budget + "\t" + time / 1000.0 / (ROWS * COLUMN_WIDTHS.length)
+                    + "\t" + cache.getHitCount() + "\t" + cache.getMissCount());
+        }
+        PainterImageCache.getInstance().setMemoryBudget(PainterImageCache.DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Paints all cells with a shared painter, returns the time in nanos.
+     */
+    private static long run(long budget) {
+        PainterImageCache cache = PainterImageCache.getInstance();
+        cache.clear();
+        cache.setMemoryBudget(budget);
+        CompoundPainter<Object> painter = createPainter();
+        BufferedImage image = new BufferedImage(200, ROW_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        long start = System.nanoTime();
+        for (int row = 0; row < ROWS; row++) {
+            for (int width : COLUMN_WIDTHS) {
+                painter.paint(g, null, width, ROW_HEIGHT);
+            }
+        }
+        long time = System.nanoTime() - start;
+        g.dispose();
+        return time;
+    }
+
+    private static CompoundPainter<Object> createPainter() {
+        LinearGradientPaint gradient = new LinearGradientPaint(0, 0, 0, ROW_HEIGHT, 
+                new float[] {0f, 0.5f, 1f}, 
+                new Color[] {Color.WHITE, new Color(200, 210, 255), Color.BLUE});
+        CompoundPainter<Object> painter = new CompoundPainter<Object>(
+                new MattePainter(gradient, true), new GlossPainter());
+        painter.setCacheable(true);
+        return painter;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * $Id$
+ *
+ * Copyright 2009 Sun Microsystems, Inc., 4150 Network Circle,
+ * Santa Clara, California 95054, U.S.A. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdesktop.swingx.painter;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for PainterImageCache and its usage by AbstractPainter.
+ */
+@SuppressWarnings("nls")
+public class PainterImageCacheTest {
+    private PainterImageCache cache;
+    private Graphics2D g;
+
+    @Before
+    public void setUp() {
+        cache = PainterImageCache.getInstance();
+        cache.clear();
+        cache.resetStatistics();
+        g = new BufferedImage(50, 50, BufferedImage.TYPE_INT_ARGB).createGraphics();
+    }
+
+    @After
+    public void tearDown() {
+        g.dispose();
+        cache.setMemoryBudget(PainterImageCache.DEFAULT_MEMORY_BUDGET);
+        cache.clear();
+    }
+
+    /**
+     * A shared painter keeps an image per size.
+     */
+    @Test
+    public void testImagePerSize() {
+        CountingPainter p = new CountingPainter(true);
+        p.paint(g, null, 10, 10);
+        p.paint(g, null, 20, 20);
+        p.paint(g, null, 10, 10);
+        p.paint(g, null, 20, 20);
+        assertThat(p.count, is(2));
+        assertThat(cache.getMissCount(), is(2L));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getSize(), is(2));
+        assertThat(cache.getMemoryUsage(), is(4L * (10 * 10 + 20 * 20)));
+    }
+
+    /**
+     * The cache key of the object is part of the key of the image.
+     */
+    @Test
+    public void testCacheKey() {
+        CountingPainter p = new CountingPainter(true) {
+            @Override
+            protected Object getCacheKey(Object object) {
+                return object;
+            }
+        };
+        p.paint(g, Color.RED, 10, 10);
+        p.paint(g, Color.BLUE, 10, 10);
+        p.paint(g, Color.RED, 10, 10);
+        assertThat(p.count, is(2));
+    }
+
+    /**
+     * The least recently used images are evicted when the budget is exceeded.
+     */
+    @Test
+    public void testMemoryBudget() {
+        cache.setMemoryBudget(4L * 10 * 10 * 2);
+        CountingPainter a = new CountingPainter(true);
+        CountingPainter b = new CountingPainter(true);
+        CountingPainter c = new CountingPainter(true);
+        a.paint(g, null, 10, 10);
+        b.paint(g, null, 10, 10);
+        a.paint(g, null, 10, 10);
+        c.paint(g, null, 10, 10);
+        assertThat(cache.getSize(), is(2));
+        assertTrue(cache.getMemoryUsage() <= cache.getMemoryBudget());
+        a.paint(g, null, 10, 10);
+        b.paint(g, null, 10, 10);
+        assertThat(a.count, is(1));
+        assertThat(b.count, is(2));
+        assertThat(c.count, is(1));
+    }
+
+    /**
+     * An image exceeding the budget is not cached.
+     */
+    @Test
+    public void testImageExceedingBudget() {
+        cache.setMemoryBudget(4L * 10 * 10);
+        CountingPainter p = new CountingPainter(true);
+        p.paint(g, null, 20, 20);
+        p.paint(g, null, 20, 20);
+        assertThat(p.count, is(2));
+        assertThat(cache.getSize(), is(0));
+    }
+
+    /**
+     * clearCache and property changes remove the images of all sizes.
+     */
+    @Test
+    public void testClearCache() {
+        CountingPainter p = new CountingPainter(true);
+        CountingPainter other = new CountingPainter(true);
+        p.paint(g, null, 10, 10);
+        p.paint(g, null, 20, 20);
+        other.paint(g, null, 10, 10);
+        p.clearCache();
+        assertThat(cache.getSize(), is(1));
+        p.paint(g, null, 10, 10);
+        assertThat(p.count, is(3));
+        p.setAntialiasing(false);
+        p.paint(g, null, 10, 10);
+        assertThat(p.count, is(4));
+        assertThat(cache.getSize(), is(2));
+    }
+
+    /**
+     * Painters which are not cacheable don't use the cache.
+     */
+    @Test
+    public void testNotCacheable() {
+        CountingPainter p = new CountingPainter(false);
+        p.paint(g, null, 10, 10);
+        p.paint(g, null, 10, 10);
+        assertThat(p.count, is(2));
+        assertThat(cache.getSize(), is(0));
+        assertThat(cache.getMissCount(), is(0L));
+    }
+
+    /**
+     * The cache must not keep painters alive, the images of a garbage 
+     * collected painter are removed.
+     */
+    @Test
+    public void testPainterNotPinned() throws Exception {
+        CountingPainter p = new CountingPainter(true);
+        p.paint(g, null, 10, 10);
+        assertThat(cache.getSize(), is(1));
+        WeakReference<CountingPainter> ref = new WeakReference<CountingPainter>(p);
+        p = null;
+        for (int i = 0; i < 50 && (ref.get() != null || cache.getSize() > 0); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue("painter must be garbage collected", ref.get() == null);
+        assertThat(cache.getSize(), is(0));
+        assertThat(cache.getMemoryUsage(), is(0L));
+    }
+
+    private static class CountingPainter extends AbstractPainter<Object> {
+        int count;
+
+        CountingPainter(boolean cacheable) {
+            super(cacheable);
+        }
+
+        @Override
+        protected void doPaint(Graphics2D g, Object object, int width, int height) {
+            count++;
+            g.setColor(Color.RED);
+            g.fillRect(0, 0, width, height);
+        }
+    }
+}